@@ -58,6 +58,12 @@ public abstract class YogaNode implements YogaProps {
 
   public abstract void copyStyle(YogaNode srcNode);
 
+  /**
+   * Applies a packed list of {@link YogaStyleInputs} in a single native call. Each input is its key,
+   * followed by its edge or gutter if it has one, followed by its value unless it is an auto input.
+   */
+  public abstract void setStyleInputs(float[] styleInputs, int size);
+
   public abstract void markLayoutSeen();
 
   public abstract YogaDirection getStyleDirection();
@@ -245,6 +245,10 @@ public abstract class YogaNodeJNIBase extends YogaNode implements Cloneable {
     YogaNative.jni_YGNodeCopyStyleJNI(mNativePointer, ((YogaNodeJNIBase) srcNode).mNativePointer);
   }
 
+  public void setStyleInputs(float[] styleInputs, int size) {
+    YogaNative.jni_YGNodeSetStyleInputsJNI(mNativePointer, styleInputs, size);
+  }
+
   public YogaDirection getStyleDirection() {
     return YogaDirection.fromInt(YogaNative.jni_YGNodeStyleGetDirectionJNI(mNativePointer));
   }
@@ -48,4 +48,6 @@ public class YogaStyleInputs {
   public static final short POSITION = 37;
   public static final short POSITION_PERCENT = 38;
   public static final short IS_REFERENCE_BASELINE = 39;
+  public static final short GAP = 40;
+  public static final short GAP_PERCENT = 41;
 }
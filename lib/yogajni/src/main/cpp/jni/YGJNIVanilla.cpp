@@ -761,6 +761,252 @@ static void jni_YGNodeStyleSetGapPercentJNI(
 // Yoga specific properties, not compatible with flexbox specification
 YG_NODE_JNI_STYLE_PROP(jfloat, float, AspectRatio);
 
+// Keep in sync with com.facebook.yoga.YogaStyleInputs
+enum class YGStyleInput {
+  LayoutDirection,
+  FlexDirection,
+  Flex,
+  FlexGrow,
+  FlexShrink,
+  FlexBasis,
+  FlexBasisPercent,
+  FlexBasisAuto,
+  FlexWrap,
+  Width,
+  WidthPercent,
+  WidthAuto,
+  MinWidth,
+  MinWidthPercent,
+  MaxWidth,
+  MaxWidthPercent,
+  Height,
+  HeightPercent,
+  HeightAuto,
+  MinHeight,
+  MinHeightPercent,
+  MaxHeight,
+  MaxHeightPercent,
+  JustifyContent,
+  AlignItems,
+  AlignSelf,
+  AlignContent,
+  PositionType,
+  AspectRatio,
+  Overflow,
+  Display,
+  Margin,
+  MarginPercent,
+  MarginAuto,
+  Padding,
+  PaddingPercent,
+  Border,
+  Position,
+  PositionPercent,
+  IsReferenceBaseline,
+  Gap,
+  GapPercent,
+};
+
+// Applies a packed list of style inputs: each input is its YGStyleInput key,
+// followed by its edge or gutter if it has one, followed by its value unless it
+// is an auto input.
+static void YGNodeSetStyleInputs(
+    const YGNodeRef node,
+    const float* styleInputs,
+    int size) {
+  const auto end = styleInputs + size;
+  auto edgesSet = YGNodeEdges{node};
+  while (styleInputs < end) {
+    auto styleInputKey = static_cast<YGStyleInput>((int)*styleInputs++);
+    switch (styleInputKey) {
+      case YGStyleInput::LayoutDirection:
+        YGNodeStyleSetDirection(node, static_cast<YGDirection>(*styleInputs++));
+        break;
+      case YGStyleInput::FlexDirection:
+        YGNodeStyleSetFlexDirection(
+            node, static_cast<YGFlexDirection>(*styleInputs++));
+        break;
+      case YGStyleInput::Flex:
+        YGNodeStyleSetFlex(node, *styleInputs++);
+        break;
+      case YGStyleInput::FlexGrow:
+        YGNodeStyleSetFlexGrow(node, *styleInputs++);
+        break;
+      case YGStyleInput::FlexShrink:
+        YGNodeStyleSetFlexShrink(node, *styleInputs++);
+        break;
+      case YGStyleInput::FlexBasis:
+        YGNodeStyleSetFlexBasis(node, *styleInputs++);
+        break;
+      case YGStyleInput::FlexBasisPercent:
+        YGNodeStyleSetFlexBasisPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::FlexBasisAuto:
+        YGNodeStyleSetFlexBasisAuto(node);
+        break;
+      case YGStyleInput::FlexWrap:
+        YGNodeStyleSetFlexWrap(node, static_cast<YGWrap>(*styleInputs++));
+        break;
+      case YGStyleInput::Width:
+        YGNodeStyleSetWidth(node, *styleInputs++);
+        break;
+      case YGStyleInput::WidthPercent:
+        YGNodeStyleSetWidthPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::WidthAuto:
+        YGNodeStyleSetWidthAuto(node);
+        break;
+      case YGStyleInput::MinWidth:
+        YGNodeStyleSetMinWidth(node, *styleInputs++);
+        break;
+      case YGStyleInput::MinWidthPercent:
+        YGNodeStyleSetMinWidthPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::MaxWidth:
+        YGNodeStyleSetMaxWidth(node, *styleInputs++);
+        break;
+      case YGStyleInput::MaxWidthPercent:
+        YGNodeStyleSetMaxWidthPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::Height:
+        YGNodeStyleSetHeight(node, *styleInputs++);
+        break;
+      case YGStyleInput::HeightPercent:
+        YGNodeStyleSetHeightPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::HeightAuto:
+        YGNodeStyleSetHeightAuto(node);
+        break;
+      case YGStyleInput::MinHeight:
+        YGNodeStyleSetMinHeight(node, *styleInputs++);
+        break;
+      case YGStyleInput::MinHeightPercent:
+        YGNodeStyleSetMinHeightPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::MaxHeight:
+        YGNodeStyleSetMaxHeight(node, *styleInputs++);
+        break;
+      case YGStyleInput::MaxHeightPercent:
+        YGNodeStyleSetMaxHeightPercent(node, *styleInputs++);
+        break;
+      case YGStyleInput::JustifyContent:
+        YGNodeStyleSetJustifyContent(
+            node, static_cast<YGJustify>(*styleInputs++));
+        break;
+      case YGStyleInput::AlignItems:
+        YGNodeStyleSetAlignItems(node, static_cast<YGAlign>(*styleInputs++));
+        break;
+      case YGStyleInput::AlignSelf:
+        YGNodeStyleSetAlignSelf(node, static_cast<YGAlign>(*styleInputs++));
+        break;
+      case YGStyleInput::AlignContent:
+        YGNodeStyleSetAlignContent(node, static_cast<YGAlign>(*styleInputs++));
+        break;
+      case YGStyleInput::PositionType:
+        YGNodeStyleSetPositionType(
+            node, static_cast<YGPositionType>(*styleInputs++));
+        break;
+      case YGStyleInput::AspectRatio:
+        YGNodeStyleSetAspectRatio(node, *styleInputs++);
+        break;
+      case YGStyleInput::Overflow:
+        YGNodeStyleSetOverflow(node, static_cast<YGOverflow>(*styleInputs++));
+        break;
+      case YGStyleInput::Display:
+        YGNodeStyleSetDisplay(node, static_cast<YGDisplay>(*styleInputs++));
+        break;
+      case YGStyleInput::Margin: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float marginValue = *styleInputs++;
+        edgesSet.add(YGNodeEdges::MARGIN);
+        YGNodeStyleSetMargin(node, edge, marginValue);
+        break;
+      }
+      case YGStyleInput::MarginPercent: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float marginPercent = *styleInputs++;
+        edgesSet.add(YGNodeEdges::MARGIN);
+        YGNodeStyleSetMarginPercent(node, edge, marginPercent);
+        break;
+      }
+      case YGStyleInput::MarginAuto: {
+        edgesSet.add(YGNodeEdges::MARGIN);
+        YGNodeStyleSetMarginAuto(node, static_cast<YGEdge>(*styleInputs++));
+        break;
+      }
+      case YGStyleInput::Padding: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float paddingValue = *styleInputs++;
+        edgesSet.add(YGNodeEdges::PADDING);
+        YGNodeStyleSetPadding(node, edge, paddingValue);
+        break;
+      }
+      case YGStyleInput::PaddingPercent: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float paddingPercent = *styleInputs++;
+        edgesSet.add(YGNodeEdges::PADDING);
+        YGNodeStyleSetPaddingPercent(node, edge, paddingPercent);
+        break;
+      }
+      case YGStyleInput::Border: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float borderValue = *styleInputs++;
+        edgesSet.add(YGNodeEdges::BORDER);
+        YGNodeStyleSetBorder(node, edge, borderValue);
+        break;
+      }
+      case YGStyleInput::Position: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float positionValue = *styleInputs++;
+        YGNodeStyleSetPosition(node, edge, positionValue);
+        break;
+      }
+      case YGStyleInput::PositionPercent: {
+        auto edge = static_cast<YGEdge>(*styleInputs++);
+        float positionPercent = *styleInputs++;
+        YGNodeStyleSetPositionPercent(node, edge, positionPercent);
+        break;
+      }
+      case YGStyleInput::IsReferenceBaseline: {
+        YGNodeSetIsReferenceBaseline(node, *styleInputs++ == 1);
+        break;
+      }
+      case YGStyleInput::Gap: {
+        auto gutter = static_cast<YGGutter>(*styleInputs++);
+        float gapLength = *styleInputs++;
+        YGNodeStyleSetGap(node, gutter, gapLength);
+        break;
+      }
+      case YGStyleInput::GapPercent: {
+        auto gutter = static_cast<YGGutter>(*styleInputs++);
+        float gapPercent = *styleInputs++;
+        YGNodeStyleSetGapPercent(node, gutter, gapPercent);
+        break;
+      }
+      default:
+        break;
+    }
+  }
+  edgesSet.setOn(node);
+}
+
+static void jni_YGNodeSetStyleInputsJNI(
+    JNIEnv* env,
+    jobject /*obj*/,
+    jlong nativePointer,
+    jfloatArray styleInputs,
+    jint size) {
+  // No JNI calls are made while the array is held, so it can be accessed
+  // without being copied.
+  auto* result = static_cast<float*>(
+      env->GetPrimitiveArrayCritical(styleInputs, nullptr /* isCopy */));
+  if (result == nullptr) {
+    return;
+  }
+  YGNodeSetStyleInputs(_jlong2YGNodeRef(nativePointer), result, size);
+  env->ReleasePrimitiveArrayCritical(styleInputs, result, JNI_ABORT);
+}
+
 static JNINativeMethod methods[] = {
     {"jni_YGConfigNewJNI", "()J", (void*)jni_YGConfigNewJNI},
     {"jni_YGConfigFreeJNI", "(J)V", (void*)jni_YGConfigFreeJNI},
@@ -1069,6 +1315,9 @@ static JNINativeMethod methods[] = {
      "(JZ)V",
      (void*)jni_YGNodeSetAlwaysFormsContainingBlockJNI},
     {"jni_YGNodeCloneJNI", "(J)J", (void*)jni_YGNodeCloneJNI},
+    {"jni_YGNodeSetStyleInputsJNI",
+     "(J[FI)V",
+     (void*)jni_YGNodeSetStyleInputsJNI},
 };
 
 void YGJNIVanilla::registerNatives(JNIEnv* env) {
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.benchmarks
+
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.rendercore.utils.hasEquivalentFields
+import com.facebook.rendercore.utils.hasEquivalentFieldsUncached
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares the cost of [hasEquivalentFields], which caches the fields of every class, with
+ * [hasEquivalentFieldsUncached], which looks the fields up through reflection on every comparison,
+ * for components with 5, 15 and 30 props.
+ *
+ * The ns/op of both are added to the benchmark results, see [BenchmarkReport.append], and the
+ * cached implementation is expected to be the faster one. Run with
+ * `./gradlew :litho-benchmarks:test -PrunBenchmarks`.
+ */
+@RunWith(LithoTestRunner::class)
+class FieldsEquivalenceBenchmarkTest {
+
+  @Test
+  fun `benchmark 5 props`() {
+    benchmark("props5", Props5.create(0), Props5.create(0), Props5.create(1))
+  }
+
+  @Test
+  fun `benchmark 15 props`() {
+    benchmark("props15", Props15.create(0), Props15.create(0), Props15.create(1))
+  }
+
+  @Test
+  fun `benchmark 30 props`() {
+    benchmark("props30", Props30.create(0), Props30.create(0), Props30.create(1))
+  }
+
+  private fun benchmark(name: String, a: Any, equivalent: Any, different: Any) {
+    assertThat(hasEquivalentFields(a, equivalent)).isTrue
+    assertThat(hasEquivalentFieldsUncached(a, equivalent)).isTrue
+    assertThat(hasEquivalentFields(a, different)).isFalse
+    assertThat(hasEquivalentFieldsUncached(a, different)).isFalse
+
+    // Warm up so that class loading and JIT don't show up in the measurements.
+    measure(WARMUP_ITERATIONS) { hasEquivalentFieldsUncached(a, equivalent) }
+    measure(WARMUP_ITERATIONS) { hasEquivalentFields(a, equivalent) }
+
+    val reflectiveNanos = measure(ITERATIONS) { hasEquivalentFieldsUncached(a, equivalent) }
+    val cachedNanos = measure(ITERATIONS) { hasEquivalentFields(a, equivalent) }
+
+    BenchmarkReport.append { properties ->
+      properties.setProperty(
+          "equivalence.$name.reflectiveNanosPerOp", (reflectiveNanos / ITERATIONS).toString())
+      properties.setProperty(
+          "equivalence.$name.cachedNanosPerOp", (cachedNanos / ITERATIONS).toString())
+    }
+    assertThat(cachedNanos).describedAs(name).isLessThan(reflectiveNanos)
+  }
+
+  private inline fun measure(iterations: Int, comparison: () -> Boolean): Long {
+    var equivalentCount = 0
+    val start = System.nanoTime()
+    for (i in 0 until iterations) {
+      if (comparison()) {
+        equivalentCount++
+      }
+    }
+    val elapsed = System.nanoTime() - start
+    assertThat(equivalentCount).isEqualTo(iterations)
+    return elapsed
+  }
+
+  private class Props5(
+      val p0: Int,
+      val p1: String,
+      val p2: Float,
+      val p3: Boolean,
+      val p4: Long,
+  ) {
+    companion object {
+      fun create(seed: Int): Props5 =
+          Props5(
+              seed,
+              "s" + (seed + 1),
+              (seed + 2).toFloat(),
+              (seed + 3) % 2 == 0,
+              (seed + 4).toLong())
+    }
+  }
+
+  private class Props15(
+      val p0: Int,
+      val p1: String,
+      val p2: Float,
+      val p3: Boolean,
+      val p4: Long,
+      val p5: List<Int>,
+      val p6: Int,
+      val p7: String,
+      val p8: Float,
+      val p9: Boolean,
+      val p10: Long,
+      val p11: List<Int>,
+      val p12: Int,
+      val p13: String,
+      val p14: Float,
+  ) {
+    companion object {
+      fun create(seed: Int): Props15 =
+          Props15(
+              seed,
+              "s" + (seed + 1),
+              (seed + 2).toFloat(),
+              (seed + 3) % 2 == 0,
+              (seed + 4).toLong(),
+              listOf(seed + 5, seed + 6),
+              seed + 6,
+              "s" + (seed + 7),
+              (seed + 8).toFloat(),
+              (seed + 9) % 2 == 0,
+              (seed + 10).toLong(),
+              listOf(seed + 11, seed + 12),
+              seed + 12,
+              "s" + (seed + 13),
+              (seed + 14).toFloat())
+    }
+  }
+
+  private class Props30(
+      val p0: Int,
+      val p1: String,
+      val p2: Float,
+      val p3: Boolean,
+      val p4: Long,
+      val p5: List<Int>,
+      val p6: Int,
+      val p7: String,
+      val p8: Float,
+      val p9: Boolean,
+      val p10: Long,
+      val p11: List<Int>,
+      val p12: Int,
+      val p13: String,
+      val p14: Float,
+      val p15: Boolean,
+      val p16: Long,
+      val p17: List<Int>,
+      val p18: Int,
+      val p19: String,
+      val p20: Float,
+      val p21: Boolean,
+      val p22: Long,
+      val p23: List<Int>,
+      val p24: Int,
+      val p25: String,
+      val p26: Float,
+      val p27: Boolean,
+      val p28: Long,
+      val p29: List<Int>,
+  ) {
+    companion object {
+      fun create(seed: Int): Props30 =
+          Props30(
+              seed,
+              "s" + (seed + 1),
+              (seed + 2).toFloat(),
+              (seed + 3) % 2 == 0,
+              (seed + 4).toLong(),
+              listOf(seed + 5, seed + 6),
+              seed + 6,
+              "s" + (seed + 7),
+              (seed + 8).toFloat(),
+              (seed + 9) % 2 == 0,
+              (seed + 10).toLong(),
+              listOf(seed + 11, seed + 12),
+              seed + 12,
+              "s" + (seed + 13),
+              (seed + 14).toFloat(),
+              (seed + 15) % 2 == 0,
+              (seed + 16).toLong(),
+              listOf(seed + 17, seed + 18),
+              seed + 18,
+              "s" + (seed + 19),
+              (seed + 20).toFloat(),
+              (seed + 21) % 2 == 0,
+              (seed + 22).toLong(),
+              listOf(seed + 23, seed + 24),
+              seed + 24,
+              "s" + (seed + 25),
+              (seed + 26).toFloat(),
+              (seed + 27) % 2 == 0,
+              (seed + 28).toLong(),
+              listOf(seed + 29, seed + 30))
+    }
+  }
+
+  companion object {
+    private const val ITERATIONS = 100_000
+    private const val WARMUP_ITERATIONS = ITERATIONS / 10
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.benchmarks
+
+import com.facebook.litho.Component
+import com.facebook.litho.ComponentContext
+import com.facebook.litho.ComponentTree
+import com.facebook.litho.ComponentsSystrace
+import com.facebook.litho.LayoutState
+import com.facebook.litho.LayoutTreeFuture
+import com.facebook.litho.ResolveResult
+import com.facebook.litho.ResolveTreeFuture
+import com.facebook.litho.TreeState
+import com.facebook.rendercore.SizeConstraints
+import com.facebook.rendercore.Systracer
+
+/**
+ * Runs the resolve and layout stages of the pipeline one at a time, through the same entry points
+ * as [ComponentTree], without any previous layout to diff against or to reuse measurements from.
+ *
+ * [LayoutTreeFuture.layout] measures the tree and reduces it into a [LayoutState] in a single call.
+ * To tell the two stages apart, [layout] traces the call with a [Systracer] which reports when the
+ * `collectResults` section of the reduce stage begins. Tracing makes Litho build a few section
+ * names, so the layout stage allocates slightly more than when it isn't traced.
+ *
+ * Every stage runs against the state provider and id of [componentTree], but nothing is committed
+ * to it.
+ */
+class LithoPipeline(
+    componentTree: ComponentTree,
+    widthSpec: Int,
+    heightSpec: Int,
+) {
+
+  private val context: ComponentContext = componentTree.context
+  private val sizeConstraints: SizeConstraints =
+      SizeConstraints.fromMeasureSpecs(widthSpec, heightSpec)
+  private val treeId: Int = componentTree.id
+  private var version: Int = 0
+
+  /** Resolves [component] into a tree of nodes, see [ResolveTreeFuture.resolve]. */
+  fun resolve(component: Component): ResolveResult =
+      ResolveTreeFuture.resolve(
+          context, component, TreeState(), version++, treeId, null, null, null)
+
+  /**
+   * Measures the resolved tree and reduces it into a [LayoutState], see [LayoutTreeFuture.layout].
+   * [onReduceStarted] is called on the calling thread once the tree is measured, right before it
+   * is reduced.
+   */
+  fun layout(resolveResult: ResolveResult, onReduceStarted: () -> Unit): LayoutState {
+    val previous = ComponentsSystrace.systrace
+    val tracer = ReduceStartTracer(Thread.currentThread(), onReduceStarted)
+    ComponentsSystrace.provide(tracer)
+    val layoutState =
+        try {
+          LayoutTreeFuture.layout(
+              resolveResult, sizeConstraints, resolveResult.version, treeId, null, null, null)
+        } finally {
+          ComponentsSystrace.provide(previous)
+        }
+    check(tracer.hasReduceStarted) { "The reduce stage didn't begin a $REDUCE_SECTION section" }
+    return layoutState
+  }
+
+  /** Calls [onReduceStarted] when [thread] begins the first [REDUCE_SECTION] section. */
+  private class ReduceStartTracer(
+      private val thread: Thread,
+      private val onReduceStarted: () -> Unit,
+  ) : Systracer, Systracer.ArgsBuilder {
+
+    var hasReduceStarted: Boolean = false
+      private set
+
+    override fun beginSection(name: String) {
+      if (!hasReduceStarted && name == REDUCE_SECTION && Thread.currentThread() === thread) {
+        hasReduceStarted = true
+        onReduceStarted()
+      }
+    }
+
+    override fun beginAsyncSection(name: String) = Unit
+
+    override fun beginAsyncSection(name: String, cookie: Int) = Unit
+
+    override fun beginSectionWithArgs(name: String): Systracer.ArgsBuilder = this
+
+    override fun endSection() = Unit
+
+    override fun endAsyncSection(name: String) = Unit
+
+    override fun endAsyncSection(name: String, cookie: Int) = Unit
+
+    override fun isTracing(): Boolean = true
+
+    override fun flush() = Unit
+
+    override fun arg(key: String, value: Any): Systracer.ArgsBuilder = this
+
+    override fun arg(key: String, value: Int): Systracer.ArgsBuilder = this
+
+    override fun arg(key: String, value: Long): Systracer.ArgsBuilder = this
+
+    override fun arg(key: String, value: Double): Systracer.ArgsBuilder = this
+  }
+
+  private companion object {
+    /** The first section traced by the reduce stage of [LayoutTreeFuture.layout]. */
+    const val REDUCE_SECTION = "collectResults"
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.benchmarks
+
+import com.facebook.litho.BenchmarkTestHelper
+import com.facebook.litho.Component
+import com.facebook.litho.ComponentTree
+import com.facebook.litho.LayoutState
+import com.facebook.litho.LithoView
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.util.Properties
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures every stage of the pipeline for a single tree shape, in the spirit of a JMH
+ * benchmark: a number of warmup iterations whose results are discarded, followed by measured
+ * iterations from which the throughput, the p50 and p99 latencies and the bytes allocated per
+ * operation of each stage are computed.
+ *
+ * Every iteration resolves, lays out and reduces the component from scratch with a
+ * [LithoPipeline], then unmounts and mounts the [LithoView] again. Only the stages themselves are
+ * timed, the unmount in between isn't.
+ *
+ * The number of iterations can be changed with the `litho.benchmark.warmup` and
+ * `litho.benchmark.iterations` system properties.
+ */
+class PipelineBenchmark(
+    private val name: String,
+    private val warmupIterations: Int = Integer.getInteger(WARMUP_PROPERTY, 20),
+    private val iterations: Int = Integer.getInteger(ITERATIONS_PROPERTY, 50),
+) {
+
+  /**
+   * Runs the benchmark. [lithoView] must have been mounted with [component] already; it is only
+   * used to measure the mount stage.
+   */
+  fun run(
+      componentTree: ComponentTree,
+      lithoView: LithoView,
+      component: Component,
+      widthSpec: Int,
+      heightSpec: Int,
+  ): BenchmarkReport {
+    val pipeline = LithoPipeline(componentTree, widthSpec, heightSpec)
+    val recorders = Stage.values().map { StageRecorder(it, iterations) }
+    val (resolve, layout, reduce, mount) = recorders
+
+    var layoutState: LayoutState? = null
+    for (i in 0 until warmupIterations + iterations) {
+      if (i == warmupIterations) {
+        System.gc()
+      }
+      val record = i >= warmupIterations
+
+      val resolveResult = resolve.measure(record) { pipeline.resolve(component) }
+      layout.start()
+      layoutState =
+          pipeline.layout(resolveResult) {
+            layout.stop(record)
+            reduce.start()
+          }
+      reduce.stop(record)
+
+      BenchmarkTestHelper.unmountLithoView(lithoView)
+      BenchmarkTestHelper.setMountStateDirty(lithoView)
+      mount.measure(record) { BenchmarkTestHelper.mountLithoView(lithoView) }
+    }
+
+    return BenchmarkReport(
+        name = name,
+        mountableOutputs = layoutState?.mountableOutputCount ?: 0,
+        results = recorders.map { it.toResult() })
+  }
+
+  /** The stages of the pipeline. */
+  enum class Stage(val key: String) {
+    /** Resolving the components into a tree of nodes. */
+    RESOLVE("resolve"),
+    /** Measuring the tree of nodes with Yoga. */
+    LAYOUT("layout"),
+    /** Reducing the measured tree into a LayoutState. */
+    REDUCE("reduce"),
+    /** Mounting the LayoutState into the LithoView. */
+    MOUNT("mount"),
+  }
+
+  private class StageRecorder(private val stage: Stage, iterations: Int) {
+
+    private val latenciesNanos = LongArray(iterations)
+    private val allocatedBytes = LongArray(iterations)
+    private var count = 0
+    private var startNanos = 0L
+    private var startBytes = 0L
+
+    inline fun <T> measure(record: Boolean, block: () -> T): T {
+      start()
+      val result = block()
+      stop(record)
+      return result
+    }
+
+    fun start() {
+      startBytes = currentThreadAllocatedBytes()
+      startNanos = System.nanoTime()
+    }
+
+    fun stop(record: Boolean) {
+      val endNanos = System.nanoTime()
+      val endBytes = currentThreadAllocatedBytes()
+      if (record) {
+        latenciesNanos[count] = endNanos - startNanos
+        allocatedBytes[count] = if (startBytes < 0) -1 else endBytes - startBytes
+        count++
+      }
+    }
+
+    fun toResult(): StageResult {
+      val sorted = latenciesNanos.copyOf(count).apply { sort() }
+      val totalNanos = sorted.sum()
+      val canMeasureAllocations = count > 0 && allocatedBytes[0] >= 0
+      return StageResult(
+          stage = stage,
+          p50Nanos = percentile(sorted, 0.50),
+          p99Nanos = percentile(sorted, 0.99),
+          opsPerSecond =
+              if (totalNanos == 0L) 0.0
+              else count * TimeUnit.SECONDS.toNanos(1).toDouble() / totalNanos,
+          allocatedBytesPerOp =
+              if (canMeasureAllocations) allocatedBytes.copyOf(count).sum() / count else -1)
+    }
+
+    private fun percentile(sorted: LongArray, percentile: Double): Long =
+        if (sorted.isEmpty()) 0
+        else sorted[minOf(sorted.size - 1, (percentile * sorted.size).toInt())]
+  }
+
+  companion object {
+    const val WARMUP_PROPERTY = "litho.benchmark.warmup"
+    const val ITERATIONS_PROPERTY = "litho.benchmark.iterations"
+
+    private val threadMXBean: com.sun.management.ThreadMXBean? =
+        (ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean)?.takeIf {
+          it.isThreadAllocatedMemorySupported && it.isThreadAllocatedMemoryEnabled
+        }
+
+    /** The bytes allocated so far by the current thread, or -1 if the JVM can't tell. */
+    private fun currentThreadAllocatedBytes(): Long =
+        threadMXBean?.getThreadAllocatedBytes(Thread.currentThread().id) ?: -1
+  }
+}
+
+/** The measurements of a single [PipelineBenchmark.Stage]. */
+class StageResult(
+    val stage: PipelineBenchmark.Stage,
+    val p50Nanos: Long,
+    val p99Nanos: Long,
+    val opsPerSecond: Double,
+    /** The average bytes allocated per operation, or -1 if allocations couldn't be measured. */
+    val allocatedBytesPerOp: Long,
+)
+
+/**
+ * The results of a [PipelineBenchmark] run.
+ *
+ * The results are written to the file of the `litho.benchmark.output` system property, or to
+ * [DEFAULT_OUTPUT] if it isn't set, and can be compared against a file written by a previous run
+ * with the `litho.benchmark.baseline` system property, see [regressions].
+ */
+class BenchmarkReport(
+    val name: String,
+    val mountableOutputs: Int,
+    val results: List<StageResult>,
+) {
+
+  /** Adds the results to [properties], keyed by benchmark name, stage and metric. */
+  fun writeTo(properties: Properties) {
+    for (result in results) {
+      properties.setProperty(key(result, P50), result.p50Nanos.toString())
+      properties.setProperty(key(result, P99), result.p99Nanos.toString())
+      properties.setProperty(key(result, OPS_PER_SECOND), result.opsPerSecond.toString())
+      if (result.allocatedBytesPerOp >= 0) {
+        properties.setProperty(key(result, ALLOCATED_BYTES), result.allocatedBytesPerOp.toString())
+      }
+    }
+  }
+
+  /**
+   * Returns a description of every stage whose p50 latency or allocated bytes per operation grew by
+   * more than [tolerance] (as a fraction) over the one in [baseline]. Stages and metrics missing
+   * from the baseline are ignored.
+   */
+  fun regressions(baseline: Properties, tolerance: Double): List<String> {
+    val regressions = ArrayList<String>()
+    for (result in results) {
+      checkRegression(regressions, baseline, tolerance, result, P50, result.p50Nanos)
+      if (result.allocatedBytesPerOp >= 0) {
+        checkRegression(
+            regressions, baseline, tolerance, result, ALLOCATED_BYTES, result.allocatedBytesPerOp)
+      }
+    }
+    return regressions
+  }
+
+  /**
+   * Appends the results to the `litho.benchmark.output` file, or to [DEFAULT_OUTPUT], and returns
+   * the regressions against the `litho.benchmark.baseline` file if set.
+   */
+  fun publish(): List<String> {
+    append(::writeTo)
+
+    val baseline = System.getProperty(BASELINE_PROPERTY) ?: return emptyList()
+    val tolerance = System.getProperty(TOLERANCE_PROPERTY)?.toDouble() ?: DEFAULT_TOLERANCE
+    return regressions(load(File(baseline)), tolerance)
+  }
+
+  private fun checkRegression(
+      regressions: MutableList<String>,
+      baseline: Properties,
+      tolerance: Double,
+      result: StageResult,
+      metric: String,
+      value: Long,
+  ) {
+    val expected = baseline.getProperty(key(result, metric))?.toLong() ?: return
+    if (value > expected * (1 + tolerance)) {
+      regressions.add("${key(result, metric)}: $value, baseline was $expected")
+    }
+  }
+
+  private fun key(result: StageResult, metric: String): String =
+      "$name.${result.stage.key}.$metric"
+
+  companion object {
+    const val OUTPUT_PROPERTY = "litho.benchmark.output"
+    const val BASELINE_PROPERTY = "litho.benchmark.baseline"
+    const val TOLERANCE_PROPERTY = "litho.benchmark.tolerance"
+
+    /** Where the results are written when `litho.benchmark.output` isn't set. */
+    const val DEFAULT_OUTPUT = "build/reports/litho-benchmarks/results.properties"
+
+    /** Timings on shared machines are noisy, so only flag large regressions by default. */
+    const val DEFAULT_TOLERANCE = 0.25
+
+    private const val P50 = "p50Nanos"
+    private const val P99 = "p99Nanos"
+    private const val OPS_PER_SECOND = "opsPerSecond"
+    private const val ALLOCATED_BYTES = "allocatedBytesPerOp"
+
+    /**
+     * Lets [write] add results to the `litho.benchmark.output` file, or to [DEFAULT_OUTPUT],
+     * keeping the results of the benchmarks which already ran.
+     */
+    fun append(write: (Properties) -> Unit) {
+      val file = File(System.getProperty(OUTPUT_PROPERTY) ?: DEFAULT_OUTPUT)
+      file.parentFile?.mkdirs()
+      val properties = if (file.exists()) load(file) else Properties()
+      write(properties)
+      file.outputStream().use { properties.store(it, "Litho benchmarks") }
+    }
+
+    private fun load(file: File): Properties =
+        Properties().apply { file.inputStream().use { load(it) } }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.benchmarks
+
+import com.facebook.litho.Component
+import com.facebook.litho.SizeSpec
+import com.facebook.litho.SizeSpec.EXACTLY
+import com.facebook.litho.SizeSpec.UNSPECIFIED
+import com.facebook.litho.testing.LithoTestRule
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Benchmarks the resolve, layout, reduce and mount stages of the pipeline for a few typical tree
+ * shapes, see [PipelineBenchmark].
+ *
+ * The benchmarks aren't part of the unit tests, and only run when asked for. Run with
+ * `./gradlew :litho-benchmarks:test -PrunBenchmarks -Dlitho.benchmark.output=/tmp/baseline` to
+ * record a baseline, and with `-Dlitho.benchmark.baseline=/tmp/baseline` to fail on any stage which
+ * got slower or allocates more than the baseline (by more than `litho.benchmark.tolerance`).
+ */
+@RunWith(LithoTestRunner::class)
+class PipelineBenchmarkTest {
+
+  @get:Rule val rule = LithoTestRule()
+
+  @Test
+  fun `benchmark deep tree`() {
+    benchmark(name = "deep", component = DeepTree(depth = 100))
+  }
+
+  @Test
+  fun `benchmark wide tree`() {
+    benchmark(name = "wide", component = WideTree(children = 1000))
+  }
+
+  @Test
+  fun `benchmark text heavy tree`() {
+    benchmark(name = "textHeavy", component = TextHeavyTree(texts = 300))
+  }
+
+  @Test
+  fun `benchmark list of cards`() {
+    benchmark(name = "cards", component = CardList(cards = 100))
+  }
+
+  private fun benchmark(name: String, component: Component) {
+    val testLithoView =
+        rule.render(widthSpec = WIDTH_SPEC, heightSpec = HEIGHT_SPEC) { component }
+
+    val report =
+        PipelineBenchmark(name)
+            .run(
+                testLithoView.componentTree,
+                testLithoView.lithoView,
+                component,
+                WIDTH_SPEC,
+                HEIGHT_SPEC)
+
+    assertThat(report.mountableOutputs).isGreaterThan(1)
+    for (result in report.results) {
+      assertThat(result.opsPerSecond).describedAs(result.stage.key).isGreaterThan(0.0)
+      assertThat(result.p99Nanos).isGreaterThanOrEqualTo(result.p50Nanos)
+    }
+    assertThat(report.publish()).isEmpty()
+  }
+
+  companion object {
+    private val WIDTH_SPEC = SizeSpec.makeSizeSpec(1080, EXACTLY)
+    private val HEIGHT_SPEC = SizeSpec.makeSizeSpec(0, UNSPECIFIED)
+  }
+}
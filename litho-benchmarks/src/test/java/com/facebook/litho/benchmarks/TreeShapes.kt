@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.benchmarks
+
+import android.graphics.Color
+import com.facebook.litho.Column
+import com.facebook.litho.Component
+import com.facebook.litho.ComponentScope
+import com.facebook.litho.KComponent
+import com.facebook.litho.Row
+import com.facebook.litho.Style
+import com.facebook.litho.core.height
+import com.facebook.litho.core.margin
+import com.facebook.litho.core.padding
+import com.facebook.litho.core.width
+import com.facebook.litho.flexbox.flex
+import com.facebook.litho.kotlin.widget.SolidColor
+import com.facebook.litho.kotlin.widget.Text
+import com.facebook.litho.view.backgroundColor
+import com.facebook.rendercore.px
+
+/** A chain of [depth] nested columns, with a text at the bottom. */
+class DeepTree(private val depth: Int) : KComponent() {
+  override fun ComponentScope.render(): Component = Level(remaining = depth)
+
+  private class Level(private val remaining: Int) : KComponent() {
+    override fun ComponentScope.render(): Component =
+        if (remaining == 0) {
+          Text(text = "Leaf")
+        } else {
+          Column(style = Style.padding(all = 1.px)) { child(Level(remaining = remaining - 1)) }
+        }
+  }
+}
+
+/** A single column with [children] fixed size leaf children. */
+class WideTree(private val children: Int) : KComponent() {
+  override fun ComponentScope.render(): Component = Column {
+    for (i in 0 until children) {
+      child(
+          SolidColor(
+              color = if (i % 2 == 0) Color.RED else Color.BLUE,
+              style = Style.width(10.px).height(10.px)))
+    }
+  }
+}
+
+/** A column of [texts] texts of varying lengths, so that most of the time is spent measuring. */
+class TextHeavyTree(private val texts: Int) : KComponent() {
+  override fun ComponentScope.render(): Component = Column {
+    for (i in 0 until texts) {
+      child(Text(text = LOREM_IPSUM.substring(0, 20 + (i * 37) % (LOREM_IPSUM.length - 20))))
+    }
+  }
+}
+
+/** A column of [cards] feed like cards, each made of a header, a body and an action bar. */
+class CardList(private val cards: Int) : KComponent() {
+  override fun ComponentScope.render(): Component = Column {
+    for (i in 0 until cards) {
+      child(Card(index = i))
+    }
+  }
+
+  private class Card(private val index: Int) : KComponent() {
+    override fun ComponentScope.render(): Component =
+        Column(
+            style =
+                Style.padding(all = 8.px).margin(bottom = 8.px).backgroundColor(Color.WHITE)) {
+              child(
+                  Row {
+                    child(SolidColor(color = Color.GRAY, style = Style.width(40.px).height(40.px)))
+                    child(
+                        Column(style = Style.flex(grow = 1f).padding(start = 8.px)) {
+                          child(Text(text = "Author $index"))
+                          child(Text(text = "${index % 24}h", textColor = Color.GRAY))
+                        })
+                  })
+              child(
+                  Text(
+                      text = LOREM_IPSUM.substring(0, 40 + (index * 53) % 200),
+                      style = Style.padding(vertical = 8.px)))
+              child(
+                  Row {
+                    child(Text(text = "Like", style = Style.flex(grow = 1f)))
+                    child(Text(text = "Comment", style = Style.flex(grow = 1f)))
+                    child(Text(text = "Share", style = Style.flex(grow = 1f)))
+                  })
+            }
+  }
+}
+
+private const val LOREM_IPSUM =
+    "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt " +
+        "ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation " +
+        "ullamco laboris nisi ut aliquip ex ea commodo consequat. Duis aute irure dolor in " +
+        "reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur."
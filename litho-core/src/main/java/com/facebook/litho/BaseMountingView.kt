@@ -830,6 +830,9 @@ constructor(context: ComponentContext, attrs: AttributeSet? = null) :
 
     val coordinator = requireNotNull(lithoHostListenerCoordinator)
 
+    coordinator.setDynamicValueBatchingHost(
+        if (configuration?.batchDynamicValueUpdatesPerFrame == true) this else null)
+
     if (hasTree) {
       if (isIncrementalMountEnabled) {
         val config = configuration
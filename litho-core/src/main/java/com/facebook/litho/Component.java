@@ -639,7 +639,7 @@ public abstract class Component implements Cloneable, Equivalence<Component>, At
                 c.getTreePropContainer(),
                 ct.getLithoConfiguration(),
                 LithoTree.Companion.create(ct, ct),
-                c.mGlobalKey,
+                c.getGlobalKeyOrNull(),
                 c.getLithoVisibilityEventsController(),
                 null,
                 c.getParentTreePropContainer());
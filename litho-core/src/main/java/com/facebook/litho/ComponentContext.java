@@ -70,6 +70,10 @@ public class ComponentContext {
   @Nullable
   String mGlobalKey;
 
+  // The compact form of the global key, mGlobalKey is only rendered from it when requested.
+  @ThreadConfined(ThreadConfined.ANY)
+  private @Nullable GlobalKey mCompactGlobalKey;
+
   @ThreadConfined(ThreadConfined.ANY)
   private final ResourceResolver mResourceResolver;
 
@@ -167,6 +171,7 @@ public class ComponentContext {
     mTreePropContainer = treePropContainer != null ? treePropContainer : context.mTreePropContainer;
     mParentTreePropContainer = context.mParentTreePropContainer;
     mGlobalKey = context.mGlobalKey;
+    mCompactGlobalKey = context.mCompactGlobalKey;
     mCalculationStateContextThreadLocal = context.mCalculationStateContextThreadLocal;
     mLithoConfiguration = context.mLithoConfiguration;
   }
@@ -187,9 +192,27 @@ public class ComponentContext {
       final ComponentContext parentContext,
       final Component scope,
       final @Nullable String globalKey) {
+    return withComponentScope(parentContext, scope, globalKey, null);
+  }
+
+  /**
+   * Same as {@link #withComponentScope(ComponentContext, Component, String)}, but takes the compact
+   * {@link GlobalKey}, whose string form is only rendered if something asks for it.
+   */
+  static ComponentContext withComponentScope(
+      final ComponentContext parentContext, final Component scope, final GlobalKey globalKey) {
+    return withComponentScope(parentContext, scope, null, globalKey);
+  }
+
+  private static ComponentContext withComponentScope(
+      final ComponentContext parentContext,
+      final Component scope,
+      final @Nullable String globalKey,
+      final @Nullable GlobalKey compactGlobalKey) {
     ComponentContext componentContext = parentContext.makeNewCopy();
     componentContext.mComponentScope = scope;
     componentContext.mGlobalKey = globalKey;
+    componentContext.mCompactGlobalKey = compactGlobalKey;
     componentContext.mParentTreePropContainer = parentContext.mTreePropContainer;
     // TODO: T124275447 make these Component Context fields final
     // This component resolves during layout
@@ -374,12 +397,36 @@ public class ComponentContext {
           "getGlobalKey cannot be accessed from a ComponentContext without a scope");
     }
 
-    if (mGlobalKey == null) {
+    final String globalKey = getGlobalKeyOrNull();
+    if (globalKey == null) {
       return "undefined";
     }
+    return globalKey;
+  }
+
+  /** Returns the global key in its legacy string form, rendering it if needed. */
+  @Nullable
+  String getGlobalKeyOrNull() {
+    final GlobalKey compactGlobalKey = mCompactGlobalKey;
+    if (mGlobalKey == null && compactGlobalKey != null) {
+      mGlobalKey = compactGlobalKey.toString();
+    }
     return mGlobalKey;
   }
 
+  /**
+   * Returns the compact form of the global key. Contexts that were created with a string key get a
+   * {@link GlobalKey} wrapping it, so that their children can still use compact keys.
+   */
+  @Nullable
+  GlobalKey getCompactGlobalKey() {
+    final String globalKey = mGlobalKey;
+    if (mCompactGlobalKey == null && globalKey != null) {
+      mCompactGlobalKey = GlobalKey.fromLegacyKey(globalKey);
+    }
+    return mCompactGlobalKey;
+  }
+
   public EventHandler<ErrorEvent> getErrorEventHandler() {
     if (mComponentScope != null) {
       try {
@@ -607,6 +654,19 @@ public class ComponentContext {
     return mLithoConfiguration.renderUnitIdGenerator.calculateLayoutOutputId(componentKey, type);
   }
 
+  /**
+   * Same as {@link #calculateLayoutOutputId(String, int)}, but looks the component up by its
+   * compact {@link GlobalKey}.
+   */
+  public long calculateLayoutOutputId(
+      final GlobalKey componentKey, final @OutputUnitType int type) {
+    if (mLithoConfiguration.renderUnitIdGenerator == null) {
+      throw new IllegalStateException("Cannot generate IDs with a null renderUnitIdGenerator");
+    }
+
+    return mLithoConfiguration.renderUnitIdGenerator.calculateLayoutOutputId(componentKey, type);
+  }
+
   @Nullable
   LithoTree getLithoTree() {
     return mLithoTree;
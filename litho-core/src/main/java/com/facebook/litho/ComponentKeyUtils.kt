@@ -64,32 +64,37 @@ object ComponentKeyUtils {
       parentContext: ComponentContext,
       parentComponent: Component?,
       childComponent: Component
-  ): String {
-    val hasManualKey = childComponent.hasManualKey()
-    val key = if (hasManualKey) "$${childComponent.key}" else childComponent.key
-    val globalKey: String
+  ): String = generateCompactGlobalKey(parentContext, parentComponent, childComponent).toString()
+
+  /**
+   * Same as [generateGlobalKey], but returns the compact [GlobalKey], which doesn't copy the keys
+   * of all the ancestors into a new string.
+   */
+  @JvmStatic
+  fun generateCompactGlobalKey(
+      parentContext: ComponentContext,
+      parentComponent: Component?,
+      childComponent: Component
+  ): GlobalKey {
     if (parentComponent == null) {
-      globalKey = key
-    } else {
-      val parentGlobalKey = parentContext.globalKey
-      if (parentGlobalKey == null) {
-        logParentHasNullGlobalKey(parentComponent, childComponent)
-        globalKey = "null$key"
-      } else {
-        val childKey = getKeyWithSeparator(parentGlobalKey, key)
-        val index: Int
-        if (hasManualKey) {
-          index = parentContext.scopedComponentInfo.getManualKeyUsagesCountAndIncrement(key)
-          if (index != 0) {
-            logDuplicateManualKeyWarning(childComponent, key.substring(1))
-          }
-        } else {
-          index = parentContext.scopedComponentInfo.getChildCountAndIncrement(childComponent)
-        }
-        globalKey = getKeyForChildPosition(childKey, index)
+      return GlobalKey.forRoot(childComponent)
+    }
+    val parentGlobalKey = parentContext.compactGlobalKey
+    if (parentGlobalKey == null) {
+      logParentHasNullGlobalKey(parentComponent, childComponent)
+      return GlobalKey.fromLegacyKey("null${GlobalKey.forRoot(childComponent)}")
+    }
+    val index: Int
+    if (childComponent.hasManualKey()) {
+      val key = "$${childComponent.key}"
+      index = parentContext.scopedComponentInfo.getManualKeyUsagesCountAndIncrement(key)
+      if (index != 0) {
+        logDuplicateManualKeyWarning(childComponent, childComponent.key)
       }
+    } else {
+      index = parentContext.scopedComponentInfo.getChildCountAndIncrement(childComponent)
     }
-    return globalKey
+    return GlobalKey.forChild(parentGlobalKey, childComponent, index)
   }
 
   private fun logParentHasNullGlobalKey(parentComponent: Component, childComponent: Component) {
@@ -90,6 +90,7 @@ import com.facebook.rendercore.RunnableHandler.DefaultHandler;
 import com.facebook.rendercore.debug.DebugEventAttribute;
 import com.facebook.rendercore.debug.DebugEventBus;
 import com.facebook.rendercore.debug.DebugEventDispatcher;
+import com.facebook.rendercore.debug.DebugEventTraceBuffer;
 import com.facebook.rendercore.utils.EquivalenceUtils;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
@@ -330,8 +331,11 @@ public class ComponentTree
         throw new IllegalStateException(
             "Copying RenderUnitIdGenerator is only allowed if the ComponentTree IDs match");
       }
+      // The generator may have been released with the tree it was taken from.
+      renderUnitIdGenerator.acquire();
     } else {
-      renderUnitIdGenerator = new RenderUnitIdGenerator(mId);
+      renderUnitIdGenerator =
+          new RenderUnitIdGenerator(mId, builder.config.renderUnitIdMaxIdleGenerations);
     }
 
     addMeasureListener(builder.mMeasureListener);
@@ -745,6 +749,14 @@ public class ComponentTree
         || isCompatibleSpec(mCommittedLayoutState, widthSpec, heightSpec);
   }
 
+  /**
+   * @return the number of mountable outputs of the committed layout, as a rough measure of the
+   *     memory retained by this ComponentTree, or 0 if no layout has been committed yet.
+   */
+  public synchronized int getCommittedMountableOutputCount() {
+    return mCommittedLayoutState != null ? mCommittedLayoutState.getMountableOutputCount() : 0;
+  }
+
   void detach() {
     assertMainThread();
 
@@ -2165,6 +2177,7 @@ public class ComponentTree
         mCommittedLayoutState = layoutState;
         layoutState.markCommitted();
         committedNewLayout = true;
+        DebugEventTraceBuffer.record(LithoDebugEvent.LayoutCommitted, mId);
         DebugEventDispatcher.dispatch(
             LithoDebugEvent.LayoutCommitted,
             () -> String.valueOf(mId),
@@ -2203,6 +2216,12 @@ public class ComponentTree
     }
 
     if (committedNewLayout) {
+      final @Nullable RenderUnitIdGenerator renderUnitIdGenerator =
+          getLithoConfiguration().renderUnitIdGenerator;
+      if (renderUnitIdGenerator != null) {
+        renderUnitIdGenerator.onLayoutStateCommitted(layoutState);
+      }
+
       if (measureListeners != null) {
         for (MeasureListener measureListener : measureListeners) {
           measureListener.onSetRootAndSizeSpec(
@@ -2371,6 +2390,12 @@ public class ComponentTree
         effectsHandler = null;
       }
 
+      final @Nullable RenderUnitIdGenerator renderUnitIdGenerator =
+          getLithoConfiguration().renderUnitIdGenerator;
+      if (renderUnitIdGenerator != null) {
+        renderUnitIdGenerator.release();
+      }
+
       mMainThreadLayoutState = null;
       mCommittedLayoutState = null;
       mTreeState = null;
@@ -2719,6 +2744,11 @@ public class ComponentTree
    * calculation start on the Choregrapher's animation phase. This way we can guarantee that all
    * states generated by input handling are properly enqueued before we start the layout
    * calculation.
+   *
+   * <p>All the async updates enqueued until then are coalesced into that single calculation. The
+   * calculation can be delayed further with {@link
+   * ComponentsConfiguration#asyncStateUpdateBatchingWindowMs} to coalesce bursts of updates spread
+   * over several frames.
    */
   class PostStateUpdateToChoreographerCallback implements BatchedStateUpdatesStrategy {
 
@@ -2736,6 +2766,7 @@ public class ComponentTree
             String attribution = mAttribution.getAndSet("");
 
             if (mEnqueuedUpdatesCount.getAndSet(0) > 0) {
+              LithoStats.incrementBatchedStateUpdateResolveCount();
               updateStateInternal(
                   true,
                   attribution != null
@@ -2755,7 +2786,7 @@ public class ComponentTree
           This is the case that the `ComponentTree` was created in a non Main Thread, and state updates were scheduled
           without the Choreographer being initialized yet. */
           if (mEnqueuedUpdatesCount.get() > 0) {
-            mMainChoreographer.get().postFrameCallback(mFrameCallback);
+            postFrameCallback();
           }
         };
 
@@ -2787,9 +2818,12 @@ public class ComponentTree
     @Override
     public boolean onAsyncStateUpdateEnqueued(
         String attribution, boolean isCreateLayoutInProgress) {
-      if (mEnqueuedUpdatesCount.getAndIncrement() == 0 && mMainChoreographer.get() != null) {
+      if (mEnqueuedUpdatesCount.getAndIncrement() > 0) {
+        // A resolve is already scheduled for this batch, which will pick up this update as well.
+        LithoStats.incrementCoalescedStateUpdateCount();
+      } else if (mMainChoreographer.get() != null) {
         mAttribution.set(attribution);
-        mMainChoreographer.get().postFrameCallback(mFrameCallback);
+        postFrameCallback();
       }
 
       return true;
@@ -2816,6 +2850,20 @@ public class ComponentTree
       mMainThreadHandler.remove(mCreateMainChoreographerRunnable);
     }
 
+    /**
+     * Schedules the resolve of the batch on the next frame, or on the first frame after the
+     * configured batching window.
+     */
+    private void postFrameCallback() {
+      final long windowMs =
+          mContext.mLithoConfiguration.componentsConfig.asyncStateUpdateBatchingWindowMs;
+      if (windowMs > 0) {
+        mMainChoreographer.get().postFrameCallbackDelayed(mFrameCallback, windowMs);
+      } else {
+        mMainChoreographer.get().postFrameCallback(mFrameCallback);
+      }
+    }
+
     private void removeFrameCallback() {
       if (mMainChoreographer.get() != null) {
         mMainChoreographer.get().removeFrameCallback(mFrameCallback);
@@ -2960,6 +3008,16 @@ public class ComponentTree
       return this;
     }
 
+    /**
+     * Runs the layouts of this ComponentTree on the given {@link LayoutThreadPool} instead of the
+     * Components default Looper. Resolves, layouts and state updates of this tree still run one at
+     * a time and in order, but can run concurrently with those of other trees sharing the pool.
+     */
+    public Builder layoutThreadPool(LayoutThreadPool pool) {
+      layoutThreadHandler = pool.createHandler();
+      return this;
+    }
+
     /**
      * Specify an initial tree state object that the ComponentTree can use to set the current values
      * for states.
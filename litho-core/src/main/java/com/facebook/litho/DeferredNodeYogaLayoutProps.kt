@@ -19,7 +19,10 @@ package com.facebook.litho
 import com.facebook.yoga.YogaEdge
 import com.facebook.yoga.YogaNode
 
-class DeferredNodeYogaLayoutProps(node: YogaNode) : YogaLayoutProps(node) {
+class DeferredNodeYogaLayoutProps
+@JvmOverloads
+constructor(node: YogaNode, styleInputs: YogaStyleInputsBuffer? = null) :
+    YogaLayoutProps(node, styleInputs) {
 
   var borderWidth: IntArray? = null
     private set
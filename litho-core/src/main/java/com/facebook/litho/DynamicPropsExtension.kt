@@ -18,6 +18,7 @@ package com.facebook.litho
 
 import android.graphics.Rect
 import androidx.annotation.VisibleForTesting
+import androidx.collection.LongObjectMap
 import com.facebook.litho.DynamicPropsExtension.DynamicPropsExtensionState
 import com.facebook.rendercore.RenderTreeNode
 import com.facebook.rendercore.RenderUnit
@@ -136,8 +137,8 @@ object DynamicPropsExtension :
 
   class DynamicPropsExtensionState {
     @get:VisibleForTesting val dynamicPropsManager: DynamicPropsManager = DynamicPropsManager()
-    internal var currentInput: Map<Long, DynamicValueOutput>? = null
-    internal var previousInput: Map<Long, DynamicValueOutput>? = null
-    internal var disappearingHostInput: Map<Long, DynamicValueOutput>? = null
+    internal var currentInput: LongObjectMap<DynamicValueOutput>? = null
+    internal var previousInput: LongObjectMap<DynamicValueOutput>? = null
+    internal var disappearingHostInput: LongObjectMap<DynamicValueOutput>? = null
   }
 }
@@ -16,6 +16,8 @@
 
 package com.facebook.litho
 
+import androidx.collection.LongObjectMap
+
 interface DynamicPropsExtensionInput {
-  val dynamicValueOutputs: Map<Long, DynamicValueOutput>
+  val dynamicValueOutputs: LongObjectMap<DynamicValueOutput>
 }
@@ -19,6 +19,7 @@ package com.facebook.litho
 import android.util.Pair
 import android.util.SparseArray
 import android.view.View
+import android.view.ViewTreeObserver
 import androidx.annotation.VisibleForTesting
 import com.facebook.litho.CollectionsUtils.isNotNullOrEmpty
 import com.facebook.litho.ComponentUtils.handle
@@ -45,6 +46,35 @@ class DynamicPropsManager : DynamicValue.OnValueChangeListener<Any?> {
       HashMap()
   private val affectingDynamicValues: MutableMap<Component, Set<DynamicValue<Any?>?>> = HashMap()
   private val contents: MutableMap<Component, Any> = HashMap()
+  private val pendingValues: MutableSet<DynamicValue<Any?>> = LinkedHashSet()
+  private var preDrawObserver: ViewTreeObserver? = null
+  private val applyPendingValuesListener =
+      object : ViewTreeObserver.OnPreDrawListener {
+        override fun onPreDraw(): Boolean {
+          removePreDrawListener()
+          applyPendingValues()
+          return true
+        }
+      }
+
+  /**
+   * When set, value changes are queued and applied from a pre-draw listener of this view, i.e.
+   * just before the draw of the frame they were made in, instead of immediately. That includes
+   * changes made from the animation callbacks of a frame, like a fling or a ValueAnimator update,
+   * since the traversal of a frame runs after its animation callbacks. A value which changes
+   * several times within a frame is then only applied once to each bound view.
+   *
+   * Any pending changes are applied right away when this is reset to null.
+   */
+  var batchingHost: View? = null
+    set(value) {
+      if (field === value) {
+        return
+      }
+      field = value
+      removePreDrawListener()
+      applyPendingValues()
+    }
 
   fun onBindComponentToContent(
       component: Component,
@@ -139,11 +169,52 @@ class DynamicPropsManager : DynamicValue.OnValueChangeListener<Any?> {
     dependentComponents.remove(componentWithProps)
     if (dependentComponents.isEmpty()) {
       this.dependentComponents.remove(value)
+      pendingValues.remove(value)
       value.detach(this)
     }
   }
 
   override fun onValueChange(value: DynamicValue<Any?>) {
+    val host = batchingHost
+    // A detached host isn't drawn, so its pre-draw listeners wouldn't run.
+    if (host == null || !host.isAttachedToWindow) {
+      applyValueChange(value)
+      return
+    }
+
+    pendingValues.add(value)
+    if (preDrawObserver == null) {
+      val observer = host.viewTreeObserver
+      observer.addOnPreDrawListener(applyPendingValuesListener)
+      preDrawObserver = observer
+      // Makes sure there is a traversal to run the listener in. When called from an animation
+      // callback, the traversal runs later in the same frame.
+      host.invalidate()
+    }
+  }
+
+  private fun removePreDrawListener() {
+    val observer = preDrawObserver ?: return
+    preDrawObserver = null
+    if (observer.isAlive) {
+      observer.removeOnPreDrawListener(applyPendingValuesListener)
+    }
+  }
+
+  private fun applyPendingValues() {
+    if (pendingValues.isEmpty()) {
+      return
+    }
+
+    // Applying a value could bind or unbind a component, and so change the pending values
+    val values = pendingValues.toTypedArray()
+    pendingValues.clear()
+    for (value in values) {
+      applyValueChange(value)
+    }
+  }
+
+  private fun applyValueChange(value: DynamicValue<Any?>) {
     val dependentComponents = dependentComponents[value] ?: return
 
     // It's possible that applying a dynamic prop could bind or unbind a component - snapshot the
@@ -249,17 +320,17 @@ class DynamicPropsManager : DynamicValue.OnValueChangeListener<Any?> {
 
     private fun bindCommonDynamicProp(key: Int, value: DynamicValue<*>, target: View) {
       when (key) {
-        KEY_ALPHA -> target.alpha = resolve(value)
-        KEY_TRANSLATION_X -> target.translationX = resolve(value)
-        KEY_TRANSLATION_Y -> target.translationY = resolve(value)
-        KEY_TRANSLATION_Z -> target.translationZ = resolve(value)
-        KEY_SCALE_X -> target.scaleX = resolve(value)
-        KEY_SCALE_Y -> target.scaleY = resolve(value)
-        KEY_ELEVATION -> target.elevation = resolve(value)
+        KEY_ALPHA -> target.alpha = resolveFloat(value)
+        KEY_TRANSLATION_X -> target.translationX = resolveFloat(value)
+        KEY_TRANSLATION_Y -> target.translationY = resolveFloat(value)
+        KEY_TRANSLATION_Z -> target.translationZ = resolveFloat(value)
+        KEY_SCALE_X -> target.scaleX = resolveFloat(value)
+        KEY_SCALE_Y -> target.scaleY = resolveFloat(value)
+        KEY_ELEVATION -> target.elevation = resolveFloat(value)
         KEY_BACKGROUND_COLOR -> target.setBackgroundColor(resolve(value))
-        KEY_ROTATION -> target.rotation = resolve(value)
-        KEY_ROTATION_X -> target.rotationX = resolve(value)
-        KEY_ROTATION_Y -> target.rotationY = resolve(value)
+        KEY_ROTATION -> target.rotation = resolveFloat(value)
+        KEY_ROTATION_X -> target.rotationX = resolveFloat(value)
+        KEY_ROTATION_Y -> target.rotationY = resolveFloat(value)
         KEY_BACKGROUND_DRAWABLE -> target.background = resolve(value)
         KEY_FOREGROUND_COLOR -> target.foreground = ComparableColorDrawable.create(resolve(value))
       }
@@ -270,6 +341,14 @@ class DynamicPropsManager : DynamicValue.OnValueChangeListener<Any?> {
       return dynamicValue.get() as T
     }
 
+    private fun resolveFloat(dynamicValue: DynamicValue<*>): Float {
+      return if (dynamicValue is FloatDynamicValue) {
+        dynamicValue.getFloat()
+      } else {
+        resolve(dynamicValue)
+      }
+    }
+
     /**
      * Common dynamic props could only be bound to Views. To make it work for the LayoutSpec and
      * MountDrawableSpec components we create a wrapping HostComponent and copy the dynamic props
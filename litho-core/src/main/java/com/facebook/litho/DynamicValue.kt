@@ -33,9 +33,7 @@ open class DynamicValue<T>(initialValue: T) {
       if (field === value || field == value) return
 
       field = value
-      for (listener in listeners) {
-        listener.onValueChange(this)
-      }
+      notifyValueChanged()
     }
 
   private val listeners: MutableSet<OnValueChangeListener<T>> = CopyOnWriteArraySet()
@@ -49,7 +47,7 @@ open class DynamicValue<T>(initialValue: T) {
    * @param value the new value
    */
   @UiThread
-  fun set(value: T) {
+  open fun set(value: T) {
     this.value = value
   }
 
@@ -62,7 +60,14 @@ open class DynamicValue<T>(initialValue: T) {
    *
    * @return the current value
    */
-  @UiThread fun get(): T = value
+  @UiThread open fun get(): T = value
+
+  /** Notifies all the attached listeners that the value has changed. */
+  protected fun notifyValueChanged() {
+    for (listener in listeners) {
+      listener.onValueChange(this)
+    }
+  }
 
   /**
    * Register a callback to be invoked when the value changes.
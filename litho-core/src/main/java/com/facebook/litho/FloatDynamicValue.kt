@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import androidx.annotation.UiThread
+
+/**
+ * A [DynamicValue] holding a primitive float, for properties like alpha, translation, scale or
+ * elevation which are often driven from a scroll or gesture listener on every frame.
+ *
+ * Use [setFloat] and [getFloat] to update and read the value without boxing it. The common dynamic
+ * props bound by [DynamicPropsManager] read it through [getFloat] as well, so a value set on every
+ * frame doesn't allocate. It can be used wherever a `DynamicValue<Float>` is accepted.
+ */
+class FloatDynamicValue(initialValue: Float) : DynamicValue<Float>(initialValue) {
+
+  private var floatValue: Float = initialValue
+
+  /**
+   * Sets current value and notifies all the attached listeners if it has changed.
+   *
+   * IMPORTANT: This should only be called from the main thread!
+   *
+   * @param value the new value
+   */
+  @UiThread
+  fun setFloat(value: Float) {
+    // Same semantics as Float.equals, without boxing: NaN equals NaN, but -0f doesn't equal 0f.
+    if (floatValue.compareTo(value) == 0) return
+
+    floatValue = value
+    notifyValueChanged()
+  }
+
+  /** Retrieves the current value without boxing it. */
+  @UiThread fun getFloat(): Float = floatValue
+
+  @UiThread
+  override fun set(value: Float) {
+    setFloat(value)
+  }
+
+  @UiThread override fun get(): Float = floatValue
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+/**
+ * A compact representation of a component's global key.
+ *
+ * Instead of concatenating the keys of all the ancestors into a new string for every component, a
+ * [GlobalKey] points to the key of its parent and only holds its own segment: the type id of the
+ * component (or its manual key) and its index among the siblings sharing that segment. The hash is
+ * computed once when the key is created, so using it in a hash map costs the same at any depth.
+ *
+ * The legacy string form (e.g. `"10,$header,12!2"`) is only rendered by [toString], and cached, for
+ * the APIs that still take the global key as a [String].
+ */
+class GlobalKey
+private constructor(
+    /** The key of the parent component, or `null` for the root of the tree. */
+    val parent: GlobalKey?,
+    private val typeId: Int,
+    /** A manual key (with its `$` prefix) or a legacy key rendered verbatim, if any. */
+    private val key: String?,
+    /** The position of this key among the siblings with the same type id or manual key. */
+    val index: Int,
+) {
+
+  private val hash: Int =
+      31 * (31 * (31 * (parent?.hash ?: 0) + typeId) + (key?.hashCode() ?: 0)) + index
+
+  @Volatile private var legacyKey: String? = null
+
+  override fun hashCode(): Int = hash
+
+  override fun equals(other: Any?): Boolean {
+    if (this === other) {
+      return true
+    }
+    if (other !is GlobalKey) {
+      return false
+    }
+    var left: GlobalKey = this
+    var right: GlobalKey = other
+    while (true) {
+      if (left === right) {
+        return true
+      }
+      if (left.hash != right.hash ||
+          left.typeId != right.typeId ||
+          left.index != right.index ||
+          left.key != right.key) {
+        return false
+      }
+      val leftParent = left.parent
+      val rightParent = right.parent
+      if (leftParent == null || rightParent == null) {
+        return leftParent === rightParent
+      }
+      left = leftParent
+      right = rightParent
+    }
+  }
+
+  /** Renders the legacy string form of this key. Prefer using the [GlobalKey] itself as a key. */
+  override fun toString(): String {
+    legacyKey?.let {
+      return it
+    }
+    val segment = key ?: typeId.toString()
+    val parentKey = parent?.toString()
+    val withParent = if (parentKey == null) segment else "$parentKey,$segment"
+    val rendered = if (index == 0) withParent else "$withParent!$index"
+    legacyKey = rendered
+    return rendered
+  }
+
+  companion object {
+
+    /** Creates the key of a root component, which has no index. */
+    @JvmStatic
+    fun forRoot(component: Component): GlobalKey =
+        if (component.hasManualKey()) {
+          GlobalKey(null, 0, "$${component.key}", 0)
+        } else {
+          GlobalKey(null, component.typeId, null, 0)
+        }
+
+    /** Creates the key of a child component of [parent]. */
+    @JvmStatic
+    fun forChild(parent: GlobalKey, component: Component, index: Int): GlobalKey =
+        if (component.hasManualKey()) {
+          GlobalKey(parent, 0, "$${component.key}", index)
+        } else {
+          GlobalKey(parent, component.typeId, null, index)
+        }
+
+    /**
+     * Wraps a global key that only exists in its legacy string form (e.g. a key reused from a
+     * previous layout), so that keys of children can still be created from it.
+     */
+    @JvmStatic fun fromLegacyKey(globalKey: String): GlobalKey = GlobalKey(null, 0, globalKey, 0)
+  }
+}
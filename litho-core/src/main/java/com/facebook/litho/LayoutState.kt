@@ -19,6 +19,7 @@ package com.facebook.litho
 import android.graphics.Rect
 import android.util.Pair
 import androidx.annotation.VisibleForTesting
+import androidx.collection.LongObjectMap
 import androidx.collection.LongSparseArray
 import androidx.collection.ScatterSet
 import com.facebook.litho.EndToEndTestingExtension.EndToEndTestingExtensionInput
@@ -41,6 +42,7 @@ import com.facebook.rendercore.transitions.TransitionsExtensionInput
 import com.facebook.rendercore.visibility.VisibilityBoundsTransformer
 import com.facebook.rendercore.visibility.VisibilityExtensionInput
 import com.facebook.rendercore.visibility.VisibilityOutput
+import com.facebook.rendercore.visibility.VisibilityOutputsIndex
 import java.util.concurrent.atomic.AtomicInteger
 import javax.annotation.CheckReturnValue
 
@@ -76,11 +78,11 @@ internal constructor(
 
   private val animatableItems: LongSparseArray<AnimatableItem> = reductionState.animatableItems
   private val outputsIdToPositionMap: LongSparseArray<Int> = reductionState.outputsIdToPositionMap
-  private val incrementalMountOutputs: Map<Long, IncrementalMountOutput> =
+  private val incrementalMountOutputs: LongObjectMap<IncrementalMountOutput> =
       reductionState.incrementalMountOutputs
-  private val mountableOutputTops: ArrayList<IncrementalMountOutput> =
+  private val mountableOutputTops: List<IncrementalMountOutput> =
       reductionState.mountableOutputTops
-  private val mountableOutputBottoms: ArrayList<IncrementalMountOutput> =
+  private val mountableOutputBottoms: List<IncrementalMountOutput> =
       reductionState.mountableOutputBottoms
 
   private val testOutputs: List<TestOutput>? = reductionState.testOutputs
@@ -118,6 +120,8 @@ internal constructor(
   override val transitionIdMapping: Map<TransitionId, OutputUnitsAffinityGroup<AnimatableItem>> =
       reductionState.transitionIdMapping
   override val visibilityOutputs: List<VisibilityOutput> = reductionState.visibilityOutputs
+  override val visibilityOutputsIndex: VisibilityOutputsIndex? =
+      reductionState.visibilityOutputsIndex
   override val renderUnitIdsWhichHostRenderTrees: Set<Long> =
       reductionState.renderUnitIdsWhichHostRenderTrees
   val rootComponent: Component
@@ -150,7 +154,7 @@ internal constructor(
   override val testOutputCount: Int
     get() = testOutputs?.size ?: 0
 
-  override val dynamicValueOutputs: Map<Long, DynamicValueOutput> =
+  override val dynamicValueOutputs: LongObjectMap<DynamicValueOutput> =
       reductionState.dynamicValueOutputs
   override val isPartialResult: Boolean = false
 
@@ -259,8 +263,13 @@ internal constructor(
   override fun getIncrementalMountOutputForId(id: Long): IncrementalMountOutput? =
       incrementalMountOutputs[id]
 
+  /** The incremental mount outputs in mount order, i.e. the order of [mountableOutputs]. */
+  private val incrementalMountOutputsInMountOrder: List<IncrementalMountOutput> by lazy {
+    mountableOutputs.map { incrementalMountOutputs[it.renderUnit.id]!! }
+  }
+
   override fun getIncrementalMountOutputs(): Collection<IncrementalMountOutput> =
-      incrementalMountOutputs.values
+      incrementalMountOutputsInMountOrder
 
   override fun getAnimatableItem(id: Long): AnimatableItem? = animatableItems[id]
 
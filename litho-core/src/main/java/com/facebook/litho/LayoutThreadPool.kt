@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.os.Process
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.rendercore.RunnableHandler
+import java.util.ArrayDeque
+import java.util.concurrent.Executor
+import java.util.concurrent.PriorityBlockingQueue
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import javax.annotation.concurrent.GuardedBy
+
+/**
+ * A bounded pool of layout threads that can be shared between many [ComponentTree]s, as an
+ * alternative to the single default layout thread.
+ *
+ * Each tree should get its own [RunnableHandler] from [createHandler]. Runnables posted to the same
+ * handler run one at a time and in the order they were posted (with [RunnableHandler.postAtFront]
+ * jumping the queue), so resolve, layout and state updates of a tree keep their relative ordering.
+ * Runnables posted to different handlers run concurrently on up to [poolSize] threads.
+ *
+ * Handlers with work posted at the front of their queue are prioritised over handlers with only
+ * regular work pending. A handler only ever runs a single runnable before yielding its thread back
+ * to the pool, so a tree with a long backlog cannot starve the other trees sharing the pool.
+ *
+ * The pool can also be used directly as an [Executor] (e.g. wrapped in an [ExecutorLithoHandler])
+ * for work that doesn't need any ordering guarantees.
+ */
+class LayoutThreadPool
+@JvmOverloads
+constructor(
+    val poolSize: Int = DEFAULT_POOL_SIZE,
+    threadPriority: Int = ComponentsConfiguration.DEFAULT_BACKGROUND_THREAD_PRIORITY,
+) : Executor {
+
+  private val sequence = AtomicLong()
+
+  private val executor: ThreadPoolExecutor
+
+  init {
+    require(poolSize > 0) { "The pool size must be positive, was $poolSize" }
+    executor =
+        ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                PriorityBlockingQueue(),
+                LayoutThreadFactory(threadPriority))
+            .apply { allowCoreThreadTimeOut(true) }
+  }
+
+  /** Creates a new [RunnableHandler] whose runnables run serially on this pool. */
+  fun createHandler(): RunnableHandler = SerialHandler()
+
+  override fun execute(runnable: Runnable) {
+    schedule(runnable, PRIORITY_NORMAL)
+  }
+
+  private fun schedule(runnable: Runnable, priority: Int) {
+    executor.execute(PrioritizedRunnable(runnable, priority, sequence.getAndIncrement()))
+  }
+
+  /**
+   * A [RunnableHandler] which runs its runnables one at a time on the pool. Only one drain task per
+   * handler is scheduled at any time (except when an urgent runnable arrives while a regular drain
+   * is pending, in which case the stale drain becomes a no-op).
+   */
+  private inner class SerialHandler : RunnableHandler {
+
+    @GuardedBy("this") private val frontQueue = ArrayDeque<Runnable>()
+    @GuardedBy("this") private val queue = ArrayDeque<Runnable>()
+    @GuardedBy("this") private var isRunning = false
+    @GuardedBy("this") private var scheduledPriority = PRIORITY_NONE
+
+    private val drain = Runnable { drainOne() }
+
+    override fun isTracing(): Boolean = false
+
+    override fun post(runnable: Runnable, tag: String) {
+      synchronized(this) {
+        queue.addLast(runnable)
+        maybeScheduleLocked()
+      }
+    }
+
+    override fun postAtFront(runnable: Runnable, tag: String) {
+      synchronized(this) {
+        frontQueue.addFirst(runnable)
+        maybeScheduleLocked()
+      }
+    }
+
+    override fun remove(runnable: Runnable) {
+      synchronized(this) {
+        frontQueue.removeAll { it === runnable }
+        queue.removeAll { it === runnable }
+      }
+    }
+
+    @GuardedBy("this")
+    private fun maybeScheduleLocked() {
+      if (isRunning) {
+        // The runnable currently executing will reschedule this handler once it is done.
+        return
+      }
+      val priority = headPriorityLocked()
+      if (priority > scheduledPriority) {
+        scheduledPriority = priority
+        schedule(drain, priority)
+      }
+    }
+
+    @GuardedBy("this")
+    private fun headPriorityLocked(): Int =
+        when {
+          frontQueue.isNotEmpty() -> PRIORITY_HIGH
+          queue.isNotEmpty() -> PRIORITY_NORMAL
+          else -> PRIORITY_NONE
+        }
+
+    private fun drainOne() {
+      val next: Runnable
+      synchronized(this) {
+        if (isRunning) {
+          return
+        }
+        scheduledPriority = PRIORITY_NONE
+        next = frontQueue.pollFirst() ?: queue.pollFirst() ?: return
+        isRunning = true
+      }
+
+      try {
+        next.run()
+      } finally {
+        synchronized(this) {
+          isRunning = false
+          maybeScheduleLocked()
+        }
+      }
+    }
+  }
+
+  private class PrioritizedRunnable(
+      private val runnable: Runnable,
+      private val priority: Int,
+      private val sequence: Long,
+  ) : Runnable, Comparable<PrioritizedRunnable> {
+
+    override fun run() {
+      runnable.run()
+    }
+
+    override fun compareTo(other: PrioritizedRunnable): Int {
+      if (priority != other.priority) {
+        return other.priority.compareTo(priority)
+      }
+      return sequence.compareTo(other.sequence)
+    }
+  }
+
+  private class LayoutThreadFactory(private val threadPriority: Int) : ThreadFactory {
+
+    private val threadCount = AtomicInteger()
+
+    override fun newThread(runnable: Runnable): Thread {
+      // Keeps the default layout thread prefix so that ThreadUtils.isLayoutThread still holds.
+      val name =
+          ComponentTree.DEFAULT_LAYOUT_THREAD_NAME +
+              THREAD_NAME_SUFFIX +
+              threadCount.incrementAndGet()
+      return Thread(
+          {
+            Process.setThreadPriority(threadPriority)
+            runnable.run()
+          },
+          name)
+    }
+  }
+
+  companion object {
+    private const val PRIORITY_NONE = 0
+    private const val PRIORITY_NORMAL = 1
+    private const val PRIORITY_HIGH = 2
+
+    private const val KEEP_ALIVE_SECONDS = 30L
+    private const val THREAD_NAME_SUFFIX = "Pool-"
+
+    /** Leaves one core for the UI thread, but never goes below 2 layout threads. */
+    @JvmField
+    val DEFAULT_POOL_SIZE: Int = maxOf(2, Runtime.getRuntime().availableProcessors() - 1)
+
+    /** A process wide pool that trees can share instead of creating their own pool. */
+    @JvmStatic val sharedInstance: LayoutThreadPool by lazy { LayoutThreadPool() }
+  }
+}
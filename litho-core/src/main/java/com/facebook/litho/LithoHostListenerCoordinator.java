@@ -17,6 +17,7 @@
 package com.facebook.litho;
 
 import android.graphics.Rect;
+import android.view.View;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.facebook.infer.annotation.Nullsafe;
@@ -251,6 +252,18 @@ public class LithoHostListenerCoordinator {
         mMountDelegateTarget.registerMountExtension(DynamicPropsExtension.INSTANCE);
   }
 
+  /**
+   * Sets the view before whose draws the changes of dynamic values are applied, or null to apply
+   * them as soon as they change.
+   */
+  public void setDynamicValueBatchingHost(@Nullable View batchingHost) {
+    if (mDynamicPropsExtensionState == null) {
+      return;
+    }
+
+    mDynamicPropsExtensionState.getState().getDynamicPropsManager().setBatchingHost(batchingHost);
+  }
+
   @VisibleForTesting
   public @Nullable DynamicPropsManager getDynamicPropsManager() {
     if (mDynamicPropsExtensionState == null) {
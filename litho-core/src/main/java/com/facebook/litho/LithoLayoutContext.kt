@@ -94,6 +94,10 @@ constructor(
 
   var perfEvent: PerfEvent? = null
 
+  /** Packs the style props of each node when batched Yoga style writes are enabled. */
+  val yogaStyleInputs: YogaStyleInputsBuffer by
+      lazy(LazyThreadSafetyMode.NONE) { YogaStyleInputsBuffer() }
+
   fun setDiffNodeForDeferredNode(diff: DiffNode?) {
     _currentDiffNodeForDeferredNode = diff
   }
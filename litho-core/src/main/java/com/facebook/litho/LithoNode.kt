@@ -73,6 +73,13 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   private var _unresolvedComponents: MutableList<Component>? = null
   private var frozen: Boolean = false
   private var nodeInfoWasWritten: Boolean = false
+
+  // Rarely set attributes are kept in sidecars which are only allocated once one of their
+  // attributes is written, keeping the footprint of the common node small.
+  private var visibilityAttributes: VisibilityAttributes? = null
+  private var transitionAttributes: TransitionAttributes? = null
+  private var viewAttributes: RareViewAttributes? = null
+  private var binders: CustomBinders? = null
   // endregion
 
   // region Properties
@@ -137,23 +144,41 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   var nodeInfo: NodeInfo? = null
     internal set
 
-  var onVisible: EventHandler<VisibleEvent>? = null
-    internal set
+  var onVisible: EventHandler<VisibleEvent>?
+    get() = visibilityAttributes?.onVisible
+    internal set(value) {
+      mutableVisibilityAttributes().onVisible = value
+    }
 
-  var onFocusedVisible: EventHandler<FocusedVisibleEvent>? = null
-    internal set
+  var onFocusedVisible: EventHandler<FocusedVisibleEvent>?
+    get() = visibilityAttributes?.onFocusedVisible
+    internal set(value) {
+      mutableVisibilityAttributes().onFocusedVisible = value
+    }
 
-  var onUnfocusedVisible: EventHandler<UnfocusedVisibleEvent>? = null
-    internal set
+  var onUnfocusedVisible: EventHandler<UnfocusedVisibleEvent>?
+    get() = visibilityAttributes?.onUnfocusedVisible
+    internal set(value) {
+      mutableVisibilityAttributes().onUnfocusedVisible = value
+    }
 
-  var onFullImpression: EventHandler<FullImpressionVisibleEvent>? = null
-    internal set
+  var onFullImpression: EventHandler<FullImpressionVisibleEvent>?
+    get() = visibilityAttributes?.onFullImpression
+    internal set(value) {
+      mutableVisibilityAttributes().onFullImpression = value
+    }
 
-  var onInvisible: EventHandler<InvisibleEvent>? = null
-    internal set
+  var onInvisible: EventHandler<InvisibleEvent>?
+    get() = visibilityAttributes?.onInvisible
+    internal set(value) {
+      mutableVisibilityAttributes().onInvisible = value
+    }
 
-  var onVisibilityChanged: EventHandler<VisibilityChangedEvent>? = null
-    internal set
+  var onVisibilityChanged: EventHandler<VisibilityChangedEvent>?
+    get() = visibilityAttributes?.onVisibilityChanged
+    internal set(value) {
+      mutableVisibilityAttributes().onVisibilityChanged = value
+    }
 
   var background: Drawable? = null
     internal set
@@ -161,23 +186,43 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   var foreground: Drawable? = null
     internal set
 
-  var borderPathEffect: PathEffect? = null
-    internal set
+  var borderPathEffect: PathEffect?
+    get() = viewAttributes?.borderPathEffect
+    internal set(value) {
+      if (value != null || viewAttributes != null) {
+        mutableViewAttributes().borderPathEffect = value
+      }
+    }
 
-  var stateListAnimator: StateListAnimator? = null
-    internal set
+  var stateListAnimator: StateListAnimator?
+    get() = viewAttributes?.stateListAnimator
+    internal set(value) {
+      mutableViewAttributes().stateListAnimator = value
+    }
 
-  var transitionKey: String? = null
-    internal set
+  var transitionKey: String?
+    get() = transitionAttributes?.transitionKey
+    internal set(value) {
+      mutableTransitionAttributes().transitionKey = value
+    }
 
-  var transitionOwnerKey: String? = null
-    internal set
+  var transitionOwnerKey: String?
+    get() = transitionAttributes?.transitionOwnerKey
+    internal set(value) {
+      mutableTransitionAttributes().transitionOwnerKey = value
+    }
 
-  var transitionKeyType: TransitionKeyType? = null
-    internal set
+  var transitionKeyType: TransitionKeyType?
+    get() = transitionAttributes?.transitionKeyType
+    internal set(value) {
+      mutableTransitionAttributes().transitionKeyType = value
+    }
 
-  var layerPaint: Paint? = null
-    internal set
+  var layerPaint: Paint?
+    get() = viewAttributes?.layerPaint
+    internal set(value) {
+      mutableViewAttributes().layerPaint = value
+    }
 
   var isPaddingSet: Boolean = false
     internal set
@@ -194,31 +239,49 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   var isForceViewWrapping: Boolean = false
     internal set
 
-  var layerType: Int = LayerType.LAYER_TYPE_NOT_SET
-    internal set
+  var layerType: Int
+    get() = viewAttributes?.layerType ?: LayerType.LAYER_TYPE_NOT_SET
+    internal set(value) {
+      mutableViewAttributes().layerType = value
+    }
 
-  var visibilityOutputTag: String? = null
-    internal set
+  var visibilityOutputTag: String?
+    get() = visibilityAttributes?.visibilityOutputTag
+    internal set(value) {
+      mutableVisibilityAttributes().visibilityOutputTag = value
+    }
 
   var importantForAccessibility: Int = ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_AUTO
     internal set
 
   @DrawableRes
-  var stateListAnimatorRes: Int = 0
-    internal set
+  var stateListAnimatorRes: Int
+    get() = viewAttributes?.stateListAnimatorRes ?: 0
+    internal set(value) {
+      mutableViewAttributes().stateListAnimatorRes = value
+    }
 
-  var visibleHeightRatio: Float = 0f
-    internal set
+  var visibleHeightRatio: Float
+    get() = visibilityAttributes?.visibleHeightRatio ?: 0f
+    internal set(value) {
+      mutableVisibilityAttributes().visibleHeightRatio = value
+    }
 
-  var visibleWidthRatio: Float = 0f
-    internal set
+  var visibleWidthRatio: Float
+    get() = visibilityAttributes?.visibleWidthRatio ?: 0f
+    internal set(value) {
+      mutableVisibilityAttributes().visibleWidthRatio = value
+    }
 
   /**
    * Returns a nullable map of [RenderUnit.DelegateBinder] that is aimed to be used to set the
    * optional mount binders right after creating a [MountSpecLithoRenderUnit].
    */
-  var customViewBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
-    internal set
+  var customViewBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>?
+    get() = binders?.customViewBindersForMountSpec
+    internal set(value) {
+      mutableBinders().customViewBindersForMountSpec = value
+    }
 
   /**
    * Returns a nullable map of [RenderUnit.DelegateBinder] that is aimed to be used to set the
@@ -226,11 +289,17 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
    *
    * @see LithoNodeUtils.createHostRenderUnit
    */
-  var customHostViewBinders: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
-    internal set
+  var customHostViewBinders: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>?
+    get() = binders?.customHostViewBinders
+    internal set(value) {
+      mutableBinders().customHostViewBinders = value
+    }
 
-  var customBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
-    internal set
+  var customBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>?
+    get() = binders?.customBindersForMountSpec
+    internal set(value) {
+      mutableBinders().customBindersForMountSpec = value
+    }
 
   /**
    * A unique identifier which may be set for retrieving a component and its bounds when testing.
@@ -241,12 +310,14 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   var willMountView: Boolean = false
     private set
 
-  var touchExpansion: Edges? = null
-    private set
+  var touchExpansion: Edges?
+    get() = viewAttributes?.touchExpansion
+    private set(value) {
+      mutableViewAttributes().touchExpansion = value
+    }
 
-  private var _systemGestureExclusionZones: MutableList<(Rect) -> Rect>? = null
   val systemGestureExclusionZones: List<(Rect) -> Rect>?
-    get() = _systemGestureExclusionZones
+    get() = viewAttributes?.systemGestureExclusionZones
 
   var isClone: Boolean = false
     private set
@@ -316,6 +387,11 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
       node = super.clone() as LithoNode
       node.isClone = true
       node.id = id
+      // The sidecars are mutable, so the clone must not share them with this node.
+      node.visibilityAttributes = visibilityAttributes?.copy()
+      node.transitionAttributes = transitionAttributes?.copy()
+      node.viewAttributes = viewAttributes?.copy()
+      node.binders = binders?.copy()
     } catch (e: CloneNotSupportedException) {
       throw RuntimeException(e)
     }
@@ -828,12 +904,13 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   }
 
   fun hasVisibilityHandlers(): Boolean =
-      onVisible != null ||
-          onFocusedVisible != null ||
-          onUnfocusedVisible != null ||
-          onFullImpression != null ||
-          onInvisible != null ||
-          onVisibilityChanged != null
+      privateFlags and PFLAG_VISIBILITY_ATTRIBUTES_IS_SET != 0L &&
+          (onVisible != null ||
+              onFocusedVisible != null ||
+              onUnfocusedVisible != null ||
+              onFullImpression != null ||
+              onInvisible != null ||
+              onVisibilityChanged != null)
 
   fun visibilityOutputTag(visibilityOutputTag: String?) {
     this.visibilityOutputTag = visibilityOutputTag
@@ -849,8 +926,9 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   }
 
   fun addSystemGestureExclusionZones(zones: MutableList<(Rect) -> Rect>) {
-    (_systemGestureExclusionZones
-            ?: ArrayList<(Rect) -> Rect>().also { _systemGestureExclusionZones = it })
+    val attributes = mutableViewAttributes()
+    (attributes.systemGestureExclusionZones
+            ?: ArrayList<(Rect) -> Rect>().also { attributes.systemGestureExclusionZones = it })
         .addAll(zones)
   }
 
@@ -935,6 +1013,80 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
   private fun hasCustomBindersForMountSpec(): Boolean =
       customViewBindersForMountSpec?.isNotEmpty() == true
 
+  private fun mutableVisibilityAttributes(): VisibilityAttributes =
+      visibilityAttributes
+          ?: VisibilityAttributes().also {
+            visibilityAttributes = it
+            privateFlags = privateFlags or PFLAG_VISIBILITY_ATTRIBUTES_IS_SET
+          }
+
+  private fun mutableTransitionAttributes(): TransitionAttributes =
+      transitionAttributes
+          ?: TransitionAttributes().also {
+            transitionAttributes = it
+            privateFlags = privateFlags or PFLAG_TRANSITION_ATTRIBUTES_IS_SET
+          }
+
+  private fun mutableViewAttributes(): RareViewAttributes =
+      viewAttributes
+          ?: RareViewAttributes().also {
+            viewAttributes = it
+            privateFlags = privateFlags or PFLAG_RARE_VIEW_ATTRIBUTES_IS_SET
+          }
+
+  private fun mutableBinders(): CustomBinders =
+      binders
+          ?: CustomBinders().also {
+            binders = it
+            privateFlags = privateFlags or PFLAG_CUSTOM_BINDERS_IS_SET
+          }
+
+  /** The visibility event handlers and visibility output attributes of a [LithoNode]. */
+  private class VisibilityAttributes : Cloneable {
+    var onVisible: EventHandler<VisibleEvent>? = null
+    var onFocusedVisible: EventHandler<FocusedVisibleEvent>? = null
+    var onUnfocusedVisible: EventHandler<UnfocusedVisibleEvent>? = null
+    var onFullImpression: EventHandler<FullImpressionVisibleEvent>? = null
+    var onInvisible: EventHandler<InvisibleEvent>? = null
+    var onVisibilityChanged: EventHandler<VisibilityChangedEvent>? = null
+    var visibilityOutputTag: String? = null
+    var visibleHeightRatio: Float = 0f
+    var visibleWidthRatio: Float = 0f
+
+    fun copy(): VisibilityAttributes = clone() as VisibilityAttributes
+  }
+
+  /** The transition key attributes of a [LithoNode]. */
+  private class TransitionAttributes : Cloneable {
+    var transitionKey: String? = null
+    var transitionOwnerKey: String? = null
+    var transitionKeyType: TransitionKeyType? = null
+
+    fun copy(): TransitionAttributes = clone() as TransitionAttributes
+  }
+
+  /** View attributes of a [LithoNode] which only a small fraction of nodes ever set. */
+  private class RareViewAttributes : Cloneable {
+    var borderPathEffect: PathEffect? = null
+    var stateListAnimator: StateListAnimator? = null
+    @DrawableRes var stateListAnimatorRes: Int = 0
+    var layerType: Int = LayerType.LAYER_TYPE_NOT_SET
+    var layerPaint: Paint? = null
+    var touchExpansion: Edges? = null
+    var systemGestureExclusionZones: MutableList<(Rect) -> Rect>? = null
+
+    fun copy(): RareViewAttributes = clone() as RareViewAttributes
+  }
+
+  /** The custom mount binders of a [LithoNode]. */
+  private class CustomBinders : Cloneable {
+    var customViewBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
+    var customHostViewBinders: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
+    var customBindersForMountSpec: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>>? = null
+
+    fun copy(): CustomBinders = clone() as CustomBinders
+  }
+
   companion object {
     private val idGenerator = AtomicInteger(1)
 
@@ -957,6 +1109,10 @@ open class LithoNode : Node<LithoLayoutContext>, Cloneable {
     internal const val PFLAG_TRANSITION_KEY_TYPE_IS_SET: Long = 1L shl 32
     internal const val PFLAG_DUPLICATE_CHILDREN_STATES_IS_SET: Long = 1L shl 33
     internal const val PFLAG_BINDER_IS_SET: Long = 1L shl 34
+    internal const val PFLAG_VISIBILITY_ATTRIBUTES_IS_SET: Long = 1L shl 35
+    internal const val PFLAG_TRANSITION_ATTRIBUTES_IS_SET: Long = 1L shl 36
+    internal const val PFLAG_RARE_VIEW_ATTRIBUTES_IS_SET: Long = 1L shl 37
+    internal const val PFLAG_CUSTOM_BINDERS_IS_SET: Long = 1L shl 38
 
     private inline fun readStyledAttributes(
         context: Context,
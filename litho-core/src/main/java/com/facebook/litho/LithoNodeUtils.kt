@@ -56,13 +56,15 @@ object LithoNodeUtils {
       return null
     }
 
-    val componentKey: String = node.tailComponentKey
     val context: ComponentContext = node.tailComponentContext
     var previousId: Long = -1
 
     diffNode?.contentOutput?.let { contentOutput -> previousId = contentOutput.id }
 
-    val id: Long = context.calculateLayoutOutputId(componentKey, OutputUnitType.CONTENT)
+    val id: Long =
+        context.calculateLayoutOutputId(
+            checkNotNull(context.compactGlobalKey) { "Cannot have a null global key" },
+            OutputUnitType.CONTENT)
 
     val additionalBinders: MutableMap<BinderKey, DelegateBinder<Any, Any, Any>> = HashMap()
     if (node.primitive == null) {
@@ -124,7 +126,10 @@ object LithoNodeUtils {
         mergeCommonDynamicProps(node.scopedComponentInfos)
     hostComponent.commonDynamicProps = commonDynamicProps
 
-    val id: Long = context.calculateLayoutOutputId(node.tailComponentKey, OutputUnitType.HOST)
+    val id: Long =
+        context.calculateLayoutOutputId(
+            checkNotNull(context.compactGlobalKey) { "Cannot have a null global key" },
+            OutputUnitType.HOST)
 
     val additionalBinders =
         node.customHostViewBinders +
@@ -268,7 +273,6 @@ object LithoNodeUtils {
   ): LithoRenderUnit {
     val component: DrawableComponent = DrawableComponent.create(drawable, width, height)
     val context: ComponentContext = node.tailComponentContext
-    val componentKey: String = node.tailComponentKey
     val recycle: LithoRenderUnit? =
         if (diffNode != null) {
           when (outputType) {
@@ -295,7 +299,9 @@ object LithoNodeUtils {
           false
         }
     val previousId: Long = recycle?.id ?: -1
-    val id: Long = context.calculateLayoutOutputId(componentKey, outputType)
+    val id: Long =
+        context.calculateLayoutOutputId(
+            checkNotNull(context.compactGlobalKey) { "Cannot have a null global key" }, outputType)
 
     return createRenderUnit(
         id = id,
@@ -457,7 +463,12 @@ object LithoNodeUtils {
   }
 
   private fun getLithoNodeDebugKey(node: LithoNode, @OutputUnitType outputUnitType: Int): String? =
-      getDebugKey(node.tailComponentKey, outputUnitType)
+      // Checked first so that the global key isn't rendered to a string when it isn't needed.
+      if (LithoDebugConfigurations.isDebugModeEnabled) {
+        getDebugKey(node.tailComponentKey, outputUnitType)
+      } else {
+        null
+      }
 
   @JvmStatic
   fun getDebugKey(componentKey: String?, @OutputUnitType outputUnitType: Int): String? =
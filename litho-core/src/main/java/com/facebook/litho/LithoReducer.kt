@@ -28,9 +28,9 @@ import com.facebook.rendercore.MountState
 import com.facebook.rendercore.RenderTreeNode
 import com.facebook.rendercore.incrementalmount.ExcludeFromIncrementalMountBinder
 import com.facebook.rendercore.incrementalmount.IncrementalMountOutput
-import com.facebook.rendercore.incrementalmount.IncrementalMountRenderCoreExtension
 import com.facebook.rendercore.visibility.VisibilityEventCallbackData
 import com.facebook.rendercore.visibility.VisibilityOutput
+import com.facebook.rendercore.visibility.VisibilityOutputsIndex
 import kotlin.math.max
 import kotlin.math.min
 
@@ -49,10 +49,24 @@ internal object LithoReducer {
       reductionState: ReductionState,
   ): LayoutState {
 
-    setSizeAfterMeasureAndCollectResults(reductionState, lsc)
+    val scratch = ReductionScratch.acquire()
+    reductionState.scratch = scratch
+    try {
+      setSizeAfterMeasureAndCollectResults(reductionState, lsc)
+
+      if (reductionState.mountableOutputs.isEmpty()) {
+        addRootHostRenderTreeNode(reductionState)
+      }
+
+      sortMountableOutputs(reductionState)
 
-    if (reductionState.mountableOutputs.isEmpty()) {
-      addRootHostRenderTreeNode(reductionState)
+      if (reductionState.visibilityOutputs.isNotEmpty()) {
+        // Indexed here, off the main thread, so that scrolling only visits nearby outputs.
+        reductionState.visibilityOutputsIndex =
+            VisibilityOutputsIndex(reductionState.visibilityOutputs)
+      }
+    } finally {
+      scratch.release()
     }
 
     return LayoutState(
@@ -133,17 +147,6 @@ internal object LithoReducer {
     if (isTracing) {
       ComponentsSystrace.endSection()
     }
-
-    if (isTracing) {
-      ComponentsSystrace.beginSection("sortMountableOutputs")
-    }
-
-    sortTops(reductionState)
-    sortBottoms(reductionState)
-
-    if (isTracing) {
-      ComponentsSystrace.endSection()
-    }
   }
 
   private fun addRootHostRenderTreeNode(
@@ -183,7 +186,7 @@ internal object LithoReducer {
 
   private fun createRootHostRenderUnit(context: ComponentContext): MountSpecLithoRenderUnit {
     val component = HostComponent.create(context)
-    val globalKey: String = ComponentKeyUtils.generateGlobalKey(context, null, component)
+    val globalKey: GlobalKey = ComponentKeyUtils.generateCompactGlobalKey(context, null, component)
     val c: ComponentContext = ComponentContext.withComponentScope(context, component, globalKey)
     return MountSpecLithoRenderUnit.create(
         id = MountState.ROOT_HOST_ID,
@@ -788,12 +791,12 @@ internal object LithoReducer {
 
     if (transitionId.mType == TransitionId.Type.AUTOGENERATED) {
       // Check if the duplications of this key has been found before, if so, just ignore it
-      if (!reductionState.duplicatedTransitionIds.contains(transitionId)) {
+      if (!reductionState.scratch.duplicatedTransitionIds.contains(transitionId)) {
         if (reductionState.transitionIdMapping.put(transitionId, group) != null) {
           // Already seen component with the same generated transition key, remove it from the
           // mapping and ignore in the future
           reductionState.transitionIdMapping.remove(transitionId)
-          reductionState.duplicatedTransitionIds.add(transitionId)
+          reductionState.scratch.duplicatedTransitionIds.add(transitionId)
         }
       }
     } else {
@@ -874,43 +877,18 @@ internal object LithoReducer {
     return reductionState.mountableOutputs.size - 1
   }
 
-  private fun sortTops(reductionState: ReductionState) {
-    val unsorted: List<IncrementalMountOutput> = ArrayList(reductionState.mountableOutputTops)
-    try {
-      reductionState.mountableOutputTops.sortWith(
-          IncrementalMountRenderCoreExtension.sTopsComparator)
-    } catch (e: IllegalArgumentException) {
-      val errorMessage = StringBuilder()
-      errorMessage.append(e.message).append("\n")
-      val size = unsorted.size
-      errorMessage.append("Error while sorting ReductionState tops. Size: $size").append("\n")
-      val rect = Rect()
-      for (i in 0 until size) {
-        val node: RenderTreeNode = reductionState.mountableOutputs[i]
-        errorMessage.append("   Index $i top: ${node.getAbsoluteBounds(rect).top}").append("\n")
-      }
-      throw IllegalStateException(errorMessage.toString())
+  private fun sortMountableOutputs(reductionState: ReductionState) {
+    val isTracing: Boolean = ComponentsSystrace.isTracing
+    if (isTracing) {
+      ComponentsSystrace.beginSection("sortMountableOutputs")
     }
-  }
 
-  private fun sortBottoms(reductionState: ReductionState) {
-    val unsorted: List<IncrementalMountOutput> = ArrayList(reductionState.mountableOutputBottoms)
-    try {
-      reductionState.mountableOutputBottoms.sortWith(
-          IncrementalMountRenderCoreExtension.sBottomsComparator)
-    } catch (e: IllegalArgumentException) {
-      val errorMessage = StringBuilder()
-      errorMessage.append(e.message).append("\n")
-      val size = unsorted.size
-      errorMessage.append("Error while sorting ReductionState bottoms. Size: $size").append("\n")
-      val rect = Rect()
-      for (i in 0 until size) {
-        val node: RenderTreeNode = reductionState.mountableOutputs[i]
-        errorMessage
-            .append("   Index $i bottom: ${node.getAbsoluteBounds(rect).bottom}")
-            .append("\n")
-      }
-      throw IllegalStateException(errorMessage.toString())
+    reductionState.mountableOutputTops = reductionState.scratch.getOutputsOrderedByTopBounds()
+    reductionState.mountableOutputBottoms =
+        reductionState.scratch.getOutputsOrderedByBottomBounds()
+
+    if (isTracing) {
+      ComponentsSystrace.endSection()
     }
   }
 
@@ -961,8 +939,7 @@ internal object LithoReducer {
     val id: Long = node.renderUnit.id
     reductionState.mountableOutputs.add(node)
     reductionState.incrementalMountOutputs[id] = incrementalMountOutput
-    reductionState.mountableOutputTops.add(incrementalMountOutput)
-    reductionState.mountableOutputBottoms.add(incrementalMountOutput)
+    reductionState.scratch.incrementalMountOutputs.add(incrementalMountOutput)
 
     if ((component is SpecGeneratedComponent && component.hasChildLithoViews()) ||
         node.renderUnit.doesMountRenderTreeHosts()) {
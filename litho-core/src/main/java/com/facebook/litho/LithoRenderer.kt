@@ -38,13 +38,16 @@ class LithoRenderer(
     val context: Context,
     val id: Int = LithoTree.generateComponentTreeId(),
     val componentsConfig: ComponentsConfiguration = ComponentsConfiguration.defaultInstance,
-    val renderUnitIdGenerator: RenderUnitIdGenerator = RenderUnitIdGenerator(id),
+    val renderUnitIdGenerator: RenderUnitIdGenerator =
+        RenderUnitIdGenerator(id, componentsConfig.renderUnitIdMaxIdleGenerations),
     override val treeState: TreeState? = TreeState(),
     val parentTreePropContainer: TreePropContainer? = TreePropContainer(),
     val treePropContainer: TreePropContainer? = TreePropContainer(),
     val visibilityController: LithoVisibilityEventsController? = null,
     /* this is only set by the containers for child renderers */
     val synchronizer: UpdateSynchronizer? = null,
+    /* the handler on which async resolves and layouts run, e.g. from a [LayoutThreadPool] */
+    layoutHandler: RunnableHandler? = null,
 ) : StateProvider, StateUpdater, StateUpdateRequester, RootHostProvider, ErrorComponentReceiver {
 
   // todo Rename this class to LithoTreeContext
@@ -69,6 +72,8 @@ class LithoRenderer(
           })
   private val errorComponentRef = AtomicReference<Component?>(null)
 
+  private val renderHandler: RunnableHandler = layoutHandler ?: defaultRenderHandler
+
   /** The root component that this renderer is responsible for rendering. */
   @GuardedBy("this") @Volatile private var root: Component = EmptyComponent()
   /** The size constraints used for layout calculations. */
@@ -208,7 +213,10 @@ class LithoRenderer(
     return true
   }
 
-  /** Cleans up any pending resolve or layout operations and resets the renderer state. */
+  /**
+   * Cleans up any pending resolve or layout operations and resets the renderer state. The
+   * [renderUnitIdGenerator] is released until the renderer commits a layout again.
+   */
   @AnyThread
   fun cleanup() {
     synchronized(runnableLock) {
@@ -227,6 +235,7 @@ class LithoRenderer(
       currentLifecycle = LithoRendererLifecycle.INITIALIZED
       currentResolveResult = null
       currentLayoutState = null
+      renderUnitIdGenerator.release()
     }
   }
 
@@ -461,6 +470,8 @@ class LithoRenderer(
         (layoutState.resolveResult == currentResolveResult)) {
       currentLayoutState = layoutState
       treeState?.commitLayoutState(layoutState.treeState)
+      renderUnitIdGenerator.acquire()
+      renderUnitIdGenerator.onLayoutStateCommitted(layoutState)
       return true
     }
     return false
@@ -763,7 +774,9 @@ class LithoRenderer(
 
   companion object {
     private val uiThreadHandler: RunnableHandler = DefaultHandler(Looper.getMainLooper())
-    private val renderHandler = DefaultHandler(ComponentTree.getDefaultLayoutThreadLooper())
+    private val defaultRenderHandler: RunnableHandler by lazy {
+      DefaultHandler(ComponentTree.getDefaultLayoutThreadLooper())
+    }
 
     // The max number of times we will retry a failed resolve request.
     private const val MAX_RESOLVE_TIMES: Int = 2
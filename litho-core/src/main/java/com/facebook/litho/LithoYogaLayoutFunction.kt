@@ -226,7 +226,14 @@ internal object LithoYogaLayoutFunction {
     }
 
     if (layoutResult == null) {
-      val writer: YogaLayoutProps = currentNode.createYogaNodeWriter()
+      val componentsConfig = currentNode.tailComponentContext.lithoConfiguration.componentsConfig
+      val styleInputs: YogaStyleInputsBuffer? =
+          if (componentsConfig.enableBatchedYogaStyleWrites) {
+            context.renderContext?.yogaStyleInputs
+          } else {
+            null
+          }
+      val writer: YogaLayoutProps = currentNode.createYogaNodeWriter(styleInputs)
 
       // Transfer the layout props to YogaNode
       if (currentNode is DeferredLithoNode) {
@@ -699,17 +706,44 @@ internal object LithoYogaLayoutFunction {
           // If the Layout Result was cached, but the size specs changed, then layout data
           // will be mutated. To avoid that create new (layout data) interstage props container
           // for mount specs to avoid mutating the currently mount layout data.
-          newLayoutData = (component as SpecGeneratedComponent).createInterStagePropsContainer()
-          component.onMeasure(
-              componentScopedContext,
-              SpecGeneratedComponentLayout(
-                  layoutOutput = lithoLayoutResult.layoutOutput,
-                  paddingSet = lithoLayoutResult.node.isPaddingSet,
-                  backgroundDrawable = lithoLayoutResult.node.background),
-              widthSpec,
-              heightSpec,
-              size,
-              newLayoutData)
+          val specComponent = component as SpecGeneratedComponent
+          val canShareMeasure = SharedMeasureCache.isEligible(componentScopedContext, component)
+          // Another tree may have already measured an equivalent component with the same specs.
+          val sharedMeasure =
+              if (canShareMeasure) {
+                SharedMeasureCache.get(componentScopedContext, component, widthSpec, heightSpec)
+              } else {
+                null
+              }
+          if (sharedMeasure != null) {
+            newLayoutData =
+                SharedMeasureCache.copyLayoutData(
+                    specComponent, sharedMeasure.layoutData as InterStagePropsContainer?)
+            size.width = sharedMeasure.width
+            size.height = sharedMeasure.height
+          } else {
+            newLayoutData = specComponent.createInterStagePropsContainer()
+            specComponent.onMeasure(
+                componentScopedContext,
+                SpecGeneratedComponentLayout(
+                    layoutOutput = lithoLayoutResult.layoutOutput,
+                    paddingSet = lithoLayoutResult.node.isPaddingSet,
+                    backgroundDrawable = lithoLayoutResult.node.background),
+                widthSpec,
+                heightSpec,
+                size,
+                newLayoutData)
+            if (canShareMeasure) {
+              SharedMeasureCache.put(
+                  componentScopedContext,
+                  specComponent,
+                  widthSpec,
+                  heightSpec,
+                  size.width,
+                  size.height,
+                  newLayoutData)
+            }
+          }
           delegate = null
           width = size.width
           height = size.height
@@ -899,16 +933,16 @@ internal object LithoYogaLayoutFunction {
     }
   }
 
-  private fun LithoNode.createYogaNodeWriter(): YogaLayoutProps {
+  private fun LithoNode.createYogaNodeWriter(styleInputs: YogaStyleInputsBuffer?): YogaLayoutProps {
     return when (this) {
       is DeferredLithoNode -> {
-        DeferredNodeYogaLayoutProps(NodeConfig.createYogaNode())
+        DeferredNodeYogaLayoutProps(NodeConfig.createYogaNode(), styleInputs)
       }
       is NullNode -> {
         NullWriter().apply { node.display = YogaDisplay.NONE }
       }
       else -> {
-        YogaLayoutProps(NodeConfig.createYogaNode())
+        YogaLayoutProps(NodeConfig.createYogaNode(), styleInputs)
       }
     }
   }
@@ -917,13 +951,13 @@ internal object LithoYogaLayoutFunction {
     val node: YogaNode = writer.node
 
     // Apply the extra layout props
-    layoutDirection.let { node.setDirection(it.toYogaDirection()) }
-    flexDirection?.let { node.flexDirection = it }
-    justifyContent?.let { node.justifyContent = it }
-    alignContent?.let { node.alignContent = it }
-    alignItems?.let { node.alignItems = it }
-    yogaWrap?.let { node.wrap = it }
-    withValidGap { gap, yogaGutter -> node.setGap(yogaGutter, gap.toFloat()) }
+    writer.layoutDirection(layoutDirection)
+    flexDirection?.let { writer.flexDirection(it) }
+    justifyContent?.let { writer.justifyContent(it) }
+    alignContent?.let { writer.alignContent(it) }
+    alignItems?.let { writer.alignItems(it) }
+    yogaWrap?.let { writer.wrap(it) }
+    withValidGap { gap, yogaGutter -> writer.gap(yogaGutter, gap) }
     yogaMeasureFunction?.let { node.setMeasureFunction(it) }
 
     var wasDeferredNodePropsTransferred = false
@@ -964,6 +998,7 @@ internal object LithoYogaLayoutFunction {
         { yogaEdge, paddingPercent -> writer.paddingPercent(yogaEdge, paddingPercent) })
 
     debugLayoutProps?.copyInto(writer)
+    writer.flush()
     isPaddingSet = writer.isPaddingSet
   }
 
@@ -68,6 +68,16 @@ constructor(private val delegateCache: MeasuredResultCache? = null) {
     nodeToResultCache[node] = layoutResult
   }
 
+  /**
+   * Adds the results cached in [other] to this cache. Results only present in the delegate cache of
+   * [other] are not copied.
+   */
+  internal fun addAll(other: MeasuredResultCache) {
+    check(!isFrozen) { "Cannot write into a frozen cache." }
+    componentIdToNodeCache.putAll(other.componentIdToNodeCache)
+    nodeToResultCache.putAll(other.nodeToResultCache)
+  }
+
   /** Return true if there exists a cached layout result for the given component. */
   fun hasCachedNode(component: Component): Boolean = hasCachedNode(component.instanceId)
 
@@ -119,4 +119,6 @@ class NullWriter internal constructor() : YogaLayoutProps(node = NodeConfig.crea
   override fun justifyContent(justify: YogaJustify) = Unit
 
   override fun alignItems(align: YogaAlign) = Unit
+
+  override fun alignContent(align: YogaAlign) = Unit
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.os.Process
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.rendercore.utils.MeasureSpecUtils
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.ForkJoinWorkerThread
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Resolves the children of a container on a fork-join pool, for trees which enabled
+ * [ComponentsConfiguration.enableParallelResolve].
+ *
+ * The global keys of the children are generated up front on the calling thread, in child order, so
+ * they are the same as with a sequential resolve. Every child is then resolved against its own fork
+ * of the [ResolveContext], which keeps its cached results and recorded event handlers to itself
+ * until they are merged back, in child order, once all children are resolved. State is shared
+ * through the [TreeState], whose [StateHandler] is already safe to use from several threads.
+ */
+internal object ParallelResolver {
+
+  /** Containers with fewer children are resolved sequentially. */
+  private const val MIN_CHILDREN_TO_FORK = 2
+
+  private const val THREAD_NAME_SUFFIX = "Resolve-"
+
+  private val MEASURE_SPEC_UNSPECIFIED: Int = MeasureSpecUtils.unspecified()
+
+  private val pool: ForkJoinPool by lazy {
+    ForkJoinPool(LayoutThreadPool.DEFAULT_POOL_SIZE, ResolveThreadFactory, null, false)
+  }
+
+  fun shouldResolveInParallel(c: ComponentContext, children: List<Component>): Boolean =
+      children.size >= MIN_CHILDREN_TO_FORK &&
+          c.lithoConfiguration.componentsConfig.enableParallelResolve
+
+  /** See [Resolver.resolveChildren]. */
+  fun resolveChildren(
+      resolveContext: ResolveContext,
+      c: ComponentContext,
+      node: LithoNode,
+      children: List<Component>
+  ): Boolean {
+    if (resolveContext.isFutureReleased) {
+      return false
+    }
+    // Interruption is only checked once for all siblings, so that the unresolved children are
+    // always the last ones, like with a sequential resolve.
+    if (resolveContext.isResolveInterrupted) {
+      children.forEach { node.appendUnresolvedComponent(it) }
+      return true
+    }
+
+    val results = arrayOfNulls<LithoNode>(children.size)
+    val tasks = ArrayList<ResolveChildTask>(children.size)
+    children.forEachIndexed { index, child ->
+      if (Component.hasCachedNode(resolveContext, child) ||
+          child.getLayoutCreatedInWillRender(resolveContext) != null) {
+        // These reuse a node which was already created, and don't need a new global key.
+        results[index] = Resolver.resolve(resolveContext, c, child)
+      } else {
+        val globalKey = ComponentKeyUtils.generateCompactGlobalKey(c, c.componentScope, child)
+        tasks.add(ResolveChildTask(index, resolveContext.fork(), c, child, globalKey))
+      }
+    }
+
+    // The calling thread resolves the first child itself rather than waiting idle.
+    for (i in 1 until tasks.size) {
+      val task = tasks[i]
+      if (ForkJoinTask.getPool() === pool) {
+        task.fork()
+      } else {
+        pool.execute(task)
+      }
+    }
+    tasks.firstOrNull()?.invoke()
+
+    var error: Throwable? = null
+    for (task in tasks) {
+      task.join()
+      resolveContext.merge(task.resolveContext)
+      results[task.index] = task.result
+      error = error ?: task.error
+    }
+    error?.let { throw it }
+
+    if (resolveContext.isFutureReleased) {
+      return false
+    }
+    results.forEach { node.child(it) }
+    return true
+  }
+
+  private class ResolveChildTask(
+      val index: Int,
+      val resolveContext: ResolveContext,
+      private val parent: ComponentContext,
+      private val component: Component,
+      private val globalKey: GlobalKey,
+  ) : RecursiveAction() {
+
+    var result: LithoNode? = null
+    var error: Throwable? = null
+
+    override fun compute() {
+      // Components read the resolve context of the thread they are resolved on.
+      val previous = parent.calculationStateContext
+      parent.setRenderStateContext(resolveContext)
+      // State is read from the tree state of the thread's scope. The thread which forked the tasks
+      // is already in that scope, but pool threads have to enter it, once even if they run nested
+      // tasks.
+      val resolveThread = Thread.currentThread() as? ResolveThread
+      val stateProvider =
+          if (resolveThread != null && resolveThread.stateScopeDepth++ == 0) {
+            parent.stateProvider
+          } else {
+            null
+          }
+      stateProvider?.enterScope(resolveContext.treeState)
+      try {
+        result =
+            Resolver.resolveImpl(
+                resolveContext = resolveContext,
+                parent = parent,
+                parentWidthSpec = MEASURE_SPEC_UNSPECIFIED,
+                parentHeightSpec = MEASURE_SPEC_UNSPECIFIED,
+                component = component,
+                compactGlobalKeyToReuse = globalKey)
+      } catch (t: Throwable) {
+        // Rethrown by the thread which forked this task, once all siblings are done.
+        error = t
+      } finally {
+        stateProvider?.exitScope(resolveContext.treeState)
+        resolveThread?.let { it.stateScopeDepth-- }
+        parent.setCalculationStateContext(previous)
+      }
+    }
+  }
+
+  private object ResolveThreadFactory : ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+    private val threadCount = AtomicInteger()
+
+    override fun newThread(pool: ForkJoinPool): ForkJoinWorkerThread =
+        ResolveThread(pool, threadCount.incrementAndGet())
+  }
+
+  private class ResolveThread(pool: ForkJoinPool, index: Int) : ForkJoinWorkerThread(pool) {
+
+    /** The number of tasks this thread is running, as it can run a task while joining another. */
+    var stateScopeDepth: Int = 0
+
+    init {
+      // Keeps the default layout thread prefix so that ThreadUtils.isLayoutThread still holds.
+      name = ComponentTree.DEFAULT_LAYOUT_THREAD_NAME + THREAD_NAME_SUFFIX + index
+    }
+
+    override fun onStart() {
+      super.onStart()
+      Process.setThreadPriority(ComponentsConfiguration.DEFAULT_BACKGROUND_THREAD_PRIORITY)
+    }
+  }
+}
@@ -192,7 +192,8 @@ class PrimitiveComponentScope internal constructor(context: ComponentContext) :
     // TODO(zielinskim): calculateLayoutOutputId is mutated during resolve/layout and it may race.
     // Ideally, we'd like to replace this hacky solution with something else.
     return context.renderUnitIdGenerator?.calculateLayoutOutputId(
-        context.globalKey, OutputUnitType.CONTENT)
+        checkNotNull(context.compactGlobalKey) { "Cannot have a null global key" },
+        OutputUnitType.CONTENT)
         ?: throw IllegalStateException("Attempt to use a released RenderStateContext")
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.rendercore.incrementalmount.IncrementalMountOutput
+import com.facebook.rendercore.incrementalmount.IncrementalMountRenderCoreExtension
+import java.util.Arrays
+
+/**
+ * Scratch buffers used by [LithoReducer] while collecting the results of a layout. They only live
+ * for the duration of a reduction, so instead of being reallocated for every [LayoutState] they are
+ * cleared and reused by the next reduction on the same thread. Only right sized copies of their
+ * contents are handed over to the [LayoutState].
+ */
+internal class ReductionScratch private constructor() {
+
+  /** The incremental mount outputs, in the order they were added, i.e. ordered by index. */
+  val incrementalMountOutputs: ArrayList<IncrementalMountOutput> = ArrayList()
+
+  /** The autogenerated transition ids which were found on more than one component. */
+  val duplicatedTransitionIds: HashSet<TransitionId> = HashSet()
+
+  private var sortKeys: LongArray = LongArray(INITIAL_CAPACITY)
+  private var isInUse: Boolean = false
+
+  /**
+   * Returns the [incrementalMountOutputs] ordered by their top bounds, in the same order as
+   * [IncrementalMountRenderCoreExtension.sTopsComparator].
+   */
+  fun getOutputsOrderedByTopBounds(): List<IncrementalMountOutput> = sort(byBottom = false)
+
+  /**
+   * Returns the [incrementalMountOutputs] ordered by their bottom bounds, in the same order as
+   * [IncrementalMountRenderCoreExtension.sBottomsComparator].
+   */
+  fun getOutputsOrderedByBottomBounds(): List<IncrementalMountOutput> = sort(byBottom = true)
+
+  /**
+   * Sorts the outputs on primitive keys which pack the edge in the high bits and the position of
+   * the output in the low bits, which breaks ties by index: ascending for tops and descending for
+   * bottoms.
+   */
+  private fun sort(byBottom: Boolean): List<IncrementalMountOutput> {
+    val outputs = incrementalMountOutputs
+    val size = outputs.size
+    if (sortKeys.size < size) {
+      sortKeys = LongArray(maxOf(size, sortKeys.size * 2))
+    }
+    val keys = sortKeys
+    for (i in 0 until size) {
+      val bounds = outputs[i].bounds
+      keys[i] = if (byBottom) pack(bounds.bottom, Int.MAX_VALUE - i) else pack(bounds.top, i)
+    }
+    Arrays.sort(keys, 0, size)
+
+    val sorted = ArrayList<IncrementalMountOutput>(size)
+    for (i in 0 until size) {
+      val position = keys[i].toInt()
+      sorted.add(outputs[if (byBottom) Int.MAX_VALUE - position else position])
+    }
+    return sorted
+  }
+
+  /** Clears the buffers and makes them available to the next reduction on this thread. */
+  fun release() {
+    if (incrementalMountOutputs.size > MAX_RETAINED_CAPACITY) {
+      incrementalMountOutputs.clear()
+      incrementalMountOutputs.trimToSize()
+      sortKeys = LongArray(INITIAL_CAPACITY)
+    } else {
+      incrementalMountOutputs.clear()
+    }
+    duplicatedTransitionIds.clear()
+    isInUse = false
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 64
+
+    /** Buffers grown beyond this many outputs are dropped instead of being kept for reuse. */
+    private const val MAX_RETAINED_CAPACITY = 4096
+
+    private val pool: ThreadLocal<ReductionScratch> = ThreadLocal()
+
+    /**
+     * Returns the scratch buffers of the current thread. If they are already used by a reduction
+     * higher up the stack (e.g. a nested tree laid out synchronously while collecting the results
+     * of its parent), new buffers are returned instead.
+     */
+    @JvmStatic
+    fun acquire(): ReductionScratch {
+      val scratch = pool.get() ?: ReductionScratch().also { pool.set(it) }
+      if (scratch.isInUse) {
+        return ReductionScratch()
+      }
+      scratch.isInUse = true
+      return scratch
+    }
+
+    private fun pack(edge: Int, position: Int): Long = (edge.toLong() shl 32) or position.toLong()
+  }
+}
@@ -18,6 +18,7 @@ package com.facebook.litho
 
 import android.graphics.Rect
 import androidx.collection.LongSparseArray
+import androidx.collection.MutableLongObjectMap
 import androidx.collection.MutableScatterSet
 import com.facebook.kotlin.compilerplugins.dataclassgenerate.annotation.DataClassGenerate
 import com.facebook.kotlin.compilerplugins.dataclassgenerate.annotation.Mode
@@ -31,6 +32,7 @@ import com.facebook.rendercore.SizeConstraints.Helper.getHeightSpec
 import com.facebook.rendercore.SizeConstraints.Helper.getWidthSpec
 import com.facebook.rendercore.incrementalmount.IncrementalMountOutput
 import com.facebook.rendercore.visibility.VisibilityOutput
+import com.facebook.rendercore.visibility.VisibilityOutputsIndex
 
 /**
  * A data structure that holds all the information needed to perform a reduction pass, which is
@@ -52,19 +54,20 @@ internal data class ReductionState(
     val widthSpec: Int = getWidthSpec(sizeConstraints),
     val heightSpec: Int = getHeightSpec(sizeConstraints),
     val visibilityOutputs: MutableList<VisibilityOutput> = ArrayList(8),
+    var visibilityOutputsIndex: VisibilityOutputsIndex? = null,
     val testOutputs: MutableList<TestOutput>? =
         if (ComponentsConfiguration.isEndToEndTestRun) ArrayList(8) else null,
     val componentScopes: MutableList<ScopedComponentInfo> = ArrayList(),
     val componentKeyToBounds: MutableMap<String, Rect> = HashMap(),
     val componentHandleToBounds: MutableMap<Handle, Rect> = HashMap(),
-    val duplicatedTransitionIds: MutableSet<TransitionId> = HashSet(),
     val transitionIdMapping: MutableMap<TransitionId, OutputUnitsAffinityGroup<AnimatableItem>> =
         LinkedHashMap(),
-    val mountableOutputTops: ArrayList<IncrementalMountOutput> = ArrayList(),
-    val mountableOutputBottoms: ArrayList<IncrementalMountOutput> = ArrayList(),
-    val incrementalMountOutputs: MutableMap<Long, IncrementalMountOutput> = LinkedHashMap(8),
+    var mountableOutputTops: List<IncrementalMountOutput> = emptyList(),
+    var mountableOutputBottoms: List<IncrementalMountOutput> = emptyList(),
+    val incrementalMountOutputs: MutableLongObjectMap<IncrementalMountOutput> =
+        MutableLongObjectMap(8),
     val renderUnitIdsWhichHostRenderTrees: MutableSet<Long> = HashSet(4),
-    val dynamicValueOutputs: MutableMap<Long, DynamicValueOutput> = LinkedHashMap(8),
+    val dynamicValueOutputs: MutableLongObjectMap<DynamicValueOutput> = MutableLongObjectMap(8),
     val animatableItems: LongSparseArray<AnimatableItem> = LongSparseArray(8),
     val outputsIdToPositionMap: LongSparseArray<Int> = LongSparseArray(8),
     var width: Int = 0,
@@ -79,4 +82,8 @@ internal data class ReductionState(
     var transitionData: MutableTransitionData? = null,
     var workingRangeContainer: WorkingRangeContainer? = null,
     val stateReads: MutableMap<StateId, MutableScatterSet<String>> = mutableMapOf(),
-)
+) {
+
+  /** The scratch buffers borrowed by [LithoReducer.reduce] for the duration of the reduction. */
+  lateinit var scratch: ReductionScratch
+}
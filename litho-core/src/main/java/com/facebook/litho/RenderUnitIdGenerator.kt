@@ -17,22 +17,69 @@
 package com.facebook.litho
 
 import androidx.annotation.GuardedBy
-import java.util.HashMap
+import androidx.annotation.VisibleForTesting
+import androidx.collection.MutableIntObjectMap
+import com.facebook.litho.stats.LithoStats
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Class that handles generation of unique IDs for RenderUnits for a given ComponentTree. The ID
  * generation uses the component key to create an ID, and creates unique IDs for any components
  * under the same ComponentTree.
+ *
+ * Keys are kept for the lifetime of the generator unless it is created with [maxIdleGenerations].
+ * In that case every committed [LayoutState] starts a new generation (see
+ * [onLayoutStateCommitted]), and keys whose ids were not part of the render units of the last
+ * [maxIdleGenerations] committed layouts are dropped, so the generator of a long lived tree (e.g. a
+ * feed) only retains the keys of components that are still around. Live keys keep their ids, and
+ * ids are never reused: a key that comes back after it was dropped gets a new id, which only costs
+ * a remount of its content.
+ *
+ * Lookups don't take a lock; they are served from concurrent maps, so that trees resolved on more
+ * than one thread don't contend on the generator.
  */
-class RenderUnitIdGenerator(
+class RenderUnitIdGenerator
+@JvmOverloads
+constructor(
     /** Returns the ComponentTree ID that this ID-generator is linked with. */
-    val componentTreeId: Int
+    val componentTreeId: Int,
+    /**
+     * The number of committed layouts after which a key that was not used anymore is dropped, or
+     * [UNBOUNDED] to never drop keys.
+     */
+    private val maxIdleGenerations: Int = UNBOUNDED,
 ) {
 
   private val nextId = AtomicInteger(1)
 
-  @GuardedBy("this") private val keyToId = HashMap<String, Int>()
+  private val keyToEntry = ConcurrentHashMap<String, Entry>()
+
+  /**
+   * Entries of compact global keys. Every new key is resolved through [keyToEntry] once, and shares
+   * its entry, so that a component gets the same id whichever form of its key is used.
+   */
+  private val globalKeyToEntry = ConcurrentHashMap<GlobalKey, Entry>()
+
+  /**
+   * Entries by id, used to mark the keys of committed render units as seen. Only maintained when
+   * keys can be dropped.
+   */
+  @GuardedBy("this") private val idToEntry = MutableIntObjectMap<Entry>()
+
+  @Volatile private var generation = 0
+
+  @Volatile private var isReleased = false
+
+  init {
+    require(maxIdleGenerations == UNBOUNDED || maxIdleGenerations > 0) {
+      "maxIdleGenerations must be positive, was $maxIdleGenerations"
+    }
+  }
+
+  /** The number of component keys this generator currently holds an id for. */
+  val size: Int
+    get() = keyToEntry.size
 
   /**
    * Calculates a returns a unique ID for a given component key and output type. The IDs will be
@@ -44,12 +91,161 @@ class RenderUnitIdGenerator(
    * @param type The output type @see OutputUnitType
    */
   fun calculateLayoutOutputId(componentKey: String, @OutputUnitType type: Int): Long =
-      addTypeAndComponentTreeToId(getId(componentKey), type, componentTreeId)
+      addTypeAndComponentTreeToId(getEntry(componentKey).id, type, componentTreeId)
+
+  /** Same as [calculateLayoutOutputId], but looks the component up by its compact [GlobalKey]. */
+  fun calculateLayoutOutputId(componentKey: GlobalKey, @OutputUnitType type: Int): Long =
+      addTypeAndComponentTreeToId(getEntry(componentKey).id, type, componentTreeId)
 
+  /**
+   * Starts a new generation. Should be called every time a [LayoutState] which used this generator
+   * is committed; keys which were not used by the render units of the last [maxIdleGenerations]
+   * committed layouts are dropped.
+   *
+   * Keys are marked as used from the render units of the committed layout rather than from lookups,
+   * since a layout can reuse cached layout results whose ids were calculated by an earlier layout.
+   */
+  fun onLayoutStateCommitted(layoutState: LayoutState) {
+    onLayoutStateCommitted(layoutState.getMountableOutputCount()) { index ->
+      layoutState.getMountableOutputAt(index).renderUnit.id
+    }
+  }
+
+  @VisibleForTesting
+  internal fun onLayoutStateCommitted(renderUnitCount: Int, renderUnitIdAt: (Int) -> Long) {
+    if (maxIdleGenerations == UNBOUNDED) {
+      return
+    }
+    synchronized(this) {
+      val current = ++generation
+      val treeBits = addTypeAndComponentTreeToId(0, 0, componentTreeId)
+      for (index in 0 until renderUnitCount) {
+        val id = renderUnitIdAt(index)
+        if (id and COMPONENT_TREE_MASK == treeBits) {
+          idToEntry[(id and ENTRY_ID_MASK).toInt()]?.markSeen(current)
+        }
+      }
+      // Sweeping is linear in the number of keys, so only sweep once per window of generations.
+      if (current % maxIdleGenerations == 0) {
+        evictKeysNotSeenSince(current - maxIdleGenerations)
+      }
+    }
+  }
+
+  /**
+   * Stops reporting the keys of this generator in [LithoStats]; should be called once the tree it
+   * belongs to is released. The ids are kept, as the generator can be handed over to a new tree,
+   * which should then call [acquire].
+   */
   @Synchronized
-  private fun getId(key: String): Int = keyToId.getOrPut(key) { nextId.getAndIncrement() }
+  fun release() {
+    if (!isReleased) {
+      isReleased = true
+      LithoStats.decrementRenderUnitIdCountBy(keyToEntry.size.toLong())
+    }
+  }
+
+  /**
+   * Reports the keys of this generator in [LithoStats] again after [release], once it is used by a
+   * tree again. Does nothing if the generator wasn't released.
+   */
+  fun acquire() {
+    if (!isReleased) {
+      return
+    }
+    synchronized(this) {
+      if (isReleased) {
+        isReleased = false
+        LithoStats.incrementRenderUnitIdCountBy(keyToEntry.size.toLong())
+      }
+    }
+  }
+
+  private fun getEntry(key: GlobalKey): Entry {
+    val generation = generation
+    val entry = globalKeyToEntry[key]
+    if (entry != null && entry.markSeen(generation)) {
+      return entry
+    }
+    return getEntry(key.toString()).also { globalKeyToEntry[key] = it }
+  }
+
+  private fun getEntry(key: String): Entry {
+    val generation = generation
+    var entry = keyToEntry[key]
+    while (true) {
+      if (entry != null && entry.markSeen(generation)) {
+        return entry
+      }
+      // Either the key is new, or its entry is being evicted right now. In the latter case the
+      // entry is put back with the same id, as the layout being calculated may already use it.
+      val created = Entry(entry?.id ?: nextId.getAndIncrement(), generation)
+      entry = keyToEntry.putIfAbsent(key, created)
+      if (entry == null) {
+        if (maxIdleGenerations != UNBOUNDED) {
+          synchronized(this) { idToEntry[created.id] = created }
+        }
+        if (!isReleased) {
+          LithoStats.incrementRenderUnitIdCount()
+        }
+        return created
+      }
+    }
+  }
+
+  @GuardedBy("this")
+  private fun evictKeysNotSeenSince(oldestLiveGeneration: Int) {
+    var evicted = 0
+    for ((key, entry) in keyToEntry) {
+      if (entry.lastSeenGeneration >= oldestLiveGeneration) {
+        continue
+      }
+      // Marking the entry before checking it again makes sure that a concurrent lookup either
+      // keeps the entry alive, or notices that it is evicted and puts it back.
+      entry.isEvicted = true
+      if (entry.lastSeenGeneration >= oldestLiveGeneration) {
+        entry.isEvicted = false
+      } else if (keyToEntry.remove(key, entry)) {
+        idToEntry.remove(entry.id, entry)
+        evicted++
+      }
+    }
+    if (evicted > 0) {
+      globalKeyToEntry.values.removeAll { it.isEvicted }
+      if (!isReleased) {
+        LithoStats.decrementRenderUnitIdCountBy(evicted.toLong())
+      }
+      LithoStats.incrementEvictedRenderUnitIdCountBy(evicted.toLong())
+    }
+  }
+
+  private class Entry(val id: Int, generation: Int) {
+
+    @Volatile var lastSeenGeneration: Int = generation
+
+    @Volatile var isEvicted: Boolean = false
+
+    /** Returns false if the entry is being evicted, and must not be used anymore. */
+    fun markSeen(generation: Int): Boolean {
+      if (lastSeenGeneration < generation) {
+        lastSeenGeneration = generation
+      }
+      return !isEvicted
+    }
+  }
 
   companion object {
+
+    /** Disables dropping of keys; every key is kept for the lifetime of the generator. */
+    const val UNBOUNDED: Int = -1
+
+    /** A reasonable number of idle generations for trees which opt in to dropping keys. */
+    const val DEFAULT_MAX_IDLE_GENERATIONS: Int = 8
+
+    private const val ENTRY_ID_MASK: Long = 0xFFFFFFFFL
+
+    private const val COMPONENT_TREE_MASK: Long = -1L shl 35
+
     private fun addTypeAndComponentTreeToId(
         id: Int,
         @OutputUnitType type: Int,
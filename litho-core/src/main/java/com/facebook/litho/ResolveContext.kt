@@ -35,11 +35,14 @@ constructor(
   private var _treeState: TreeState? = treeState
   private var _future: TreeFuture<*>? = treeFuture
 
-  private var _isInterruptible: Boolean = treeFuture?.isInterruptible ?: false
+  @Volatile private var _isInterruptible: Boolean = treeFuture?.isInterruptible ?: false
 
   private var _cachedNodes: MutableMap<Int, LithoNode?>? = null
   private var _eventHandlers: MutableList<Pair<String, EventHandler<*>>>? = null
 
+  /** The context this one was forked from, see [fork]. */
+  private var _forkedFrom: ResolveContext? = null
+
   override val treeFuture: TreeFuture<*>?
     get() {
       return _future
@@ -74,7 +77,9 @@ constructor(
 
   val isResolveInterrupted: Boolean
     get() {
-      val isInterruptible = _isInterruptible
+      // A fork is no longer interruptible once the context it was forked from isn't, e.g. because
+      // the main thread started waiting for the resolve while siblings are still resolving.
+      val isInterruptible = _isInterruptible && _forkedFrom?._isInterruptible != false
       return if (!isInterruptible || ThreadUtils.isMainThread) {
         false
       } else {
@@ -83,17 +88,58 @@ constructor(
       }
     }
 
-  fun consumeLayoutCreatedInWillRender(id: Int): LithoNode? = _cachedNodes?.remove(id)
+  // The layouts created in willRender are owned by the context which forks were created from, as a
+  // layout can be created by a component in one subtree and consumed in another.
+
+  @Synchronized
+  fun consumeLayoutCreatedInWillRender(id: Int): LithoNode? =
+      _forkedFrom?.consumeLayoutCreatedInWillRender(id) ?: _cachedNodes?.remove(id)
 
-  fun getLayoutCreatedInWillRender(id: Int): LithoNode? = _cachedNodes?.get(id)
+  @Synchronized
+  fun getLayoutCreatedInWillRender(id: Int): LithoNode? =
+      _forkedFrom?.getLayoutCreatedInWillRender(id) ?: _cachedNodes?.get(id)
 
+  @Synchronized
   fun setLayoutCreatedInWillRender(id: Int, node: LithoNode?) {
+    val forkedFrom = _forkedFrom
+    if (forkedFrom != null) {
+      forkedFrom.setLayoutCreatedInWillRender(id, node)
+      return
+    }
     (_cachedNodes ?: HashMap()).apply {
       _cachedNodes = this
       put(id, node)
     }
   }
 
+  /**
+   * Creates a context to resolve a subtree on another thread, concurrently with other forks of this
+   * context. Results cached and event handlers recorded while resolving the subtree stay in the
+   * fork until they are merged back with [merge]; this context must not be written to until then.
+   */
+  internal fun fork(): ResolveContext {
+    val fork =
+        ResolveContext(
+            treeId = treeId,
+            cache = MeasuredResultCache(cache),
+            treeState = _treeState,
+            layoutVersion = layoutVersion,
+            rootComponentId = rootComponentId,
+            isAccessibilityEnabled = isAccessibilityEnabled,
+            treeFuture = _future,
+            currentRoot = currentRoot,
+            isInLayout = isInLayout)
+    fork._isInterruptible = _isInterruptible
+    fork._forkedFrom = _forkedFrom ?: this
+    return fork
+  }
+
+  /** Merges the results of a [fork] back into this context. */
+  internal fun merge(fork: ResolveContext) {
+    cache.addAll(fork.cache)
+    fork._eventHandlers?.forEach { handler -> recordEventHandler(handler.first, handler.second) }
+  }
+
   @VisibleForTesting
   fun setLayoutStateFutureForTest(future: TreeFuture<*>) {
     _future = future
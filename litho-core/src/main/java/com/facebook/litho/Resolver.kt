@@ -21,6 +21,7 @@ import androidx.annotation.VisibleForTesting
 import androidx.collection.MutableScatterSet
 import androidx.collection.ScatterSet
 import androidx.collection.mutableScatterSetOf
+import com.facebook.litho.config.ComponentsConfiguration
 import com.facebook.litho.config.LithoDebugConfigurations
 import com.facebook.litho.debug.LithoDebugEvent
 import com.facebook.litho.debug.LithoDebugEventAttributes
@@ -123,6 +124,7 @@ object Resolver {
       resolveDeferredNode: Boolean = false,
       globalKeyToReuse: String? = null,
       treePropsToReuse: TreePropContainer? = null,
+      compactGlobalKeyToReuse: GlobalKey? = null,
   ): LithoNode? {
 
     val isTracing = ComponentsSystrace.isTracing
@@ -172,7 +174,12 @@ object Resolver {
                       checkNotNull(cache.getCachedNode(component)).headComponentContext
                     } else {
                       createScopedContext(
-                          resolveContext, parent, component, globalKeyToReuse, treePropsToReuse)
+                          resolveContext,
+                          parent,
+                          component,
+                          globalKeyToReuse,
+                          treePropsToReuse,
+                          compactGlobalKeyToReuse)
                     }
                 globalKey = c.globalKey
                 scopedComponentInfo = c.scopedComponentInfo
@@ -308,6 +315,36 @@ object Resolver {
     return lithoNode
   }
 
+  /**
+   * Resolves the [children] of a container component and adds them to its [node], in order.
+   * Returns false if the tree future was released before all children were resolved.
+   *
+   * If the tree enabled [ComponentsConfiguration.enableParallelResolve], the children are resolved
+   * concurrently by the [ParallelResolver].
+   */
+  @JvmStatic
+  fun resolveChildren(
+      resolveContext: ResolveContext,
+      c: ComponentContext,
+      node: LithoNode,
+      children: List<Component>
+  ): Boolean {
+    if (ParallelResolver.shouldResolveInParallel(c, children)) {
+      return ParallelResolver.resolveChildren(resolveContext, c, node, children)
+    }
+    for (child in children) {
+      if (resolveContext.isFutureReleased) {
+        return false
+      }
+      if (resolveContext.isResolveInterrupted) {
+        node.appendUnresolvedComponent(child)
+      } else {
+        node.child(resolveContext, c, child)
+      }
+    }
+    return true
+  }
+
   @JvmStatic
   fun resumeResolvingTree(resolveContext: ResolveContext, root: LithoNode): LithoNode {
     root.unresolvedComponents?.let { unresolved ->
@@ -337,18 +374,26 @@ object Resolver {
       component: Component,
       globalKeyToReuse: String? = null,
       treePropsToReuse: TreePropContainer? = null,
+      compactGlobalKeyToReuse: GlobalKey? = null,
   ): ComponentContext {
 
-    val globalKey: String =
-        globalKeyToReuse
-            ?: ComponentKeyUtils.generateGlobalKey(parent, parent.componentScope, component)
-    val c: ComponentContext = ComponentContext.withComponentScope(parent, component, globalKey)
+    val c: ComponentContext =
+        if (globalKeyToReuse != null) {
+          ComponentContext.withComponentScope(parent, component, globalKeyToReuse)
+        } else {
+          ComponentContext.withComponentScope(
+              parent,
+              component,
+              compactGlobalKeyToReuse
+                  ?: ComponentKeyUtils.generateCompactGlobalKey(
+                      parent, parent.componentScope, component))
+        }
 
     // Set latest state and the TreeProps which will be passed to the descendants of the component.
     if (component is SpecGeneratedComponent) {
       if (component.hasState()) {
         c.scopedComponentInfo.state =
-            resolveContext.treeState.createOrGetState(c, component, globalKey)
+            resolveContext.treeState.createOrGetState(c, component, c.globalKey)
       }
 
       // Note: state must be set (via ScopedComponentInfo.setStateContainer) before invoking
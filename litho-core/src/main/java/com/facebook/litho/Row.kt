@@ -61,15 +61,8 @@ private constructor(
     wrap?.let { node.wrap(it) }
     gapPx?.let { node.setGap(YogaGutter.ROW, it) }
     children?.let { children ->
-      for (child in children) {
-        if (resolveContext.isFutureReleased) {
-          return null
-        }
-        if (resolveContext.isResolveInterrupted) {
-          node.appendUnresolvedComponent(child)
-        } else {
-          node.child(resolveContext, c, child)
-        }
+      if (!Resolver.resolveChildren(resolveContext, c, node, children)) {
+        return null
       }
     }
     return node
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.res.Configuration
+import androidx.annotation.VisibleForTesting
+import com.facebook.kotlin.compilerplugins.dataclassgenerate.annotation.DataClassGenerate
+import com.facebook.kotlin.compilerplugins.dataclassgenerate.annotation.Mode
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.litho.stats.LithoStats
+import com.facebook.rendercore.MeasureResult
+import java.lang.ref.WeakReference
+import javax.annotation.concurrent.GuardedBy
+
+/**
+ * A bounded, process wide cache of the measurements of mount specs, shared by all the trees which
+ * enable [ComponentsConfiguration.enableSharedMeasureCache].
+ *
+ * Lists often render many items which contain the same leaves with the same props (e.g. a label or
+ * a badge), each one in its own [ComponentTree]. The diffing of a tree can only reuse the
+ * measurements of its own previous layout, while this cache lets a tree reuse a measurement made
+ * by any other tree.
+ *
+ * Entries are looked up by component type and size specs, and matched with
+ * [Component.isEquivalentTo]. Only pure render mount specs without state are eligible, and their
+ * tree props and resources configuration must match as well. Entries hold their component and tree
+ * props weakly, so the cache never keeps a component, or the context it was created with, alive.
+ * The least recently used entries are evicted once the cache holds more than [maxSize] entries,
+ * and the whole cache is dropped when the application is asked to trim its memory.
+ */
+object SharedMeasureCache {
+
+  const val DEFAULT_MAX_SIZE: Int = 128
+
+  /** Bounds the number of different props measured with the same component type and specs. */
+  private const val MAX_ENTRIES_PER_KEY = 4
+
+  /** Buckets are never mutated once published, so that lookups can match them without the lock. */
+  @GuardedBy("this")
+  private val buckets: LinkedHashMap<Key, List<Entry>> = LinkedHashMap(16, 0.75f, true)
+
+  @GuardedBy("this") private var _size = 0
+
+  @GuardedBy("this") private var _maxSize = DEFAULT_MAX_SIZE
+
+  @GuardedBy("this") private var isRegisteredForTrimMemory = false
+
+  /** The number of measurements currently held by the cache. */
+  @get:JvmStatic val size: Int
+    @Synchronized get() = _size
+
+  /** The maximum number of measurements held by the cache; shrinking it evicts entries eagerly. */
+  @get:JvmStatic
+  @set:JvmStatic
+  var maxSize: Int
+    @Synchronized get() = _maxSize
+    @Synchronized
+    set(value) {
+      require(value >= 0) { "The max size must not be negative, was $value" }
+      _maxSize = value
+      trimToMaxSizeLocked()
+    }
+
+  /** Returns true if the measurement of this component can be shared with other trees. */
+  @JvmStatic
+  fun isEligible(context: ComponentContext, component: Component): Boolean =
+      context.lithoConfiguration.componentsConfig.enableSharedMeasureCache &&
+          component is SpecGeneratedComponent &&
+          Component.isPureRender(component) &&
+          !component.hasState() &&
+          !component.shouldAlwaysRemeasure()
+
+  /**
+   * Returns the measurement of an equivalent component made with the same size specs, or null if
+   * there is none. The layout data of the result must be copied before it is used.
+   */
+  @JvmStatic
+  fun get(
+      context: ComponentContext,
+      component: Component,
+      widthSpec: Int,
+      heightSpec: Int
+  ): MeasureResult? {
+    val key = Key(component.javaClass, widthSpec, heightSpec)
+    val bucket = synchronized(this) { buckets[key] }
+    if (bucket != null) {
+      val treePropContainer = context.treePropContainer
+      val configuration = context.resources.configuration
+      for (i in bucket.indices.reversed()) {
+        val entry = bucket[i]
+        if (entry.matches(component, treePropContainer, configuration)) {
+          LithoStats.incrementSharedMeasureCacheHitCount()
+          return entry.result
+        }
+      }
+    }
+    LithoStats.incrementSharedMeasureCacheMissCount()
+    return null
+  }
+
+  /**
+   * Saves the measurement of a component. The layout data is copied so that later changes made to
+   * it by the tree which measured the component don't leak into the cache.
+   */
+  @JvmStatic
+  fun put(
+      context: ComponentContext,
+      component: SpecGeneratedComponent,
+      widthSpec: Int,
+      heightSpec: Int,
+      width: Int,
+      height: Int,
+      layoutData: InterStagePropsContainer?
+  ) {
+    val layoutDataCopy = copyLayoutData(component, layoutData)
+    val entry =
+        Entry(
+            component = WeakReference(component),
+            treePropContainer = context.treePropContainer?.let { WeakReference(it) },
+            configuration = Configuration(context.resources.configuration),
+            result = MeasureResult(width, height, layoutDataCopy))
+    val key = Key(component.javaClass, widthSpec, heightSpec)
+
+    synchronized(this) {
+      if (_maxSize == 0) {
+        return
+      }
+      registerForTrimMemoryLocked(context.androidContext)
+      val bucket = buckets[key]
+      val updated = ArrayList<Entry>(MAX_ENTRIES_PER_KEY)
+      var dropped = 0
+      if (bucket != null) {
+        for (existing in bucket) {
+          if (existing.isCollected) {
+            dropped++
+          } else {
+            updated.add(existing)
+          }
+        }
+        while (updated.size >= MAX_ENTRIES_PER_KEY) {
+          updated.removeAt(0)
+          dropped++
+        }
+      }
+      updated.add(entry)
+      buckets[key] = updated
+      _size += 1 - dropped
+      if (dropped > 0) {
+        LithoStats.incrementSharedMeasureCacheEvictionCountBy(dropped.toLong())
+      }
+      trimToMaxSizeLocked()
+    }
+  }
+
+  /** Returns a copy of layout data taken from the cache, which a tree can freely mutate. */
+  @JvmStatic
+  fun copyLayoutData(
+      component: SpecGeneratedComponent,
+      layoutData: InterStagePropsContainer?
+  ): InterStagePropsContainer? {
+    val copy = component.createInterStagePropsContainer()
+    if (copy != null && layoutData != null) {
+      component.copyInterStageImpl(copy, layoutData)
+    }
+    return copy
+  }
+
+  /** Drops all the measurements, e.g. when the process is asked to trim its memory. */
+  @JvmStatic
+  @Synchronized
+  fun clear() {
+    buckets.clear()
+    _size = 0
+  }
+
+  /**
+   * Drops all the measurements on [ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW] and more severe
+   * levels. Called automatically once the cache holds measurements.
+   */
+  @Suppress("DEPRECATION")
+  @JvmStatic
+  fun onTrimMemory(level: Int) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      clear()
+    }
+  }
+
+  @VisibleForTesting
+  @JvmStatic
+  @Synchronized
+  fun reset() {
+    clear()
+    _maxSize = DEFAULT_MAX_SIZE
+    isRegisteredForTrimMemory = false
+  }
+
+  @GuardedBy("this")
+  private fun registerForTrimMemoryLocked(context: Context) {
+    if (isRegisteredForTrimMemory) {
+      return
+    }
+    val applicationContext = context.applicationContext ?: return
+    applicationContext.registerComponentCallbacks(TrimMemoryCallbacks)
+    isRegisteredForTrimMemory = true
+  }
+
+  @GuardedBy("this")
+  private fun trimToMaxSizeLocked() {
+    var evicted = 0
+    val iterator = buckets.values.iterator()
+    while (_size > _maxSize && iterator.hasNext()) {
+      val bucket = iterator.next()
+      iterator.remove()
+      _size -= bucket.size
+      evicted += bucket.size
+    }
+    if (evicted > 0) {
+      LithoStats.incrementSharedMeasureCacheEvictionCountBy(evicted.toLong())
+    }
+  }
+
+  @DataClassGenerate(toString = Mode.OMIT, equalsHashCode = Mode.KEEP)
+  private data class Key(
+      val componentType: Class<*>,
+      val widthSpec: Int,
+      val heightSpec: Int,
+  )
+
+  private object TrimMemoryCallbacks : ComponentCallbacks2 {
+
+    override fun onTrimMemory(level: Int) {
+      SharedMeasureCache.onTrimMemory(level)
+    }
+
+    override fun onConfigurationChanged(newConfig: Configuration) = Unit
+
+    @Deprecated("Deprecated in Java")
+    override fun onLowMemory() {
+      clear()
+    }
+  }
+
+  @VisibleForTesting
+  internal class Entry(
+      val component: WeakReference<Component>,
+      /** Null if the component was measured without tree props. */
+      val treePropContainer: WeakReference<TreePropContainer>?,
+      val configuration: Configuration,
+      val result: MeasureResult,
+  ) {
+
+    val isCollected: Boolean
+      get() =
+          component.get() == null || (treePropContainer != null && treePropContainer.get() == null)
+
+    fun matches(
+        other: Component,
+        otherTreePropContainer: TreePropContainer?,
+        otherConfiguration: Configuration
+    ): Boolean {
+      val cached = component.get() ?: return false
+      // Collected tree props never match, not even a tree without tree props.
+      val cachedTreePropContainer =
+          if (treePropContainer == null) null else treePropContainer.get() ?: return false
+      if (cachedTreePropContainer !== otherTreePropContainer) {
+        return false
+      }
+      return (cached === other || cached.isEquivalentTo(other)) &&
+          configuration == otherConfiguration
+    }
+  }
+}
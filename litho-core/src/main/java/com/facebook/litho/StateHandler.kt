@@ -23,6 +23,7 @@ import com.facebook.litho.SpecGeneratedComponent.TransitionContainer
 import com.facebook.litho.StateContainer.StateUpdate
 import com.facebook.litho.debug.LithoDebugEvent
 import com.facebook.litho.state.ComponentState
+import com.facebook.litho.state.PersistentHashMap
 import com.facebook.litho.state.StateId
 import com.facebook.litho.stats.LithoStats
 import com.facebook.rendercore.LogLevel
@@ -48,9 +49,9 @@ class StateHandler {
           stateHandler.appliedStateUpdates,
           stateHandler.appliedHookUpdates,
       )
-      copyCurrentState(stateHandler.state)
+      copyCurrentState(stateHandler)
       copyPendingStateTransitions(stateHandler.pendingStateUpdateTransitions)
-      stateHandler.cachedValues?.let { synchronized(stateHandler) { cachedValues = HashMap(it) } }
+      synchronized(stateHandler) { cachedValues = stateHandler.cachedValues?.fork() }
     }
   }
 
@@ -82,9 +83,11 @@ class StateHandler {
 
   /**
    * Maps a component key to a component object that retains the current state values for that key.
+   * This map is forked, rather than copied, whenever a StateHandler is created from another one.
    */
   @GuardedBy("this")
-  private val _state: MutableMap<String, ComponentState<out StateContainer>> = HashMap()
+  private var _state: PersistentHashMap<String, ComponentState<out StateContainer>> =
+      PersistentHashMap()
 
   /**
    * Contains all keys of components that were present in the current ComponentTree and therefore
@@ -93,7 +96,7 @@ class StateHandler {
   @GuardedBy("this") private val neededState = HashSet<String>()
 
   /** Map of all cached values that are stored for the current ComponentTree. */
-  @GuardedBy("this") private var cachedValues: MutableMap<CacheKey, CacheValue>? = null
+  @GuardedBy("this") private var cachedValues: PersistentHashMap<CacheKey, CacheValue>? = null
 
   // These are both lists of (globalKey, updateMethod) pairs, where globalKey is the global key
   // of the component the update applies to
@@ -136,6 +139,11 @@ class StateHandler {
     }
   }
 
+  /**
+   * Marks the state of [key] as used by the tree being resolved. Siblings can be resolved on
+   * different threads, so this must hold the lock like every other access to [neededState].
+   */
+  @Synchronized
   fun markStateInUse(key: String) {
     neededState.add(key)
   }
@@ -144,6 +152,7 @@ class StateHandler {
    * StateContainer in this StateHandler should be accessed using this method as it will also ensure
    * that the state is marked as needed
    */
+  @Synchronized
   fun getState(key: String): ComponentState<out StateContainer>? = _state[key]
 
   fun createOrGetState(
@@ -151,10 +160,10 @@ class StateHandler {
       component: Component,
       key: String
   ): ComponentState<out StateContainer> {
-    val current: ComponentState<out StateContainer>? = synchronized(this) { _state[key] }
+    val current: ComponentState<out StateContainer>? =
+        synchronized(this) { _state[key]?.also { neededState.add(key) } }
 
     return if (current != null) {
-      neededState.add(key)
       current
     } else {
       val state =
@@ -279,7 +288,7 @@ class StateHandler {
   fun commit(stateHandler: StateHandler) {
     clearStateUpdates(stateHandler.appliedStateUpdates)
     clearUnusedState(stateHandler)
-    copyCurrentState(stateHandler.state)
+    copyCurrentState(stateHandler)
     copyPendingStateTransitions(stateHandler.pendingStateUpdateTransitions)
     commitHookState(stateHandler.appliedHookUpdates)
   }
@@ -410,7 +419,7 @@ class StateHandler {
       return
     }
     if (cachedValues == null) {
-      cachedValues = LinkedHashMap()
+      cachedValues = PersistentHashMap()
     }
     val value = CacheValue(cachedValueInputs, cachedValueInputs.hashCode(), cachedValue)
     cachedValues?.put(cacheKey, value)
@@ -466,15 +475,12 @@ class StateHandler {
   }
 
   /**
-   * Copies the list of given state containers into the map that holds the current state containers
-   * of components.
+   * Replaces the current state containers of components with the ones of the given StateHandler.
+   * This is O(1) since both StateHandlers end up sharing the same (forked) map.
    */
-  private fun copyCurrentState(state: Map<String, ComponentState<out StateContainer>>) {
-
-    synchronized(this) {
-      _state.clear()
-      _state.putAll(state)
-    }
+  private fun copyCurrentState(stateHandler: StateHandler) {
+    val state = synchronized(stateHandler) { stateHandler._state.fork() }
+    synchronized(this) { _state = state }
   }
 
   private fun copyPendingStateTransitions(
@@ -648,17 +654,24 @@ class StateHandler {
     }
 
     private fun clearUnusedState(currentStateHandler: StateHandler) {
-      if (currentStateHandler._state.isEmpty()) {
-        return
-      }
+      synchronized(currentStateHandler) {
+        if (currentStateHandler._state.isEmpty()) {
+          return
+        }
 
-      val neededState: Set<String> = currentStateHandler.neededState
-      val stateKeys: List<String> = ArrayList(currentStateHandler._state.keys)
+        val neededState: Set<String> = currentStateHandler.neededState
+        var unusedKeys: MutableList<String>? = null
 
-      for (key in stateKeys) {
-        if (key !in neededState) {
-          currentStateHandler._state.remove(key)
+        for (key in currentStateHandler._state.keys) {
+          if (key !in neededState) {
+            if (unusedKeys == null) {
+              unusedKeys = ArrayList()
+            }
+            unusedKeys.add(key)
+          }
         }
+
+        unusedKeys?.forEach { key -> currentStateHandler._state.remove(key) }
       }
     }
 
@@ -26,10 +26,20 @@ import com.facebook.yoga.YogaGutter
 import com.facebook.yoga.YogaJustify
 import com.facebook.yoga.YogaNode
 import com.facebook.yoga.YogaPositionType
+import com.facebook.yoga.YogaStyleInputs
 import com.facebook.yoga.YogaWrap
 import kotlin.jvm.JvmField
 
-open class YogaLayoutProps(val node: YogaNode) : LayoutProps {
+/**
+ * Writes layout props to a [YogaNode]. If a [YogaStyleInputsBuffer] is given, the style props are
+ * packed into it instead of being set one at a time, and are only applied to the node by [flush].
+ */
+open class YogaLayoutProps
+@JvmOverloads
+constructor(
+    val node: YogaNode,
+    private val styleInputs: YogaStyleInputsBuffer? = null,
+) : LayoutProps {
 
   @JvmField var isPaddingSet: Boolean = false
 
@@ -39,132 +49,168 @@ open class YogaLayoutProps(val node: YogaNode) : LayoutProps {
 
   override fun widthPx(width: Int) {
     widthFromStyle = width.toFloat()
-    node.setWidth(widthFromStyle)
+    write(YogaStyleInputs.WIDTH, widthFromStyle) { node.setWidth(widthFromStyle) }
   }
 
   override fun widthPercent(percent: Float) {
     widthFromStyle = percent
-    node.setWidthPercent(widthFromStyle)
+    write(YogaStyleInputs.WIDTH_PERCENT, widthFromStyle) { node.setWidthPercent(widthFromStyle) }
   }
 
   override fun minWidthPx(minWidth: Int) {
     widthFromStyle = minWidth.toFloat()
-    node.setMinWidth(widthFromStyle)
+    write(YogaStyleInputs.MIN_WIDTH, widthFromStyle) { node.setMinWidth(widthFromStyle) }
   }
 
   override fun maxWidthPx(maxWidth: Int) {
     widthFromStyle = maxWidth.toFloat()
-    node.setMaxWidth(widthFromStyle)
+    write(YogaStyleInputs.MAX_WIDTH, widthFromStyle) { node.setMaxWidth(widthFromStyle) }
   }
 
   override fun minWidthPercent(percent: Float) {
     widthFromStyle = percent
-    node.setMinWidthPercent(widthFromStyle)
+    write(YogaStyleInputs.MIN_WIDTH_PERCENT, widthFromStyle) {
+      node.setMinWidthPercent(widthFromStyle)
+    }
   }
 
   override fun maxWidthPercent(percent: Float) {
     widthFromStyle = percent
-    node.setMaxWidthPercent(widthFromStyle)
+    write(YogaStyleInputs.MAX_WIDTH_PERCENT, widthFromStyle) {
+      node.setMaxWidthPercent(widthFromStyle)
+    }
   }
 
   override fun heightPx(height: Int) {
     heightFromStyle = height.toFloat()
-    node.setHeight(heightFromStyle)
+    write(YogaStyleInputs.HEIGHT, heightFromStyle) { node.setHeight(heightFromStyle) }
   }
 
   override fun heightPercent(percent: Float) {
     heightFromStyle = percent
-    node.setHeightPercent(heightFromStyle)
+    write(YogaStyleInputs.HEIGHT_PERCENT, heightFromStyle) {
+      node.setHeightPercent(heightFromStyle)
+    }
   }
 
   override fun minHeightPx(minHeight: Int) {
     heightFromStyle = minHeight.toFloat()
-    node.setMinHeight(heightFromStyle)
+    write(YogaStyleInputs.MIN_HEIGHT, heightFromStyle) { node.setMinHeight(heightFromStyle) }
   }
 
   override fun maxHeightPx(maxHeight: Int) {
     heightFromStyle = maxHeight.toFloat()
-    node.setMaxHeight(heightFromStyle)
+    write(YogaStyleInputs.MAX_HEIGHT, heightFromStyle) { node.setMaxHeight(heightFromStyle) }
   }
 
   override fun minHeightPercent(percent: Float) {
     heightFromStyle = percent
-    node.setMinHeightPercent(heightFromStyle)
+    write(YogaStyleInputs.MIN_HEIGHT_PERCENT, heightFromStyle) {
+      node.setMinHeightPercent(heightFromStyle)
+    }
   }
 
   override fun maxHeightPercent(percent: Float) {
     heightFromStyle = percent
-    node.setMaxHeightPercent(heightFromStyle)
+    write(YogaStyleInputs.MAX_HEIGHT_PERCENT, heightFromStyle) {
+      node.setMaxHeightPercent(heightFromStyle)
+    }
   }
 
   override fun layoutDirection(direction: LayoutDirection) {
-    node.setDirection(direction.toYogaDirection())
+    val yogaDirection = direction.toYogaDirection()
+    write(YogaStyleInputs.LAYOUT_DIRECTION, yogaDirection.intValue().toFloat()) {
+      node.setDirection(yogaDirection)
+    }
   }
 
   override fun alignSelf(alignSelf: YogaAlign) {
-    node.alignSelf = alignSelf
+    write(YogaStyleInputs.ALIGN_SELF, alignSelf.intValue().toFloat()) { node.alignSelf = alignSelf }
   }
 
   override fun flex(flex: Float) {
-    node.flex = flex
+    write(YogaStyleInputs.FLEX, flex) { node.flex = flex }
   }
 
   override fun flexGrow(flexGrow: Float) {
-    node.flexGrow = flexGrow
+    write(YogaStyleInputs.FLEX_GROW, flexGrow) { node.flexGrow = flexGrow }
   }
 
   override fun flexShrink(flexShrink: Float) {
-    node.flexShrink = flexShrink
+    write(YogaStyleInputs.FLEX_SHRINK, flexShrink) { node.flexShrink = flexShrink }
   }
 
   override fun flexBasisPx(flexBasis: Int) {
-    node.setFlexBasis(flexBasis.toFloat())
+    write(YogaStyleInputs.FLEX_BASIS, flexBasis.toFloat()) {
+      node.setFlexBasis(flexBasis.toFloat())
+    }
   }
 
   override fun flexBasisPercent(percent: Float) {
-    node.setFlexBasisPercent(percent)
+    write(YogaStyleInputs.FLEX_BASIS_PERCENT, percent) { node.setFlexBasisPercent(percent) }
   }
 
   override fun aspectRatio(aspectRatio: Float) {
-    node.aspectRatio = aspectRatio
+    write(YogaStyleInputs.ASPECT_RATIO, aspectRatio) { node.aspectRatio = aspectRatio }
   }
 
   override fun positionType(positionType: YogaPositionType) {
-    node.positionType = positionType
+    write(YogaStyleInputs.POSITION_TYPE, positionType.intValue().toFloat()) {
+      node.positionType = positionType
+    }
   }
 
   override fun positionPx(edge: YogaEdge, position: Int) {
-    node.setPosition(edge, position.toFloat())
+    write(YogaStyleInputs.POSITION, edge.intValue(), position.toFloat()) {
+      node.setPosition(edge, position.toFloat())
+    }
   }
 
   override fun positionPercent(edge: YogaEdge, percent: Float) {
-    node.setPositionPercent(edge, percent)
+    write(YogaStyleInputs.POSITION_PERCENT, edge.intValue(), percent) {
+      node.setPositionPercent(edge, percent)
+    }
   }
 
   override fun paddingPx(edge: YogaEdge, padding: Int) {
     isPaddingSet = true
-    node.setPadding(edge, padding.toFloat())
+    write(YogaStyleInputs.PADDING, edge.intValue(), padding.toFloat()) {
+      node.setPadding(edge, padding.toFloat())
+    }
   }
 
   override fun paddingPercent(edge: YogaEdge, percent: Float) {
     isPaddingSet = true
-    node.setPaddingPercent(edge, percent)
+    write(YogaStyleInputs.PADDING_PERCENT, edge.intValue(), percent) {
+      node.setPaddingPercent(edge, percent)
+    }
   }
 
   override fun marginPx(edge: YogaEdge, margin: Int) {
-    node.setMargin(edge, margin.toFloat())
+    write(YogaStyleInputs.MARGIN, edge.intValue(), margin.toFloat()) {
+      node.setMargin(edge, margin.toFloat())
+    }
   }
 
   override fun marginPercent(edge: YogaEdge, percent: Float) {
-    node.setMarginPercent(edge, percent)
+    write(YogaStyleInputs.MARGIN_PERCENT, edge.intValue(), percent) {
+      node.setMarginPercent(edge, percent)
+    }
   }
 
   override fun marginAuto(edge: YogaEdge) {
-    node.setMarginAuto(edge)
+    val buffer = styleInputs
+    if (buffer != null) {
+      buffer.addEdge(YogaStyleInputs.MARGIN_AUTO, edge.intValue())
+    } else {
+      node.setMarginAuto(edge)
+    }
   }
 
   override fun isReferenceBaseline(isReferenceBaseline: Boolean) {
-    node.setIsReferenceBaseline(isReferenceBaseline)
+    write(YogaStyleInputs.IS_REFERENCE_BASELINE, if (isReferenceBaseline) 1f else 0f) {
+      node.setIsReferenceBaseline(isReferenceBaseline)
+    }
   }
 
   override fun useHeightAsBaseline(useHeightAsBaseline: Boolean) {
@@ -174,27 +220,62 @@ open class YogaLayoutProps(val node: YogaNode) : LayoutProps {
   }
 
   override fun setBorderWidth(edge: YogaEdge, borderWidth: Float) {
-    node.setBorder(edge, borderWidth)
+    write(YogaStyleInputs.BORDER, edge.intValue(), borderWidth) {
+      node.setBorder(edge, borderWidth)
+    }
   }
 
   override fun gap(gutter: YogaGutter, length: Int) {
-    node.setGap(gutter, length.toFloat())
+    write(YogaStyleInputs.GAP, gutter.intValue(), length.toFloat()) {
+      node.setGap(gutter, length.toFloat())
+    }
   }
 
   open fun flexDirection(direction: YogaFlexDirection) {
-    node.flexDirection = direction
+    write(YogaStyleInputs.FLEX_DIRECTION, direction.intValue().toFloat()) {
+      node.flexDirection = direction
+    }
   }
 
   open fun wrap(wrap: YogaWrap) {
-    node.wrap = wrap
+    write(YogaStyleInputs.FLEX_WRAP, wrap.intValue().toFloat()) { node.wrap = wrap }
   }
 
   open fun justifyContent(justify: YogaJustify) {
-    node.justifyContent = justify
+    write(YogaStyleInputs.JUSTIFY_CONTENT, justify.intValue().toFloat()) {
+      node.justifyContent = justify
+    }
   }
 
   open fun alignItems(align: YogaAlign) {
-    node.alignItems = align
+    write(YogaStyleInputs.ALIGN_ITEMS, align.intValue().toFloat()) { node.alignItems = align }
+  }
+
+  open fun alignContent(align: YogaAlign) {
+    write(YogaStyleInputs.ALIGN_CONTENT, align.intValue().toFloat()) { node.alignContent = align }
+  }
+
+  /** Applies the style props packed into the [YogaStyleInputsBuffer], if any, to the node. */
+  fun flush() {
+    styleInputs?.applyTo(node)
+  }
+
+  private inline fun write(input: Short, value: Float, setter: () -> Unit) {
+    val buffer = styleInputs
+    if (buffer != null) {
+      buffer.add(input, value)
+    } else {
+      setter()
+    }
+  }
+
+  private inline fun write(input: Short, edge: Int, value: Float, setter: () -> Unit) {
+    val buffer = styleInputs
+    if (buffer != null) {
+      buffer.add(input, edge, value)
+    } else {
+      setter()
+    }
   }
 
   companion object {
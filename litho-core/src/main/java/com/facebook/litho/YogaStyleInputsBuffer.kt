@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.stats.LithoStats
+import com.facebook.yoga.YogaNode
+import com.facebook.yoga.YogaStyleInputs
+
+/**
+ * Packs the style inputs written to a [YogaNode] so that they can be applied in a single native
+ * call with [YogaNode.setStyleInputs], instead of a call per style property.
+ *
+ * The buffer is reused for every node of a layout calculation: inputs are added while the props of
+ * a node are written, and [applyTo] applies and clears them before the next node is written.
+ */
+class YogaStyleInputsBuffer {
+
+  private var inputs: FloatArray = FloatArray(INITIAL_CAPACITY)
+  private var size: Int = 0
+  private var count: Int = 0
+
+  /** Adds an input which has a value, e.g. [YogaStyleInputs.FLEX_GROW]. */
+  fun add(input: Short, value: Float) {
+    ensureCapacity(2)
+    inputs[size++] = input.toFloat()
+    inputs[size++] = value
+    count++
+  }
+
+  /** Adds an input which has an edge or gutter and a value, e.g. [YogaStyleInputs.MARGIN]. */
+  fun add(input: Short, edge: Int, value: Float) {
+    ensureCapacity(3)
+    inputs[size++] = input.toFloat()
+    inputs[size++] = edge.toFloat()
+    inputs[size++] = value
+    count++
+  }
+
+  /** Adds an input which has an edge but no value, e.g. [YogaStyleInputs.MARGIN_AUTO]. */
+  fun addEdge(input: Short, edge: Int) {
+    ensureCapacity(2)
+    inputs[size++] = input.toFloat()
+    inputs[size++] = edge.toFloat()
+    count++
+  }
+
+  /** Applies all the pending inputs to the node in a single native call, and clears them. */
+  fun applyTo(node: YogaNode) {
+    if (count == 0) {
+      return
+    }
+    node.setStyleInputs(inputs, size)
+    LithoStats.incrementBatchedYogaStyleInputCountBy(count.toLong())
+    LithoStats.incrementBatchedYogaStyleApplyCount()
+    size = 0
+    count = 0
+  }
+
+  private fun ensureCapacity(extra: Int) {
+    if (size + extra > inputs.size) {
+      inputs = inputs.copyOf(maxOf(inputs.size * 2, size + extra))
+    }
+  }
+
+  private companion object {
+    /** Large enough for the props of most nodes, e.g. a size, flex and padding on every edge. */
+    const val INITIAL_CAPACITY = 64
+  }
+}
@@ -23,6 +23,7 @@ import com.facebook.litho.ComponentTreeDebugEventListener
 import com.facebook.litho.ComponentsLogger
 import com.facebook.litho.DefaultErrorEventHandler
 import com.facebook.litho.ErrorEventHandler
+import com.facebook.litho.RenderUnitIdGenerator
 import com.facebook.litho.perfboost.LithoPerfBoosterFactory
 import com.facebook.rendercore.PoolingPolicy
 import com.facebook.rendercore.incrementalmount.IncrementalMountExtensionConfigs
@@ -164,6 +165,48 @@ internal constructor(
 
     /** This flag enables the use of Component State for cached values */
     @JvmField val useStateForCachedValues: Boolean = false,
+
+    /**
+     * When enabled, the children of Rows and Columns are resolved concurrently on a fork-join pool
+     * instead of one after the other on the thread resolving the tree.
+     */
+    @JvmField val enableParallelResolve: Boolean = false,
+
+    /**
+     * When enabled, the measurements of pure render mount specs without state are saved to, and
+     * reused from, the process wide [com.facebook.litho.SharedMeasureCache], so that equivalent
+     * components measured by other trees (e.g. other items of a list) don't need to be remeasured.
+     */
+    @JvmField val enableSharedMeasureCache: Boolean = false,
+
+    /**
+     * When enabled, the style props of each YogaNode are packed into a buffer and applied with a
+     * single native call, instead of a native call per prop.
+     */
+    @JvmField val enableBatchedYogaStyleWrites: Boolean = false,
+
+    /**
+     * Async state updates are coalesced into a single resolve per tree, which is scheduled on the
+     * next frame after the first update of the batch. When greater than 0, the resolve is instead
+     * scheduled on the first frame at least this many milliseconds after the first update, so that
+     * bursts of updates spread over several frames (e.g. from a flow) are coalesced too.
+     */
+    @JvmField val asyncStateUpdateBatchingWindowMs: Long = 0L,
+
+    /**
+     * When enabled, changes of the [com.facebook.litho.DynamicValue]s bound to mounted content are
+     * applied once per frame, from a pre-draw listener of the LithoView, instead of on every call
+     * to set. Values which are set several times within a frame (e.g. from a scroll listener or an
+     * animator) are then written to each bound view only once, before the draw of that frame.
+     */
+    @JvmField val batchDynamicValueUpdatesPerFrame: Boolean = false,
+
+    /**
+     * The number of committed layouts after which the render unit id of a component which is not
+     * rendered anymore is dropped, see [RenderUnitIdGenerator]. Ids are kept for the lifetime of
+     * the tree by default.
+     */
+    @JvmField val renderUnitIdMaxIdleGenerations: Int = RenderUnitIdGenerator.UNBOUNDED,
 ) {
 
   val shouldAddRootHostViewOrDisableBgFgOutputs: Boolean =
@@ -360,6 +403,12 @@ internal constructor(
     private var enableFixForResolveWithoutSizeSpec = baseConfig.enableFixForResolveWithoutSizeSpec
     private var isHostViewAttributesCleanUpEnabled = baseConfig.isHostViewAttributesCleanUpEnabled
     private var enableIMHelperForViewPager2 = baseConfig.enableIMHelperForViewPager2
+    private var enableParallelResolve = baseConfig.enableParallelResolve
+    private var enableSharedMeasureCache = baseConfig.enableSharedMeasureCache
+    private var enableBatchedYogaStyleWrites = baseConfig.enableBatchedYogaStyleWrites
+    private var asyncStateUpdateBatchingWindowMs = baseConfig.asyncStateUpdateBatchingWindowMs
+    private var batchDynamicValueUpdatesPerFrame = baseConfig.batchDynamicValueUpdatesPerFrame
+    private var renderUnitIdMaxIdleGenerations = baseConfig.renderUnitIdMaxIdleGenerations
 
     fun shouldAddHostViewForRootComponent(enabled: Boolean): Builder = also {
       shouldAddHostViewForRootComponent = enabled
@@ -463,6 +512,30 @@ internal constructor(
       enableIMHelperForViewPager2 = enabled
     }
 
+    fun enableParallelResolve(enabled: Boolean): Builder = also {
+      enableParallelResolve = enabled
+    }
+
+    fun enableSharedMeasureCache(enabled: Boolean): Builder = also {
+      enableSharedMeasureCache = enabled
+    }
+
+    fun enableBatchedYogaStyleWrites(enabled: Boolean): Builder = also {
+      enableBatchedYogaStyleWrites = enabled
+    }
+
+    fun asyncStateUpdateBatchingWindowMs(windowMs: Long): Builder = also {
+      asyncStateUpdateBatchingWindowMs = windowMs
+    }
+
+    fun batchDynamicValueUpdatesPerFrame(enabled: Boolean): Builder = also {
+      batchDynamicValueUpdatesPerFrame = enabled
+    }
+
+    fun renderUnitIdMaxIdleGenerations(maxIdleGenerations: Int): Builder = also {
+      renderUnitIdMaxIdleGenerations = maxIdleGenerations
+    }
+
     fun build(): ComponentsConfiguration {
       return baseConfig.copy(
           shouldAddHostViewForRootComponent = shouldAddHostViewForRootComponent,
@@ -498,6 +571,12 @@ internal constructor(
           enableFixForResolveWithoutSizeSpec = enableFixForResolveWithoutSizeSpec,
           isHostViewAttributesCleanUpEnabled = isHostViewAttributesCleanUpEnabled,
           enableIMHelperForViewPager2 = enableIMHelperForViewPager2,
+          enableParallelResolve = enableParallelResolve,
+          enableSharedMeasureCache = enableSharedMeasureCache,
+          enableBatchedYogaStyleWrites = enableBatchedYogaStyleWrites,
+          asyncStateUpdateBatchingWindowMs = asyncStateUpdateBatchingWindowMs,
+          batchDynamicValueUpdatesPerFrame = batchDynamicValueUpdatesPerFrame,
+          renderUnitIdMaxIdleGenerations = renderUnitIdMaxIdleGenerations,
       )
     }
   }
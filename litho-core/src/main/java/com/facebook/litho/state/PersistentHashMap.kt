@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.state
+
+import java.util.AbstractMap.SimpleImmutableEntry
+
+/**
+ * A hash map backed by a hash array mapped trie whose copies share structure with each other.
+ *
+ * [fork] returns a copy in O(1): both maps keep pointing at the same trie, and the first write to
+ * either of them only copies the nodes on the path to the written key (O(log32 n)). Writes to nodes
+ * that were created by a map since its last fork are done in place, so building up a map with
+ * [put] allocates about as much as a regular [HashMap].
+ *
+ * This class is not thread safe; callers are expected to guard every instance with a lock, as
+ * [com.facebook.litho.StateHandler] does. Forking however never mutates the trie, so a forked map
+ * can be handed over to another thread.
+ *
+ * Null keys and values are not supported.
+ */
+class PersistentHashMap<K : Any, V : Any>
+private constructor(
+    private var root: Node?,
+    private var count: Int,
+) : AbstractMap<K, V>() {
+
+  constructor() : this(null, 0)
+
+  /**
+   * Token identifying the nodes this map is allowed to mutate in place. It's replaced on every fork
+   * so that nodes shared with the fork are copied on write instead.
+   */
+  private var owner = Any()
+
+  override val size: Int
+    get() = count
+
+  override fun isEmpty(): Boolean = count == 0
+
+  override fun containsKey(key: K): Boolean = get(key) != null
+
+  @Suppress("UNCHECKED_CAST")
+  override fun get(key: K): V? = root?.find(0, key.hashCode(), key) as V?
+
+  override val entries: Set<Map.Entry<K, V>>
+    get() = EntrySet(root, count)
+
+  /** Associates [value] with [key], returning the previous value if there was one. */
+  fun put(key: K, value: V): V? {
+    val result = Result()
+    val currentRoot = root ?: BitmapIndexedNode(owner, 0, EMPTY_ARRAY)
+    root = currentRoot.put(owner, 0, key.hashCode(), key, value, result)
+    if (result.previous == null) {
+      count++
+    }
+    @Suppress("UNCHECKED_CAST")
+    return result.previous as V?
+  }
+
+  operator fun set(key: K, value: V) {
+    put(key, value)
+  }
+
+  /** Removes the value associated with [key], returning it if there was one. */
+  fun remove(key: K): V? {
+    val currentRoot = root ?: return null
+    val result = Result()
+    root = currentRoot.remove(owner, 0, key.hashCode(), key, result)
+    if (result.previous != null) {
+      count--
+    }
+    @Suppress("UNCHECKED_CAST")
+    return result.previous as V?
+  }
+
+  fun clear() {
+    root = null
+    count = 0
+  }
+
+  /**
+   * Returns a copy of this map in O(1). Subsequent writes to either map are not visible to the
+   * other.
+   */
+  fun fork(): PersistentHashMap<K, V> {
+    owner = Any()
+    return PersistentHashMap(root, count)
+  }
+
+  private class Result {
+    var previous: Any? = null
+  }
+
+  /**
+   * A trie node. [array] holds pairs of (key, value) entries, or (null, child node) pairs for
+   * entries that are stored further down the trie.
+   */
+  private abstract class Node(@JvmField var owner: Any, @JvmField var array: Array<Any?>) {
+
+    abstract fun find(shift: Int, hash: Int, key: Any): Any?
+
+    abstract fun put(owner: Any, shift: Int, hash: Int, key: Any, value: Any, result: Result): Node
+
+    abstract fun remove(owner: Any, shift: Int, hash: Int, key: Any, result: Result): Node?
+  }
+
+  private class BitmapIndexedNode(owner: Any, @JvmField var bitmap: Int, array: Array<Any?>) :
+      Node(owner, array) {
+
+    override fun find(shift: Int, hash: Int, key: Any): Any? {
+      val bit = bitPosition(hash, shift)
+      if (bitmap and bit == 0) {
+        return null
+      }
+      val index = index(bit)
+      val keyOrNull = array[2 * index]
+      val valueOrNode = array[2 * index + 1]
+      if (keyOrNull == null) {
+        return (valueOrNode as Node).find(shift + BITS, hash, key)
+      }
+      return if (key == keyOrNull) valueOrNode else null
+    }
+
+    override fun put(
+        owner: Any,
+        shift: Int,
+        hash: Int,
+        key: Any,
+        value: Any,
+        result: Result
+    ): Node {
+      val bit = bitPosition(hash, shift)
+      val index = index(bit)
+
+      if (bitmap and bit != 0) {
+        val keyOrNull = array[2 * index]
+        val valueOrNode = array[2 * index + 1]
+        if (keyOrNull == null) {
+          val child = valueOrNode as Node
+          val newChild = child.put(owner, shift + BITS, hash, key, value, result)
+          return if (newChild === child) this else editAndSet(owner, 2 * index + 1, newChild)
+        }
+        if (key == keyOrNull) {
+          result.previous = valueOrNode
+          return if (value === valueOrNode) this else editAndSet(owner, 2 * index + 1, value)
+        }
+        val child =
+            createNode(owner, shift + BITS, keyOrNull, checkNotNull(valueOrNode), hash, key, value)
+        val editable = ensureEditable(owner)
+        editable.array[2 * index] = null
+        editable.array[2 * index + 1] = child
+        return editable
+      }
+
+      val entries = Integer.bitCount(bitmap)
+      val newArray = arrayOfNulls<Any?>(2 * (entries + 1))
+      System.arraycopy(array, 0, newArray, 0, 2 * index)
+      newArray[2 * index] = key
+      newArray[2 * index + 1] = value
+      System.arraycopy(array, 2 * index, newArray, 2 * (index + 1), 2 * (entries - index))
+
+      if (this.owner === owner) {
+        this.bitmap = bitmap or bit
+        this.array = newArray
+        return this
+      }
+      return BitmapIndexedNode(owner, bitmap or bit, newArray)
+    }
+
+    override fun remove(owner: Any, shift: Int, hash: Int, key: Any, result: Result): Node? {
+      val bit = bitPosition(hash, shift)
+      if (bitmap and bit == 0) {
+        return this
+      }
+      val index = index(bit)
+      val keyOrNull = array[2 * index]
+      val valueOrNode = array[2 * index + 1]
+      if (keyOrNull == null) {
+        val child = valueOrNode as Node
+        val newChild = child.remove(owner, shift + BITS, hash, key, result)
+        return when {
+          newChild === child -> this
+          newChild != null -> editAndSet(owner, 2 * index + 1, newChild)
+          bitmap == bit -> null
+          else -> removePair(owner, bit, index)
+        }
+      }
+      if (key == keyOrNull) {
+        result.previous = valueOrNode
+        return if (bitmap == bit) null else removePair(owner, bit, index)
+      }
+      return this
+    }
+
+    private fun removePair(owner: Any, bit: Int, index: Int): Node {
+      val entries = Integer.bitCount(bitmap)
+      val newArray = arrayOfNulls<Any?>(2 * (entries - 1))
+      System.arraycopy(array, 0, newArray, 0, 2 * index)
+      System.arraycopy(array, 2 * (index + 1), newArray, 2 * index, 2 * (entries - index - 1))
+
+      if (this.owner === owner) {
+        this.bitmap = bitmap xor bit
+        this.array = newArray
+        return this
+      }
+      return BitmapIndexedNode(owner, bitmap xor bit, newArray)
+    }
+
+    private fun ensureEditable(owner: Any): BitmapIndexedNode {
+      if (this.owner === owner) {
+        return this
+      }
+      return BitmapIndexedNode(owner, bitmap, array.copyOf())
+    }
+
+    private fun editAndSet(owner: Any, position: Int, value: Any): Node {
+      val editable = ensureEditable(owner)
+      editable.array[position] = value
+      return editable
+    }
+
+    private fun index(bit: Int): Int = Integer.bitCount(bitmap and (bit - 1))
+  }
+
+  /** Holds the entries whose keys have the exact same [hash]. */
+  private class HashCollisionNode(owner: Any, private val hash: Int, array: Array<Any?>) :
+      Node(owner, array) {
+
+    override fun find(shift: Int, hash: Int, key: Any): Any? {
+      val index = indexOf(key)
+      return if (index < 0) null else array[index + 1]
+    }
+
+    override fun put(
+        owner: Any,
+        shift: Int,
+        hash: Int,
+        key: Any,
+        value: Any,
+        result: Result
+    ): Node {
+      if (hash != this.hash) {
+        // Nest this node into a bitmap node so that the new key can be stored next to it.
+        return BitmapIndexedNode(owner, bitPosition(this.hash, shift), arrayOf<Any?>(null, this))
+            .put(owner, shift, hash, key, value, result)
+      }
+      val index = indexOf(key)
+      if (index >= 0) {
+        result.previous = array[index + 1]
+        if (array[index + 1] === value) {
+          return this
+        }
+        val editable =
+            if (this.owner === owner) this else HashCollisionNode(owner, hash, array.copyOf())
+        editable.array[index + 1] = value
+        return editable
+      }
+      val newArray = array.copyOf(array.size + 2)
+      newArray[array.size] = key
+      newArray[array.size + 1] = value
+      if (this.owner === owner) {
+        this.array = newArray
+        return this
+      }
+      return HashCollisionNode(owner, hash, newArray)
+    }
+
+    override fun remove(owner: Any, shift: Int, hash: Int, key: Any, result: Result): Node? {
+      val index = indexOf(key)
+      if (index < 0) {
+        return this
+      }
+      result.previous = array[index + 1]
+      if (array.size == 2) {
+        return null
+      }
+      val newArray = arrayOfNulls<Any?>(array.size - 2)
+      System.arraycopy(array, 0, newArray, 0, index)
+      System.arraycopy(array, index + 2, newArray, index, array.size - index - 2)
+      if (this.owner === owner) {
+        this.array = newArray
+        return this
+      }
+      return HashCollisionNode(owner, hash, newArray)
+    }
+
+    private fun indexOf(key: Any): Int {
+      for (i in array.indices step 2) {
+        if (key == array[i]) {
+          return i
+        }
+      }
+      return -1
+    }
+  }
+
+  private inner class EntrySet(private val root: Node?, override val size: Int) :
+      AbstractSet<Map.Entry<K, V>>() {
+
+    override fun iterator(): Iterator<Map.Entry<K, V>> = EntryIterator(root)
+  }
+
+  /** Walks the trie depth first, using an explicit stack since its depth is bounded. */
+  private inner class EntryIterator(root: Node?) : Iterator<Map.Entry<K, V>> {
+
+    private val nodes = arrayOfNulls<Node>(MAX_DEPTH)
+    private val positions = IntArray(MAX_DEPTH)
+    private var depth = 0
+    private var next: Map.Entry<K, V>? = null
+
+    init {
+      if (root != null) {
+        push(root)
+      }
+      advance()
+    }
+
+    override fun hasNext(): Boolean = next != null
+
+    override fun next(): Map.Entry<K, V> {
+      val current = next ?: throw NoSuchElementException()
+      advance()
+      return current
+    }
+
+    private fun push(node: Node) {
+      nodes[depth] = node
+      positions[depth] = 0
+      depth++
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun advance() {
+      while (depth > 0) {
+        val array = checkNotNull(nodes[depth - 1]).array
+        val position = positions[depth - 1]
+        if (position >= array.size) {
+          nodes[--depth] = null
+          continue
+        }
+        positions[depth - 1] = position + 2
+        val keyOrNull = array[position]
+        val valueOrNode = array[position + 1]
+        if (keyOrNull == null) {
+          push(valueOrNode as Node)
+        } else {
+          next = SimpleImmutableEntry(keyOrNull as K, valueOrNode as V)
+          return
+        }
+      }
+      next = null
+    }
+  }
+
+  private companion object {
+    const val BITS = 5
+    const val MASK = (1 shl BITS) - 1
+
+    /** 7 levels of bitmap nodes cover all 32 bits of a hash, plus 1 for a collision node. */
+    const val MAX_DEPTH = 8
+
+    val EMPTY_ARRAY = arrayOfNulls<Any?>(0)
+
+    fun bitPosition(hash: Int, shift: Int): Int = 1 shl ((hash ushr shift) and MASK)
+
+    fun createNode(
+        owner: Any,
+        shift: Int,
+        key1: Any,
+        value1: Any,
+        hash2: Int,
+        key2: Any,
+        value2: Any
+    ): Node {
+      val hash1 = key1.hashCode()
+      if (hash1 == hash2) {
+        return HashCollisionNode(owner, hash1, arrayOf<Any?>(key1, value1, key2, value2))
+      }
+      val result = Result()
+      return BitmapIndexedNode(owner, 0, EMPTY_ARRAY)
+          .put(owner, shift, hash1, key1, value1, result)
+          .put(owner, shift, hash2, key2, value2, result)
+    }
+  }
+}
@@ -37,6 +37,15 @@ object LithoStats {
   private val _sectionCalculateNewChangesetOnUICount = AtomicLong(0)
   private val _resolveCancelledCount = AtomicLong(0)
   private val _layoutCancelledCount = AtomicLong(0)
+  private val _renderUnitIdCount = AtomicLong(0)
+  private val _evictedRenderUnitIdCount = AtomicLong(0)
+  private val _sharedMeasureCacheHitCount = AtomicLong(0)
+  private val _sharedMeasureCacheMissCount = AtomicLong(0)
+  private val _sharedMeasureCacheEvictionCount = AtomicLong(0)
+  private val _batchedYogaStyleInputCount = AtomicLong(0)
+  private val _batchedYogaStyleApplyCount = AtomicLong(0)
+  private val _coalescedStateUpdateCount = AtomicLong(0)
+  private val _batchedStateUpdateResolveCount = AtomicLong(0)
 
   @get:JvmStatic
   val componentAppliedStateUpdateCount: Long
@@ -108,6 +117,83 @@ object LithoStats {
     /** @return the global count of all do layout operations that have been avoided/cancelled. */
     get() = _layoutCancelledCount.get()
 
+  @get:JvmStatic
+  val renderUnitIdCount: Long
+    /**
+     * @return the number of component keys currently held by the render unit id generators of all
+     *   live trees in the process. Unlike the other stats, this is not a running total.
+     */
+    get() = _renderUnitIdCount.get()
+
+  @get:JvmStatic
+  val evictedRenderUnitIdCount: Long
+    /**
+     * @return the global count of all component keys that were dropped by render unit id generators
+     *   because they were not used by recently committed layouts.
+     */
+    get() = _evictedRenderUnitIdCount.get()
+
+  @get:JvmStatic
+  val sharedMeasureCacheHitCount: Long
+    /**
+     * @return the global count of all measurements which were reused from the shared measure cache.
+     */
+    get() = _sharedMeasureCacheHitCount.get()
+
+  @get:JvmStatic
+  val sharedMeasureCacheMissCount: Long
+    /**
+     * @return the global count of all lookups in the shared measure cache which didn't find an
+     *   equivalent measurement.
+     */
+    get() = _sharedMeasureCacheMissCount.get()
+
+  @get:JvmStatic
+  val sharedMeasureCacheEvictionCount: Long
+    /**
+     * @return the global count of all measurements which were dropped from the shared measure
+     *   cache, either to make room for newer ones or because their component was collected.
+     */
+    get() = _sharedMeasureCacheEvictionCount.get()
+
+  @get:JvmStatic
+  val sharedMeasureCacheHitRate: Double
+    /**
+     * @return the ratio of lookups in the shared measure cache which reused a measurement, or 0 if
+     *   there were no lookups.
+     */
+    get() {
+      val hits = _sharedMeasureCacheHitCount.get()
+      val lookups = hits + _sharedMeasureCacheMissCount.get()
+      return if (lookups == 0L) 0.0 else hits.toDouble() / lookups
+    }
+
+  @get:JvmStatic
+  val batchedYogaStyleInputCount: Long
+    /**
+     * @return the global count of all Yoga style props which were applied through a batched style
+     *   write, each of which would otherwise have been its own native call.
+     */
+    get() = _batchedYogaStyleInputCount.get()
+
+  @get:JvmStatic
+  val batchedYogaStyleApplyCount: Long
+    /** @return the global count of all the native calls made to apply batched Yoga style writes. */
+    get() = _batchedYogaStyleApplyCount.get()
+
+  @get:JvmStatic
+  val coalescedStateUpdateCount: Long
+    /**
+     * @return the global count of all async state updates which were merged into a batch that was
+     *   already scheduled, instead of scheduling a resolve of their own.
+     */
+    get() = _coalescedStateUpdateCount.get()
+
+  @get:JvmStatic
+  val batchedStateUpdateResolveCount: Long
+    /** @return the global count of all the resolves executed for a batch of async state updates. */
+    get() = _batchedStateUpdateResolveCount.get()
+
   @get:JvmStatic
   val sectionAppliedStateUpdateCount: Long
     /**
@@ -235,6 +321,97 @@ object LithoStats {
    */
   @JvmStatic fun incrementCancelledLayout(): Long = _layoutCancelledCount.addAndGet(1)
 
+  /**
+   * Increment the number of component keys held by render unit id generators (by one).
+   *
+   * @return The new number of component keys held by render unit id generators.
+   */
+  @JvmStatic fun incrementRenderUnitIdCount(): Long = _renderUnitIdCount.addAndGet(1)
+
+  /**
+   * Increment the number of component keys held by render unit id generators by {@param num}.
+   *
+   * @return The new number of component keys held by render unit id generators.
+   */
+  @JvmStatic
+  fun incrementRenderUnitIdCountBy(num: Long): Long = _renderUnitIdCount.addAndGet(num)
+
+  /**
+   * Decrement the number of component keys held by render unit id generators by {@param num}.
+   *
+   * @return The new number of component keys held by render unit id generators.
+   */
+  @JvmStatic
+  fun decrementRenderUnitIdCountBy(num: Long): Long = _renderUnitIdCount.addAndGet(-num)
+
+  /**
+   * Increment the count of component keys dropped by render unit id generators by {@param num}.
+   *
+   * @return The new total number of dropped component keys recorded.
+   */
+  @JvmStatic
+  fun incrementEvictedRenderUnitIdCountBy(num: Long): Long =
+      _evictedRenderUnitIdCount.addAndGet(num)
+
+  /**
+   * Increment the count of measurements reused from the shared measure cache (by one).
+   *
+   * @return The new total number of shared measure cache hits recorded.
+   */
+  @JvmStatic
+  fun incrementSharedMeasureCacheHitCount(): Long = _sharedMeasureCacheHitCount.addAndGet(1)
+
+  /**
+   * Increment the count of lookups in the shared measure cache which missed (by one).
+   *
+   * @return The new total number of shared measure cache misses recorded.
+   */
+  @JvmStatic
+  fun incrementSharedMeasureCacheMissCount(): Long = _sharedMeasureCacheMissCount.addAndGet(1)
+
+  /**
+   * Increment the count of measurements dropped from the shared measure cache by {@param num}.
+   *
+   * @return The new total number of shared measure cache evictions recorded.
+   */
+  @JvmStatic
+  fun incrementSharedMeasureCacheEvictionCountBy(num: Long): Long =
+      _sharedMeasureCacheEvictionCount.addAndGet(num)
+
+  /**
+   * Increment the count of Yoga style props applied through batched style writes by {@param num}.
+   *
+   * @return The new total number of batched Yoga style props recorded.
+   */
+  @JvmStatic
+  fun incrementBatchedYogaStyleInputCountBy(num: Long): Long =
+      _batchedYogaStyleInputCount.addAndGet(num)
+
+  /**
+   * Increment the count of native calls made to apply batched Yoga style writes (by one).
+   *
+   * @return The new total number of native calls made to apply batched Yoga style writes.
+   */
+  @JvmStatic
+  fun incrementBatchedYogaStyleApplyCount(): Long = _batchedYogaStyleApplyCount.addAndGet(1)
+
+  /**
+   * Increment the count of async state updates merged into an already scheduled batch (by one).
+   *
+   * @return The new total number of coalesced async state updates recorded.
+   */
+  @JvmStatic
+  fun incrementCoalescedStateUpdateCount(): Long = _coalescedStateUpdateCount.addAndGet(1)
+
+  /**
+   * Increment the count of resolves executed for a batch of async state updates (by one).
+   *
+   * @return The new total number of resolves executed for batches of async state updates.
+   */
+  @JvmStatic
+  fun incrementBatchedStateUpdateResolveCount(): Long =
+      _batchedStateUpdateResolveCount.addAndGet(1)
+
   /**
    * Increment the count of all applied state updates in Litho sections by {@param num}.
    *
@@ -297,6 +474,15 @@ object LithoStats {
     _resolveCount.set(0)
     _resolveCancelledCount.set(0)
     _resumeCount.set(0)
+    // The render unit id count is a gauge of the ids currently held, so it is not reset.
+    _evictedRenderUnitIdCount.set(0)
+    _sharedMeasureCacheHitCount.set(0)
+    _sharedMeasureCacheMissCount.set(0)
+    _sharedMeasureCacheEvictionCount.set(0)
+    _batchedYogaStyleInputCount.set(0)
+    _batchedYogaStyleApplyCount.set(0)
+    _coalescedStateUpdateCount.set(0)
+    _batchedStateUpdateResolveCount.set(0)
     _sectionAppliedStateUpdateCount.set(0)
     _sectionTriggeredSyncStateUpdateCount.set(0)
     _sectionTriggeredAsyncStateUpdateCount.set(0)
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.litho.layout.LayoutDirection
+import com.facebook.litho.testing.LithoStatsRule
+import com.facebook.litho.testing.LithoTestRule
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.litho.widget.SolidColor
+import com.facebook.yoga.YogaAlign
+import com.facebook.yoga.YogaEdge
+import com.facebook.yoga.YogaFlexDirection
+import com.facebook.yoga.YogaGutter
+import com.facebook.yoga.YogaJustify
+import com.facebook.yoga.YogaNode
+import com.facebook.yoga.YogaPositionType
+import com.facebook.yoga.YogaUnit
+import com.facebook.yoga.YogaWrap
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class BatchedYogaStyleWritesTest {
+
+  @get:Rule val rule = LithoTestRule()
+
+  @get:Rule val lithoStatsRule = LithoStatsRule()
+
+  @Test
+  fun `batched style writes should set the same style as direct writes`() {
+    val direct = NodeConfig.createYogaNode()
+    val batched = NodeConfig.createYogaNode()
+
+    writeStyle(YogaLayoutProps(direct))
+    writeStyle(YogaLayoutProps(batched, YogaStyleInputsBuffer()).apply { flush() })
+
+    assertSameStyle(batched, direct)
+  }
+
+  @Test
+  fun `batched style writes should only be applied when flushed`() {
+    val node = NodeConfig.createYogaNode()
+    val writer = YogaLayoutProps(node, YogaStyleInputsBuffer())
+
+    writer.widthPx(42)
+    assertThat(node.width.unit).isEqualTo(YogaUnit.UNDEFINED)
+
+    writer.flush()
+    assertThat(node.width.value).isEqualTo(42f)
+    assertThat(lithoStatsRule.batchedYogaStyleInputCount).isEqualTo(1)
+    assertThat(lithoStatsRule.batchedYogaStyleApplyCount).isEqualTo(1)
+  }
+
+  @Test
+  fun `trees should have the same layout with batched style writes`() {
+    val direct = render(enableBatchedYogaStyleWrites = false)
+    assertThat(lithoStatsRule.batchedYogaStyleApplyCount).isEqualTo(0)
+
+    val batched = render(enableBatchedYogaStyleWrites = true)
+    assertThat(lithoStatsRule.batchedYogaStyleApplyCount).isGreaterThan(0)
+    assertThat(lithoStatsRule.batchedYogaStyleInputCount)
+        .isGreaterThan(lithoStatsRule.batchedYogaStyleApplyCount)
+
+    assertThat(bounds(batched)).isEqualTo(bounds(direct))
+  }
+
+  @Test
+  fun `batched style writes should use at most one native call per node`() {
+    val componentTree =
+        ComponentTree.create(rule.context)
+            .componentsConfiguration(
+                ComponentsConfiguration.defaultInstance.copy(enableBatchedYogaStyleWrites = true))
+            .build()
+    rule.render(componentTree = componentTree) {
+      val root = Column.create(context)
+      for (row in 0 until ROWS) {
+        val rowBuilder =
+            Row.create(context).alignItems(YogaAlign.CENTER).paddingPx(YogaEdge.HORIZONTAL, 16)
+        for (column in 0 until COLUMNS) {
+          rowBuilder.child(
+              SolidColor.create(context)
+                  .color(column)
+                  .flexGrow(1f)
+                  .flexShrink(0f)
+                  .heightPx(24)
+                  .minWidthPx(8)
+                  .marginPx(YogaEdge.HORIZONTAL, 4)
+                  .paddingPx(YogaEdge.VERTICAL, 2))
+        }
+        root.child(rowBuilder)
+      }
+      root.build()
+    }
+
+    // Every row and cell has a style, and the root may have one too.
+    val styledNodes = ROWS + ROWS * COLUMNS
+    assertThat(lithoStatsRule.batchedYogaStyleApplyCount)
+        .isBetween(styledNodes.toLong(), styledNodes + 1L)
+    // Each row writes 2 style props, and each cell 6, with a single native call per node.
+    assertThat(lithoStatsRule.batchedYogaStyleInputCount)
+        .isGreaterThanOrEqualTo(ROWS * 2L + ROWS * COLUMNS * 6L)
+  }
+
+  private fun render(enableBatchedYogaStyleWrites: Boolean): LithoLayoutResult {
+    val componentTree =
+        ComponentTree.create(rule.context)
+            .componentsConfiguration(
+                ComponentsConfiguration.defaultInstance.copy(
+                    enableBatchedYogaStyleWrites = enableBatchedYogaStyleWrites))
+            .build()
+    val testLithoView =
+        rule.render(componentTree = componentTree) {
+          Row.create(context)
+              .wrap(YogaWrap.WRAP)
+              .justifyContent(YogaJustify.SPACE_BETWEEN)
+              .paddingPx(YogaEdge.ALL, 8)
+              .child(
+                  SolidColor.create(context)
+                      .color(0)
+                      .widthPercent(30f)
+                      .heightPx(40)
+                      .marginPx(YogaEdge.HORIZONTAL, 4))
+              .child(
+                  Column.create(context)
+                      .flexGrow(1f)
+                      .alignItems(YogaAlign.CENTER)
+                      .border(
+                          Border.create(context)
+                              .widthPx(YogaEdge.ALL, 2)
+                              .color(YogaEdge.ALL, 0)
+                              .build())
+                      .child(SolidColor.create(context).color(0).widthPx(20).heightPx(20))
+                      .child(
+                          SolidColor.create(context)
+                              .color(0)
+                              .aspectRatio(2f)
+                              .widthPx(30)
+                              .positionType(YogaPositionType.RELATIVE)
+                              .positionPx(YogaEdge.TOP, 5)))
+              .build()
+        }
+    return checkNotNull(testLithoView.currentRootNode)
+  }
+
+  private fun bounds(result: LithoLayoutResult): List<String> =
+      listOf("${result.width}x${result.height}") +
+          (0 until result.childCount).flatMap {
+            listOf("${result.getXForChildAtIndex(it)},${result.getYForChildAtIndex(it)}") +
+                bounds(result.getChildAt(it))
+          }
+
+  private fun writeStyle(writer: YogaLayoutProps) {
+    writer.layoutDirection(LayoutDirection.RTL)
+    writer.flexDirection(YogaFlexDirection.ROW_REVERSE)
+    writer.justifyContent(YogaJustify.SPACE_AROUND)
+    writer.alignItems(YogaAlign.FLEX_END)
+    writer.alignContent(YogaAlign.CENTER)
+    writer.alignSelf(YogaAlign.STRETCH)
+    writer.wrap(YogaWrap.WRAP_REVERSE)
+    writer.flexGrow(2f)
+    writer.flexShrink(3f)
+    writer.flexBasisPercent(25f)
+    writer.widthPx(100)
+    writer.minHeightPercent(10f)
+    writer.maxHeightPx(300)
+    writer.aspectRatio(1.5f)
+    writer.positionType(YogaPositionType.ABSOLUTE)
+    writer.positionPx(YogaEdge.LEFT, 7)
+    writer.positionPercent(YogaEdge.TOP, 9f)
+    writer.marginPx(YogaEdge.ALL, 5)
+    writer.marginPercent(YogaEdge.VERTICAL, 12f)
+    writer.marginAuto(YogaEdge.LEFT)
+    writer.paddingPx(YogaEdge.HORIZONTAL, 3)
+    writer.paddingPercent(YogaEdge.BOTTOM, 4f)
+    writer.setBorderWidth(YogaEdge.ALL, 2f)
+    writer.gap(YogaGutter.ALL, 6)
+    writer.isReferenceBaseline(true)
+  }
+
+  private fun assertSameStyle(actual: YogaNode, expected: YogaNode) {
+    assertThat(actual.styleDirection).isEqualTo(expected.styleDirection)
+    assertThat(actual.flexDirection).isEqualTo(expected.flexDirection)
+    assertThat(actual.justifyContent).isEqualTo(expected.justifyContent)
+    assertThat(actual.alignItems).isEqualTo(expected.alignItems)
+    assertThat(actual.alignContent).isEqualTo(expected.alignContent)
+    assertThat(actual.alignSelf).isEqualTo(expected.alignSelf)
+    assertThat(actual.wrap).isEqualTo(expected.wrap)
+    assertThat(actual.flexGrow).isEqualTo(expected.flexGrow)
+    assertThat(actual.flexShrink).isEqualTo(expected.flexShrink)
+    assertThat(actual.flexBasis).isEqualTo(expected.flexBasis)
+    assertThat(actual.width).isEqualTo(expected.width)
+    assertThat(actual.minHeight).isEqualTo(expected.minHeight)
+    assertThat(actual.maxHeight).isEqualTo(expected.maxHeight)
+    assertThat(actual.aspectRatio).isEqualTo(expected.aspectRatio)
+    assertThat(actual.positionType).isEqualTo(expected.positionType)
+    assertThat(actual.isReferenceBaseline).isEqualTo(expected.isReferenceBaseline)
+    for (edge in YogaEdge.values()) {
+      assertThat(actual.getPosition(edge)).isEqualTo(expected.getPosition(edge))
+      assertThat(actual.getMargin(edge)).isEqualTo(expected.getMargin(edge))
+      assertThat(actual.getPadding(edge)).isEqualTo(expected.getPadding(edge))
+      assertThat(actual.getBorder(edge)).isEqualTo(expected.getBorder(edge))
+    }
+    assertThat(actual.getGap(YogaGutter.ALL)).isEqualTo(expected.getGap(YogaGutter.ALL))
+  }
+
+  companion object {
+    private const val ROWS = 10
+    private const val COLUMNS = 9
+  }
+}
@@ -17,12 +17,15 @@
 package com.facebook.litho
 
 import android.annotation.TargetApi
+import android.app.Activity
 import android.content.Context
+import android.content.Intent
 import android.graphics.Color
 import android.graphics.Rect
 import android.graphics.drawable.ColorDrawable
 import android.os.Build
 import android.util.SparseArray
+import android.view.Choreographer
 import android.view.View
 import androidx.test.core.app.ApplicationProvider
 import com.facebook.litho.animated.alpha
@@ -45,8 +48,10 @@ import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 import org.junit.runner.RunWith
+import org.robolectric.Robolectric
 import org.robolectric.annotation.Config
 import org.robolectric.annotation.LooperMode
+import org.robolectric.shadows.ShadowLooper
 
 @LooperMode(LooperMode.Mode.LEGACY)
 @RunWith(LithoTestRunner::class)
@@ -83,6 +88,89 @@ class DynamicPropsTest {
     assertThat(hostView.alpha).isEqualTo(1f)
   }
 
+  @Test
+  fun testFloatDynamicAlphaApplied() {
+    val alphaDV = FloatDynamicValue(0.8f)
+    val testLithoView =
+        lithoTestRule.render {
+          Column.create(context).widthPx(80).heightPx(80).alpha(alphaDV).build()
+        }
+    val hostView = testLithoView.lithoView.getChildAt(0)
+    assertThat(hostView.alpha).isEqualTo(0.8f)
+    alphaDV.setFloat(0.5f)
+    assertThat(hostView.alpha).isEqualTo(0.5f)
+    alphaDV.set(0f)
+    assertThat(hostView.alpha).isEqualTo(0f)
+    assertThat(alphaDV.getFloat()).isEqualTo(0f)
+  }
+
+  @Test
+  fun testDynamicValueUpdatesAreAppliedOncePerFrameWhenBatched() {
+    val alphaDV = CountingDynamicValue(1f)
+    val translationDV = CountingDynamicValue(0f)
+    val componentTree =
+        ComponentTree.create(context)
+            .componentsConfiguration(config.copy(batchDynamicValueUpdatesPerFrame = true))
+            .build()
+    val testLithoView =
+        lithoTestRule.render(componentTree = componentTree) {
+          Column.create(context)
+              .widthPx(80)
+              .heightPx(80)
+              .alpha(alphaDV)
+              .translationX(translationDV)
+              .build()
+        }
+    // The values are applied before draw, so the LithoView has to be in a window
+    val activityController = Robolectric.buildActivity(Activity::class.java, Intent())
+    activityController.get().setContentView(testLithoView.lithoView)
+    activityController.resume().visible()
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks()
+    val hostView = testLithoView.lithoView.getChildAt(0)
+    alphaDV.reads = 0
+    translationDV.reads = 0
+
+    // Sets the values from an animation callback of the frame, like a fling or an animator does
+    var valuesInFrameCallback: Pair<Float, Float>? = null
+    Choreographer.getInstance().postFrameCallback {
+      alphaDV.set(0.2f)
+      translationDV.set(10f)
+      alphaDV.set(0.4f)
+      translationDV.set(20f)
+      valuesInFrameCallback = hostView.alpha to hostView.translationX
+    }
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks()
+
+    // Nothing is written to the view until the traversal of the frame, then every view is
+    // written to once with the last value
+    assertThat(valuesInFrameCallback).isEqualTo(1f to 0f)
+    assertThat(hostView.alpha).isEqualTo(0.4f)
+    assertThat(hostView.translationX).isEqualTo(20f)
+    assertThat(alphaDV.reads).isEqualTo(1)
+    assertThat(translationDV.reads).isEqualTo(1)
+  }
+
+  @Test
+  fun testDynamicValueUpdatesAreAppliedRightAwayWhenBatchedAndDetached() {
+    val alphaDV = CountingDynamicValue(1f)
+    val componentTree =
+        ComponentTree.create(context)
+            .componentsConfiguration(config.copy(batchDynamicValueUpdatesPerFrame = true))
+            .build()
+    val testLithoView =
+        lithoTestRule.render(componentTree = componentTree) {
+          Column.create(context).widthPx(80).heightPx(80).alpha(alphaDV).build()
+        }
+    val hostView = testLithoView.lithoView.getChildAt(0)
+    alphaDV.reads = 0
+
+    // A LithoView which isn't in a window isn't drawn, so there is no frame to wait for
+    alphaDV.set(0.4f)
+
+    assertThat(hostView.alpha).isEqualTo(0.4f)
+    assertThat(alphaDV.reads).isEqualTo(1)
+  }
+
   @Test
   fun testAttributesAndDynamicPropDuringUpdate() {
     val startValue = 0.8f
@@ -470,9 +558,9 @@ class DynamicPropsTest {
         }
     val lithoView = testLithoView.lithoView
 
-    assertThat(lithoView.componentTree!!.committedLayoutState!!.dynamicValueOutputs)
+    assertThat(lithoView.componentTree!!.committedLayoutState!!.dynamicValueOutputs.isEmpty())
         .describedAs("We should not collect empty dynamic values output for each component")
-        .isEmpty()
+        .isTrue
   }
 
   @Test
@@ -694,6 +782,16 @@ class DynamicPropsTest {
   }
 }
 
+/** Counts the reads of its value, which [DynamicPropsManager] makes on every write to a view. */
+private class CountingDynamicValue(initialValue: Float) : DynamicValue<Float>(initialValue) {
+  var reads: Int = 0
+
+  override fun get(): Float {
+    reads++
+    return super.get()
+  }
+}
+
 private class SimpleTestPrimitiveComponent(
     private val contentDescription: String? = null,
     private val style: Style? = null,
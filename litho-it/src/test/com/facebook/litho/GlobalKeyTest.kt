@@ -403,6 +403,59 @@ class GlobalKeyTest {
     assertThat(fourthTextSCI.context.globalKey).isEqualTo(expectedKey3)
   }
 
+  @Test
+  fun testCompactGlobalKeysAreComparedByValue() {
+    val root: Component = Column.create(mContext).build()
+    val text: Component = Text.create(mContext).text("").build()
+    val manual: Component = Text.create(mContext).text("").key("manual").build()
+
+    val first = GlobalKey.forChild(GlobalKey.forRoot(root), text, 1)
+    val second = GlobalKey.forChild(GlobalKey.forRoot(root), text, 1)
+    assertThat(first).isEqualTo(second)
+    assertThat(first.hashCode()).isEqualTo(second.hashCode())
+    assertThat(first).isNotEqualTo(GlobalKey.forChild(GlobalKey.forRoot(root), text, 2))
+    assertThat(first).isNotEqualTo(GlobalKey.forChild(GlobalKey.forRoot(root), manual, 1))
+    assertThat(first).isNotEqualTo(GlobalKey.forChild(GlobalKey.forRoot(text), text, 1))
+  }
+
+  @Test
+  fun testCompactGlobalKeyRendersLegacyKey() {
+    val root: Component = Column.create(mContext).build()
+    val text: Component = Text.create(mContext).text("").build()
+    val manual: Component = Text.create(mContext).text("").key("manual").build()
+
+    val rootKey = GlobalKey.forRoot(root)
+    assertThat(rootKey.toString()).isEqualTo(root.key)
+    assertThat(GlobalKey.forChild(rootKey, text, 0).toString())
+        .isEqualTo(ComponentKeyUtils.getKeyWithSeparatorForTest(root.typeId, text.typeId))
+    assertThat(GlobalKey.forChild(GlobalKey.forChild(rootKey, manual, 2), text, 1).toString())
+        .isEqualTo(
+            ComponentKeyUtils.getKeyWithSeparatorForTest(
+                root.typeId, "\$manual!2", "${text.typeId}!1"))
+    assertThat(GlobalKey.forChild(GlobalKey.fromLegacyKey("legacy,key"), text, 0).toString())
+        .isEqualTo("legacy,key,${text.typeId}")
+  }
+
+  @Test
+  fun testCompactAndLegacyGlobalKeysShareRenderUnitIds() {
+    val generator = RenderUnitIdGenerator(1)
+    val root: Component = Column.create(mContext).build()
+    val text: Component = Text.create(mContext).text("").build()
+    val key = GlobalKey.forChild(GlobalKey.forRoot(root), text, 1)
+
+    val compactId = generator.calculateLayoutOutputId(key, OutputUnitType.CONTENT)
+    assertThat(generator.calculateLayoutOutputId(key.toString(), OutputUnitType.CONTENT))
+        .isEqualTo(compactId)
+    assertThat(
+            generator.calculateLayoutOutputId(
+                GlobalKey.forChild(GlobalKey.forRoot(root), text, 1), OutputUnitType.CONTENT))
+        .isEqualTo(compactId)
+    assertThat(
+            generator.calculateLayoutOutputId(
+                GlobalKey.fromLegacyKey(key.toString()), OutputUnitType.CONTENT))
+        .isEqualTo(compactId)
+  }
+
   private fun getLithoView(component: Component): LithoView {
     val lithoView = LithoView(mContext)
     lithoView.setComponent(component)
@@ -17,6 +17,7 @@
 package com.facebook.litho
 
 import android.graphics.Color
+import com.facebook.litho.config.ComponentsConfiguration
 import com.facebook.litho.sections.SectionContext
 import com.facebook.litho.sections.common.DynamicComponentGroupSection
 import com.facebook.litho.sections.widget.ListRecyclerConfiguration
@@ -99,6 +100,36 @@ class LayoutCachingTest {
     Assertions.assertThat(background1 === background2).isTrue
   }
 
+  @Test
+  fun `verify the ids of a reused subtree are stable when render unit ids can be dropped`() {
+    val c = lithoTestRule.context
+    val caller = SimpleStateUpdateEmulatorSpec.Caller()
+    val component =
+        Column.create(c)
+            .child(Column.create(c).backgroundColor(Color.LTGRAY).paddingPx(YogaEdge.VERTICAL, 10))
+            .child(SimpleStateUpdateEmulator.create(c).prefix("\n\n\n").caller(caller).build())
+            .build()
+    val componentTree =
+        ComponentTree.create(c)
+            .componentsConfiguration(
+                ComponentsConfiguration.create()
+                    .renderUnitIdMaxIdleGenerations(
+                        RenderUnitIdGenerator.DEFAULT_MAX_IDLE_GENERATIONS)
+                    .build())
+            .build()
+
+    val testLithoView = lithoTestRule.render(componentTree = componentTree) { component }
+    val background = testLithoView.committedLayoutState?.getMountableOutputAt(1)?.renderUnit
+
+    // The background is reused from the cached layout, so its key is never looked up again.
+    repeat(RenderUnitIdGenerator.DEFAULT_MAX_IDLE_GENERATIONS * 2 + 1) {
+      caller.increment()
+      val current = testLithoView.committedLayoutState?.getMountableOutputAt(1)?.renderUnit
+      Assertions.assertThat(current).isSameAs(background)
+      Assertions.assertThat(current?.id).isEqualTo(background?.id)
+    }
+  }
+
   @Test
   fun `verify the layout result of a fixed size component is not reused when its size has changed`() {
     val c = lithoTestRule.context
@@ -353,6 +353,46 @@ class LayoutStateCalculateTopsAndBottomsTest {
     Collections.sort(nodes, IncrementalMountRenderCoreExtension.sBottomsComparator)
   }
 
+  @Test
+  fun testReductionScratchSortsLikeTheComparators() {
+    val edges =
+        intArrayOf(0, 0, 21, 47, 21, 21, -2147483628, 2147483647, -2147483617, -2147483617, 10, 0)
+    val scratch = ReductionScratch.acquire()
+    try {
+      for (i in edges.indices) {
+        scratch.incrementalMountOutputs.add(
+            createIncrementMountOutput(edges[i], edges[edges.size - 1 - i], i))
+      }
+      val tops = ArrayList(scratch.incrementalMountOutputs)
+      Collections.sort(tops, IncrementalMountRenderCoreExtension.sTopsComparator)
+      val bottoms = ArrayList(scratch.incrementalMountOutputs)
+      Collections.sort(bottoms, IncrementalMountRenderCoreExtension.sBottomsComparator)
+
+      Assertions.assertThat(scratch.getOutputsOrderedByTopBounds()).containsExactlyElementsOf(tops)
+      Assertions.assertThat(scratch.getOutputsOrderedByBottomBounds())
+          .containsExactlyElementsOf(bottoms)
+    } finally {
+      scratch.release()
+    }
+  }
+
+  @Test
+  fun testReductionScratchIsReusedButNotShared() {
+    val scratch = ReductionScratch.acquire()
+    scratch.incrementalMountOutputs.add(createIncrementMountOutput(0, 10, 0))
+
+    val nested = ReductionScratch.acquire()
+    Assertions.assertThat(nested).isNotSameAs(scratch)
+    Assertions.assertThat(nested.incrementalMountOutputs).isEmpty()
+    nested.release()
+
+    scratch.release()
+    val reused = ReductionScratch.acquire()
+    Assertions.assertThat(reused).isSameAs(scratch)
+    Assertions.assertThat(reused.incrementalMountOutputs).isEmpty()
+    reused.release()
+  }
+
   companion object {
     private fun createIncrementMountOutput(
         top: Int,
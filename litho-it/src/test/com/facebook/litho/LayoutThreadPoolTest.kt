@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class LayoutThreadPoolTest {
+
+  private val pool = LayoutThreadPool(4)
+
+  @Test
+  fun testPost_sameHandler_runsInOrderAndNeverConcurrently() {
+    val handler = pool.createHandler()
+    val order = Collections.synchronizedList(ArrayList<Int>())
+    val running = AtomicInteger()
+    val maxRunning = AtomicInteger()
+    val latch = CountDownLatch(TASK_COUNT)
+
+    for (i in 0 until TASK_COUNT) {
+      handler.post(
+          {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), ::maxOf)
+            order.add(i)
+            running.decrementAndGet()
+            latch.countDown()
+          },
+          TAG)
+    }
+
+    assertThat(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+    assertThat(order).isEqualTo((0 until TASK_COUNT).toList())
+    assertThat(maxRunning.get()).isEqualTo(1)
+  }
+
+  @Test
+  fun testPost_differentHandlers_runConcurrently() {
+    val barrier = CountDownLatch(2)
+    val done = CountDownLatch(2)
+
+    repeat(2) {
+      pool
+          .createHandler()
+          .post(
+              {
+                barrier.countDown()
+                // Only completes if both handlers are running at the same time.
+                if (barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                  done.countDown()
+                }
+              },
+              TAG)
+    }
+
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+  }
+
+  @Test
+  fun testRemove_removesAllPendingInstances() {
+    val handler = pool.createHandler()
+    val blocker = CountDownLatch(1)
+    val runCount = AtomicInteger()
+    val runnable = Runnable { runCount.incrementAndGet() }
+    val done = CountDownLatch(1)
+
+    handler.post({ blocker.await(TIMEOUT_SECONDS, TimeUnit.SECONDS) }, TAG)
+    handler.post(runnable, TAG)
+    handler.post(runnable, TAG)
+    handler.remove(runnable)
+    handler.post({ done.countDown() }, TAG)
+    blocker.countDown()
+
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+    assertThat(runCount.get()).isEqualTo(0)
+  }
+
+  @Test
+  fun testPostAtFront_runsBeforeAlreadyPostedRunnables() {
+    val handler = pool.createHandler()
+    val blocker = CountDownLatch(1)
+    val order = Collections.synchronizedList(ArrayList<String>())
+    val done = CountDownLatch(3)
+
+    handler.post({ blocker.await(TIMEOUT_SECONDS, TimeUnit.SECONDS) }, TAG)
+    handler.post(
+        {
+          order.add("regular")
+          done.countDown()
+        },
+        TAG)
+    handler.postAtFront(
+        {
+          order.add("front")
+          done.countDown()
+        },
+        TAG)
+    handler.post({ done.countDown() }, TAG)
+    blocker.countDown()
+
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+    assertThat(order).containsExactly("front", "regular")
+  }
+
+  @Test
+  fun testPoolThreads_areLayoutThreadsButNotTheDefaultOne() {
+    var isLayoutThread = false
+    var isDefaultLayoutThread = true
+    val done = CountDownLatch(1)
+
+    pool
+        .createHandler()
+        .post(
+            {
+              isLayoutThread = ThreadUtils.isLayoutThread
+              isDefaultLayoutThread = ThreadUtils.isDefaultLayoutThread
+              done.countDown()
+            },
+            TAG)
+
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+    assertThat(isLayoutThread).isTrue
+    assertThat(isDefaultLayoutThread).isFalse
+  }
+
+  companion object {
+    private const val TAG = "testTag"
+    private const val TASK_COUNT = 200
+    private const val TIMEOUT_SECONDS = 5L
+  }
+}
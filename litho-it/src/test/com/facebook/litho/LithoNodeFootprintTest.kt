@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.core.padding
+import com.facebook.litho.kotlin.widget.Text
+import com.facebook.litho.testing.LithoTestRule
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.litho.visibility.onVisible
+import com.facebook.rendercore.px
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Checks the heap footprint of the [LithoNode]s of a feed like tree of 5k nodes, with the rarely
+ * set attributes kept in lazily allocated sidecars, against the footprint they would have if the
+ * attributes were all fields of the node.
+ *
+ * The sizes are shallow sizes estimated from the declared fields, assuming compressed references
+ * and 8 byte alignment.
+ */
+@RunWith(LithoTestRunner::class)
+class LithoNodeFootprintTest {
+
+  @get:Rule val rule = LithoTestRule()
+
+  @Test
+  fun `nodes without rare attributes should not allocate any sidecar`() {
+    val root = render(items = 10)
+
+    val nodes = flatten(root)
+    val items = nodes.filter { it.onVisible != null }
+
+    assertThat(items).hasSize(10)
+    for (node in nodes) {
+      assertThat(sidecar(node, "transitionAttributes")).isNull()
+      assertThat(sidecar(node, "viewAttributes")).isNull()
+      assertThat(sidecar(node, "binders")).isNull()
+      if (node.onVisible == null) {
+        assertThat(sidecar(node, "visibilityAttributes")).isNull()
+      }
+    }
+  }
+
+  @Test
+  fun `sidecars should reduce the bytes per node of a 5k nodes feed`() {
+    val nodes = flatten(render(items = FEED_ITEMS))
+
+    val sidecarFields = SIDECARS.map { LithoNode::class.java.getDeclaredField(it) }
+    val nodeFields = instanceFields(LithoNode::class.java)
+    val nodeSize = shallowSize(nodeFields)
+    val inlinedSize =
+        shallowSize(
+            nodeFields.filter { it !in sidecarFields } +
+                sidecarFields.flatMap { instanceFields(it.type) })
+
+    var sidecarBytes = 0L
+    for (node in nodes) {
+      for (field in sidecarFields) {
+        if (sidecar(node, field.name) != null) {
+          sidecarBytes += shallowSize(instanceFields(field.type))
+        }
+      }
+    }
+    val before = inlinedSize * nodes.size
+    val after = nodeSize * nodes.size + sidecarBytes
+
+    assertThat(nodes.size).isGreaterThanOrEqualTo(5000)
+    assertThat(nodeSize).isLessThan(inlinedSize)
+    // Only the feed items set a rare attribute, so they are the only nodes with a sidecar.
+    val visibilityField = sidecarFields.first { it.name == "visibilityAttributes" }
+    val visibilitySize = shallowSize(instanceFields(visibilityField.type))
+    assertThat(sidecarBytes).isEqualTo(visibilitySize * FEED_ITEMS)
+    assertThat(after / nodes.size).isLessThan(before / nodes.size)
+  }
+
+  private fun render(items: Int): LithoNode {
+    val testLithoView = rule.render { Feed(items = items) }
+    return checkNotNull(testLithoView.componentTree.committedLayoutState?.root)
+  }
+
+  private fun flatten(node: LithoNode): List<LithoNode> =
+      listOf(node) + (0 until node.childCount).flatMap { flatten(node.getChildAt(it)) }
+
+  private fun sidecar(node: LithoNode, name: String): Any? =
+      LithoNode::class.java.getDeclaredField(name).apply { isAccessible = true }.get(node)
+
+  private fun instanceFields(type: Class<*>): List<Field> =
+      generateSequence(type) { it.superclass }
+          .flatMap { it.declaredFields.asSequence() }
+          .filter { !Modifier.isStatic(it.modifiers) }
+          .toList()
+
+  private fun shallowSize(fields: List<Field>): Long {
+    var size = OBJECT_HEADER_BYTES
+    for (field in fields) {
+      size +=
+          when (field.type) {
+            java.lang.Long.TYPE,
+            java.lang.Double.TYPE -> 8
+            java.lang.Integer.TYPE,
+            java.lang.Float.TYPE -> 4
+            java.lang.Short.TYPE,
+            java.lang.Character.TYPE -> 2
+            java.lang.Byte.TYPE,
+            java.lang.Boolean.TYPE -> 1
+            else -> REFERENCE_BYTES
+          }
+    }
+    return (size + 7) / 8 * 8
+  }
+
+  private class Feed(private val items: Int) : KComponent() {
+    override fun ComponentScope.render(): Component = Column {
+      for (i in 0 until items) {
+        child(FeedItem(index = i))
+      }
+    }
+  }
+
+  private class FeedItem(private val index: Int) : KComponent() {
+    override fun ComponentScope.render(): Component =
+        Column(style = Style.padding(all = 8.px).onVisible {}) {
+          child(
+              Row {
+                child(Text(text = "Author $index"))
+                child(Text(text = "2h"))
+              })
+          child(Text(text = "Story $index"))
+        }
+  }
+
+  companion object {
+    // Every feed item is made of 5 nodes.
+    private const val FEED_ITEMS = 1000
+    private const val OBJECT_HEADER_BYTES = 12L
+    private const val REFERENCE_BYTES = 4L
+    private val SIDECARS =
+        listOf("visibilityAttributes", "transitionAttributes", "viewAttributes", "binders")
+  }
+}
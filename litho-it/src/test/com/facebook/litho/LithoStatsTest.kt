@@ -18,12 +18,14 @@ package com.facebook.litho
 
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
+import com.facebook.litho.config.ComponentsConfiguration
 import com.facebook.litho.stats.LithoStats
 import com.facebook.litho.testing.LithoTestRule
 import com.facebook.litho.testing.helper.ComponentTestHelper
 import com.facebook.litho.testing.testrunner.LithoTestRunner
 import com.facebook.litho.widget.TextInput
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Before
 import org.junit.Rule
@@ -82,6 +84,65 @@ class LithoStatsTest {
     assertThat(afterTotal - beforeTotal).isEqualTo(1)
   }
 
+  @Test
+  fun updateStateAsync_coalescesUpdatesEnqueuedBeforeTheNextFrame() {
+    val beforeCoalesced = LithoStats.coalescedStateUpdateCount
+    val beforeResolves = LithoStats.batchedStateUpdateResolveCount
+    val beforeTotal = LithoStats.componentAppliedStateUpdateCount
+    ShadowLooper.pauseMainLooper()
+    repeat(3) {
+      componentTree.updateStateAsync(
+          testComponentKey, StateUpdateTestComponent.createIncrementStateUpdate(), "test", false)
+    }
+    ShadowLooper.unPauseMainLooper()
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks()
+    runToEndOfTasks()
+    assertThat(LithoStats.coalescedStateUpdateCount - beforeCoalesced).isEqualTo(2)
+    assertThat(LithoStats.batchedStateUpdateResolveCount - beforeResolves).isEqualTo(1)
+    assertThat(LithoStats.componentAppliedStateUpdateCount - beforeTotal).isEqualTo(3)
+  }
+
+  @Test
+  fun updateStateAsync_withBatchingWindow_coalescesUpdatesEnqueuedWithinTheWindow() {
+    val batchedComponent = StateUpdateTestComponent()
+    val batchedComponentTree =
+        ComponentTree.create(context, batchedComponent)
+            .componentsConfiguration(
+                ComponentsConfiguration.defaultInstance.copy(
+                    asyncStateUpdateBatchingWindowMs = BATCHING_WINDOW_MS))
+            .build()
+    val batchedLithoView = LithoView(context)
+    batchedLithoView.componentTree = batchedComponentTree
+    batchedLithoView.onAttachedToWindow()
+    ComponentTestHelper.measureAndLayout(batchedLithoView)
+    runToEndOfTasks()
+
+    val beforeCoalesced = LithoStats.coalescedStateUpdateCount
+    val beforeResolves = LithoStats.batchedStateUpdateResolveCount
+    val beforeTotal = LithoStats.componentAppliedStateUpdateCount
+    batchedComponentTree.updateStateAsync(
+        batchedComponent.key, StateUpdateTestComponent.createIncrementStateUpdate(), "test", false)
+
+    // Frames keep coming during the window, but the resolve waits for the window to end.
+    ShadowLooper.idleMainLooper(BATCHING_WINDOW_MS / 2, TimeUnit.MILLISECONDS)
+    runToEndOfTasks()
+    assertThat(LithoStats.batchedStateUpdateResolveCount - beforeResolves).isEqualTo(0)
+
+    repeat(2) {
+      batchedComponentTree.updateStateAsync(
+          batchedComponent.key,
+          StateUpdateTestComponent.createIncrementStateUpdate(),
+          "test",
+          false)
+    }
+    ShadowLooper.idleMainLooper(BATCHING_WINDOW_MS, TimeUnit.MILLISECONDS)
+    runToEndOfTasks()
+
+    assertThat(LithoStats.coalescedStateUpdateCount - beforeCoalesced).isEqualTo(2)
+    assertThat(LithoStats.batchedStateUpdateResolveCount - beforeResolves).isEqualTo(1)
+    assertThat(LithoStats.componentAppliedStateUpdateCount - beforeTotal).isEqualTo(3)
+  }
+
   @Test
   fun updateStateSync_incrementsSyncAndTotalCount() {
     val beforeSync = LithoStats.componentTriggeredSyncStateUpdateCount
@@ -138,4 +199,8 @@ class LithoStatsTest {
     val afterMountCount = LithoStats.componentMountCount
     assertThat(afterMountCount - beforeMountCount).isEqualTo(1)
   }
+
+  companion object {
+    private const val BATCHING_WINDOW_MS = 100L
+  }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.litho.kotlin.widget.Text
+import com.facebook.litho.testing.LithoTestRule
+import com.facebook.litho.testing.TestLithoView
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class ParallelResolveTest {
+
+  @get:Rule val rule = LithoTestRule()
+
+  @Test
+  fun `parallel resolve should generate the same tree as a sequential resolve`() {
+    val sequential = resolve(enableParallelResolve = false) { Grid(columns = 4, rows = 8) }
+    val parallel = resolve(enableParallelResolve = true) { Grid(columns = 4, rows = 8) }
+
+    assertThat(globalKeys(checkNotNull(parallel))).isEqualTo(globalKeys(checkNotNull(sequential)))
+  }
+
+  @Test
+  fun `parallel resolve should resolve siblings on several threads`() {
+    val threads = Collections.synchronizedSet(HashSet<Thread>())
+
+    resolve(enableParallelResolve = true) { Grid(columns = 8, rows = 2, threads = threads) }
+
+    assertThat(threads.size).isGreaterThan(1)
+  }
+
+  @Test
+  fun `parallel resolve should read pending state updates on every thread`() {
+    val stateRef = AtomicReference<State<Int>>()
+    val reads = Collections.synchronizedList(ArrayList<Pair<Thread, Int>>())
+    val testLithoView =
+        render(enableParallelResolve = true, enableStateReadTracking = true) {
+          Counter(stateRef, reads)
+        }
+    reads.clear()
+
+    rule.act(testLithoView) { stateRef.get().updateSync(1) }
+
+    assertThat(reads.map { it.first }.toSet().size).isGreaterThan(1)
+    assertThat(reads.map { it.second }).hasSize(READERS).containsOnly(1)
+  }
+
+  @Test
+  fun `state of siblings resolved in parallel should survive the next commit`() {
+    val generation = AtomicReference<State<Int>>()
+    val states = ConcurrentHashMap<Int, State<Int>>()
+    val values = ConcurrentHashMap<Int, Int>()
+    val testLithoView =
+        render(enableParallelResolve = true, enableStateReadTracking = false) {
+          StatefulCells(generation, states, values)
+        }
+
+    rule.act(testLithoView) { states.forEach { (index, state) -> state.updateSync(index + 1) } }
+    // Resolves and commits the whole tree again, which drops the state not marked as in use.
+    rule.act(testLithoView) { generation.get().updateSync(1) }
+
+    assertThat(values).hasSize(STATEFUL_CELLS)
+    for ((index, value) in values) {
+      assertThat(value).describedAs("cell $index").isEqualTo(index + 1)
+    }
+  }
+
+  private fun resolve(enableParallelResolve: Boolean, component: () -> Component): LithoNode? =
+      render(enableParallelResolve, enableStateReadTracking = false, component)
+          .componentTree
+          .committedLayoutState
+          ?.root
+
+  private fun render(
+      enableParallelResolve: Boolean,
+      enableStateReadTracking: Boolean,
+      component: () -> Component
+  ): TestLithoView {
+    val componentTree =
+        ComponentTree.create(rule.context)
+            .componentsConfiguration(
+                ComponentsConfiguration.defaultInstance.copy(
+                    enableParallelResolve = enableParallelResolve,
+                    enableStateReadTracking = enableStateReadTracking))
+            .build()
+    return rule.render(componentTree = componentTree) { component() }
+  }
+
+  private fun globalKeys(node: LithoNode): List<String> =
+      listOf(node.headComponentKey) + (0 until node.childCount).flatMap {
+        globalKeys(node.getChildAt(it))
+      }
+
+  private class Grid(
+      private val columns: Int,
+      private val rows: Int,
+      private val threads: MutableSet<Thread>? = null
+  ) : KComponent() {
+    override fun ComponentScope.render(): Component = Row {
+      for (column in 0 until columns) {
+        child(
+            Column {
+              for (row in 0 until rows) {
+                child(Cell(label = "$column:$row", threads = threads))
+              }
+            })
+      }
+    }
+  }
+
+  private class Counter(
+      private val stateRef: AtomicReference<State<Int>>,
+      private val reads: MutableList<Pair<Thread, Int>>
+  ) : KComponent() {
+    override fun ComponentScope.render(): Component {
+      val count = useState { 0 }
+      stateRef.set(count)
+      return Row {
+        for (i in 0 until READERS) {
+          child(CountReader(count, reads))
+        }
+      }
+    }
+  }
+
+  private class StatefulCells(
+      private val generationRef: AtomicReference<State<Int>>,
+      private val states: MutableMap<Int, State<Int>>,
+      private val values: MutableMap<Int, Int>
+  ) : KComponent() {
+    override fun ComponentScope.render(): Component {
+      val generation = useState { 0 }
+      generationRef.set(generation)
+      return Row {
+        for (i in 0 until STATEFUL_CELLS) {
+          child(StatefulCell(i, generation.value, states, values))
+        }
+      }
+    }
+  }
+
+  private class StatefulCell(
+      private val index: Int,
+      private val generation: Int,
+      private val states: MutableMap<Int, State<Int>>,
+      private val values: MutableMap<Int, Int>
+  ) : KComponent() {
+    override fun ComponentScope.render(): Component {
+      val count = useState { 0 }
+      states[index] = count
+      values[index] = count.value
+      return Text(text = "$index:${count.value}:$generation")
+    }
+  }
+
+  /** Reads the state of its parent, from the thread it is resolved on. */
+  private class CountReader(
+      private val count: State<Int>,
+      private val reads: MutableList<Pair<Thread, Int>>
+  ) : KComponent() {
+    override fun ComponentScope.render(): Component {
+      // Makes sure the siblings are still being resolved when the pool threads pick them up.
+      Thread.sleep(5)
+      val value = count.value
+      reads.add(Thread.currentThread() to value)
+      return Text(text = "count:$value")
+    }
+  }
+
+  private class Cell(private val label: String, private val threads: MutableSet<Thread>?) :
+      KComponent() {
+    override fun ComponentScope.render(): Component {
+      threads?.add(Thread.currentThread())
+      // Makes sure the siblings are still being resolved when the pool threads pick them up.
+      if (threads != null) {
+        Thread.sleep(5)
+      }
+      val text = useState { label }
+      return Text(text = text.value)
+    }
+  }
+
+  companion object {
+    private const val READERS = 8
+    private const val STATEFUL_CELLS = 64
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.facebook.litho.testing.LithoStatsRule
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.litho.widget.Text
+import com.facebook.rendercore.SizeConstraints
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class RenderUnitIdGeneratorTest {
+
+  @JvmField @Rule val lithoStatsRule = LithoStatsRule()
+
+  @Test
+  fun liveKeysKeepTheirIdsAcrossGenerations() {
+    val generator = RenderUnitIdGenerator(1, 2)
+    val id = generator.calculateLayoutOutputId("live", OutputUnitType.CONTENT)
+
+    repeat(10) {
+      assertThat(generator.calculateLayoutOutputId("live", OutputUnitType.CONTENT)).isEqualTo(id)
+      generator.commit()
+    }
+
+    assertThat(generator.size).isEqualTo(1)
+  }
+
+  @Test
+  fun keysNotSeenInRecentGenerationsAreDroppedAndGetNewIds() {
+    val generator = RenderUnitIdGenerator(1, 2)
+    val staleId = generator.calculateLayoutOutputId("stale", OutputUnitType.CONTENT)
+    val liveId = generator.calculateLayoutOutputId("live", OutputUnitType.HOST)
+
+    repeat(4) {
+      generator.calculateLayoutOutputId("live", OutputUnitType.HOST)
+      generator.commit()
+    }
+
+    assertThat(generator.size).isEqualTo(1)
+    assertThat(lithoStatsRule.evictedRenderUnitIdCount).isEqualTo(1)
+    assertThat(generator.calculateLayoutOutputId("live", OutputUnitType.HOST)).isEqualTo(liveId)
+    assertThat(generator.calculateLayoutOutputId("stale", OutputUnitType.CONTENT))
+        .isNotEqualTo(staleId)
+        .isNotEqualTo(liveId)
+  }
+
+  @Test
+  fun compactKeysAreDroppedWithTheirLegacyKeys() {
+    val generator = RenderUnitIdGenerator(1, 1)
+    val key = GlobalKey.fromLegacyKey("root,child")
+    val id = generator.calculateLayoutOutputId(key, OutputUnitType.CONTENT)
+
+    generator.commit()
+    generator.commit()
+
+    assertThat(generator.size).isEqualTo(0)
+    val newId = generator.calculateLayoutOutputId(key, OutputUnitType.CONTENT)
+    assertThat(newId).isNotEqualTo(id)
+    assertThat(generator.calculateLayoutOutputId("root,child", OutputUnitType.CONTENT))
+        .isEqualTo(newId)
+  }
+
+  @Test
+  fun committedRenderUnitsKeepTheirKeysWithoutLookups() {
+    val generator = RenderUnitIdGenerator(1, 2)
+    val cachedId = generator.calculateLayoutOutputId("cached", OutputUnitType.CONTENT)
+    val hostId = generator.calculateLayoutOutputId("cached", OutputUnitType.HOST)
+    generator.calculateLayoutOutputId("removed", OutputUnitType.CONTENT)
+
+    // A cached layout result is reused as is, so its key is never looked up again.
+    repeat(10) { generator.commit(cachedId, hostId) }
+
+    assertThat(generator.size).isEqualTo(1)
+    assertThat(generator.calculateLayoutOutputId("cached", OutputUnitType.CONTENT))
+        .isEqualTo(cachedId)
+  }
+
+  @Test
+  fun renderUnitsOfOtherTreesDoNotKeepKeys() {
+    val generator = RenderUnitIdGenerator(1, 1)
+    val otherTreeGenerator = RenderUnitIdGenerator(2, 1)
+    generator.calculateLayoutOutputId("key", OutputUnitType.CONTENT)
+    val otherTreeId = otherTreeGenerator.calculateLayoutOutputId("key", OutputUnitType.CONTENT)
+
+    generator.commit(otherTreeId)
+    generator.commit(otherTreeId)
+
+    assertThat(generator.size).isEqualTo(0)
+  }
+
+  @Test
+  fun generatorNeverDropsKeysByDefault() {
+    val generator = RenderUnitIdGenerator(1)
+    val id = generator.calculateLayoutOutputId("key", OutputUnitType.CONTENT)
+
+    repeat(100) { generator.commit() }
+
+    assertThat(generator.calculateLayoutOutputId("key", OutputUnitType.CONTENT)).isEqualTo(id)
+  }
+
+  @Test
+  fun reportsTheNumberOfHeldKeysInLithoStats() {
+    val before = lithoStatsRule.renderUnitIdCount
+    val generator = RenderUnitIdGenerator(1, 1)
+    generator.calculateLayoutOutputId("a", OutputUnitType.CONTENT)
+    generator.calculateLayoutOutputId("a", OutputUnitType.HOST)
+    generator.calculateLayoutOutputId("b", OutputUnitType.CONTENT)
+    assertThat(lithoStatsRule.renderUnitIdCount - before).isEqualTo(2)
+
+    generator.commit()
+    generator.calculateLayoutOutputId("a", OutputUnitType.CONTENT)
+    generator.commit()
+    assertThat(lithoStatsRule.renderUnitIdCount - before).isEqualTo(1)
+
+    generator.release()
+    assertThat(lithoStatsRule.renderUnitIdCount).isEqualTo(before)
+  }
+
+  @Test
+  fun reportsTheHeldKeysAgainOnceAcquiredAfterRelease() {
+    val before = lithoStatsRule.renderUnitIdCount
+    val generator = RenderUnitIdGenerator(1)
+    generator.calculateLayoutOutputId("a", OutputUnitType.CONTENT)
+    generator.release()
+
+    generator.calculateLayoutOutputId("b", OutputUnitType.CONTENT)
+    assertThat(lithoStatsRule.renderUnitIdCount).isEqualTo(before)
+
+    generator.acquire()
+    assertThat(lithoStatsRule.renderUnitIdCount - before).isEqualTo(2)
+    generator.acquire()
+    assertThat(lithoStatsRule.renderUnitIdCount - before).isEqualTo(2)
+
+    generator.release()
+    assertThat(lithoStatsRule.renderUnitIdCount).isEqualTo(before)
+  }
+
+  @Test
+  fun lithoRendererReleasesItsGeneratorOnCleanup() {
+    val before = lithoStatsRule.renderUnitIdCount
+    val context = ApplicationProvider.getApplicationContext<Context>()
+    val c = ComponentContext(context)
+    val renderer = LithoRenderer(context)
+    val constraints = SizeConstraints.exact(100, 100)
+
+    renderer.renderSync(Column.create(c).child(Text.create(c).text("a")).build(), constraints)
+    val heldKeys = renderer.renderUnitIdGenerator.size.toLong()
+    assertThat(heldKeys).isGreaterThan(0)
+    assertThat(lithoStatsRule.renderUnitIdCount - before).isEqualTo(heldKeys)
+
+    renderer.cleanup()
+    assertThat(lithoStatsRule.renderUnitIdCount).isEqualTo(before)
+
+    // Rendering again after the cleanup reports the keys again.
+    renderer.renderSync(Column.create(c).child(Text.create(c).text("b")).build(), constraints)
+    assertThat(lithoStatsRule.renderUnitIdCount - before)
+        .isEqualTo(renderer.renderUnitIdGenerator.size.toLong())
+
+    renderer.cleanup()
+    assertThat(lithoStatsRule.renderUnitIdCount).isEqualTo(before)
+  }
+
+  private fun RenderUnitIdGenerator.commit(vararg renderUnitIds: Long) {
+    onLayoutStateCommitted(renderUnitIds.size) { index -> renderUnitIds[index] }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.app.Application
+import android.content.ComponentCallbacks2
+import com.facebook.litho.config.ComponentsConfiguration
+import com.facebook.litho.testing.LithoStatsRule
+import com.facebook.litho.testing.LithoTestRule
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.litho.widget.RenderAndLayoutCountingTester
+import com.facebook.rendercore.MeasureResult
+import java.lang.ref.WeakReference
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class SharedMeasureCacheTest {
+
+  @get:Rule val rule = LithoTestRule()
+
+  @get:Rule val lithoStatsRule = LithoStatsRule()
+
+  @Before
+  fun setUp() {
+    SharedMeasureCache.reset()
+  }
+
+  @After
+  fun tearDown() {
+    SharedMeasureCache.reset()
+  }
+
+  @Test
+  fun `equivalent components in another tree should reuse the measurement`() {
+    val counter = RenderAndMeasureCounter()
+
+    render(enableSharedMeasureCache = true, counter)
+    val measureCount = counter.measureCount
+    val hitCount = lithoStatsRule.sharedMeasureCacheHitCount
+    render(enableSharedMeasureCache = true, counter)
+
+    assertThat(measureCount).isGreaterThan(0)
+    assertThat(counter.measureCount).isEqualTo(measureCount)
+    assertThat(lithoStatsRule.sharedMeasureCacheHitCount).isGreaterThan(hitCount)
+    assertThat(SharedMeasureCache.size).isEqualTo(1)
+  }
+
+  @Test
+  fun `components should be remeasured when the cache is disabled`() {
+    val counter = RenderAndMeasureCounter()
+
+    render(enableSharedMeasureCache = false, counter)
+    val measureCount = counter.measureCount
+    render(enableSharedMeasureCache = false, counter)
+
+    assertThat(counter.measureCount).isGreaterThan(measureCount)
+    assertThat(lithoStatsRule.sharedMeasureCacheHitCount).isEqualTo(0)
+    assertThat(lithoStatsRule.sharedMeasureCacheMissCount).isEqualTo(0)
+    assertThat(SharedMeasureCache.size).isEqualTo(0)
+  }
+
+  @Test
+  fun `components with different props should not reuse the measurement`() {
+    val counter = RenderAndMeasureCounter()
+    val otherCounter = RenderAndMeasureCounter()
+
+    render(enableSharedMeasureCache = true, counter)
+    render(enableSharedMeasureCache = true, otherCounter)
+
+    assertThat(otherCounter.measureCount).isGreaterThan(0)
+    assertThat(lithoStatsRule.sharedMeasureCacheMissCount).isGreaterThanOrEqualTo(2)
+    assertThat(SharedMeasureCache.size).isEqualTo(2)
+  }
+
+  @Test
+  fun `least recently used measurements should be evicted when the cache is full`() {
+    SharedMeasureCache.maxSize = 1
+    val counter = RenderAndMeasureCounter()
+    val otherCounter = RenderAndMeasureCounter()
+
+    render(enableSharedMeasureCache = true, counter)
+    render(enableSharedMeasureCache = true, otherCounter)
+    val measureCount = counter.measureCount
+    render(enableSharedMeasureCache = true, counter)
+
+    assertThat(SharedMeasureCache.size).isEqualTo(1)
+    assertThat(lithoStatsRule.sharedMeasureCacheEvictionCount).isGreaterThanOrEqualTo(1)
+    assertThat(counter.measureCount).isGreaterThan(measureCount)
+  }
+
+  @Suppress("DEPRECATION")
+  @Test
+  fun `measurements should be dropped when the application trims its memory`() {
+    render(enableSharedMeasureCache = true, RenderAndMeasureCounter())
+    assertThat(SharedMeasureCache.size).isEqualTo(1)
+
+    val application = rule.context.androidContext.applicationContext as Application
+    application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE)
+    assertThat(SharedMeasureCache.size).isEqualTo(1)
+
+    application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+    assertThat(SharedMeasureCache.size).isEqualTo(0)
+  }
+
+  @Test
+  fun `entries whose tree props were collected should not match trees without tree props`() {
+    val component =
+        RenderAndLayoutCountingTester.create(rule.context)
+            .renderAndMeasureCounter(RenderAndMeasureCounter())
+            .build()
+    val configuration = rule.context.resources.configuration
+    val treePropContainer = WeakReference(TreePropContainer())
+    val entry =
+        SharedMeasureCache.Entry(
+            WeakReference(component), treePropContainer, configuration, MeasureResult(10, 10))
+    val entryWithoutTreeProps =
+        SharedMeasureCache.Entry(
+            WeakReference(component), null, configuration, MeasureResult(10, 10))
+
+    treePropContainer.clear()
+
+    assertThat(entry.isCollected).isTrue
+    assertThat(entry.matches(component, null, configuration)).isFalse
+    assertThat(entryWithoutTreeProps.matches(component, null, configuration)).isTrue
+  }
+
+  private fun render(enableSharedMeasureCache: Boolean, counter: RenderAndMeasureCounter) {
+    val componentTree =
+        ComponentTree.create(rule.context)
+            .componentsConfiguration(
+                ComponentsConfiguration.defaultInstance.copy(
+                    enableSharedMeasureCache = enableSharedMeasureCache))
+            .build()
+    rule.render(componentTree = componentTree) {
+      Column.create(context)
+          .child(RenderAndLayoutCountingTester.create(context).renderAndMeasureCounter(counter))
+          .build()
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import com.facebook.litho.state.ComponentState
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/** Tests that forking a [StateHandler] shares its state and that commits only apply the fork. */
+@RunWith(LithoTestRunner::class)
+class StateHandlerForkTest {
+
+  private lateinit var source: StateHandler
+
+  @Before
+  fun setup() {
+    source = StateHandler()
+    for (i in 0 until STATE_COUNT) {
+      source.addState(globalKey(i), newState(i))
+    }
+  }
+
+  @Test
+  fun `fork shares the state instances of its source`() {
+    val fork = StateHandler(source)
+
+    for (i in 0 until STATE_COUNT) {
+      assertThat(fork.getState(globalKey(i))).isSameAs(source.getState(globalKey(i)))
+    }
+  }
+
+  @Test
+  fun `updates to a fork are not visible in its source before commit`() {
+    val original = source.getState(globalKey(0))
+    val fork = StateHandler(source)
+
+    val updated = newState(-1)
+    fork.addState(globalKey(0), updated)
+
+    assertThat(fork.getState(globalKey(0))).isSameAs(updated)
+    assertThat(source.getState(globalKey(0))).isSameAs(original)
+  }
+
+  @Test
+  fun `commit applies the updated state and keeps untouched state instances`() {
+    val untouched = (1 until STATE_COUNT).map { source.getState(globalKey(it)) }
+    val fork = StateHandler(source)
+    markAllInUse(fork)
+
+    val updated = newState(-1)
+    fork.addState(globalKey(0), updated)
+    source.commit(fork)
+
+    assertThat(source.getState(globalKey(0))).isSameAs(updated)
+    for (i in 1 until STATE_COUNT) {
+      assertThat(source.getState(globalKey(i))).isSameAs(untouched[i - 1])
+    }
+  }
+
+  @Test
+  fun `commit drops state that was not used by the fork`() {
+    val fork = StateHandler(source)
+    for (i in 0 until STATE_COUNT - 1) {
+      fork.markStateInUse(globalKey(i))
+    }
+
+    source.commit(fork)
+
+    assertThat(source.state).hasSize(STATE_COUNT - 1)
+    assertThat(source.getState(globalKey(STATE_COUNT - 1))).isNull()
+  }
+
+  @Test
+  fun `fork of a committed StateHandler is isolated from the previous fork`() {
+    val first = StateHandler(source)
+    markAllInUse(first)
+    first.addState(globalKey(0), newState(-1))
+    source.commit(first)
+
+    val second = StateHandler(source)
+    second.addState(globalKey(1), newState(-2))
+
+    assertThat(first.getState(globalKey(1))).isSameAs(source.getState(globalKey(1)))
+    assertThat(second.getState(globalKey(0))).isSameAs(source.getState(globalKey(0)))
+  }
+
+  private fun markAllInUse(fork: StateHandler) {
+    for (i in 0 until STATE_COUNT) {
+      fork.markStateInUse(globalKey(i))
+    }
+  }
+
+  companion object {
+    private const val STATE_COUNT = 1_000
+
+    private fun newState(value: Int): ComponentState<KStateContainer> =
+        ComponentState(value = KStateContainer.withNewState(null, value))
+
+    private fun globalKey(i: Int): String = "root,list!$i,item"
+  }
+}
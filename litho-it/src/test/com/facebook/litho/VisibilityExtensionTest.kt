@@ -17,6 +17,7 @@
 package com.facebook.litho
 
 import android.graphics.Color
+import android.graphics.Rect
 import com.facebook.litho.core.height
 import com.facebook.litho.core.width
 import com.facebook.litho.kotlin.widget.SolidColor
@@ -123,4 +124,46 @@ class VisibilityExtensionTest {
       assertThat(isVisible).isFalse()
     }
   }
+
+  @Test
+  fun `when scrolling then only the items entering or leaving the visible rect get events`() {
+    class Item(val index: Int, val events: MutableList<String>) : KComponent() {
+      override fun ComponentScope.render(): Component {
+        return SolidColor(
+            Color.BLACK,
+            style =
+                Style.width(100.px)
+                    .height(100.px)
+                    .onVisible { events.add("visible $index") }
+                    .onInvisible { events.add("invisible $index") },
+        )
+      }
+    }
+
+    val events = ArrayList<String>()
+    val testLithoView =
+        mLithoTestRule.render(widthPx = 100, heightPx = 10_000) {
+          Column { (0 until 100).forEach { child(Item(index = it, events = events)) } }
+        }
+    val lithoView = testLithoView.lithoView
+
+    lithoView.notifyVisibleBoundsChanged(Rect(0, 0, 100, 250), true)
+    events.clear()
+
+    // Scrolls by half an item: item 0 is still partially visible and item 3 becomes visible.
+    lithoView.notifyVisibleBoundsChanged(Rect(0, 50, 100, 350), true)
+    assertThat(events).containsExactly("visible 3")
+    events.clear()
+
+    // Jumps far away: the previously visible items become invisible.
+    lithoView.notifyVisibleBoundsChanged(Rect(0, 5_000, 100, 5_150), true)
+    assertThat(events)
+        .containsExactly(
+            "invisible 0",
+            "invisible 1",
+            "invisible 2",
+            "invisible 3",
+            "visible 50",
+            "visible 51")
+  }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho
+
+import android.graphics.Rect
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import com.facebook.rendercore.visibility.VisibilityOutput
+import com.facebook.rendercore.visibility.VisibilityOutputsIndex
+import java.util.Random
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class VisibilityOutputsIndexTest {
+
+  @Test
+  fun `findOverlapping returns the outputs overlapping the range in list order`() {
+    val outputs =
+        listOf(
+            createOutput(top = 100, bottom = 200),
+            createOutput(top = 0, bottom = 1000),
+            createOutput(top = 300, bottom = 400),
+            createOutput(top = 200, bottom = 300),
+            createOutput(top = 0, bottom = 0))
+    val index = VisibilityOutputsIndex(outputs)
+
+    assertThat(index.findOverlapping(150, 250)).containsExactly(0, 1, 3)
+    assertThat(index.findOverlapping(200, 300)).containsExactly(1, 3)
+    assertThat(index.findOverlapping(1000, 2000)).isEmpty()
+    assertThat(index.findOverlapping(250, 250)).containsExactly(1, 3)
+  }
+
+  @Test
+  fun `findOverlapping matches checking every output`() {
+    val random = Random(42)
+    val outputs =
+        List(500) {
+          val top = random.nextInt(10_000) - 1_000
+          createOutput(top = top, bottom = top + random.nextInt(if (it % 50 == 0) 5_000 else 300))
+        }
+    val index = VisibilityOutputsIndex(outputs)
+
+    repeat(200) {
+      val top = random.nextInt(12_000) - 2_000
+      val bottom = top + random.nextInt(2_000)
+      val expected =
+          outputs.indices.filter {
+            outputs[it].bounds.top < bottom && top < outputs[it].bounds.bottom
+          }
+
+      assertThat(index.findOverlapping(top, bottom).toList()).isEqualTo(expected)
+    }
+  }
+
+  private fun createOutput(top: Int, bottom: Int): VisibilityOutput =
+      VisibilityOutput(
+          "$top:$bottom",
+          "output",
+          Rect(0, top, 100, bottom),
+          1f,
+          1f,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null)
+}
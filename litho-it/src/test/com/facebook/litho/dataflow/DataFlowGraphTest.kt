@@ -134,6 +134,69 @@ class DataFlowGraphTest {
     assertThat(dest.value).isEqualTo(3_588f)
   }
 
+  @Test
+  fun testIndependentBindingsArePartitioned() {
+    val source1 = SettableNode()
+    val destination1 = OutputOnlyNode()
+    val binding1 = GraphBinding.create(dataFlowGraph)
+    binding1.addBinding(source1, destination1)
+    binding1.activate()
+    val source2 = NumFramesNode()
+    val middle2 = SimpleNode()
+    val destination2 = OutputOnlyNode()
+    val binding2 = GraphBinding.create(dataFlowGraph)
+    binding2.addBinding(source2, middle2)
+    binding2.addBinding(middle2, destination2)
+    binding2.activate()
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(2)
+
+    source1.value = 5f
+    testTimingSource.step(1)
+    assertThat(destination1.value).isEqualTo(5f)
+    assertThat(destination2.value).isEqualTo(1f)
+
+    binding1.deactivate()
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(1)
+    testTimingSource.step(1)
+    assertThat(destination2.value).isEqualTo(2f)
+
+    binding2.deactivate()
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(0)
+    assertThat(dataFlowGraph.hasReferencesToNodes()).isFalse
+  }
+
+  @Test
+  fun testBindingSharingNodesMergesPartitions() {
+    val a = SettableNode()
+    val b = SettableNode()
+    val dest = AdditionNode()
+    val bindingA = GraphBinding.create(dataFlowGraph)
+    bindingA.addBinding(a, dest, "a")
+    bindingA.activate()
+    val bindingB = GraphBinding.create(dataFlowGraph)
+    bindingB.addBinding(b, SimpleNode())
+    bindingB.activate()
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(2)
+
+    // Connects the two partitions through b and dest
+    val bindingC = GraphBinding.create(dataFlowGraph)
+    bindingC.addBinding(b, dest, "b")
+    bindingC.activate()
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(1)
+
+    a.value = 3f
+    b.value = 4f
+    testTimingSource.step(1)
+    assertThat(dest.value).isEqualTo(7f)
+
+    // Unregistering keeps the remaining nodes in order without sorting the partition again
+    bindingB.deactivate()
+    a.value = 10f
+    testTimingSource.step(1)
+    assertThat(dest.value).isEqualTo(14f)
+    assertThat(dataFlowGraph.partitionCount).isEqualTo(1)
+  }
+
   @Test(expected = DetectedCycleException::class)
   fun testSimpleCycle() {
     val node1 = SimpleNode()
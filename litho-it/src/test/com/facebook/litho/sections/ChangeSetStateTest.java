@@ -21,10 +21,15 @@ import static com.facebook.litho.sections.Change.MOVE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import android.util.Pair;
+import com.facebook.litho.EventHandler;
+import com.facebook.litho.EventHandlerRebindMode;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.sections.logger.SectionsDebugLogger;
 import com.facebook.litho.testing.sections.TestSectionCreator;
 import com.facebook.litho.testing.testrunner.LithoTestRunner;
 import com.facebook.litho.widget.ComponentRenderInfo;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -754,6 +759,168 @@ public class ChangeSetStateTest {
     assertThat(leaf3).isEqualTo(secondChangeSetState.getRemovedComponents().get(0));
   }
 
+  @Test
+  public void testParallelChildChangeSetsAreMergedInChildOrder() {
+    final ChangeSetState sequential = generateFeedChangeSet();
+
+    final ChangeSetState parallel;
+    SectionsConfiguration.enableParallelChildChangeSets = true;
+    try {
+      parallel = generateFeedChangeSet();
+    } finally {
+      SectionsConfiguration.enableParallelChildChangeSets = false;
+    }
+
+    final ChangeSet sequentialChangeSet = sequential.getChangeSet();
+    final ChangeSet parallelChangeSet = parallel.getChangeSet();
+    assertThat(parallelChangeSet.getCount()).isEqualTo(sequentialChangeSet.getCount());
+    assertThat(parallelChangeSet.getChangeCount()).isEqualTo(sequentialChangeSet.getChangeCount());
+    for (int i = 0, size = sequentialChangeSet.getChangeCount(); i < size; i++) {
+      final Change expected = sequentialChangeSet.getChangeAt(i);
+      final Change actual = parallelChangeSet.getChangeAt(i);
+      assertThat(actual.getType()).isEqualTo(expected.getType());
+      assertThat(actual.getIndex()).isEqualTo(expected.getIndex());
+      assertThat(actual.getToIndex()).isEqualTo(expected.getToIndex());
+    }
+
+    assertThat(parallel.getRemovedComponents()).hasSameSizeAs(sequential.getRemovedComponents());
+    for (int i = 0, size = sequential.getRemovedComponents().size(); i < size; i++) {
+      assertThat(parallel.getRemovedComponents().get(i).getGlobalKey())
+          .isEqualTo(sequential.getRemovedComponents().get(i).getGlobalKey());
+    }
+  }
+
+  @Test
+  public void testParallelChildChangeSetsRecordAllEventHandlers() {
+    final SectionContext calculationContext =
+        SectionContext.forNewChangeSetCalculation(mSectionContext);
+    final Section[] children = new Section[16];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = new EventHandlerSection("handlers" + i);
+    }
+    final Section root = TestSectionCreator.createSectionComponent("root", children);
+    TestSectionCreator.createTree(root, mSectionContext);
+    root.setScopedContext(SectionContext.withScope(calculationContext, root));
+    for (Section child : children) {
+      child.setScopedContext(SectionContext.withScope(calculationContext, child));
+    }
+
+    SectionsConfiguration.enableParallelChildChangeSets = true;
+    try {
+      ChangeSetState.generateChangeSet(
+          calculationContext,
+          null,
+          root,
+          mSectionsDebugLogger,
+          mSectionTreeTag,
+          mCurrentPrefix,
+          mNextPrefix,
+          false);
+    } finally {
+      SectionsConfiguration.enableParallelChildChangeSets = false;
+    }
+
+    final List<Pair<String, EventHandler<?>>> eventHandlers =
+        calculationContext.getChangeSetCalculationState().getEventHandlers();
+    assertThat(eventHandlers).hasSize(children.length * EventHandlerSection.EVENT_HANDLERS);
+    for (Section child : children) {
+      int count = 0;
+      for (Pair<String, EventHandler<?>> eventHandler : eventHandlers) {
+        if (child.getGlobalKey().equals(eventHandler.first)) {
+          count++;
+        }
+      }
+      assertThat(count).isEqualTo(EventHandlerSection.EVENT_HANDLERS);
+    }
+  }
+
+  /**
+   * Generates the change set of a feed made of groups of leaves, where some groups and leaves are
+   * removed, inserted and moved.
+   */
+  private ChangeSetState generateFeedChangeSet() {
+    final Section[] currentGroups = new Section[8];
+    for (int i = 0; i < currentGroups.length; i++) {
+      currentGroups[i] =
+          TestSectionCreator.createSectionComponent(
+              "group" + i,
+              createChangeSetComponent("leaf" + i + "_0", 3),
+              createChangeSetComponent("leaf" + i + "_1", 2),
+              createChangeSetComponent("leaf" + i + "_2", 4));
+    }
+    final Section root = TestSectionCreator.createSectionComponent("root", true, currentGroups);
+    TestSectionCreator.createTree(root, mSectionContext);
+
+    ChangeSetState.generateChangeSet(
+        mSectionContext,
+        null,
+        root,
+        mSectionsDebugLogger,
+        mSectionTreeTag,
+        mCurrentPrefix,
+        mNextPrefix,
+        false);
+
+    // Drops group 3, adds group 8 and moves group 5 to the front.
+    final int[] newOrder = {5, 0, 1, 2, 4, 8, 6, 7};
+    final Section[] newGroups = new Section[newOrder.length];
+    for (int i = 0; i < newGroups.length; i++) {
+      final int group = newOrder[i];
+      newGroups[i] =
+          TestSectionCreator.createSectionComponent(
+              "group" + group,
+              createChangeSetComponent("leaf" + group + "_0", 3),
+              createChangeSetComponent("leaf" + group + "_2", 4),
+              createChangeSetComponent("leaf" + group + "_3", 1));
+    }
+    final Section newRoot = TestSectionCreator.createSectionComponent("root", true, newGroups);
+    TestSectionCreator.createTree(newRoot, mSectionContext);
+
+    return ChangeSetState.generateChangeSet(
+        mSectionContext,
+        root,
+        newRoot,
+        mSectionsDebugLogger,
+        mSectionTreeTag,
+        mCurrentPrefix,
+        mNextPrefix,
+        false);
+  }
+
+  /** A diff section which creates event handlers while generating its change set. */
+  private static class EventHandlerSection extends TestSectionCreator.TestSection {
+
+    private static final int EVENT_HANDLERS = 200;
+
+    EventHandlerSection(String key) {
+      super("EventHandlerSection", 0, key, false);
+    }
+
+    @Override
+    protected void generateChangeSet(
+        SectionContext c,
+        ChangeSet changeSet,
+        SectionContext previousScopedContext,
+        Section previous,
+        SectionContext nextScopedContext,
+        Section next) {
+      for (int i = 0; i < EVENT_HANDLERS; i++) {
+        newEventHandler(
+            EventHandlerSection.class,
+            "EventHandlerSection",
+            c,
+            i,
+            null,
+            EventHandlerRebindMode.REBIND);
+      }
+    }
+
+    @Override
+    public boolean isDiffSectionSpec() {
+      return true;
+    }
+  }
+
   private static Section createChangeSetComponent(String key, int numChildren) {
     Change[] changes = new Change[numChildren];
     for (int i = 0; i < numChildren; i++) {
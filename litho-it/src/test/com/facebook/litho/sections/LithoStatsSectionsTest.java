@@ -18,12 +18,14 @@ package com.facebook.litho.sections;
 
 import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.robolectric.annotation.LooperMode.Mode.LEGACY;
 
 import android.os.Looper;
 import com.facebook.litho.Component;
 import com.facebook.litho.StateContainer;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.stats.LithoStats;
 import com.facebook.litho.testing.Whitebox;
 import com.facebook.litho.testing.sections.TestSectionCreator;
@@ -31,6 +33,7 @@ import com.facebook.litho.testing.sections.TestTarget;
 import com.facebook.litho.testing.testrunner.LithoTestRunner;
 import com.facebook.litho.widget.ComponentRenderInfo;
 import com.facebook.litho.widget.RenderInfo;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import org.junit.After;
 import org.junit.Before;
@@ -181,6 +184,84 @@ public class LithoStatsSectionsTest {
         .isEqualTo(0);
   }
 
+  @Test
+  public void setRoot_withBackgroundDiffing_onlyCalculatesFirstChangesetOnUI()
+      throws InterruptedException {
+    final TestTarget changeSetHandler = new TestTarget();
+    SectionTree tree = SectionTree.create(mSectionContext, changeSetHandler).build();
+
+    SectionsConfiguration.enableBackgroundDiffing = true;
+    try {
+      long beforeChangesetCalculationOnUICount =
+          LithoStats.getSectionCalculateNewChangesetOnUICount();
+
+      // The first root is still calculated synchronously, so that the first render has content.
+      tree.setRoot(
+          TestSectionCreator.createChangeSetComponent(
+              "leaf", Change.insert(0, makeComponentInfo())));
+
+      assertThat(changeSetHandler.getOperations()).hasSize(1);
+      assertThat(
+              LithoStats.getSectionCalculateNewChangesetOnUICount()
+                  - beforeChangesetCalculationOnUICount)
+          .isEqualTo(1);
+
+      changeSetHandler.clear();
+      final long beforeChangesetCalculationCount =
+          LithoStats.getSectionCalculateNewChangesetCount();
+      beforeChangesetCalculationOnUICount = LithoStats.getSectionCalculateNewChangesetOnUICount();
+
+      // The third root supersedes the second one, only the latest root is calculated.
+      tree.setRoot(
+          TestSectionCreator.createChangeSetComponent(
+              "leaf", Change.insert(0, makeComponentInfo())));
+      tree.setRoot(
+          TestSectionCreator.createChangeSetComponent(
+              "leaf", Change.insert(0, makeComponentInfo())));
+
+      assertThat(changeSetHandler.getOperations()).isEmpty();
+      runChangeSetThreadTasks();
+
+      assertThat(
+              LithoStats.getSectionCalculateNewChangesetCount() - beforeChangesetCalculationCount)
+          .isEqualTo(1);
+      assertThat(
+              LithoStats.getSectionCalculateNewChangesetOnUICount()
+                  - beforeChangesetCalculationOnUICount)
+          .isEqualTo(0);
+    } finally {
+      SectionsConfiguration.enableBackgroundDiffing = false;
+    }
+  }
+
+  @Test
+  public void changeSetCalculationState_throwsOnceCancelled() {
+    final ChangeSetCalculationState state = new ChangeSetCalculationState();
+    state.throwIfCancelled();
+
+    state.cancel();
+
+    assertThat(state.isCancelled()).isTrue();
+    assertThatThrownBy(state::throwIfCancelled).isInstanceOf(CancellationException.class);
+  }
+
+  private void runChangeSetThreadTasks() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                // We have to do this inside another thread otherwise the execution of
+                // mChangeSetThreadShadowLooper will happen on Main Thread
+                mChangeSetThreadShadowLooper.runToEndOfTasks();
+                latch.countDown();
+              }
+            })
+        .start();
+    latch.await();
+  }
+
   private static RenderInfo makeComponentInfo() {
     return ComponentRenderInfo.create().component(mock(Component.class)).build();
   }
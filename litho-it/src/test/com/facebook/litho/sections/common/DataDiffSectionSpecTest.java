@@ -37,6 +37,7 @@ import com.facebook.litho.config.LithoDebugConfigurations;
 import com.facebook.litho.debug.LithoDebugEvent;
 import com.facebook.litho.sections.SectionContext;
 import com.facebook.litho.sections.SectionTree;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.specmodels.internal.ImmutableList;
 import com.facebook.litho.testing.sections.TestDataDiffSection;
 import com.facebook.litho.testing.sections.TestDataDiffSectionNull;
@@ -58,12 +59,17 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Shadows;
 import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
 
 /** Tests {@link DataDiffSectionSpec} */
 @LooperMode(LooperMode.Mode.LEGACY)
@@ -143,6 +149,80 @@ public class DataDiffSectionSpecTest {
     assertOperation(newOperation, INSERT_RANGE, 100, -1, 100, null, newData.subList(100, 200));
   }
 
+  @Test
+  public void testNewerRootSupersedesDiffInFlight_withBackgroundDiffing() throws Exception {
+    final ShadowLooper changeSetThreadShadowLooper =
+        Shadows.shadowOf(SectionTree.getDefaultChangeSetThreadLooper());
+    final CountDownLatch diffStarted = new CountDownLatch(1);
+    final CountDownLatch releaseDiff = new CountDownLatch(1);
+    final AtomicReference<Throwable> diffFailure = new AtomicReference<>();
+
+    SectionsConfiguration.enableBackgroundDiffing = true;
+    try {
+      // The first root is still calculated synchronously.
+      final List<String> oldData = generateData(100);
+      mSectionTree.setRoot(TestGroupSection.create(mSectionContext).data(oldData).build());
+      assertThat(mTestTarget.getOperations().size()).isEqualTo(1);
+      mTestTarget.clear();
+
+      // Blocks the first comparison of the diff until a newer root was set.
+      final TestGroupSection supersededRoot =
+          TestGroupSection.create(mSectionContext)
+              .data(generateData(200))
+              .isSameItemComparator(
+                  new Comparator() {
+                    @Override
+                    public int compare(Object lhs, Object rhs) {
+                      if (diffStarted.getCount() > 0) {
+                        diffStarted.countDown();
+                        try {
+                          releaseDiff.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                          throw new RuntimeException(e);
+                        }
+                      }
+                      return lhs.equals(rhs) ? 0 : -1;
+                    }
+                  })
+              .build();
+      final Thread supersededDiffThread =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    mSectionTree.setRoot(supersededRoot);
+                  } catch (Throwable t) {
+                    diffFailure.set(t);
+                  }
+                }
+              });
+      supersededDiffThread.start();
+      assertThat(diffStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+      final List<String> newData = generateData(150);
+      mSectionTree.setRoot(TestGroupSection.create(mSectionContext).data(newData).build());
+      releaseDiff.countDown();
+      supersededDiffThread.join(5000);
+
+      assertThat(supersededDiffThread.isAlive()).isFalse();
+      assertThat(diffFailure.get()).isNull();
+
+      runChangeSetThreadTasks(changeSetThreadShadowLooper);
+      ShadowLooper.runUiThreadTasks();
+
+      // Only the change set of the latest root was applied.
+      final List<Operation> executedOperations = mTestTarget.getOperations();
+      assertThat(executedOperations.size()).isEqualTo(1);
+      final Operation operation = executedOperations.get(0);
+      assertRangeOperation(operation, INSERT_RANGE, 100, 50);
+      assertOperation(operation, INSERT_RANGE, 100, -1, 50, null, newData.subList(100, 150));
+    } finally {
+      SectionsConfiguration.enableBackgroundDiffing = false;
+      releaseDiff.countDown();
+    }
+  }
+
   @Test
   public void testInsertData() {
     final List<String> oldData = generateData(100);
@@ -522,6 +602,51 @@ public class DataDiffSectionSpecTest {
         .isEqualTo("DuplicateItemsInSection");
   }
 
+  @Test
+  public void testDuplicatesByIdentifier() {
+    final List<String> data = generateDuplicatedData(100);
+    final String message =
+        DataDiffSectionSpec.detectDuplicatesByIdentifier(data, data, newCallback(data), "test");
+    assertThat(message).contains("position:0").contains("position:99");
+    assertThat(mDebugEvents).hasSize(1);
+    assertThat(mDebugEvents.get(0).<String>attribute(DebugEventAttribute.Name))
+        .isEqualTo("DuplicateItemsInSection");
+  }
+
+  @Test
+  public void testNoDuplicatesByIdentifier() {
+    final List<String> data = generateData(100);
+    assertThat(
+            DataDiffSectionSpec.detectDuplicatesByIdentifier(
+                data, data, newCallback(data), "test"))
+        .isNull();
+    assertThat(mDebugEvents).isEmpty();
+  }
+
+  @Test
+  public void testNullIdentifiersAreNotDuplicates() {
+    final List<String> data = generateData(100);
+    final List<String> ids = new ArrayList<>(data);
+    for (int i = 0; i < ids.size(); i += 2) {
+      ids.set(i, null);
+    }
+    assertThat(
+            DataDiffSectionSpec.detectDuplicatesByIdentifier(data, ids, newCallback(data), "test"))
+        .isNull();
+    assertThat(mDebugEvents).isEmpty();
+  }
+
+  @Test
+  public void testDuplicatesOfItemsWithNullIdentifier() {
+    final List<String> data = generateDuplicatedData(100);
+    final List<String> ids = new ArrayList<>(data);
+    ids.set(99, null);
+    final String message =
+        DataDiffSectionSpec.detectDuplicatesByIdentifier(data, ids, newCallback(data), "test");
+    assertThat(message).contains("position:0").contains("position:99");
+    assertThat(mDebugEvents).hasSize(1);
+  }
+
   private void assertRangeOperation(
       Operation operation, int opType, int startIndex, int rangeCount) {
     assertEquals("opreation type", operation.mOp, opType);
@@ -600,6 +725,26 @@ public class DataDiffSectionSpecTest {
     assertThat(operation.mNewData).isEqualTo(next);
   }
 
+  private static void runChangeSetThreadTasks(ShadowLooper changeSetThreadShadowLooper)
+      throws InterruptedException {
+    // The change set thread's looper has to be run from another thread, otherwise its tasks would
+    // run on the main thread.
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                changeSetThreadShadowLooper.runToEndOfTasks();
+              }
+            });
+    thread.start();
+    thread.join();
+  }
+
+  private DataDiffSectionSpec.Callback<String> newCallback(List<String> data) {
+    return new DataDiffSectionSpec.Callback<>(mSectionContext, null, data);
+  }
+
   private static List<String> generateData(int length) {
     final List<String> data = new ArrayList<>(length);
     for (int i = 0; i < length; i++) {
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.sections.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import com.facebook.litho.testing.testrunner.LithoTestRunner;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests {@link UniqueIdentifierDiff} */
+@RunWith(LithoTestRunner.class)
+public class UniqueIdentifierDiffTest {
+
+  @Test
+  public void testMoveToEnd_dispatchesSingleMove() {
+    final RecordingCallback callback =
+        dispatch(Arrays.asList("a", "b", "c", "d"), Arrays.asList("b", "c", "d", "a"), true);
+
+    assertThat(callback.mOperations).containsExactly("move 0 3");
+    assertThat(callback.mItems).containsExactly("b", "c", "d", "a");
+  }
+
+  @Test
+  public void testInsertRemoveAndUpdate_areBatched() {
+    final List<String> previous = Arrays.asList("a", "b", "c", "d", "e");
+    final List<String> next = Arrays.asList("a", "x", "y", "d", "e*");
+    final RecordingCallback callback = dispatch(previous, next, true);
+
+    assertThat(callback.mOperations).containsExactly("remove 1 2", "insert 1 2", "change 4 1");
+    assertThat(callback.mItems).containsExactly("a", null, null, "d", null);
+    assertThat(callback.getResult(next)).isEqualTo(next);
+  }
+
+  @Test
+  public void testDetectMovesDisabled_removesAndInsertsMovedItems() {
+    final RecordingCallback callback =
+        dispatch(Arrays.asList("a", "b", "c"), Arrays.asList("c", "a", "b"), false);
+
+    assertThat(callback.mOperations).containsExactly("remove 2 1", "insert 0 1");
+    assertThat(callback.mItems).containsExactly(null, "a", "b");
+  }
+
+  @Test
+  public void testDuplicateIdentifiers_returnsNull() {
+    final List<String> previous = Arrays.asList("a", "b");
+    final List<String> next = Arrays.asList("a", "b", "a");
+
+    assertThat(
+            UniqueIdentifierDiff.calculateDiff(
+                previous, next, new Callback(previous, next), /* detectMoves */ true))
+        .isNull();
+    assertThat(
+            UniqueIdentifierDiff.calculateDiff(
+                next, previous, new Callback(next, previous), /* detectMoves */ true))
+        .isNull();
+  }
+
+  @Test
+  public void testNullIdentifiers_areMatchedAsSameItems() {
+    final List<String> previous = Arrays.asList("a", "x", "b", "y");
+    final List<String> next = Arrays.asList("y*", "a", "x", "b");
+    final UniqueIdentifierDiff diff =
+        UniqueIdentifierDiff.calculateDiff(
+            Arrays.asList("a", null, "b", null),
+            Arrays.asList(null, "a", null, "b"),
+            new Callback(previous, next),
+            /* detectMoves */ true);
+    assertThat(diff).isNotNull();
+
+    final RecordingCallback callback = new RecordingCallback(previous);
+    diff.dispatchUpdatesTo(callback);
+
+    assertThat(callback.mOperations).containsExactly("move 3 0", "change 0 1");
+    assertThat(callback.getResult(next)).isEqualTo(next);
+  }
+
+  @Test
+  public void testRandomChanges_produceSameListAsDiffUtil() {
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < 500; iteration++) {
+      final List<String> previous = new ArrayList<>();
+      for (int i = 0, size = random.nextInt(50); i < size; i++) {
+        previous.add("item" + i);
+      }
+      final List<String> next = new ArrayList<>(previous);
+      Collections.shuffle(next, random);
+      for (int i = 0, removals = random.nextInt(next.size() / 2 + 1); i < removals; i++) {
+        next.remove(random.nextInt(next.size()));
+      }
+      for (int i = 0, updates = random.nextInt(next.size() / 2 + 1); i < updates; i++) {
+        final int position = random.nextInt(next.size());
+        next.set(position, next.get(position) + "*");
+      }
+      for (int i = 0, inserts = random.nextInt(10); i < inserts; i++) {
+        next.add(random.nextInt(next.size() + 1), "new" + i);
+      }
+      final boolean detectMoves = random.nextBoolean();
+
+      final RecordingCallback callback = dispatch(previous, next, detectMoves);
+      final RecordingCallback diffUtilCallback = new RecordingCallback(previous);
+      DiffUtil.calculateDiff(new Callback(previous, next), detectMoves)
+          .dispatchUpdatesTo(diffUtilCallback);
+
+      assertThat(callback.getResult(next)).isEqualTo(next);
+      assertThat(diffUtilCallback.getResult(next)).isEqualTo(next);
+      assertThat(callback.mMoveCount).isLessThanOrEqualTo(diffUtilCallback.mMoveCount);
+    }
+  }
+
+  private static RecordingCallback dispatch(
+      List<String> previous, List<String> next, boolean detectMoves) {
+    final UniqueIdentifierDiff diff =
+        UniqueIdentifierDiff.calculateDiff(
+            toIds(previous), toIds(next), new Callback(previous, next), detectMoves);
+    assertThat(diff).isNotNull();
+    final RecordingCallback callback = new RecordingCallback(previous);
+    diff.dispatchUpdatesTo(callback);
+    return callback;
+  }
+
+  /** Items marked with a trailing '*' have the same identifier as the item without it. */
+  private static List<String> toIds(List<String> items) {
+    final List<String> ids = new ArrayList<>(items.size());
+    for (String item : items) {
+      ids.add(item.replace("*", ""));
+    }
+    return ids;
+  }
+
+  private static class Callback extends DiffUtil.Callback {
+
+    private final List<String> mPrevious;
+    private final List<String> mNext;
+
+    Callback(List<String> previous, List<String> next) {
+      mPrevious = previous;
+      mNext = next;
+    }
+
+    @Override
+    public int getOldListSize() {
+      return mPrevious.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+      return mNext.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+      return mPrevious
+          .get(oldItemPosition)
+          .replace("*", "")
+          .equals(mNext.get(newItemPosition).replace("*", ""));
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+      return mPrevious.get(oldItemPosition).equals(mNext.get(newItemPosition));
+    }
+  }
+
+  /**
+   * Applies the dispatched updates to a copy of the previous list. Inserted and changed items are
+   * left empty until the content of the next list is filled in by {@link #getResult(List)}.
+   */
+  private static class RecordingCallback implements ListUpdateCallback {
+
+    private final List<String> mItems;
+    private final List<String> mOperations = new ArrayList<>();
+    private int mMoveCount;
+
+    RecordingCallback(List<String> previous) {
+      mItems = new ArrayList<>(previous);
+    }
+
+    List<String> getResult(List<String> next) {
+      final List<String> result = new ArrayList<>(mItems);
+      for (int i = 0, size = Math.min(result.size(), next.size()); i < size; i++) {
+        if (result.get(i) == null) {
+          result.set(i, next.get(i));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+      mOperations.add("insert " + position + " " + count);
+      for (int i = 0; i < count; i++) {
+        mItems.add(position, null);
+      }
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+      mOperations.add("remove " + position + " " + count);
+      for (int i = 0; i < count; i++) {
+        mItems.remove(position);
+      }
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+      mOperations.add("move " + fromPosition + " " + toPosition);
+      mMoveCount++;
+      mItems.add(toPosition, mItems.remove(fromPosition));
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+      mOperations.add("change " + position + " " + count);
+      for (int i = 0; i < count; i++) {
+        mItems.set(position + i, null);
+      }
+    }
+  }
+}
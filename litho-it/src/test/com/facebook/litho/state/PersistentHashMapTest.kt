@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.state
+
+import com.facebook.litho.testing.testrunner.LithoTestRunner
+import java.util.Random
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(LithoTestRunner::class)
+class PersistentHashMapTest {
+
+  @Test
+  fun `put get and remove behave like a regular map`() {
+    val map = PersistentHashMap<String, Int>()
+
+    assertThat(map.put("a", 1)).isNull()
+    assertThat(map.put("b", 2)).isNull()
+    assertThat(map.put("a", 3)).isEqualTo(1)
+
+    assertThat(map).hasSize(2)
+    assertThat(map["a"]).isEqualTo(3)
+    assertThat(map["b"]).isEqualTo(2)
+    assertThat(map["c"]).isNull()
+
+    assertThat(map.remove("a")).isEqualTo(3)
+    assertThat(map.remove("a")).isNull()
+    assertThat(map).containsExactly(entry("b", 2))
+  }
+
+  @Test
+  fun `writes to a fork are not visible to the original map and vice versa`() {
+    val original = PersistentHashMap<String, Int>()
+    for (i in 0 until SIZE) {
+      original[key(i)] = i
+    }
+
+    val fork = original.fork()
+    fork[key(0)] = -1
+    fork.remove(key(1))
+    fork["new"] = 42
+    original[key(2)] = -2
+
+    assertThat(original[key(0)]).isEqualTo(0)
+    assertThat(original[key(1)]).isEqualTo(1)
+    assertThat(original["new"]).isNull()
+    assertThat(original[key(2)]).isEqualTo(-2)
+    assertThat(original).hasSize(SIZE)
+
+    assertThat(fork[key(0)]).isEqualTo(-1)
+    assertThat(fork.containsKey(key(1))).isFalse
+    assertThat(fork["new"]).isEqualTo(42)
+    assertThat(fork[key(2)]).isEqualTo(2)
+    assertThat(fork).hasSize(SIZE)
+  }
+
+  @Test
+  fun `keys with colliding hashes are stored separately`() {
+    val map = PersistentHashMap<CollidingKey, String>()
+    map[CollidingKey(1)] = "one"
+    map[CollidingKey(2)] = "two"
+    map[CollidingKey(3)] = "three"
+
+    val fork = map.fork()
+    fork.remove(CollidingKey(2))
+
+    assertThat(map).hasSize(3)
+    assertThat(map[CollidingKey(2)]).isEqualTo("two")
+    assertThat(fork).hasSize(2)
+    assertThat(fork[CollidingKey(2)]).isNull()
+    assertThat(fork[CollidingKey(3)]).isEqualTo("three")
+  }
+
+  @Test
+  fun `random operations on forks match HashMap`() {
+    val random = Random(42)
+    var map = PersistentHashMap<Int, Int>()
+    var expected = HashMap<Int, Int>()
+
+    repeat(20) {
+      val fork = map.fork()
+      val expectedFork = HashMap(expected)
+      repeat(500) {
+        val key = random.nextInt(2_000)
+        if (random.nextInt(3) == 0) {
+          assertThat(fork.remove(key)).isEqualTo(expectedFork.remove(key))
+        } else {
+          assertThat(fork.put(key, it)).isEqualTo(expectedFork.put(key, it))
+        }
+      }
+      // The map that was forked must be left untouched.
+      assertThat(map).isEqualTo(expected)
+      assertThat(fork).isEqualTo(expectedFork)
+      map = fork
+      expected = expectedFork
+    }
+  }
+
+  private data class CollidingKey(val id: Int) {
+    override fun hashCode(): Int = 7
+  }
+
+  companion object {
+    private const val SIZE = 1_000
+
+    private fun key(i: Int): String = "root,child!$i"
+
+    private fun <K, V> entry(key: K, value: V): Map.Entry<K, V> =
+        java.util.AbstractMap.SimpleImmutableEntry(key, value)
+  }
+}
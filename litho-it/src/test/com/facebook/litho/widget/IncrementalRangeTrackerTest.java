@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.litho.widget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.LithoTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link IncrementalRangeTracker} */
+@RunWith(LithoTestRunner.class)
+public class IncrementalRangeTrackerTest {
+
+  @Test
+  public void testAllowsIncrementalComputationOnlyAfterTraversalCompleted() {
+    final IncrementalRangeTracker tracker = new IncrementalRangeTracker();
+
+    final int generation = tracker.onFullRangeComputed(100, 10, 20);
+    assertThat(tracker.canComputeIncrementally(100)).isFalse();
+
+    tracker.onTraversalCompleted(generation);
+    assertThat(tracker.canComputeIncrementally(100)).isTrue();
+    assertThat(tracker.canComputeIncrementally(99)).isFalse();
+
+    final int nextGeneration = tracker.onIncrementalRangeComputed(11, 21);
+    assertThat(tracker.canComputeIncrementally(100)).isFalse();
+    tracker.onTraversalCompleted(nextGeneration);
+    assertThat(tracker.canComputeIncrementally(100)).isTrue();
+  }
+
+  @Test
+  public void testStaleTraversalDoesNotValidateTracker() {
+    final IncrementalRangeTracker tracker = new IncrementalRangeTracker();
+
+    // A full traversal starts on a background thread...
+    final int backgroundGeneration = tracker.onFullRangeComputed(100, 10, 20);
+    // ...and a scroll on the main thread starts another one before it is done.
+    assertThat(tracker.canComputeIncrementally(100)).isFalse();
+    final int mainGeneration = tracker.onFullRangeComputed(100, 30, 40);
+
+    assertThat(tracker.isCurrent(backgroundGeneration)).isFalse();
+    assertThat(tracker.isCurrent(mainGeneration)).isTrue();
+
+    tracker.onTraversalCompleted(backgroundGeneration);
+    assertThat(tracker.canComputeIncrementally(100)).isFalse();
+
+    tracker.onTraversalCompleted(mainGeneration);
+    assertThat(tracker.canComputeIncrementally(100)).isTrue();
+    assertThat(tracker.getRangeStart()).isEqualTo(30);
+    assertThat(tracker.getRangeEnd()).isEqualTo(40);
+  }
+
+  @Test
+  public void testInvalidateDuringTraversalKeepsTrackerInvalid() {
+    final IncrementalRangeTracker tracker = new IncrementalRangeTracker();
+
+    final int generation = tracker.onFullRangeComputed(100, 10, 20);
+    tracker.invalidate();
+    tracker.onTraversalCompleted(generation);
+
+    assertThat(tracker.canComputeIncrementally(100)).isFalse();
+  }
+
+  @Test
+  public void testNewFullTraversalClearsRetainedPositions() {
+    final IncrementalRangeTracker tracker = new IncrementalRangeTracker();
+
+    tracker.onFullRangeComputed(100, 10, 20);
+    tracker.retain(3);
+    tracker.retain(50);
+    tracker.onFullRangeComputed(100, 30, 40);
+    tracker.retain(5);
+
+    assertThat(tracker.takeRetainedPositions()).containsExactly(5);
+    assertThat(tracker.takeRetainedPositions()).isEmpty();
+  }
+}
@@ -36,6 +36,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Rect;
@@ -884,6 +885,162 @@ public class RecyclerBinderTest {
     }
   }
 
+  @Test
+  public void testMoveRange_withIncrementalRangeComputation() {
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder
+            .recyclerBinderConfig(
+                RecyclerBinderConfig.create()
+                    .rangeRatio(RANGE_RATIO)
+                    .incrementalRangeComputation(true)
+                    .build())
+            .build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+    final ComponentRenderInfo sticky =
+        ComponentRenderInfo.create().component(mock(Component.class)).isSticky(true).build();
+    components.set(5, sticky);
+    recyclerBinder.removeItemAt(5);
+    recyclerBinder.insertItemAt(5, sticky);
+    recyclerBinder.notifyChangeSetComplete(true, NO_OP_CHANGE_SET_COMPLETE_CALLBACK);
+
+    recyclerBinder.onNewVisibleRange(20, 22);
+    recyclerBinder.onNewVisibleRange(40, 42);
+    recyclerBinder.onNewVisibleRange(60, 62);
+
+    final int newRangeStart = 60;
+    final int rangeTotal = (int) (RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+    for (int i = 0; i < components.size(); i++) {
+      final TestComponentTreeHolder componentTreeHolder =
+          mHoldersForComponents.get(components.get(i).getComponent());
+      final boolean isInRange =
+          i >= newRangeStart - (RANGE_RATIO * RANGE_SIZE) && i <= newRangeStart + rangeTotal;
+
+      assertThat(componentTreeHolder.isTreeValid())
+          .describedAs("Holder with index:" + i)
+          .isEqualTo(isInRange || i == 5);
+      final boolean wasInRange =
+          (i >= 20 - (RANGE_RATIO * RANGE_SIZE) && i <= 20 + rangeTotal)
+              || (i >= 40 - (RANGE_RATIO * RANGE_SIZE) && i <= 40 + rangeTotal);
+      if (!isInRange && wasInRange) {
+        assertThat(componentTreeHolder.mDidAcquireStateHandler)
+            .describedAs("Holder with index:" + i)
+            .isTrue();
+      }
+    }
+  }
+
+  @Test
+  public void testMoveRange_keepsOutOfRangeTreesWithinCacheBudget() {
+    final int budget = 5;
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder
+            .recyclerBinderConfig(
+                RecyclerBinderConfig.create()
+                    .rangeRatio(RANGE_RATIO)
+                    .outOfRangeTreeCacheBudget(budget)
+                    .build())
+            .build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+
+    recyclerBinder.onNewVisibleRange(60, 62);
+
+    final int newRangeStart = 60;
+    final int rangeTotal = (int) (RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+    final List<TestComponentTreeHolder> outOfRangeHolders = new ArrayList<>();
+    int cachedCount = 0;
+    int releasedCount = 0;
+    for (int i = 0; i < components.size(); i++) {
+      final TestComponentTreeHolder componentTreeHolder =
+          mHoldersForComponents.get(components.get(i).getComponent());
+      final boolean isInRange =
+          i >= newRangeStart - (RANGE_RATIO * RANGE_SIZE) && i <= newRangeStart + rangeTotal;
+      if (isInRange) {
+        continue;
+      }
+      outOfRangeHolders.add(componentTreeHolder);
+      if (componentTreeHolder.isTreeValid()) {
+        cachedCount++;
+      } else if (componentTreeHolder.mDidAcquireStateHandler) {
+        releasedCount++;
+      }
+    }
+    assertThat(cachedCount).isEqualTo(budget);
+    assertThat(releasedCount).isGreaterThan(0);
+
+    recyclerBinder.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    for (TestComponentTreeHolder componentTreeHolder : outOfRangeHolders) {
+      assertThat(componentTreeHolder.isTreeValid()).isFalse();
+    }
+  }
+
+  @Test
+  public void testMoveRange_withIncrementalRangeComputation_onlyVisitsChangedItems() {
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder
+            .recyclerBinderConfig(
+                RecyclerBinderConfig.create()
+                    .rangeRatio(RANGE_RATIO)
+                    .incrementalRangeComputation(true)
+                    .build())
+            .build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+    recyclerBinder.onNewVisibleRange(60, 62);
+
+    for (int i = 0; i < components.size(); i++) {
+      final TestComponentTreeHolder componentTreeHolder =
+          mHoldersForComponents.get(components.get(i).getComponent());
+      componentTreeHolder.mTreeValidForSizeSpecsCheckCount = 0;
+      componentTreeHolder.mDidAcquireStateHandler = false;
+    }
+
+    recyclerBinder.onNewVisibleRange(61, 63);
+
+    final int rangeStart = (int) (61 - (RANGE_RATIO * RANGE_SIZE));
+    final int rangeEnd = (int) (61 + RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+    for (int i = 0; i < components.size(); i++) {
+      final TestComponentTreeHolder componentTreeHolder =
+          mHoldersForComponents.get(components.get(i).getComponent());
+
+      // Only the item entering the range is laid out, and only the one leaving it is released.
+      assertThat(componentTreeHolder.mTreeValidForSizeSpecsCheckCount)
+          .describedAs("Holder with index:" + i)
+          .isEqualTo(i == rangeEnd ? 1 : 0);
+      assertThat(componentTreeHolder.mDidAcquireStateHandler)
+          .describedAs("Holder with index:" + i)
+          .isEqualTo(i == rangeStart - 1);
+      assertThat(componentTreeHolder.isTreeValid())
+          .describedAs("Holder with index:" + i)
+          .isEqualTo(i >= rangeStart && i <= rangeEnd);
+    }
+  }
+
+  @Test
+  public void testMoveRange_withIncrementalRangeComputation_releasesTreesCreatedOutOfTraversal() {
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder
+            .recyclerBinderConfig(
+                RecyclerBinderConfig.create()
+                    .rangeRatio(RANGE_RATIO)
+                    .incrementalRangeComputation(true)
+                    .build())
+            .build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+    recyclerBinder.onNewVisibleRange(60, 62);
+
+    // Lays out an item far from the range, as a header or a bound item would be.
+    recyclerBinder.getComponentForStickyHeaderAt(0);
+    final TestComponentTreeHolder outOfRangeHolder =
+        mHoldersForComponents.get(components.get(0).getComponent());
+    assertThat(outOfRangeHolder.isTreeValid()).isTrue();
+    outOfRangeHolder.mDidAcquireStateHandler = false;
+
+    recyclerBinder.onNewVisibleRange(61, 63);
+
+    assertThat(outOfRangeHolder.mDidAcquireStateHandler).isTrue();
+    assertThat(outOfRangeHolder.isTreeValid()).isFalse();
+  }
+
   @Test
   public void testMoveRange_withRetainMaximumRangeRecyclingStrategy() {
     final RecyclerBinder recyclerBinder =
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget;
+
+import static androidx.recyclerview.widget.RecyclerView.NO_POSITION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.LithoTestRunner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link StickyPositionIndex} */
+@RunWith(LithoTestRunner.class)
+public class StickyPositionIndexTest {
+
+  @Test
+  public void testFindsClosestStickyPositions() {
+    final StickyPositionIndex index = new StickyPositionIndex();
+    for (int i = 0; i < 10; i++) {
+      index.insert(i, i == 2 || i == 6);
+    }
+
+    assertThat(index.findAtOrBefore(1)).isEqualTo(NO_POSITION);
+    assertThat(index.findAtOrBefore(2)).isEqualTo(2);
+    assertThat(index.findAtOrBefore(5)).isEqualTo(2);
+    assertThat(index.findAtOrBefore(9)).isEqualTo(6);
+    assertThat(index.findAtOrAfter(0)).isEqualTo(2);
+    assertThat(index.findAtOrAfter(3)).isEqualTo(6);
+    assertThat(index.findAtOrAfter(7)).isEqualTo(NO_POSITION);
+  }
+
+  @Test
+  public void testShiftsPositionsOnInsertRemoveAndMove() {
+    final StickyPositionIndex index = new StickyPositionIndex();
+    for (int i = 0; i < 10; i++) {
+      index.insert(i, i == 2 || i == 6);
+    }
+
+    index.insert(0, false);
+    assertThat(index.findAtOrAfter(0)).isEqualTo(3);
+    assertThat(index.findAtOrAfter(4)).isEqualTo(7);
+
+    index.remove(3);
+    assertThat(index.getCount()).isEqualTo(1);
+    assertThat(index.findAtOrAfter(0)).isEqualTo(6);
+
+    index.move(6, 1);
+    assertThat(index.contains(1)).isTrue();
+    assertThat(index.findAtOrAfter(2)).isEqualTo(NO_POSITION);
+
+    index.update(1, false);
+    index.update(4, true);
+    assertThat(index.findAtOrBefore(9)).isEqualTo(4);
+    assertThat(index.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMatchesListOfStickyFlags() {
+    final Random random = new Random(7);
+    final StickyPositionIndex index = new StickyPositionIndex();
+    final List<Boolean> items = new ArrayList<>();
+
+    for (int step = 0; step < 2000; step++) {
+      final int operation = items.isEmpty() ? 0 : random.nextInt(4);
+      final boolean isSticky = random.nextInt(5) == 0;
+      if (operation == 0) {
+        final int position = random.nextInt(items.size() + 1);
+        items.add(position, isSticky);
+        index.insert(position, isSticky);
+      } else if (operation == 1) {
+        final int position = random.nextInt(items.size());
+        items.remove(position);
+        index.remove(position);
+      } else if (operation == 2) {
+        final int from = random.nextInt(items.size());
+        final int to = random.nextInt(items.size());
+        items.add(to, items.remove(from));
+        index.move(from, to);
+      } else {
+        final int position = random.nextInt(items.size());
+        items.set(position, isSticky);
+        index.update(position, isSticky);
+      }
+
+      final int position = items.isEmpty() ? 0 : random.nextInt(items.size());
+      assertThat(index.findAtOrBefore(position)).isEqualTo(scanBackwards(items, position));
+      assertThat(index.findAtOrAfter(position)).isEqualTo(scanForwards(items, position));
+    }
+  }
+
+  private static int scanBackwards(List<Boolean> items, int position) {
+    for (int i = Math.min(position, items.size() - 1); i >= 0; i--) {
+      if (items.get(i)) {
+        return i;
+      }
+    }
+    return NO_POSITION;
+  }
+
+  private static int scanForwards(List<Boolean> items, int position) {
+    for (int i = position; i < items.size(); i++) {
+      if (items.get(i)) {
+        return i;
+      }
+    }
+    return NO_POSITION;
+  }
+}
@@ -38,6 +38,7 @@ public class TestComponentTreeHolder extends ComponentTreeHolder {
   int mChildWidth;
   int mChildHeight;
   boolean mCheckWorkingRangeCalled;
+  int mTreeValidForSizeSpecsCheckCount;
   RunnableHandler mLayoutHandler;
   private int mLastRequestedWidthSpec;
   private int mLastRequestedHeightSpec;
@@ -124,6 +125,7 @@ public class TestComponentTreeHolder extends ComponentTreeHolder {
 
   @Override
   public synchronized boolean isTreeValidForSizeSpecs(int widthSpec, int heightSpec) {
+    mTreeValidForSizeSpecsCheckCount++;
     return isTreeValid()
         && mLastRequestedWidthSpec == widthSpec
         && mLastRequestedHeightSpec == heightSpec;
@@ -23,6 +23,8 @@ import android.graphics.Rect;
 import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.collection.MutableLongObjectMap;
+import androidx.collection.MutableLongSet;
 import androidx.core.view.ViewCompat;
 import com.facebook.infer.annotation.Nullsafe;
 import com.facebook.rendercore.Host;
@@ -42,10 +44,7 @@ import com.facebook.rendercore.extensions.VisibleBoundsCallbacks;
 import com.facebook.rendercore.incrementalmount.IncrementalMountExtension.IncrementalMountExtensionState;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import kotlin.Unit;
 import org.jetbrains.annotations.NotNull;
 
@@ -483,13 +482,19 @@ public class IncrementalMountExtension
       extensionState.getTracer().beginSection("performIncrementalMount");
     }
 
-    DebugEventDispatcher.dispatch(
-        DebugEvent.IncrementalMountStart,
-        () -> String.valueOf(extensionState.getRenderStateId()),
-        attrs -> {
-          attrs.put(DebugEventAttribute.VisibleRect, localVisibleRect);
-          return Unit.INSTANCE;
-        });
+    // Checked upfront so that scrolling doesn't allocate the event lambdas when nobody listens.
+    final boolean hasDebugEventSubscribers =
+        !DebugEventDispatcher.INSTANCE.getSubscribers().isEmpty();
+
+    if (hasDebugEventSubscribers) {
+      DebugEventDispatcher.dispatch(
+          DebugEvent.IncrementalMountStart,
+          () -> String.valueOf(extensionState.getRenderStateId()),
+          attrs -> {
+            attrs.put(DebugEventAttribute.VisibleRect, localVisibleRect);
+            return Unit.INSTANCE;
+          });
+    }
 
     final List<IncrementalMountOutput> byTopBounds = state.mInput.getOutputsOrderedByTopBounds();
     final List<IncrementalMountOutput> byBottomBounds =
@@ -597,16 +602,10 @@ public class IncrementalMountExtension
           "Updates: [Items Mounted=" + itemsMounted + ", Items Unmounted=" + itemsUnmounted + "]");
     }
 
-    for (long id : state.mMountedOutputIdsWithNestedContent.keySet()) {
-      if (state.mComponentIdsMountedInThisFrame.contains(id)) {
-        continue;
-      }
-
-      final Object content = state.mMountedOutputIdsWithNestedContent.get(id);
-      if (content != null) {
-        recursivelyNotifyVisibleBoundsChanged(extensionState, id, content);
-      }
-    }
+    IncrementalMountUtils.notifyVisibleBoundsChangedForNestedContent(
+        extensionState,
+        state.mMountedOutputIdsWithNestedContent,
+        state.mComponentIdsMountedInThisFrame);
 
     state.mComponentIdsMountedInThisFrame.clear();
 
@@ -614,17 +613,19 @@ public class IncrementalMountExtension
       extensionState.getTracer().endSection();
     }
 
-    int finalItemsMounted = itemsMounted;
-    int finalItemsUnmounted = itemsUnmounted;
+    if (hasDebugEventSubscribers) {
+      int finalItemsMounted = itemsMounted;
+      int finalItemsUnmounted = itemsUnmounted;
 
-    DebugEventDispatcher.dispatch(
-        DebugEvent.IncrementalMountEnd,
-        () -> String.valueOf(extensionState.getRenderStateId()),
-        attrs -> {
-          attrs.put(DebugEventAttribute.NumItemsMounted, finalItemsMounted);
-          attrs.put(DebugEventAttribute.NumItemsUnmounted, finalItemsUnmounted);
-          return Unit.INSTANCE;
-        });
+      DebugEventDispatcher.dispatch(
+          DebugEvent.IncrementalMountEnd,
+          () -> String.valueOf(extensionState.getRenderStateId()),
+          attrs -> {
+            attrs.put(DebugEventAttribute.NumItemsMounted, finalItemsMounted);
+            attrs.put(DebugEventAttribute.NumItemsUnmounted, finalItemsUnmounted);
+            return Unit.INSTANCE;
+          });
+    }
   }
 
   private static void setupPreviousMountableOutputData(
@@ -708,9 +709,11 @@ public class IncrementalMountExtension
   public static class IncrementalMountExtensionState {
 
     private final Rect mPreviousLocalVisibleRect = new Rect();
-    private final Set<Long> mComponentIdsMountedInThisFrame = new HashSet<>();
-    private final Set<Long> mItemsShouldNotNotifyVisibleBoundsChangedOnChildren = new HashSet<>();
-    private final HashMap<Long, Object> mMountedOutputIdsWithNestedContent = new HashMap<>(8);
+    private final MutableLongSet mComponentIdsMountedInThisFrame = new MutableLongSet();
+    private final MutableLongSet mItemsShouldNotNotifyVisibleBoundsChangedOnChildren =
+        new MutableLongSet();
+    private final MutableLongObjectMap<Object> mMountedOutputIdsWithNestedContent =
+        new MutableLongObjectMap<>(8);
 
     private @Nullable IncrementalMountExtensionInput mInput;
     private int mPreviousTopsIndex;
@@ -18,6 +18,7 @@ package com.facebook.rendercore.incrementalmount;
 
 import android.graphics.Rect;
 import androidx.annotation.Nullable;
+import androidx.collection.MutableLongSet;
 import com.facebook.rendercore.BinderKey;
 import com.facebook.rendercore.ClassBinderKey;
 import com.facebook.rendercore.LayoutResult;
@@ -30,11 +31,9 @@ import com.facebook.rendercore.incrementalmount.IncrementalMountExtension.Increm
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -117,7 +116,7 @@ public class IncrementalMountRenderCoreExtension
         new TreeSet<>(sTopsComparator);
     private final SortedSet<IncrementalMountOutput> outputsOrderedByBottomBounds =
         new TreeSet<>(sBottomsComparator);
-    private final Set<Long> renderUnitIdsWhichHostRenderTrees = new HashSet<>(4);
+    private final MutableLongSet renderUnitIdsWhichHostRenderTrees = new MutableLongSet(4);
 
     private @Nullable List<IncrementalMountOutput> outputsOrderedByTopBoundsList;
     private @Nullable List<IncrementalMountOutput> outputsOrderedByBottomBoundsList;
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+@file:JvmName("IncrementalMountUtils")
+
+package com.facebook.rendercore.incrementalmount
+
+import androidx.collection.LongObjectMap
+import androidx.collection.LongSet
+import com.facebook.rendercore.extensions.ExtensionState
+import com.facebook.rendercore.incrementalmount.IncrementalMountExtension.IncrementalMountExtensionState
+
+/**
+ * Notifies the content of every item that hosts nested render trees that its visible bounds
+ * changed, skipping the items that were mounted in this frame (which were already notified while
+ * being bound).
+ *
+ * This lives in Kotlin so that the primitive map is iterated through its inlined [forEach], which
+ * doesn't box the ids the way calling it with a Java lambda would.
+ */
+internal fun notifyVisibleBoundsChangedForNestedContent(
+    extensionState: ExtensionState<IncrementalMountExtensionState>,
+    mountedOutputIdsWithNestedContent: LongObjectMap<Any>,
+    idsMountedInThisFrame: LongSet,
+) {
+  mountedOutputIdsWithNestedContent.forEach { id, content ->
+    if (!idsMountedInThisFrame.contains(id)) {
+      IncrementalMountExtension.recursivelyNotifyVisibleBoundsChanged(extensionState, id, content)
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.incrementalmount
+
+import android.content.Context
+import android.graphics.Rect
+import android.view.View
+import androidx.test.core.app.ApplicationProvider
+import com.facebook.rendercore.MountState
+import com.facebook.rendercore.RenderCoreConfig
+import com.facebook.rendercore.RenderState
+import com.facebook.rendercore.RenderTree
+import com.facebook.rendercore.RenderTreeNode
+import com.facebook.rendercore.RootHostView
+import com.facebook.rendercore.SizeConstraints
+import com.facebook.rendercore.extensions.ExtensionState
+import com.facebook.rendercore.incrementalmount.IncrementalMountExtension.IncrementalMountExtensionState
+import com.facebook.rendercore.testing.TestHostRenderUnit
+import com.facebook.rendercore.testing.TestRenderUnit
+import java.lang.management.ManagementFactory
+import org.assertj.core.api.Java6Assertions.assertThat
+import org.junit.After
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Scrolls incremental mount over a tree of [ITEM_COUNT] items and checks that the id bookkeeping
+ * (mount references, items mounted in the frame) keeps exactly the visible items mounted, without
+ * boxing the render unit ids.
+ */
+@RunWith(RobolectricTestRunner::class)
+class IncrementalMountScrollTest {
+
+  private var disableIncrementalUnmounting = false
+
+  private val c: Context = ApplicationProvider.getApplicationContext()
+  private lateinit var mountState: MountState
+  private lateinit var extension: IncrementalMountExtension
+  private lateinit var extensionState: ExtensionState<IncrementalMountExtensionState>
+
+  @Before
+  fun setUp() {
+    disableIncrementalUnmounting = RenderCoreConfig.disableIncrementalUnmounting
+  }
+
+  @After
+  fun tearDown() {
+    RenderCoreConfig.disableIncrementalUnmounting = disableIncrementalUnmounting
+  }
+
+  @Test
+  fun scrollingOverItems_shouldOnlyKeepVisibleItemsMounted() {
+    RenderCoreConfig.disableIncrementalUnmounting = false
+    val visibleRect = Rect(0, START_TOP, WIDTH, START_TOP + VIEWPORT_HEIGHT)
+    mountTree(visibleRect)
+    assertMountedItems(visibleRect)
+
+    scroll(visibleRect) { assertMountedItems(visibleRect) }
+  }
+
+  @Test
+  fun scrollingOverItems_withoutIncrementalUnmounting_shouldKeepScrolledItemsMounted() {
+    RenderCoreConfig.disableIncrementalUnmounting = true
+    val visibleRect = Rect(0, START_TOP, WIDTH, START_TOP + VIEWPORT_HEIGHT)
+    mountTree(visibleRect)
+
+    var furthestBottom = visibleRect.bottom
+    scroll(visibleRect) {
+      furthestBottom = maxOf(furthestBottom, visibleRect.bottom)
+      for (i in 1..ITEM_COUNT) {
+        assertThat(extensionState.ownsReference(i.toLong()))
+            .describedAs("item $i")
+            .isEqualTo(itemTop(i) < furthestBottom)
+      }
+    }
+    for (i in 1..ITEM_COUNT) {
+      assertThat(mountState.getContentById(i.toLong())).describedAs("item $i").isNotNull
+    }
+  }
+
+  @Test
+  fun scrollingOverMountedItems_shouldNotBoxIds() {
+    assumeTrue("Allocations can't be measured on this JVM", threadMXBean != null)
+    // Keeps every item mounted once it was scrolled into view, so that the measured scroll only
+    // exercises the id bookkeeping and not the allocation of new mount items.
+    RenderCoreConfig.disableIncrementalUnmounting = true
+    val visibleRect = Rect(0, START_TOP, WIDTH, START_TOP + VIEWPORT_HEIGHT)
+    mountTree(visibleRect)
+    repeat(WARMUP_PASSES) { scroll(visibleRect) {} }
+
+    var steps = 0
+    val scrollBytes = allocatedBytes { scroll(visibleRect) { steps++ } }
+    // The same number of calls without moving costs whatever a call costs besides the ids.
+    val baselineBytes = allocatedBytes {
+      repeat(steps) { extension.onVisibleBoundsChanged(extensionState, visibleRect) }
+    }
+
+    // Every step moves SCROLL_STEP / ITEM_HEIGHT items in and as many out of the visible rect, and
+    // a boxed id is at least 16 bytes, so less than a byte per crossed item means none was boxed.
+    val crossedItems = steps * 2 * (SCROLL_STEP / ITEM_HEIGHT)
+    assertThat(crossedItems).isGreaterThanOrEqualTo(2 * ITEM_COUNT)
+    assertThat(scrollBytes - baselineBytes).isLessThan(crossedItems.toLong())
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  private fun mountTree(visibleRect: Rect) {
+    val host = RootHostView(c)
+    host.measure(
+        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(TREE_HEIGHT, View.MeasureSpec.EXACTLY))
+    host.layout(0, 0, WIDTH, TREE_HEIGHT)
+
+    mountState = MountState(host)
+    extension = IncrementalMountExtension.getInstance()
+    extensionState =
+        mountState.registerMountExtension(extension)
+            as ExtensionState<IncrementalMountExtensionState>
+
+    val rootOutput =
+        IncrementalMountOutput(0, 0, Rect(0, 0, WIDTH, TREE_HEIGHT), false, "root", null)
+    val rootNode = RenderTreeNode(null, TestHostRenderUnit(0), null, rootOutput.bounds, null, 0)
+    val outputs = ArrayList<IncrementalMountOutput>(ITEM_COUNT + 1)
+    val nodes = ArrayList<RenderTreeNode>(ITEM_COUNT + 1)
+    outputs.add(rootOutput)
+    nodes.add(rootNode)
+    for (i in 1..ITEM_COUNT) {
+      val bounds = Rect(0, itemTop(i), WIDTH, itemTop(i) + ITEM_HEIGHT)
+      outputs.add(IncrementalMountOutput(i.toLong(), i, bounds, false, "item$i", rootOutput))
+      nodes.add(RenderTreeNode(rootNode, TestRenderUnit(i.toLong()), null, bounds, null, i - 1))
+    }
+    val renderTree =
+        RenderTree(
+            rootNode,
+            nodes.toTypedArray(),
+            null,
+            SizeConstraints.exact(WIDTH, TREE_HEIGHT),
+            RenderState.NO_ID,
+            null,
+            null,
+            null)
+    val input =
+        object : TestIncrementalMountExtensionInput(*outputs.toTypedArray()) {
+          override fun renderUnitWithIdHostsRenderTrees(id: Long): Boolean = false
+        }
+
+    extension.beforeMount(extensionState, input, visibleRect)
+    mountState.mount(renderTree)
+  }
+
+  /**
+   * Scrolls down to the end of the tree and back up, running [onScrolled] after every step. The
+   * edges of the visible rect never line up with the edges of an item.
+   */
+  private fun scroll(visibleRect: Rect, onScrolled: () -> Unit) {
+    var top = START_TOP
+    while (top + VIEWPORT_HEIGHT < TREE_HEIGHT) {
+      top += SCROLL_STEP
+      visibleRect.set(0, top, WIDTH, top + VIEWPORT_HEIGHT)
+      extension.onVisibleBoundsChanged(extensionState, visibleRect)
+      onScrolled()
+    }
+    while (top > START_TOP) {
+      top -= SCROLL_STEP
+      visibleRect.set(0, top, WIDTH, top + VIEWPORT_HEIGHT)
+      extension.onVisibleBoundsChanged(extensionState, visibleRect)
+      onScrolled()
+    }
+  }
+
+  private fun assertMountedItems(visibleRect: Rect) {
+    for (i in 1..ITEM_COUNT) {
+      val isVisible = itemTop(i) < visibleRect.bottom && itemTop(i) + ITEM_HEIGHT > visibleRect.top
+      assertThat(extensionState.ownsReference(i.toLong()))
+          .describedAs("item $i in $visibleRect")
+          .isEqualTo(isVisible)
+      assertThat(mountState.getContentById(i.toLong()) != null)
+          .describedAs("item $i in $visibleRect")
+          .isEqualTo(isVisible)
+    }
+  }
+
+  companion object {
+    private const val ITEM_COUNT = 500
+    private const val ITEM_HEIGHT = 10
+    private const val TREE_HEIGHT = ITEM_COUNT * ITEM_HEIGHT
+    private const val WIDTH = 100
+    private const val VIEWPORT_HEIGHT = 100
+    private const val SCROLL_STEP = 50
+    private const val START_TOP = ITEM_HEIGHT / 2
+    private const val WARMUP_PASSES = 5
+
+    private val threadMXBean: com.sun.management.ThreadMXBean? =
+        (ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean)?.takeIf {
+          it.isThreadAllocatedMemorySupported && it.isThreadAllocatedMemoryEnabled
+        }
+
+    /** Returns the bytes allocated by the current thread while running [block]. */
+    private inline fun allocatedBytes(block: () -> Unit): Long {
+      val threadId = Thread.currentThread().id
+      val start = checkNotNull(threadMXBean).getThreadAllocatedBytes(threadId)
+      block()
+      return checkNotNull(threadMXBean).getThreadAllocatedBytes(threadId) - start
+    }
+
+    private fun itemTop(i: Int): Int = (i - 1) * ITEM_HEIGHT
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.text
+
+import android.text.Layout
+import android.text.SpannedString
+import android.util.LruCache
+import androidx.annotation.VisibleForTesting
+import com.facebook.rendercore.RenderCoreConfig
+import java.util.Arrays
+
+/**
+ * A process wide, thread safe cache of text [Layout]s, so that measuring the same text with the same
+ * style and width again (e.g. when rebinding a row of a list) doesn't need to break the text into
+ * lines again.
+ *
+ * The cache is bounded by [RenderCoreConfig.textLayoutCacheSize] and evicts the least recently used
+ * layouts first. Each entry is weighted by the length of its text plus a fixed cost per line, so a
+ * few long texts can't fill the cache with hundreds of short ones.
+ *
+ * Only text of immutable types is cached: [String]s are matched by value and [SpannedString]s by
+ * identity. Any other text, e.g. a [StringBuilder] or a Spannable, can change after being measured
+ * and is never cached.
+ * Layouts whose paint gets mutated when mounted (e.g. for a color state list) must not be cached
+ * either, since the cached layout is shared between every host displaying that text.
+ */
+object TextLayoutCache {
+
+  /** The weight of a line, in characters, on top of the characters of the text. */
+  private const val LINE_WEIGHT = 16
+
+  @Volatile private var cache: LruCache<Key, Layout>? = null
+
+  @JvmStatic
+  val isEnabled: Boolean
+    get() = RenderCoreConfig.textLayoutCacheSize > 0
+
+  /** The number of lookups which returned a cached layout. */
+  @JvmStatic
+  val hitCount: Int
+    get() = cache?.hitCount() ?: 0
+
+  /** The number of lookups which didn't find a cached layout. */
+  @JvmStatic
+  val missCount: Int
+    get() = cache?.missCount() ?: 0
+
+  /** The current weight of the cached layouts, see [TextLayoutCache]. */
+  @JvmStatic
+  val size: Int
+    get() = cache?.size() ?: 0
+
+  /**
+   * Creates the key of a layout of [text] built with the given [params], which must contain every
+   * value the layout depends on other than the text itself. Returns null if the cache is disabled
+   * or the text can't be cached.
+   */
+  @JvmStatic
+  fun createKey(text: CharSequence, vararg params: Any?): Key? {
+    if (!isEnabled || (text !is String && text !is SpannedString)) {
+      return null
+    }
+    return Key(text, params)
+  }
+
+  @JvmStatic
+  operator fun get(key: Key?): Layout? {
+    if (key == null) {
+      return null
+    }
+    return getOrCreateCache()?.get(key)
+  }
+
+  @JvmStatic
+  fun put(key: Key?, layout: Layout) {
+    if (key == null) {
+      return
+    }
+    getOrCreateCache()?.put(key, layout)
+  }
+
+  /** Removes every cached layout, e.g. when the app is asked to trim its memory. */
+  @JvmStatic
+  fun clear() {
+    cache?.evictAll()
+  }
+
+  @VisibleForTesting
+  @JvmStatic
+  fun reset() {
+    cache = null
+  }
+
+  private fun getOrCreateCache(): LruCache<Key, Layout>? {
+    val maxSize = RenderCoreConfig.textLayoutCacheSize
+    if (maxSize <= 0) {
+      return null
+    }
+    val existing = cache
+    if (existing != null) {
+      if (existing.maxSize() != maxSize) {
+        existing.resize(maxSize)
+      }
+      return existing
+    }
+    return synchronized(this) {
+      cache
+          ?: object : LruCache<Key, Layout>(maxSize) {
+                override fun sizeOf(key: Key, value: Layout): Int =
+                    key.text.length + value.lineCount * LINE_WEIGHT
+              }
+              .also { cache = it }
+    }
+  }
+
+  class Key internal constructor(internal val text: CharSequence, private val params: Array<*>) {
+
+    private val hashCode: Int =
+        31 * (if (text is String) text.hashCode() else System.identityHashCode(text)) +
+            params.contentHashCode()
+
+    override fun equals(other: Any?): Boolean {
+      if (this === other) {
+        return true
+      }
+      if (other !is Key || hashCode != other.hashCode) {
+        return false
+      }
+      val textEquals = if (text is String) text == other.text else text === other.text
+      return textEquals && Arrays.equals(params, other.params)
+    }
+
+    override fun hashCode(): Int = hashCode
+  }
+}
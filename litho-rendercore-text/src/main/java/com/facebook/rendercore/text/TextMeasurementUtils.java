@@ -570,7 +570,51 @@ public class TextMeasurementUtils {
     }
     layoutBuilder.setAlignment(textAlignment);
 
-    return layoutBuilder.build();
+    // Layouts using a color state list get their paint mutated when mounted, so can't be shared.
+    final TextLayoutCache.Key cacheKey =
+        textStyle.getTextColorStateList() == null
+            ? TextLayoutCache.createKey(
+                text,
+                widthSpec,
+                context.getResources().getDisplayMetrics().density,
+                actualEllipsize,
+                maxLines,
+                textStyle.shadowRadius,
+                textStyle.shadowDx,
+                textStyle.shadowDy,
+                textStyle.shadowColor,
+                textStyle.isSingleLine,
+                textStyle.textSize,
+                includeFontPadding,
+                textStyle.lineSpacingExtra,
+                textStyle.lineHeightMultiplier,
+                textStyle.lineHeight,
+                textStyle.letterSpacing,
+                textStyle.linkColor,
+                textStyle.justificationMode,
+                textStyle.breakStrategy,
+                textStyle.hyphenationFrequency,
+                textStyle.shouldLayoutEmptyText,
+                textStyle.minEms,
+                textStyle.maxEms,
+                textStyle.minTextWidth,
+                textStyle.maxTextWidth,
+                textStyle.getTextColor(),
+                textStyle.typeface,
+                textStyle.textStyle,
+                textStyle.textDirection,
+                textAlignment)
+            : null;
+    final Layout cachedLayout = TextLayoutCache.get(cacheKey);
+    if (cachedLayout != null) {
+      return cachedLayout;
+    }
+
+    final Layout layout = layoutBuilder.build();
+    if (layout != null) {
+      TextLayoutCache.put(cacheKey, layout);
+    }
+    return layout;
   }
 
   private static boolean hasManualSpacing(TextStyle textStyle) {
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.text
+
+import android.content.Context
+import android.content.res.ColorStateList
+import android.graphics.Color
+import android.text.SpannableString
+import android.text.SpannedString
+import android.view.View
+import androidx.test.core.app.ApplicationProvider
+import com.facebook.rendercore.RenderCoreConfig
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class TextLayoutCacheTest {
+
+  private val context: Context = ApplicationProvider.getApplicationContext()
+  private val widthSpec = View.MeasureSpec.makeMeasureSpec(200, View.MeasureSpec.AT_MOST)
+  private val heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED)
+
+  private var previousCacheSize = 0
+
+  @Before
+  fun setUp() {
+    previousCacheSize = RenderCoreConfig.textLayoutCacheSize
+    RenderCoreConfig.textLayoutCacheSize = 1_000
+    TextLayoutCache.reset()
+  }
+
+  @After
+  fun tearDown() {
+    RenderCoreConfig.textLayoutCacheSize = previousCacheSize
+    TextLayoutCache.reset()
+  }
+
+  @Test
+  fun `same text, style and width reuses the layout`() {
+    val first = layout("Hello world", createStyle())
+    val second = layout(String(charArrayOf('H', 'e', 'l', 'l', 'o')) + " world", createStyle())
+
+    assertThat(second).isSameAs(first)
+    assertThat(TextLayoutCache.missCount).isEqualTo(1)
+    assertThat(TextLayoutCache.hitCount).isEqualTo(1)
+  }
+
+  @Test
+  fun `different width or style creates a new layout`() {
+    val first = layout("Hello world", createStyle())
+    val otherWidth =
+        TextMeasurementUtils.layout(
+                context,
+                View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.AT_MOST),
+                heightSpec,
+                "Hello world",
+                createStyle())
+            .second
+            .layout
+    val otherStyle = layout("Hello world", createStyle().apply { textSize = 30 })
+
+    assertThat(otherWidth).isNotSameAs(first)
+    assertThat(otherStyle).isNotSameAs(first)
+    assertThat(TextLayoutCache.hitCount).isEqualTo(0)
+  }
+
+  @Test
+  fun `spannable text and color state lists are not cached`() {
+    val text = SpannableString("Hello world")
+    assertThat(layout(text, createStyle())).isNotSameAs(layout(text, createStyle()))
+
+    val stateListStyle = { createStyle().apply { textColorStateList = ColorStateList.valueOf(1) } }
+    assertThat(layout("Hello world", stateListStyle()))
+        .isNotSameAs(layout("Hello world", stateListStyle()))
+
+    assertThat(TextLayoutCache.hitCount).isEqualTo(0)
+    assertThat(TextLayoutCache.size).isEqualTo(0)
+  }
+
+  @Test
+  fun `mutable text is not cached`() {
+    val text = StringBuilder("Hello world")
+    val first = layout(text, createStyle())
+    text.setLength(0)
+    text.append("Goodbye")
+
+    assertThat(layout(text, createStyle())).isNotSameAs(first)
+    assertThat(TextLayoutCache.hitCount).isEqualTo(0)
+    assertThat(TextLayoutCache.size).isEqualTo(0)
+  }
+
+  @Test
+  fun `immutable spanned text is cached by identity`() {
+    val text = SpannedString("Hello world")
+    val first = layout(text, createStyle())
+
+    assertThat(layout(text, createStyle())).isSameAs(first)
+    assertThat(layout(SpannedString("Hello world"), createStyle())).isNotSameAs(first)
+  }
+
+  @Test
+  fun `least recently used layouts are evicted once the cache is full`() {
+    RenderCoreConfig.textLayoutCacheSize = 100
+    val first = layout("a".repeat(40), createStyle())
+    layout("b".repeat(40), createStyle())
+    layout("c".repeat(40), createStyle())
+
+    assertThat(TextLayoutCache.size).isLessThanOrEqualTo(100)
+    assertThat(layout("a".repeat(40), createStyle())).isNotSameAs(first)
+  }
+
+  @Test
+  fun `disabled cache never caches`() {
+    RenderCoreConfig.textLayoutCacheSize = 0
+
+    assertThat(layout("Hello world", createStyle()))
+        .isNotSameAs(layout("Hello world", createStyle()))
+    assertThat(TextLayoutCache.missCount).isEqualTo(0)
+  }
+
+  private fun layout(text: CharSequence, style: TextStyle) =
+      TextMeasurementUtils.layout(context, widthSpec, heightSpec, text, style).second.layout
+
+  private fun createStyle(): TextStyle =
+      TextStyle().apply {
+        textSize = 20
+        textColor = Color.BLACK
+      }
+}
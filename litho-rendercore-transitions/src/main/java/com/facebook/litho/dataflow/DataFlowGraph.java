@@ -25,6 +25,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,11 @@ import javax.annotation.concurrent.GuardedBy;
  * deactivated.
  *
  * <p>Data flows through the graph on each frame, from input nodes to output nodes.
+ *
+ * <p>The graph is split in independent {@link Partition}s: bindings which share a node end up in
+ * the same partition, and each partition keeps its own topological order. Registering a binding
+ * only sorts the partition it ends up in, and unregistering a binding only drops its nodes from its
+ * own partition, so animations starting or finishing in one place don't cost anything elsewhere.
  */
 @Nullsafe(Nullsafe.Mode.LOCAL)
 public class DataFlowGraph {
@@ -59,6 +65,19 @@ public class DataFlowGraph {
 
     private boolean isFinished = false;
     private int refCount = 0;
+    @Nullable private Partition partition;
+  }
+
+  /**
+   * A connected part of the graph: the bindings sharing nodes with each other, and their nodes in
+   * topological order. Partitions are merged when a binding connects them, but are never split: a
+   * partition only shrinks as its bindings are unregistered, and is dropped once it has none left.
+   */
+  private static class Partition {
+
+    private final Set<GraphBinding> bindings = new LinkedHashSet<>();
+    private final ArrayList<ValueNode> sortedNodes = new ArrayList<>();
+    private boolean isDirty = true;
   }
 
   /**
@@ -81,10 +100,10 @@ public class DataFlowGraph {
   private final TimingSource mTimingSource;
 
   @GuardedBy("this")
-  private final Set<GraphBinding> mBindings = new LinkedHashSet<>();
+  private final Map<GraphBinding, Partition> mBindings = new LinkedHashMap<>();
 
   @GuardedBy("this")
-  private final ArrayList<ValueNode> mSortedNodes = new ArrayList<>();
+  private final ArrayList<Partition> mPartitions = new ArrayList<>();
 
   @GuardedBy("this")
   private final Map<ValueNode, NodeState> mNodeStates = new HashMap<>();
@@ -98,7 +117,18 @@ public class DataFlowGraph {
   @GuardedBy("this")
   private final List<GraphBinding> mBindingsToRegister = new ArrayList<>();
 
-  private boolean mIsDirty = false;
+  // Scratch collections used to sort partitions, kept around to not allocate them on every sort.
+  @GuardedBy("this")
+  private final ArraySet<ValueNode> mLeafNodes = new ArraySet<>();
+
+  @GuardedBy("this")
+  private final SimpleArrayMap<ValueNode, Integer> mNodesToOutputsLeft = new SimpleArrayMap<>();
+
+  @GuardedBy("this")
+  private final ArrayDeque<ValueNode> mNodesToProcess = new ArrayDeque<>();
+
+  @GuardedBy("this")
+  private final ArrayList<Partition> mPartitionsToMerge = new ArrayList<>();
 
   private DataFlowGraph(TimingSource timingSource) {
     mTimingSource = timingSource;
@@ -116,12 +146,13 @@ public class DataFlowGraph {
       mBindingsToRegister.add(binding);
       return;
     }
-    mBindings.add(binding);
-    registerNodes(binding);
+    final Partition partition = registerNodes(binding);
+    partition.bindings.add(binding);
+    partition.isDirty = true;
+    mBindings.put(binding, partition);
     if (mBindings.size() == 1) {
       mTimingSource.start();
     }
-    mIsDirty = true;
   }
 
   /**
@@ -133,23 +164,32 @@ public class DataFlowGraph {
       mBindingsToUnregister.add(binding);
       return;
     }
-    if (!mBindings.remove(binding)) {
+    final Partition partition = mBindings.remove(binding);
+    if (partition == null) {
       throw new RuntimeException("Tried to unregister non-existent binding");
     }
     unregisterNodes(binding);
+    partition.bindings.remove(binding);
+    if (partition.bindings.isEmpty()) {
+      mPartitions.remove(partition);
+    } else if (!partition.isDirty) {
+      removeUnregisteredNodes(partition);
+    }
     if (mBindings.isEmpty()) {
       mTimingSource.stop();
-      mSortedNodes.clear();
+      mPartitions.clear();
       if (!mNodeStates.isEmpty()) {
         throw new RuntimeException("Failed to clean up all nodes");
       }
     }
-    mIsDirty = true;
   }
 
   synchronized void doFrame(long frameTimeNanos) {
-    if (mIsDirty) {
-      regenerateSortedNodes();
+    for (int i = 0, size = mPartitions.size(); i < size; i++) {
+      final Partition partition = mPartitions.get(i);
+      if (partition.isDirty) {
+        sortNodes(partition);
+      }
     }
 
     propagate(frameTimeNanos);
@@ -158,26 +198,27 @@ public class DataFlowGraph {
 
   @GuardedBy("this")
   private void propagate(long frameTimeNanos) {
-    final int size = mSortedNodes.size();
-    for (int i = 0; i < size; i++) {
-      final ValueNode node = mSortedNodes.get(i);
-      node.doCalculateValue(frameTimeNanos);
+    for (int i = 0, partitionsSize = mPartitions.size(); i < partitionsSize; i++) {
+      final ArrayList<ValueNode> sortedNodes = mPartitions.get(i).sortedNodes;
+      for (int j = 0, size = sortedNodes.size(); j < size; j++) {
+        final ValueNode node = sortedNodes.get(j);
+        node.doCalculateValue(frameTimeNanos);
+      }
     }
   }
 
   @GuardedBy("this")
-  private void regenerateSortedNodes() {
-    mSortedNodes.clear();
-
-    if (mBindings.size() == 0) {
-      return;
-    }
-
-    final ArraySet<ValueNode> leafNodes = new ArraySet<>();
-    final SimpleArrayMap<ValueNode, Integer> nodesToOutputsLeft = new SimpleArrayMap<>();
-    final ArrayDeque<ValueNode> nodesToProcess = new ArrayDeque<>();
-
-    for (final GraphBinding binding : mBindings) {
+  private void sortNodes(Partition partition) {
+    final ArrayList<ValueNode> sortedNodes = partition.sortedNodes;
+    final ArraySet<ValueNode> leafNodes = mLeafNodes;
+    final SimpleArrayMap<ValueNode, Integer> nodesToOutputsLeft = mNodesToOutputsLeft;
+    final ArrayDeque<ValueNode> nodesToProcess = mNodesToProcess;
+    sortedNodes.clear();
+    leafNodes.clear();
+    nodesToOutputsLeft.clear();
+    nodesToProcess.clear();
+
+    for (final GraphBinding binding : partition.bindings) {
       final ArrayList<ValueNode> nodes = binding.getAllNodes();
       for (int j = 0, nodesSize = nodes.size(); j < nodesSize; j++) {
         final ValueNode node = nodes.get(j);
@@ -200,7 +241,7 @@ public class DataFlowGraph {
 
     while (!nodesToProcess.isEmpty()) {
       final ValueNode next = nodesToProcess.pollFirst();
-      mSortedNodes.add(next);
+      sortedNodes.add(next);
       // NULLSAFE_FIXME[Nullable Dereference]
       for (ValueNode input : next.getAllInputs()) {
         // NULLSAFE_FIXME[Nullable Dereference]
@@ -215,13 +256,36 @@ public class DataFlowGraph {
     }
 
     int expectedTotalNodes = nodesToOutputsLeft.size() + leafNodes.size();
-    if (mSortedNodes.size() != expectedTotalNodes) {
+    leafNodes.clear();
+    nodesToOutputsLeft.clear();
+    if (sortedNodes.size() != expectedTotalNodes) {
       throw new DetectedCycleException(
           "Had unreachable nodes in graph -- this likely means there was a cycle");
     }
 
-    Collections.reverse(mSortedNodes);
-    mIsDirty = false;
+    Collections.reverse(sortedNodes);
+    partition.isDirty = false;
+  }
+
+  /**
+   * Drops the nodes which no longer belong to the partition from its sorted nodes. Removing nodes
+   * (and their connections) from a topological order leaves a topological order of the remaining
+   * nodes, so the partition doesn't need to be sorted again.
+   */
+  @GuardedBy("this")
+  private void removeUnregisteredNodes(Partition partition) {
+    final ArrayList<ValueNode> sortedNodes = partition.sortedNodes;
+    int kept = 0;
+    for (int i = 0, size = sortedNodes.size(); i < size; i++) {
+      final ValueNode node = sortedNodes.get(i);
+      final NodeState nodeState = mNodeStates.get(node);
+      if (nodeState != null && nodeState.partition == partition) {
+        sortedNodes.set(kept++, node);
+      }
+    }
+    for (int i = sortedNodes.size() - 1; i >= kept; i--) {
+      sortedNodes.remove(i);
+    }
   }
 
   @GuardedBy("this")
@@ -232,17 +296,20 @@ public class DataFlowGraph {
 
   @GuardedBy("this")
   private void updateFinishedNodes() {
-    for (int i = 0, size = mSortedNodes.size(); i < size; i++) {
-      final ValueNode node = mSortedNodes.get(i);
-      final NodeState nodeState = mNodeStates.get(node);
-      if (nodeState == null || nodeState.isFinished || !areInputsFinished(node)) {
-        continue;
-      }
+    for (int i = 0, partitionsSize = mPartitions.size(); i < partitionsSize; i++) {
+      final ArrayList<ValueNode> sortedNodes = mPartitions.get(i).sortedNodes;
+      for (int j = 0, size = sortedNodes.size(); j < size; j++) {
+        final ValueNode node = sortedNodes.get(j);
+        final NodeState nodeState = mNodeStates.get(node);
+        if (nodeState == null || nodeState.isFinished || !areInputsFinished(node)) {
+          continue;
+        }
 
-      final boolean nodeIsNowFinished =
-          !(node instanceof NodeCanFinish) || ((NodeCanFinish) node).isFinished();
-      if (nodeIsNowFinished) {
-        nodeState.isFinished = true;
+        final boolean nodeIsNowFinished =
+            !(node instanceof NodeCanFinish) || ((NodeCanFinish) node).isFinished();
+        if (nodeIsNowFinished) {
+          nodeState.isFinished = true;
+        }
       }
     }
   }
@@ -264,7 +331,7 @@ public class DataFlowGraph {
     // We need loop the graph bindings and flag the ones we need to add/remove so that we don't
     // change the list while iterating.
     mIsFinishingBindings = true;
-    for (final GraphBinding binding : mBindings) {
+    for (final GraphBinding binding : mBindings.keySet()) {
       boolean allAreFinished = true;
       final ArrayList<ValueNode> nodesToCheck = binding.getAllNodes();
       for (int j = 0, nodesSize = nodesToCheck.size(); j < nodesSize; j++) {
@@ -290,9 +357,41 @@ public class DataFlowGraph {
     mBindingsToUnregister.clear();
   }
 
+  /**
+   * Adds the nodes of the binding to the graph, and returns the partition the binding belongs to:
+   * a new partition if none of its nodes are already in the graph, or else the partition of those
+   * nodes, which the other partitions it connects to are merged into.
+   */
   @GuardedBy("this")
-  private void registerNodes(GraphBinding binding) {
+  private Partition registerNodes(GraphBinding binding) {
     final ArrayList<ValueNode> nodes = binding.getAllNodes();
+    final ArrayList<Partition> partitionsToMerge = mPartitionsToMerge;
+    Partition partition = null;
+    for (int i = 0, size = nodes.size(); i < size; i++) {
+      final NodeState nodeState = mNodeStates.get(nodes.get(i));
+      final Partition nodePartition = nodeState != null ? nodeState.partition : null;
+      if (nodePartition == null || partitionsToMerge.contains(nodePartition)) {
+        continue;
+      }
+      partitionsToMerge.add(nodePartition);
+      // Merges into the partition with the most nodes, so that fewer nodes need to be moved.
+      if (partition == null || nodePartition.sortedNodes.size() > partition.sortedNodes.size()) {
+        partition = nodePartition;
+      }
+    }
+
+    if (partition == null) {
+      partition = new Partition();
+      mPartitions.add(partition);
+    }
+    for (int i = 0, size = partitionsToMerge.size(); i < size; i++) {
+      final Partition partitionToMerge = partitionsToMerge.get(i);
+      if (partitionToMerge != partition) {
+        mergePartition(partitionToMerge, partition);
+      }
+    }
+    partitionsToMerge.clear();
+
     for (int i = 0, size = nodes.size(); i < size; i++) {
       final ValueNode node = nodes.get(i);
       final NodeState nodeState = mNodeStates.get(node);
@@ -301,9 +400,28 @@ public class DataFlowGraph {
       } else {
         final NodeState newState = new NodeState();
         newState.refCount = 1;
+        newState.partition = partition;
         mNodeStates.put(node, newState);
       }
     }
+    return partition;
+  }
+
+  @GuardedBy("this")
+  private void mergePartition(Partition from, Partition into) {
+    for (final GraphBinding binding : from.bindings) {
+      into.bindings.add(binding);
+      mBindings.put(binding, into);
+      final ArrayList<ValueNode> nodes = binding.getAllNodes();
+      for (int i = 0, size = nodes.size(); i < size; i++) {
+        final NodeState nodeState = mNodeStates.get(nodes.get(i));
+        if (nodeState != null) {
+          nodeState.partition = into;
+        }
+      }
+    }
+    into.isDirty = true;
+    mPartitions.remove(from);
   }
 
   @GuardedBy("this")
@@ -324,6 +442,11 @@ public class DataFlowGraph {
   @VisibleForTesting
   @GuardedBy("this")
   boolean hasReferencesToNodes() {
-    return !mBindings.isEmpty() || !mSortedNodes.isEmpty() || !mNodeStates.isEmpty();
+    return !mBindings.isEmpty() || !mPartitions.isEmpty() || !mNodeStates.isEmpty();
+  }
+
+  @VisibleForTesting
+  synchronized int getPartitionCount() {
+    return mPartitions.size();
   }
 }
@@ -62,12 +62,21 @@ public class VisibilityExtension
 
     private final List<VisibilityOutput> outputs = new ArrayList<>(8);
     private final Set<Long> renderUnitIdsWhichHostRenderTrees = new ArraySet<>(4);
+    private @Nullable VisibilityOutputsIndex outputsIndex;
 
     @Override
     public List<VisibilityOutput> getVisibilityOutputs() {
       return outputs;
     }
 
+    @Override
+    public @Nullable VisibilityOutputsIndex getVisibilityOutputsIndex() {
+      if (outputsIndex == null && !outputs.isEmpty()) {
+        outputsIndex = new VisibilityOutputsIndex(outputs);
+      }
+      return outputsIndex;
+    }
+
     @Override
     public Set<Long> getRenderUnitIdsWhichHostRenderTrees() {
       return renderUnitIdsWhichHostRenderTrees;
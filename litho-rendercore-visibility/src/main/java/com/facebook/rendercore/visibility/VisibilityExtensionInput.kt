@@ -25,6 +25,12 @@ interface VisibilityExtensionInput {
   /** returns a list of items for which visibility events will be processed */
   val visibilityOutputs: List<VisibilityOutput>
 
+  /**
+   * Returns an index of the [visibilityOutputs] by their bounds, or null to process all of them
+   * every time the visible rect changes.
+   */
+  val visibilityOutputsIndex: VisibilityOutputsIndex?
+
   /** Returns the set of ids of [RenderUnit]s which host [RenderTreeHost] */
   val renderUnitIdsWhichHostRenderTrees: Set<Long>
   val isProcessingVisibilityOutputsEnabled: Boolean
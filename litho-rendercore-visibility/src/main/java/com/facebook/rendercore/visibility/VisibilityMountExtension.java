@@ -83,6 +83,7 @@ public class VisibilityMountExtension<Input extends VisibilityExtensionInput>
     final VisibilityMountExtensionState state = extensionState.getState();
 
     state.mVisibilityOutputs = input.getVisibilityOutputs();
+    state.mVisibilityOutputsIndex = input.getVisibilityOutputsIndex();
     state.mRenderUnitIdsWhichHostRenderTrees = input.getRenderUnitIdsWhichHostRenderTrees();
     state.mPreviousLocalVisibleRect.setEmpty();
     state.mPreviousTransformedVisibleRect.setEmpty();
@@ -273,7 +274,9 @@ public class VisibilityMountExtension<Input extends VisibilityExtensionInput>
     }
 
     final VisibilityMountExtensionState state = extensionState.getState();
-    final int size = state.mVisibilityOutputs.size();
+    final @Nullable int[] positions =
+        findOutputsToProcess(state, previousVisibleRect, localVisibleRect, isDirty, transformer);
+    final int size = positions != null ? positions.length : state.mVisibilityOutputs.size();
 
     if (VisibilityExtensionConfigs.isDebugLoggingEnabled) {
       Log.d(DEBUG_TAG, "Visibility Outputs to process: " + size);
@@ -288,8 +291,9 @@ public class VisibilityMountExtension<Input extends VisibilityExtensionInput>
       final boolean isTracing = RenderCoreSystrace.isTracing();
 
       final Rect intersection = new Rect();
-      for (int j = 0; j < size; j++) {
-        final VisibilityOutput visibilityOutput = state.mVisibilityOutputs.get(j);
+      for (int i = 0; i < size; i++) {
+        final VisibilityOutput visibilityOutput =
+            state.mVisibilityOutputs.get(positions != null ? positions[i] : i);
         final String componentName = visibilityOutput.getKey();
 
         if (VisibilityExtensionConfigs.isDebugLoggingEnabled) {
@@ -513,6 +517,32 @@ public class VisibilityMountExtension<Input extends VisibilityExtensionInput>
     }
   }
 
+  /**
+   * Returns the positions of the only visibility outputs whose state can change when the visible
+   * rect moves from {@param previousVisibleRect} to {@param localVisibleRect}, or null if all of
+   * them need to be processed.
+   *
+   * <p>After every pass, only the outputs which intersect the visible rect have a {@link
+   * VisibilityItem}. So an output which intersects neither the previous nor the current visible
+   * rect was invisible and still is, and no event needs to be dispatched for it. This doesn't hold
+   * for dirty passes (the outputs changed), when the previous visible rect was reset, or when the
+   * visible rect of some outputs is transformed.
+   */
+  private static @Nullable int[] findOutputsToProcess(
+      VisibilityMountExtensionState state,
+      Rect previousVisibleRect,
+      Rect localVisibleRect,
+      boolean isDirty,
+      @Nullable VisibilityBoundsTransformer transformer) {
+    final @Nullable VisibilityOutputsIndex index = state.mVisibilityOutputsIndex;
+    if (index == null || isDirty || transformer != null || previousVisibleRect.isEmpty()) {
+      return null;
+    }
+    return index.findOverlapping(
+        Math.min(previousVisibleRect.top, localVisibleRect.top),
+        Math.max(previousVisibleRect.bottom, localVisibleRect.bottom));
+  }
+
   private static Map<String, Object> createVisibilityDebugAttributes(
       VisibilityItem visibilityItem) {
     Map<String, Object> attributes = new HashMap<>();
@@ -695,6 +725,7 @@ public class VisibilityMountExtension<Input extends VisibilityExtensionInput>
     private final Rect mPreviousTransformedVisibleRect = new Rect();
 
     private List<VisibilityOutput> mVisibilityOutputs = Collections.emptyList();
+    private @Nullable VisibilityOutputsIndex mVisibilityOutputsIndex;
     private Set<Long> mRenderUnitIdsWhichHostRenderTrees = Collections.emptySet();
     private @Nullable Rect mCurrentLocalVisibleRect;
     private @Nullable VisibilityBoundsTransformer mVisibilityBoundsTransformer;
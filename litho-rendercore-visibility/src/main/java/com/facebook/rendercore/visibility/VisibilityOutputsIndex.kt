@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.visibility
+
+import java.util.Arrays
+
+/**
+ * An index of [VisibilityOutput]s by their vertical bounds. It finds the outputs which overlap a
+ * vertical range without visiting all of them, so that scrolling through a long list of outputs
+ * only processes the outputs around the visible rect, see [VisibilityMountExtension].
+ *
+ * The outputs are sorted by top, along with the running maximum of their bottoms. The outputs
+ * overlapping `[top, bottom)` are all found before the first output starting at or below `bottom`,
+ * and the scan backwards from there can stop as soon as no earlier output reaches below `top`.
+ */
+class VisibilityOutputsIndex(outputs: List<VisibilityOutput>) {
+
+  private val size: Int = outputs.size
+
+  /** The positions of the outputs in the original list, ordered by top. */
+  private val positionsByTop: IntArray = IntArray(size)
+  private val tops: IntArray = IntArray(size)
+  private val bottoms: IntArray = IntArray(size)
+
+  /** The maximum bottom of all the outputs up to (and including) this index, ordered by top. */
+  private val maxBottoms: IntArray = IntArray(size)
+
+  init {
+    val keys = LongArray(size)
+    for (i in 0 until size) {
+      keys[i] = (outputs[i].bounds.top.toLong() shl 32) or i.toLong()
+    }
+    Arrays.sort(keys)
+
+    var maxBottom = Int.MIN_VALUE
+    for (i in 0 until size) {
+      val position = keys[i].toInt()
+      val bounds = outputs[position].bounds
+      positionsByTop[i] = position
+      tops[i] = bounds.top
+      bottoms[i] = bounds.bottom
+      maxBottom = maxOf(maxBottom, bounds.bottom)
+      maxBottoms[i] = maxBottom
+    }
+  }
+
+  /**
+   * Returns the positions of the outputs whose vertical bounds overlap `[top, bottom)`, in
+   * ascending order. This is the same check as [android.graphics.Rect.intersects], on the vertical
+   * axis only.
+   */
+  fun findOverlapping(top: Int, bottom: Int): IntArray {
+    // The index of the first output which starts at or below the bottom of the range.
+    var end = Arrays.binarySearch(tops, 0, size, bottom)
+    if (end < 0) {
+      end = -end - 1
+    }
+    while (end > 0 && tops[end - 1] >= bottom) {
+      end--
+    }
+
+    var found = IntArray(8)
+    var count = 0
+    var i = end - 1
+    while (i >= 0 && maxBottoms[i] > top) {
+      if (bottoms[i] > top) {
+        if (count == found.size) {
+          found = found.copyOf(count * 2)
+        }
+        found[count++] = positionsByTop[i]
+      }
+      i--
+    }
+
+    val result = found.copyOf(count)
+    result.sort()
+    return result
+  }
+}
@@ -19,7 +19,7 @@ package com.facebook.rendercore
 import android.graphics.Rect
 import android.util.Pair
 import androidx.annotation.VisibleForTesting
-import androidx.collection.LongSparseArray
+import androidx.collection.MutableLongIntMap
 import com.facebook.rendercore.extensions.ExtensionState
 import com.facebook.rendercore.extensions.GapWorkerCallbacks
 import com.facebook.rendercore.extensions.InformsMountCallback
@@ -36,7 +36,7 @@ import java.util.HashSet
  */
 class MountDelegate(val mountDelegateTarget: MountDelegateTarget, val tracer: Systracer) {
 
-  private val referenceCountMap = LongSparseArray<Int>()
+  private val referenceCountMap = MutableLongIntMap()
   private val _extensionStates: MutableList<ExtensionState<Any>> = ArrayList()
   var unmountDelegateExtensionState: ExtensionState<Any>? = null
     private set
@@ -418,10 +418,8 @@ class MountDelegate(val mountDelegateTarget: MountDelegateTarget, val tracer: Sy
         hasAcquiredRef(id)
       }
 
-  private fun hasAcquiredRef(renderUnitId: Long): Boolean {
-    val refCount = referenceCountMap[renderUnitId]
-    return refCount != null && refCount > 0
-  }
+  private fun hasAcquiredRef(renderUnitId: Long): Boolean =
+      referenceCountMap.getOrDefault(renderUnitId, 0) > 0
 
   @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
   fun acquireMountRef(node: RenderTreeNode) {
@@ -503,25 +501,21 @@ class MountDelegate(val mountDelegateTarget: MountDelegateTarget, val tracer: Sy
     if (!referenceCountingEnabled) {
       return
     }
-    var refCount = referenceCountMap[renderUnitId]
-    if (refCount == null) {
-      refCount = 0
-    }
-    referenceCountMap.put(renderUnitId, refCount + 1)
+    referenceCountMap[renderUnitId] = referenceCountMap.getOrDefault(renderUnitId, 0) + 1
   }
 
   private fun decrementExtensionRefCount(renderUnitId: Long) {
     if (!referenceCountingEnabled) {
       return
     }
-    val refCount = referenceCountMap[renderUnitId]
-    check(!(refCount == null || refCount == 0)) {
-      "Trying to decrement reference count for an item you don't own."
-    }
-    referenceCountMap.put(renderUnitId, refCount - 1)
+    val refCount = referenceCountMap.getOrDefault(renderUnitId, 0)
+    check(refCount != 0) { "Trying to decrement reference count for an item you don't own." }
+    referenceCountMap[renderUnitId] = refCount - 1
   }
 
-  @VisibleForTesting fun getRefCount(id: Long): Int = checkNotNull(referenceCountMap[id])
+  @VisibleForTesting
+  fun getRefCount(id: Long): Int =
+      referenceCountMap.getOrElse(id) { error("No reference count for id=$id") }
 
   @get:VisibleForTesting
   val extensionStates: List<ExtensionState<*>>
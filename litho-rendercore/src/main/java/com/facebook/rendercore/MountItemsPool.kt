@@ -32,6 +32,7 @@ import androidx.lifecycle.Lifecycle
 import androidx.lifecycle.LifecycleOwner
 import com.facebook.rendercore.thread.utils.ThreadUtils.runOnUiThread
 import java.util.WeakHashMap
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicInteger
 import javax.annotation.concurrent.GuardedBy
 
@@ -54,8 +55,13 @@ object MountContentPools {
 
   private val mountContentLock: Any = Any()
 
-  @GuardedBy("mountContentLock")
-  private val mountContentPoolsByContext: MutableMap<Context, ContextContentPools> = HashMap(4)
+  /**
+   * Lookups of existing pools read this map without holding [mountContentLock], so that threads
+   * acquiring, releasing and preallocating content don't contend with each other. It is only
+   * mutated while holding [mountContentLock].
+   */
+  private val mountContentPoolsByContext: ConcurrentHashMap<Context, ContextContentPools> =
+      ConcurrentHashMap(4)
 
   // This Map is used as a set and the values are ignored.
   @GuardedBy("mountContentLock")
@@ -219,6 +225,14 @@ object MountContentPools {
       return null
     }
 
+    val poolKey = allocator.getPoolKey()
+
+    // Fast path: the pool already exists, which is the case for all but the first lookup.
+    val existingPool = mountContentPoolsByContext[context]?.findPools(poolScope)?.get(poolKey)
+    if (existingPool != null) {
+      return existingPool
+    }
+
     synchronized(mountContentLock) {
       var contextContentPools = mountContentPoolsByContext[context]
       if (contextContentPools == null) {
@@ -232,7 +246,6 @@ object MountContentPools {
       }
       val scopedPools = contextContentPools.getPools(poolScope)
 
-      val poolKey = allocator.getPoolKey()
       var pool = scopedPools[poolKey]
 
       if (pool == null && hasMountContentPoolFactory) {
@@ -608,12 +621,16 @@ sealed interface PoolScope {
  *
  * [scopedPools] contains pools scoped to [PoolScope] [unscopedPools] contains pools scoped to the
  * [Context]
+ *
+ * The maps can be read from any thread, but must only be mutated while holding the
+ * MountContentPools lock.
  */
 private class ContextContentPools {
 
-  val scopedPools: MutableMap<PoolScope, MutableMap<Any, MountContentPools.ContentPool>> = HashMap()
+  val scopedPools: MutableMap<PoolScope, MutableMap<Any, MountContentPools.ContentPool>> =
+      ConcurrentHashMap()
 
-  val unscopedPools: MutableMap<Any, MountContentPools.ContentPool> = HashMap()
+  val unscopedPools: MutableMap<Any, MountContentPools.ContentPool> = ConcurrentHashMap()
 
   /** Returns pools associated with [poolScope] or [unscopedPools] if [poolScope] is null. */
   fun getPools(
@@ -622,7 +639,15 @@ private class ContextContentPools {
     if (poolScope == PoolScope.None) {
       return unscopedPools
     }
-    return scopedPools.getOrPut(poolScope) { HashMap() }
+    return scopedPools.getOrPut(poolScope) { ConcurrentHashMap() }
+  }
+
+  /** Same as [getPools], but returns null instead of creating the pools of a new [poolScope]. */
+  fun findPools(poolScope: PoolScope): Map<Any, MountContentPools.ContentPool>? {
+    if (poolScope == PoolScope.None) {
+      return unscopedPools
+    }
+    return scopedPools[poolScope]
   }
 
   /**
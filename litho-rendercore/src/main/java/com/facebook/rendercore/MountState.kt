@@ -29,6 +29,7 @@ import com.facebook.rendercore.debug.DebugEventAttribute.NumMountableOutputs
 import com.facebook.rendercore.debug.DebugEventAttribute.RenderUnitId
 import com.facebook.rendercore.debug.DebugEventAttribute.RootHostHashCode
 import com.facebook.rendercore.debug.DebugEventDispatcher
+import com.facebook.rendercore.debug.DebugEventTraceBuffer
 import com.facebook.rendercore.extensions.ExtensionState
 import com.facebook.rendercore.extensions.MountExtension
 import com.facebook.rendercore.extensions.RenderCoreExtension
@@ -94,6 +95,7 @@ constructor(
   override fun mount(renderTree: RenderTree?) {
     checkNotNull(renderTree) { "Trying to mount a null RenderTreeNode" }
 
+    val recordStartTime = DebugEventTraceBuffer.begin()
     val traceIdentifier = DebugEventDispatcher.generateTraceIdentifier(DebugEvent.RenderTreeMounted)
     if (traceIdentifier != null) {
       val attributes = HashMap<String, Any?>()
@@ -183,6 +185,8 @@ constructor(
       CommonUtils.rethrow(e)
     } finally {
       traceIdentifier?.let { DebugEventDispatcher.endTrace(it) }
+      DebugEventTraceBuffer.end(
+          recordStartTime, DebugEvent.RenderTreeMounted, renderTree.renderStateId.toLong())
       isMounting = false
       DebugEventDispatcher.dispatch(
           DebugEvent.RenderTreeMountEnd,
@@ -645,6 +649,7 @@ constructor(
     val hasUnmountDelegate =
         unmountDelegateExtension?.shouldDelegateUnmount(
             checkNotNull(checkNotNull(_mountDelegate).unmountDelegateExtensionState), item) ?: false
+    val recordStartTime = DebugEventTraceBuffer.begin()
     val traceIdentifier =
         DebugEventDispatcher.generateTraceIdentifier(DebugEvent.RenderUnitUnmounted)
     if (traceIdentifier != null) {
@@ -690,6 +695,7 @@ constructor(
         tracer.endSection()
       }
       traceIdentifier?.let { DebugEventDispatcher.endTrace(it) }
+      recordEvent(recordStartTime, DebugEvent.RenderUnitUnmounted, id)
       return
     } else {
       idToMountedItemMap.remove(unit.id)
@@ -738,6 +744,14 @@ constructor(
       tracer.endSection()
     }
     traceIdentifier?.let { DebugEventDispatcher.endTrace(it) }
+    recordEvent(recordStartTime, DebugEvent.RenderUnitUnmounted, id)
+  }
+
+  private fun recordEvent(recordStartTime: Long, type: String, renderUnitId: Long) {
+    if (recordStartTime != DebugEventTraceBuffer.NOT_RECORDING) {
+      val renderStateId = renderTree?.renderStateId?.toLong() ?: -1L
+      DebugEventTraceBuffer.end(recordStartTime, type, renderStateId, renderUnitId)
+    }
   }
 
   /**
@@ -818,6 +832,7 @@ constructor(
       content: Any,
       bindData: BindData
   ) {
+    val recordStartTime = DebugEventTraceBuffer.begin()
     val traceIdentifier = DebugEventDispatcher.generateTraceIdentifier(DebugEvent.MountItemMount)
     if (traceIdentifier != null) {
       val attributes = HashMap<String, Any?>()
@@ -835,6 +850,7 @@ constructor(
     unit.mountBinders(mountContext, content, node.layoutData, bindData)
     _mountDelegate?.onMountItem(unit, content, node.layoutData, tracer)
     traceIdentifier?.let { DebugEventDispatcher.endTrace(it) }
+    recordEvent(recordStartTime, DebugEvent.MountItemMount, unit.id)
   }
 
   private fun unmountRenderUnitFromContent(
@@ -880,6 +896,7 @@ constructor(
     currentRenderUnit.onStartUpdateRenderUnit()
     mountDelegate?.startNotifyVisibleBoundsChangedSection()
     if (shouldUpdateMountItem(currentRenderUnit, renderUnit, currentLayoutData, newLayoutData)) {
+      val recordStartTime = DebugEventTraceBuffer.begin()
       val traceIdentifier =
           DebugEventDispatcher.generateTraceIdentifier(DebugEvent.RenderUnitUpdated)
       if (traceIdentifier != null) {
@@ -909,6 +926,7 @@ constructor(
         tracer.endSection()
       }
       traceIdentifier?.let { DebugEventDispatcher.endTrace(it) }
+      recordEvent(recordStartTime, DebugEvent.RenderUnitUpdated, renderUnit.id)
     } else if (!currentMountItem.isBound) {
       bindRenderUnitToContent(currentMountItem)
     }
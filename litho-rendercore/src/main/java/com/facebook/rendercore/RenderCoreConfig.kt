@@ -54,6 +54,18 @@ object RenderCoreConfig {
   /** Flag to re-use compatible TextLayouts in truncation scenarios. */
   @JvmField var useTruncationCaching: Boolean = false
 
+  /**
+   * Maximum size, in characters of text, of the process wide cache of text layouts used by
+   * TextMeasurementUtils. The cache is disabled when set to 0.
+   */
+  @JvmField var textLayoutCacheSize: Int = 0
+
+  /**
+   * Number of records kept per thread by the DebugEventTraceBuffer, which records mount telemetry
+   * without allocating. Recording is disabled when set to 0.
+   */
+  @JvmField var debugEventTraceBufferSize: Int = 256
+
   /** Flag to enable isMounting assertion during unmount in MountState. */
   @JvmField var isUnmountAllWhileMountingAssertionEnabled: Boolean = false
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.debug
+
+import androidx.annotation.VisibleForTesting
+import com.facebook.rendercore.RenderCoreConfig
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * An always-on sink for debug events which, unlike [DebugEventDispatcher], doesn't allocate per
+ * event: every event is written as a fixed-layout binary record (event type id, timestamp, render
+ * state id, render unit id, duration) into a ring buffer preallocated for the recording thread.
+ * Only the last [RenderCoreConfig.debugEventTraceBufferSize] records of every thread are kept (the
+ * size is read when a thread records its first event).
+ *
+ * The records are decoded back into [DebugEvent]s by [dump], which is the only part of this API
+ * that allocates. A process event can be recorded with:
+ * ```
+ * val startTime = DebugEventTraceBuffer.begin()
+ * // code for the process
+ * DebugEventTraceBuffer.end(startTime, DebugEvent.MyEvent, renderStateId, renderUnitId)
+ * ```
+ */
+object DebugEventTraceBuffer {
+
+  /** The value of [begin] when recording is disabled. */
+  const val NOT_RECORDING: Long = -1
+
+  /** The render unit id of records which are not about a specific render unit. */
+  const val NO_RENDER_UNIT_ID: Long = -1
+
+  /** The duration of records which are markers rather than processes. */
+  const val NO_DURATION: Long = -1
+
+  private const val TYPE_ID = 0
+  private const val TIMESTAMP = 1
+  private const val RENDER_STATE_ID = 2
+  private const val RENDER_UNIT_ID = 3
+  private const val DURATION = 4
+  private const val RECORD_SIZE = 5
+
+  private val typeToId = ConcurrentHashMap<String, Int>()
+  private val idToType = CopyOnWriteArrayList<String>()
+
+  private val buffers = CopyOnWriteArrayList<ThreadBuffer>()
+  private val threadBuffer = ThreadLocal<ThreadBuffer?>()
+
+  @JvmStatic
+  val isEnabled: Boolean
+    get() = RenderCoreConfig.debugEventTraceBufferSize > 0
+
+  /** Returns the start time to pass to [end], or [NOT_RECORDING] if recording is disabled. */
+  @JvmStatic fun begin(): Long = if (isEnabled) System.nanoTime() else NOT_RECORDING
+
+  /** Records a process event of [type] which started at [startTime], as returned by [begin]. */
+  @JvmStatic
+  @JvmOverloads
+  fun end(
+      startTime: Long,
+      type: String,
+      renderStateId: Long,
+      renderUnitId: Long = NO_RENDER_UNIT_ID
+  ) {
+    if (startTime != NOT_RECORDING) {
+      record(type, renderStateId, renderUnitId, System.nanoTime() - startTime)
+    }
+  }
+
+  /** Records an event of [type]; events without a [durationNs] are decoded as markers. */
+  @JvmStatic
+  @JvmOverloads
+  fun record(
+      type: String,
+      renderStateId: Long,
+      renderUnitId: Long = NO_RENDER_UNIT_ID,
+      durationNs: Long = NO_DURATION
+  ) {
+    val buffer = threadBuffer.get()?.takeUnless { it.isCleared } ?: createThreadBuffer() ?: return
+    buffer.write(
+        typeId = typeIdOf(type),
+        timestamp = System.currentTimeMillis(), // for calendar time
+        renderStateId = renderStateId,
+        renderUnitId = renderUnitId,
+        durationNs = durationNs)
+  }
+
+  /**
+   * Decodes the records of all threads back into [DebugEvent]s, ordered by timestamp. The dump is
+   * best effort: records which are overwritten while they are being read are left out.
+   */
+  @JvmStatic
+  fun dump(): List<DebugEvent> {
+    val events = ArrayList<DebugEvent>()
+    for (buffer in buffers) {
+      buffer.decodeInto(events)
+    }
+    events.sortBy { it.attribute<Long>(DebugEventAttribute.Timestamp) }
+    return events
+  }
+
+  /** Discards all records. */
+  @JvmStatic
+  @VisibleForTesting
+  fun clear() {
+    for (buffer in buffers) {
+      buffer.isCleared = true
+    }
+    buffers.clear()
+  }
+
+  private fun typeIdOf(type: String): Int =
+      typeToId[type]
+          ?: synchronized(typeToId) {
+            typeToId.getOrPut(type) {
+              idToType.add(type)
+              idToType.size - 1
+            }
+          }
+
+  private fun createThreadBuffer(): ThreadBuffer? {
+    val capacity = RenderCoreConfig.debugEventTraceBufferSize
+    if (capacity <= 0) {
+      return null
+    }
+    // Threads come and go (e.g. in thread pools), so drop the records of dead threads instead of
+    // keeping their buffers around forever.
+    buffers.removeAll { !it.thread.isAlive }
+    val buffer = ThreadBuffer(Thread.currentThread(), capacity)
+    buffers.add(buffer)
+    threadBuffer.set(buffer)
+    return buffer
+  }
+
+  /** A ring buffer of records, written by [thread] only. */
+  private class ThreadBuffer(val thread: Thread, private val capacity: Int) {
+
+    private val records = LongArray(capacity * RECORD_SIZE)
+
+    /** Set by [clear]; the thread starts over with a new buffer on its next record. */
+    @Volatile var isCleared: Boolean = false
+
+    /** The total number of records written; published after every record is fully written. */
+    @Volatile private var count: Long = 0
+
+    fun write(
+        typeId: Int,
+        timestamp: Long,
+        renderStateId: Long,
+        renderUnitId: Long,
+        durationNs: Long
+    ) {
+      val index = count
+      val offset = (index % capacity).toInt() * RECORD_SIZE
+      records[offset + TYPE_ID] = typeId.toLong()
+      records[offset + TIMESTAMP] = timestamp
+      records[offset + RENDER_STATE_ID] = renderStateId
+      records[offset + RENDER_UNIT_ID] = renderUnitId
+      records[offset + DURATION] = durationNs
+      count = index + 1
+    }
+
+    fun decodeInto(events: MutableList<DebugEvent>) {
+      val end = count
+      val copy = records.copyOf()
+      // Any record which the writer may have reached while copying could be torn, so only keep
+      // the ones that are still at least a whole record away from the write position.
+      val start = maxOf(0L, count - capacity + 1)
+      val threadName = thread.name
+      for (index in start until end) {
+        val offset = (index % capacity).toInt() * RECORD_SIZE
+        events.add(decode(copy, offset, threadName))
+      }
+    }
+
+    private fun decode(records: LongArray, offset: Int, threadName: String): DebugEvent {
+      val type = idToType[records[offset + TYPE_ID].toInt()]
+      val timestamp = records[offset + TIMESTAMP]
+      val renderStateId = records[offset + RENDER_STATE_ID].toString()
+      val renderUnitId = records[offset + RENDER_UNIT_ID]
+      val durationNs = records[offset + DURATION]
+      val attributes: Map<String, Any?> =
+          if (renderUnitId != NO_RENDER_UNIT_ID) {
+            mapOf(DebugEventAttribute.RenderUnitId to renderUnitId)
+          } else {
+            emptyMap()
+          }
+      return if (durationNs != NO_DURATION) {
+        DebugProcessEvent(
+            timestamp = timestamp,
+            durationNs = Duration(durationNs),
+            type = type,
+            renderStateId = renderStateId,
+            threadName = threadName,
+            attributes = attributes)
+      } else {
+        DebugMarkerEvent(
+            timestamp = timestamp,
+            type = type,
+            renderStateId = renderStateId,
+            threadName = threadName,
+            attributes = attributes)
+      }
+    }
+  }
+}
@@ -17,10 +17,10 @@
 package com.facebook.rendercore.extensions
 
 import android.graphics.Rect
+import androidx.collection.MutableLongSet
 import com.facebook.rendercore.Host
 import com.facebook.rendercore.MountDelegate
 import com.facebook.rendercore.Systracer
-import java.util.HashSet
 
 class ExtensionState<State>
 internal constructor(
@@ -28,7 +28,7 @@ internal constructor(
     val mountDelegate: MountDelegate,
     val state: State
 ) {
-  private val layoutOutputMountRefs: MutableSet<Long> = HashSet()
+  private val layoutOutputMountRefs: MutableLongSet = MutableLongSet()
 
   val renderStateId: Int
     get() = mountDelegate.mountDelegateTarget.getRenderStateId()
@@ -43,9 +43,7 @@ internal constructor(
     get() = mountDelegate.tracer
 
   fun releaseAllAcquiredReferences() {
-    for (id in layoutOutputMountRefs) {
-      mountDelegate.releaseMountRef(id)
-    }
+    layoutOutputMountRefs.forEach { id -> mountDelegate.releaseMountRef(id) }
     layoutOutputMountRefs.clear()
   }
 
@@ -19,6 +19,7 @@
 package com.facebook.rendercore.utils
 
 import android.util.SparseArray
+import androidx.annotation.VisibleForTesting
 import com.facebook.rendercore.Equivalence
 
 /** Checks if two objects are equal. */
@@ -93,6 +94,27 @@ fun hasEquivalentFields(a: Any?, b: Any?): Boolean {
     return false
   }
 
+  return FieldsEquivalence.forClass(a.javaClass).areEquivalent(a, b)
+}
+
+/**
+ * The implementation of [hasEquivalentFields] which looks the fields up on every call. Only kept
+ * as a reference for the tests and benchmarks of [hasEquivalentFields].
+ */
+@VisibleForTesting
+fun hasEquivalentFieldsUncached(a: Any?, b: Any?): Boolean {
+  if (a === b) {
+    return true
+  }
+
+  if (a == null || b == null) {
+    return false
+  }
+
+  if (a.javaClass != b.javaClass) {
+    return false
+  }
+
   for (field in a.javaClass.declaredFields) {
     val val1: Any?
     val val2: Any?
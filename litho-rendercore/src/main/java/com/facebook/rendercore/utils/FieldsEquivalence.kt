@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.utils
+
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Compares the instance fields of two objects of the same class, as [hasEquivalentFields] does.
+ *
+ * The fields of a class are looked up and made accessible only once, when the class is first
+ * compared, instead of on every comparison. Primitive fields are read with the typed [Field]
+ * getters so that they aren't boxed, and are compared before the object fields so that the cheap
+ * checks fail first.
+ */
+internal class FieldsEquivalence
+private constructor(private val fields: Array<Field>, private val kinds: IntArray) {
+
+  fun areEquivalent(a: Any, b: Any): Boolean {
+    try {
+      for (i in fields.indices) {
+        val field = fields[i]
+        val isEquivalent =
+            when (kinds[i]) {
+              KIND_INT -> field.getInt(a) == field.getInt(b)
+              KIND_LONG -> field.getLong(a) == field.getLong(b)
+              KIND_BOOLEAN -> field.getBoolean(a) == field.getBoolean(b)
+              KIND_FLOAT -> java.lang.Float.compare(field.getFloat(a), field.getFloat(b)) == 0
+              KIND_DOUBLE -> java.lang.Double.compare(field.getDouble(a), field.getDouble(b)) == 0
+              KIND_BYTE -> field.getByte(a) == field.getByte(b)
+              KIND_SHORT -> field.getShort(a) == field.getShort(b)
+              KIND_CHAR -> field.getChar(a) == field.getChar(b)
+              else -> areObjectsEquivalent(field[a], field[b])
+            }
+        if (!isEquivalent) {
+          return false
+        }
+      }
+    } catch (e: IllegalAccessException) {
+      throw IllegalStateException("Unable to get fields by reflection.", e)
+    }
+    return true
+  }
+
+  companion object {
+    private const val KIND_INT = 0
+    private const val KIND_LONG = 1
+    private const val KIND_BOOLEAN = 2
+    private const val KIND_FLOAT = 3
+    private const val KIND_DOUBLE = 4
+    private const val KIND_BYTE = 5
+    private const val KIND_SHORT = 6
+    private const val KIND_CHAR = 7
+    private const val KIND_OBJECT = 8
+
+    private val classToEquivalence = ConcurrentHashMap<Class<*>, FieldsEquivalence>()
+
+    fun forClass(clazz: Class<*>): FieldsEquivalence =
+        classToEquivalence[clazz] ?: classToEquivalence.getOrPut(clazz) { create(clazz) }
+
+    private fun create(clazz: Class<*>): FieldsEquivalence {
+      // Static fields are skipped: both objects always see the same value.
+      val fields =
+          clazz.declaredFields
+              .filter { !Modifier.isStatic(it.modifiers) }
+              .sortedBy { kindOf(it.type) }
+      for (field in fields) {
+        field.isAccessible = true
+      }
+      return FieldsEquivalence(
+          fields.toTypedArray(), IntArray(fields.size) { kindOf(fields[it].type) })
+    }
+
+    private fun kindOf(type: Class<*>): Int =
+        when (type) {
+          Int::class.javaPrimitiveType -> KIND_INT
+          Long::class.javaPrimitiveType -> KIND_LONG
+          Boolean::class.javaPrimitiveType -> KIND_BOOLEAN
+          Float::class.javaPrimitiveType -> KIND_FLOAT
+          Double::class.javaPrimitiveType -> KIND_DOUBLE
+          Byte::class.javaPrimitiveType -> KIND_BYTE
+          Short::class.javaPrimitiveType -> KIND_SHORT
+          Char::class.javaPrimitiveType -> KIND_CHAR
+          else -> KIND_OBJECT
+        }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore
+
+import android.content.Context
+import com.facebook.rendercore.RenderUnit.RenderType
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+
+/**
+ * Tests that [MountContentPools] never hands out the same content to two threads at the same time
+ * when several threads concurrently acquire and release content of mixed types, while another
+ * thread keeps preallocating content (like the layout thread does while the UI thread mounts).
+ *
+ * Every round, each thread acquires a few items and waits for all the other threads to acquire
+ * theirs before releasing them, so that all the items of a round are in use at the same time.
+ */
+@RunWith(RobolectricTestRunner::class)
+class MountContentPoolsConcurrencyTest {
+
+  private val context: Context = RuntimeEnvironment.getApplication()
+
+  private val allocators = List(CONTENT_TYPES) { type -> TestContentAllocator("type$type") }
+
+  @Before
+  fun setup() {
+    MountContentPools.clear()
+  }
+
+  @After
+  fun cleanup() {
+    MountContentPools.clear()
+  }
+
+  @Test
+  fun `concurrent acquire and release of mixed content types never share content`() {
+    val inUse =
+        Collections.synchronizedSet(Collections.newSetFromMap(IdentityHashMap<Any, Boolean>()))
+    val failure = AtomicReference<Throwable>()
+    val start = CountDownLatch(1)
+    val done = CountDownLatch(THREAD_COUNT)
+    val allAcquired = CyclicBarrier(THREAD_COUNT)
+
+    val workers =
+        List(THREAD_COUNT) { index ->
+          Thread {
+            try {
+              start.await()
+              val held = ArrayList<Pair<TestContentAllocator, Any>>(ITEMS_PER_ROUND)
+              for (round in 0 until ROUNDS) {
+                for (i in 0 until ITEMS_PER_ROUND) {
+                  val allocator = allocators[(round + index + i) % CONTENT_TYPES]
+                  val content = MountContentPools.acquireMountContent(context, allocator)
+                  check(inUse.add(content)) { "$content is used by two threads" }
+                  held.add(allocator to content)
+                }
+                allAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                for ((allocator, content) in held) {
+                  check(inUse.remove(content))
+                  MountContentPools.recycle(context, allocator, content)
+                }
+                held.clear()
+              }
+            } catch (t: Throwable) {
+              failure.compareAndSet(null, t)
+              // Lets the other threads stop waiting for this one.
+              allAcquired.reset()
+            } finally {
+              done.countDown()
+            }
+          }
+        }
+    val preallocator = Thread {
+      try {
+        start.await()
+        while (done.count > 0) {
+          allocators.forEach { MountContentPools.maybePreallocateContent(context, it) }
+        }
+      } catch (t: Throwable) {
+        failure.compareAndSet(null, t)
+      }
+    }
+
+    workers.forEach { it.start() }
+    preallocator.start()
+    start.countDown()
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue()
+    preallocator.join()
+
+    failure.get()?.let { throw AssertionError(it) }
+
+    // No content was released twice into a pool.
+    allocators.forEach { allocator ->
+      val acquired = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+      repeat(POOL_SIZE) {
+        assertThat(acquired.add(MountContentPools.acquireMountContent(context, allocator)))
+            .isTrue()
+      }
+    }
+  }
+
+  private class TestContentAllocator(private val poolKey: String) : ContentAllocator<Any> {
+
+    override val renderType: RenderType = RenderType.VIEW
+
+    override fun createContent(context: Context): Any = Any()
+
+    override fun getPoolKey(): Any = poolKey
+
+    override fun poolSize(): Int = POOL_SIZE
+  }
+
+  companion object {
+    private const val THREAD_COUNT = 8
+    private const val CONTENT_TYPES = 4
+    private const val POOL_SIZE = 16
+    private const val ITEMS_PER_ROUND = 4
+    private const val ROUNDS = 2_000
+    private const val TIMEOUT_SECONDS = 60L
+  }
+}
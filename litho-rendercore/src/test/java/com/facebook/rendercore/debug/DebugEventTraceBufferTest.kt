@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.debug
+
+import com.facebook.rendercore.RenderCoreConfig
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class DebugEventTraceBufferTest {
+
+  private var originalSize = 0
+
+  @Before
+  fun before() {
+    originalSize = RenderCoreConfig.debugEventTraceBufferSize
+    RenderCoreConfig.debugEventTraceBufferSize = 4
+    DebugEventTraceBuffer.clear()
+  }
+
+  @After
+  fun after() {
+    RenderCoreConfig.debugEventTraceBufferSize = originalSize
+    DebugEventTraceBuffer.clear()
+  }
+
+  @Test
+  fun `records should be decoded back to debug events`() {
+    DebugEventTraceBuffer.record(DebugEvent.RenderTreeCommitted, renderStateId = 7)
+    DebugEventTraceBuffer.record(
+        DebugEvent.RenderUnitMounted, renderStateId = 7, renderUnitId = 42, durationNs = 1_000)
+
+    val events = DebugEventTraceBuffer.dump()
+
+    assertThat(events).hasSize(2)
+    val marker = events[0]
+    assertThat(marker).isInstanceOf(DebugMarkerEvent::class.java)
+    assertThat(marker.type).isEqualTo(DebugEvent.RenderTreeCommitted)
+    assertThat(marker.renderStateId).isEqualTo("7")
+    assertThat(marker.threadName).isEqualTo(Thread.currentThread().name)
+    assertThat(marker.attributeOrNull<Long>(DebugEventAttribute.RenderUnitId)).isNull()
+
+    val process = events[1] as DebugProcessEvent
+    assertThat(process.type).isEqualTo(DebugEvent.RenderUnitMounted)
+    assertThat(process.durationNs.value).isEqualTo(1_000)
+    assertThat(process.attribute<Long>(DebugEventAttribute.RenderUnitId)).isEqualTo(42)
+  }
+
+  @Test
+  fun `only the most recent records should be kept`() {
+    for (i in 1L..10L) {
+      DebugEventTraceBuffer.record(DebugEvent.RenderUnitMounted, renderStateId = i)
+    }
+
+    val renderStateIds = DebugEventTraceBuffer.dump().map { it.renderStateId }
+
+    // The oldest record in the ring is dropped, as it is the next one to be overwritten.
+    assertThat(renderStateIds).containsExactly("8", "9", "10")
+  }
+
+  @Test
+  fun `records of every thread should be dumped`() {
+    DebugEventTraceBuffer.record(DebugEvent.RenderTreeMounted, renderStateId = 1)
+    val thread =
+        Thread({ DebugEventTraceBuffer.record(DebugEvent.RenderTreeMounted, renderStateId = 2) })
+    thread.start()
+    thread.join()
+    DebugEventTraceBuffer.record(DebugEvent.RenderTreeMounted, renderStateId = 3)
+
+    // The buffer of the dead thread is kept until another thread starts recording.
+    assertThat(DebugEventTraceBuffer.dump().map { it.renderStateId })
+        .containsExactlyInAnyOrder("1", "2", "3")
+  }
+
+  @Test
+  fun `nothing should be recorded when disabled`() {
+    RenderCoreConfig.debugEventTraceBufferSize = 0
+
+    val startTime = DebugEventTraceBuffer.begin()
+    DebugEventTraceBuffer.end(startTime, DebugEvent.RenderTreeMounted, renderStateId = 1)
+    DebugEventTraceBuffer.record(DebugEvent.RenderTreeMounted, renderStateId = 1)
+
+    assertThat(startTime).isEqualTo(DebugEventTraceBuffer.NOT_RECORDING)
+    assertThat(DebugEventTraceBuffer.dump()).isEmpty()
+  }
+
+  @Test
+  fun `begin and end should record a process event`() {
+    val startTime = DebugEventTraceBuffer.begin()
+    DebugEventTraceBuffer.end(startTime, DebugEvent.MountItemMount, renderStateId = 1, 42)
+
+    val event = DebugEventTraceBuffer.dump().single() as DebugProcessEvent
+    assertThat(event.type).isEqualTo(DebugEvent.MountItemMount)
+    assertThat(event.renderStateId).isEqualTo("1")
+    assertThat(event.durationNs.value).isGreaterThanOrEqualTo(0)
+    assertThat(event.attribute<Long>(DebugEventAttribute.RenderUnitId)).isEqualTo(42)
+  }
+
+  @Test
+  fun `records should be overwritten in place when the ring wraps around`() {
+    repeat(10_000) { i ->
+      val startTime = DebugEventTraceBuffer.begin()
+      DebugEventTraceBuffer.end(startTime, DebugEvent.MountItemMount, renderStateId = 1, i.toLong())
+    }
+
+    val renderUnitIds =
+        DebugEventTraceBuffer.dump().map { it.attribute<Long>(DebugEventAttribute.RenderUnitId) }
+
+    assertThat(renderUnitIds).containsExactly(9_997L, 9_998L, 9_999L)
+  }
+}
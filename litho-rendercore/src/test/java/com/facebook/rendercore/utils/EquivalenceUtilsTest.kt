@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.rendercore.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class EquivalenceUtilsTest {
+
+  @Test
+  fun `objects with equivalent fields of every type should be equivalent`() {
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes())).isTrue
+  }
+
+  @Test
+  fun `objects with a different field of any type should not be equivalent`() {
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(i = 1))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(l = 1))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(z = false))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(f = 1f))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(d = 1.0))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(b = 1))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(s = 1))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(c = 'b'))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(array = intArrayOf(2)))).isFalse
+    assertThat(hasEquivalentFields(AllTypes(), AllTypes(list = listOf("b")))).isFalse
+  }
+
+  @Test
+  fun `floating point fields should be compared like boxed values`() {
+    assertThat(hasEquivalentFields(AllTypes(f = Float.NaN), AllTypes(f = Float.NaN))).isTrue
+    assertThat(hasEquivalentFields(AllTypes(d = 0.0), AllTypes(d = -0.0))).isFalse
+  }
+
+  @Test
+  fun `objects of different classes should not be equivalent`() {
+    assertThat(hasEquivalentFields(AllTypes(), Any())).isFalse
+  }
+
+  @Test
+  fun `cached fields should be compared like fields looked up on every call`() {
+    val variants =
+        listOf(
+            AllTypes(),
+            AllTypes(i = 1),
+            AllTypes(l = 1),
+            AllTypes(z = false),
+            AllTypes(f = Float.NaN),
+            AllTypes(d = -0.0),
+            AllTypes(c = 'b'),
+            AllTypes(array = intArrayOf(2)),
+            AllTypes(list = listOf("b")),
+            Any())
+    for (a in variants) {
+      for (b in variants) {
+        assertThat(hasEquivalentFields(a, b)).isEqualTo(hasEquivalentFieldsUncached(a, b))
+      }
+      // Also compares to another instance, as the same instance is always equivalent.
+      val other = AllTypes()
+      assertThat(hasEquivalentFields(a, other)).isEqualTo(hasEquivalentFieldsUncached(a, other))
+    }
+  }
+
+  private class AllTypes(
+      val i: Int = 0,
+      val l: Long = 0,
+      val z: Boolean = true,
+      val f: Float = 0f,
+      val d: Double = 0.0,
+      val b: Byte = 0,
+      val s: Short = 0,
+      val c: Char = 'a',
+      val array: IntArray = intArrayOf(1),
+      val list: List<String> = listOf("a"),
+  )
+}
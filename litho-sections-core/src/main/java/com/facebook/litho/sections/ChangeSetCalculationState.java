@@ -22,32 +22,65 @@ import com.facebook.infer.annotation.Nullsafe;
 import com.facebook.litho.EventHandler;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * Container for data, besides the ChangeSet itself, created as part of a changeset calculation:
  * this is local to a particular changeset calculation and is only active while the changeset is
  * being calculated.
+ *
+ * <p>The change sets of sibling sections can be generated in parallel, see {@link
+ * com.facebook.litho.sections.config.SectionsConfiguration#enableParallelChildChangeSets}, so the
+ * recorded data is guarded by this object.
  */
 @Nullsafe(Nullsafe.Mode.LOCAL)
 public class ChangeSetCalculationState {
 
+  @GuardedBy("this")
   private @Nullable State mState = new State();
 
+  private volatile boolean mIsCancelled;
+
   /**
    * @return whether the associated changeset calculation is still in progress.
    */
-  boolean isActive() {
+  synchronized boolean isActive() {
     return mState != null;
   }
 
-  void recordEventHandler(String globalKey, EventHandler eventHandler) {
+  /**
+   * @return whether a newer root superseded the associated changeset calculation, in which case
+   *     its result will be discarded.
+   */
+  public boolean isCancelled() {
+    return mIsCancelled;
+  }
+
+  /**
+   * Throws a {@link CancellationException} if the associated changeset calculation was cancelled.
+   * Long running work, like diffing large lists, should call it regularly to bail out early once
+   * its result is no longer needed.
+   */
+  public void throwIfCancelled() {
+    if (mIsCancelled) {
+      throw new CancellationException("The changeset calculation was superseded by a newer root");
+    }
+  }
+
+  /** Cancels the associated changeset calculation. Can be called from any thread. */
+  void cancel() {
+    mIsCancelled = true;
+  }
+
+  synchronized void recordEventHandler(String globalKey, EventHandler eventHandler) {
     if (mState == null) {
       throw new RuntimeException("Trying to use inactive ChangeSetCalculationState!");
     }
     mState.eventHandlers.add(new Pair<>(globalKey, eventHandler));
   }
 
-  List<Pair<String, EventHandler<?>>> getEventHandlers() {
+  synchronized List<Pair<String, EventHandler<?>>> getEventHandlers() {
     if (mState == null) {
       throw new RuntimeException("Trying to use inactive ChangeSetCalculationState!");
     }
@@ -58,7 +91,7 @@ public class ChangeSetCalculationState {
    * Marks the changeset calculation as done and drops this state - you should now now longer use
    * this object.
    */
-  void clear() {
+  synchronized void clear() {
     if (mState == null) {
       throw new IllegalStateException("Trying to clear inactive ChangeSetCalculationState!");
     }
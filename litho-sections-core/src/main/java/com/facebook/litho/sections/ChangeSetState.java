@@ -18,15 +18,28 @@ package com.facebook.litho.sections;
 
 import static com.facebook.litho.sections.Section.acquireChildrenMap;
 
+import android.os.Process;
 import android.util.Pair;
 import android.util.SparseArray;
 import androidx.annotation.Nullable;
 import com.facebook.infer.annotation.Nullsafe;
 import com.facebook.litho.ComponentsSystrace;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.sections.logger.SectionsDebugLogger;
+import com.facebook.litho.widget.RenderInfo;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ChangeSetState is responsible to generate a global ChangeSet between two {@link Section}s trees.
@@ -35,6 +48,7 @@ import java.util.Map;
 public class ChangeSetState {
 
   private static final List<Section> sEmptyList = new ArrayList<>();
+  private static final long KEEP_ALIVE_SECONDS = 30;
 
   private final @Nullable Section mCurrentRoot;
   private final @Nullable Section mNewRoot;
@@ -335,6 +349,9 @@ public class ChangeSetState {
    * still guarantees a correct ordering while preserving the validity of indexes in the children of
    * currentRoot. Re-ordering a child is not supported and will trigger an {@link
    * IllegalStateException}.
+   *
+   * <p>When {@link SectionsConfiguration#enableParallelChildChangeSets} is enabled the {@link
+   * ChangeSet}s of the children are generated concurrently, and merged in the same order.
    */
   private static SparseArray<ChangeSet> generateChildrenChangeSets(
       SectionContext sectionContext,
@@ -349,7 +366,7 @@ public class ChangeSetState {
       String newPrefix,
       String thread,
       boolean enableStats) {
-    final SparseArray<ChangeSet> changeSets = new SparseArray<>();
+    final List<ChildChangeSet> children = new ArrayList<>();
 
     // Find removed current children.
     for (int i = 0; i < currentChildrenList.size(); i++) {
@@ -357,19 +374,7 @@ public class ChangeSetState {
       final Section currentChild = currentChildrenList.get(i);
 
       if (newChildren.get(key) == null) {
-        changeSets.put(
-            i,
-            generateChangeSetRecursive(
-                sectionContext,
-                currentChild,
-                null,
-                removedComponents,
-                sectionsDebugLogger,
-                sectionTreeTag,
-                currentPrefix,
-                newPrefix,
-                thread,
-                enableStats));
+        children.add(new ChildChangeSet(i, currentChild, null));
       }
     }
 
@@ -379,32 +384,34 @@ public class ChangeSetState {
       final Pair<Section, Integer> valueAndPosition = currentChildren.get(newChild.getGlobalKey());
       final int currentChildIndex = valueAndPosition != null ? valueAndPosition.second : -1;
 
-      // New child was added.
       if (currentChildIndex < 0) {
-        final ChangeSet currentChangeSet = changeSets.get(activeChildIndex);
-        final ChangeSet changeSet =
-            generateChangeSetRecursive(
-                sectionContext,
-                null,
-                newChild,
-                removedComponents,
-                sectionsDebugLogger,
-                sectionTreeTag,
-                currentPrefix,
-                newPrefix,
-                thread,
-                enableStats);
-
-        changeSets.put(activeChildIndex, ChangeSet.merge(currentChangeSet, changeSet));
+        // New child was added.
+        children.add(new ChildChangeSet(activeChildIndex, null, newChild));
       } else {
         activeChildIndex = currentChildIndex;
+        children.add(
+            new ChildChangeSet(
+                activeChildIndex, currentChildrenList.get(currentChildIndex), newChild));
+      }
+    }
 
-        final ChangeSet currentChangeSet = changeSets.get(activeChildIndex);
-        final ChangeSet changeSet =
+    if (SectionsConfiguration.enableParallelChildChangeSets && children.size() > 1) {
+      generateInParallel(
+          children,
+          sectionContext,
+          SynchronizedSectionsDebugLogger.wrap(sectionsDebugLogger),
+          sectionTreeTag,
+          currentPrefix,
+          newPrefix,
+          enableStats);
+    } else {
+      for (int i = 0, size = children.size(); i < size; i++) {
+        final ChildChangeSet child = children.get(i);
+        child.mChangeSet =
             generateChangeSetRecursive(
                 sectionContext,
-                currentChildrenList.get(currentChildIndex),
-                newChild,
+                child.mCurrentChild,
+                child.mNewChild,
                 removedComponents,
                 sectionsDebugLogger,
                 sectionTreeTag,
@@ -412,14 +419,235 @@ public class ChangeSetState {
                 newPrefix,
                 thread,
                 enableStats);
+      }
+    }
 
-        changeSets.put(activeChildIndex, ChangeSet.merge(currentChangeSet, changeSet));
+    // The change sets are merged in the order of the children, so that the result doesn't depend
+    // on the order in which they were generated. If for example a new child is added in position
+    // 2, its change set is merged with the one of the child of currentRoot in position 1.
+    final SparseArray<ChangeSet> changeSets = new SparseArray<>();
+    for (int i = 0, size = children.size(); i < size; i++) {
+      final ChildChangeSet child = children.get(i);
+      if (child.mRemovedComponents != null) {
+        removedComponents.addAll(child.mRemovedComponents);
       }
+      // NULLSAFE_FIXME[Parameter Not Nullable]
+      changeSets.put(child.mIndex, ChangeSet.merge(changeSets.get(child.mIndex), child.mChangeSet));
     }
 
     return changeSets;
   }
 
+  /**
+   * Generates the {@link ChangeSet}s of the given children concurrently on the change set pool.
+   * The calling thread takes part in the work, and runs inline any child which hasn't been picked
+   * up by the pool by the time it is waited on, so nested parallel generations can never block on
+   * work that isn't making progress.
+   *
+   * <p>The tasks share the {@link ChangeSetCalculationState} of the calculation, which records the
+   * event handlers created by any of them under its lock, and a {@link
+   * SynchronizedSectionsDebugLogger}, so the logger is never called by two threads at once.
+   */
+  private static void generateInParallel(
+      List<ChildChangeSet> children,
+      final SectionContext sectionContext,
+      final SectionsDebugLogger sectionsDebugLogger,
+      final String sectionTreeTag,
+      final String currentPrefix,
+      final String newPrefix,
+      final boolean enableStats) {
+    final int size = children.size();
+    final List<FutureTask<ChangeSet>> tasks = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final ChildChangeSet child = children.get(i);
+      // Every child collects its removed sections separately, they are added to the shared list
+      // in the order of the children once all the change sets are generated.
+      final List<Section> removedComponents = new ArrayList<>();
+      child.mRemovedComponents = removedComponents;
+      tasks.add(
+          new FutureTask<>(
+              new Callable<ChangeSet>() {
+                @Override
+                public ChangeSet call() {
+                  return generateChangeSetRecursive(
+                      sectionContext,
+                      child.mCurrentChild,
+                      child.mNewChild,
+                      removedComponents,
+                      sectionsDebugLogger,
+                      sectionTreeTag,
+                      currentPrefix,
+                      newPrefix,
+                      Thread.currentThread().getName(),
+                      enableStats);
+                }
+              }));
+    }
+
+    final Executor executor = ChangeSetExecutorHolder.sExecutor;
+    for (int i = 1; i < size; i++) {
+      executor.execute(tasks.get(i));
+    }
+
+    for (int i = 0; i < size; i++) {
+      final FutureTask<ChangeSet> task = tasks.get(i);
+      // No-op if the pool already ran, or is running, this task.
+      task.run();
+      try {
+        children.get(i).mChangeSet = task.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  /** The {@link ChangeSet} of a child section, and where it is merged in the change set list. */
+  private static final class ChildChangeSet {
+
+    /** The index of the current child this {@link ChangeSet} is merged with. */
+    private final int mIndex;
+
+    private final @Nullable Section mCurrentChild;
+    private final @Nullable Section mNewChild;
+    private @Nullable ChangeSet mChangeSet;
+    private @Nullable List<Section> mRemovedComponents;
+
+    private ChildChangeSet(int index, @Nullable Section currentChild, @Nullable Section newChild) {
+      mIndex = index;
+      mCurrentChild = currentChild;
+      mNewChild = newChild;
+    }
+  }
+
+  /**
+   * Serializes the calls to a {@link SectionsDebugLogger}, which isn't required to be thread safe,
+   * while the change sets of sibling sections are generated in parallel.
+   */
+  private static final class SynchronizedSectionsDebugLogger implements SectionsDebugLogger {
+
+    private final SectionsDebugLogger mDelegate;
+
+    private SynchronizedSectionsDebugLogger(SectionsDebugLogger delegate) {
+      mDelegate = delegate;
+    }
+
+    static SectionsDebugLogger wrap(SectionsDebugLogger logger) {
+      return logger instanceof SynchronizedSectionsDebugLogger
+          ? logger
+          : new SynchronizedSectionsDebugLogger(logger);
+    }
+
+    @Override
+    public void logInsert(String tag, int index, RenderInfo renderInfo, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logInsert(tag, index, renderInfo, thread);
+      }
+    }
+
+    @Override
+    public void logUpdate(String tag, int index, RenderInfo renderInfo, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logUpdate(tag, index, renderInfo, thread);
+      }
+    }
+
+    @Override
+    public void logDelete(String tag, int index, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logDelete(tag, index, thread);
+      }
+    }
+
+    @Override
+    public void logRequestFocus(String tag, int index, RenderInfo renderInfo, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logRequestFocus(tag, index, renderInfo, thread);
+      }
+    }
+
+    @Override
+    public void logRequestFocusWithOffset(
+        String tag, int index, int offset, RenderInfo renderInfo, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logRequestFocusWithOffset(tag, index, offset, renderInfo, thread);
+      }
+    }
+
+    @Override
+    public void logMove(String tag, int fromPosition, int toPosition, String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logMove(tag, fromPosition, toPosition, thread);
+      }
+    }
+
+    @Override
+    public void logShouldUpdate(
+        String tag,
+        @Nullable Object previous,
+        Object next,
+        String previousPrefix,
+        String nextPrefix,
+        Boolean shouldUpdate,
+        String thread) {
+      synchronized (mDelegate) {
+        mDelegate.logShouldUpdate(
+            // NULLSAFE_FIXME[Parameter Not Nullable]
+            tag, previous, next, previousPrefix, nextPrefix, shouldUpdate, thread);
+      }
+    }
+  }
+
+  /** Lazily creates the pool used to generate child change sets in parallel. */
+  private static final class ChangeSetExecutorHolder {
+
+    private static final String THREAD_NAME = "ChangeSetPool-";
+
+    private static final Executor sExecutor = createExecutor();
+
+    private static Executor createExecutor() {
+      final int poolSize = SectionsConfiguration.parallelChildChangeSetsPoolSize;
+      final ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              poolSize,
+              poolSize,
+              KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                private final AtomicInteger mThreadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                  final Thread thread =
+                      new Thread(
+                          new Runnable() {
+                            @Override
+                            public void run() {
+                              Process.setThreadPriority(
+                                  ComponentsConfiguration.DEFAULT_CHANGE_SET_THREAD_PRIORITY);
+                              runnable.run();
+                            }
+                          },
+                          THREAD_NAME + mThreadCount.incrementAndGet());
+                  thread.setDaemon(true);
+                  return thread;
+                }
+              });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
   private static int getPreviousChildrenCount(List<Section> sections, String key) {
     int count = 0;
     for (Section s : sections) {
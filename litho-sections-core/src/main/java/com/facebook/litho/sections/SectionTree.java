@@ -72,6 +72,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -284,6 +285,13 @@ public class SectionTree {
   @GuardedBy("this")
   private boolean mIsChangeSetCalculationInProgress;
 
+  /**
+   * The state of the changeset calculation in flight, which is cancelled when a newer root is set
+   * if {@link SectionsConfiguration#enableBackgroundDiffing} is enabled.
+   */
+  @GuardedBy("this")
+  private @Nullable ChangeSetCalculationState mInFlightCalculationState;
+
   @GuardedBy("this")
   private int mStateUpdatesFromChangeSetCount;
 
@@ -410,8 +418,14 @@ public class SectionTree {
 
       mNextSection = copy(section, false);
       isFirstSetRoot = mCurrentSection == null;
+      maybeCancelInFlightCalculation();
     }
 
+    final boolean calculateInBackground =
+        !isFirstSetRoot
+            && (mAsyncPropUpdates
+                || (SectionsConfiguration.enableBackgroundDiffing && isMainThread()));
+
     final @Nullable Integer traceId =
         DebugEventDispatcher.generateTraceIdentifier(DebugEvents.SET_ROOT);
     if (traceId != null) {
@@ -422,13 +436,13 @@ public class SectionTree {
           attributes -> {
             attributes.put(Id, hashCode());
             attributes.put(Name, (section != null ? section.getSimpleName() : "null"));
-            attributes.put(Async, mAsyncPropUpdates && !isFirstSetRoot);
+            attributes.put(Async, calculateInBackground);
             return Unit.INSTANCE;
           });
     }
 
     try {
-      if (mAsyncPropUpdates && !isFirstSetRoot) {
+      if (calculateInBackground) {
         final ChangesetDebugInfo changesetDebugInfo =
             mChangesetDebug == null
                 ? null
@@ -477,6 +491,7 @@ public class SectionTree {
       }
 
       mNextSection = copy(section, false);
+      maybeCancelInFlightCalculation();
     }
 
     final ChangesetDebugInfo changesetDebugInfo =
@@ -1117,6 +1132,18 @@ public class SectionTree {
     }
   }
 
+  /**
+   * Cancels the changeset calculation in flight, whose result is going to be discarded since a new
+   * root was set. The calculation of the new root is already posted, or run by the caller.
+   */
+  @GuardedBy("this")
+  private void maybeCancelInFlightCalculation() {
+    if (SectionsConfiguration.enableBackgroundDiffing && mInFlightCalculationState != null) {
+      mInFlightCalculationState.cancel();
+      mInFlightCalculationState = null;
+    }
+  }
+
   private void applyNewChangeSet(
       @ApplyNewChangeSet int source,
       @Nullable String attribution,
@@ -1200,16 +1227,26 @@ public class SectionTree {
         }
         final SectionContext contextForCalculation =
             SectionContext.forNewChangeSetCalculation(mContext);
-        final ChangeSetState changeSetState =
-            calculateNewChangeSet(
-                contextForCalculation,
-                currentRoot,
-                nextRoot,
-                pendingStateUpdates.mAllStateUpdates,
-                mSectionsDebugLogger,
-                mTag);
-        if (isTracing) {
-          ComponentsSystrace.endSection();
+        synchronized (this) {
+          mInFlightCalculationState = contextForCalculation.getChangeSetCalculationState();
+        }
+        @Nullable ChangeSetState changeSetState;
+        try {
+          changeSetState =
+              calculateNewChangeSet(
+                  contextForCalculation,
+                  currentRoot,
+                  nextRoot,
+                  pendingStateUpdates.mAllStateUpdates,
+                  mSectionsDebugLogger,
+                  mTag);
+        } catch (CancellationException e) {
+          // A newer root superseded this calculation, the loop below moves on to the newer root.
+          changeSetState = null;
+        } finally {
+          if (isTracing) {
+            ComponentsSystrace.endSection();
+          }
         }
 
         final boolean changeSetIsValid;
@@ -1227,7 +1264,11 @@ public class SectionTree {
           boolean nextIsSame = (mNextSection != null && nextRoot.getId() == mNextSection.getId());
 
           changeSetIsValid =
-              currentIsSame && nextIsSame && isStateUpdateCompleted(pendingStateUpdates);
+              changeSetState != null
+                  && currentIsSame
+                  && nextIsSame
+                  && isStateUpdateCompleted(pendingStateUpdates);
+          mInFlightCalculationState = null;
 
           if (changeSetIsValid) {
             oldRoot = mCurrentSection;
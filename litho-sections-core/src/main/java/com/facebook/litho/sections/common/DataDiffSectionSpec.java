@@ -34,11 +34,13 @@ import com.facebook.litho.annotations.Prop;
 import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.config.LithoDebugConfigurations;
 import com.facebook.litho.sections.ChangeSet;
+import com.facebook.litho.sections.ChangeSetCalculationState;
 import com.facebook.litho.sections.Section;
 import com.facebook.litho.sections.SectionContext;
 import com.facebook.litho.sections.annotations.DiffSectionSpec;
 import com.facebook.litho.sections.annotations.OnDiff;
 import com.facebook.litho.sections.annotations.OnVerifyChangeSet;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.sections.logger.SectionsDebugEventLogger;
 import com.facebook.litho.widget.ComponentRenderInfo;
 import com.facebook.litho.widget.RecyclerBinderUpdateCallback;
@@ -46,6 +48,9 @@ import com.facebook.litho.widget.RecyclerBinderUpdateCallback.ComponentContainer
 import com.facebook.litho.widget.RecyclerBinderUpdateCallback.Operation;
 import com.facebook.litho.widget.RenderInfo;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -75,6 +80,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * If {@link OnCheckIsSameItemEvent} is not implemented, new {@code List<? extends T> data} is
  * considered to be completely different and relayout will happen on every data update.
  *
+ * <p>{@link GetUniqueIdentifierEvent} can optionally be handled to return an identifier which is
+ * unique to each model in the list. When it is, items are matched through a hash map of their
+ * identifiers instead of {@link OnCheckIsSameItemEvent}, so diffing and duplicates detection of
+ * large lists no longer degrade quadratically with the number of changes. The resulting {@link
+ * ChangeSet} produces the same list. Items with a null identifier have no identity, and are matched
+ * and checked for duplicates through {@link OnCheckIsSameItemEvent} instead. If the identifiers
+ * turn out not to be unique, diffing falls back to {@link DiffUtil}.
+ *
  * <p>Example usage:
  *
  * <pre>{@code
@@ -112,7 +125,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 @Nullsafe(Nullsafe.Mode.LOCAL)
 @DiffSectionSpec(
-    events = {OnCheckIsSameContentEvent.class, OnCheckIsSameItemEvent.class, RenderEvent.class})
+    events = {
+      OnCheckIsSameContentEvent.class,
+      OnCheckIsSameItemEvent.class,
+      RenderEvent.class,
+      GetUniqueIdentifierEvent.class
+    })
 public class DataDiffSectionSpec<T> {
 
   public static final String DUPLICATES_EXIST_MSG =
@@ -130,8 +148,11 @@ public class DataDiffSectionSpec<T> {
       @Prop(optional = true) @Nullable Diff<Boolean> detectMoves,
       @Prop(optional = true) @Nullable Diff<Boolean> alwaysDetectDuplicates) {
 
-    final List<? extends T> previousData = data.getPrevious();
-    final List<? extends T> nextData = data.getNext();
+    final boolean useSnapshots = SectionsConfiguration.enableBackgroundDiffing;
+    final List<? extends T> previousData =
+        useSnapshots ? snapshot(data.getPrevious()) : data.getPrevious();
+    final List<? extends T> nextData = useSnapshots ? snapshot(data.getNext()) : data.getNext();
+    final @Nullable ChangeSetCalculationState calculationState = c.getChangeSetCalculationState();
     final ComponentRenderer componentRenderer =
         // NULLSAFE_FIXME[Parameter Not Nullable]
         new ComponentRenderer<T>(DataDiffSection.<T>getRenderEventHandler(c), c);
@@ -140,24 +161,58 @@ public class DataDiffSectionSpec<T> {
     final RecyclerBinderUpdateCallback<T> updatesCallback;
     final boolean isTracing = ComponentsSystrace.isTracing();
 
-    final Callback<T> callback = new Callback<>(c, data.getPrevious(), data.getNext());
+    final Callback<T> callback = new Callback<>(c, previousData, nextData);
+    final boolean shouldDetectDuplicates =
+        nextData != null && isDetectDuplicatesEnabled(alwaysDetectDuplicates);
+    final EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler =
+        DataDiffSection.getGetUniqueIdentifierEventHandler(c);
 
-    if (nextData != null && isDetectDuplicatesEnabled(alwaysDetectDuplicates)) {
+    @Nullable UniqueIdentifierDiff uniqueIdentifierDiff = null;
+    if (getUniqueIdentifierEventHandler != null) {
+      if (isTracing) {
+        ComponentsSystrace.beginSection("UniqueIdentifierDiff.calculateDiff");
+      }
+      final List<Object> previousIds =
+          getUniqueIdentifiers(getUniqueIdentifierEventHandler, previousData);
+      final List<Object> nextIds = getUniqueIdentifiers(getUniqueIdentifierEventHandler, nextData);
+      if (shouldDetectDuplicates) {
+        // NULLSAFE_FIXME[Parameter Not Nullable]
+        detectDuplicatesByIdentifier(nextData, nextIds, callback, changeSet.getSectionName());
+      }
+      uniqueIdentifierDiff =
+          UniqueIdentifierDiff.calculateDiff(
+              previousIds, nextIds, callback, isDetectMovesEnabled(detectMoves));
+      if (isTracing) {
+        ComponentsSystrace.endSection();
+      }
+    } else if (shouldDetectDuplicates) {
+      // NULLSAFE_FIXME[Parameter Not Nullable]
       detectDuplicates(nextData, callback, changeSet.getSectionName());
     }
-    if (isTracing) {
-      ComponentsSystrace.beginSection("DiffUtil.calculateDiff");
-    }
-    final DiffUtil.DiffResult result =
-        DiffUtil.calculateDiff(callback, isDetectMovesEnabled(detectMoves));
-    if (isTracing) {
-      ComponentsSystrace.endSection();
-    }
 
     updatesCallback =
         new RecyclerBinderUpdateCallback<>(
             previousData, nextData, componentRenderer, operationExecutor);
-    result.dispatchUpdatesTo(updatesCallback);
+
+    if (uniqueIdentifierDiff != null) {
+      throwIfCancelled(calculationState);
+      uniqueIdentifierDiff.dispatchUpdatesTo(updatesCallback);
+    } else {
+      if (isTracing) {
+        ComponentsSystrace.beginSection("DiffUtil.calculateDiff");
+      }
+      final DiffUtil.DiffResult result;
+      try {
+        result = DiffUtil.calculateDiff(callback, isDetectMovesEnabled(detectMoves));
+      } finally {
+        if (isTracing) {
+          ComponentsSystrace.endSection();
+        }
+      }
+      // Rendering the changed items is the most expensive part, don't start it for a stale diff.
+      throwIfCancelled(calculationState);
+      result.dispatchUpdatesTo(updatesCallback);
+    }
 
     updatesCallback.applyChangeset(c);
   }
@@ -170,11 +225,113 @@ public class DataDiffSectionSpec<T> {
       final Callback<T> callback = new Callback<>(context, null, nextData);
       final String section =
           context.getSectionScope() != null ? context.getSectionScope().getSimpleName() : "null";
+      final EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler =
+          DataDiffSection.getGetUniqueIdentifierEventHandler(context);
+      if (getUniqueIdentifierEventHandler != null) {
+        return detectDuplicatesByIdentifier(
+            nextData,
+            getUniqueIdentifiers(getUniqueIdentifierEventHandler, nextData),
+            callback,
+            section);
+      }
       return detectDuplicates(nextData, callback, section);
     }
     return null;
   }
 
+  /**
+   * @return an immutable copy of the given list, so that the diff and the changes it generates are
+   *     not affected by mutations of the list the section was created with.
+   */
+  @Nullable
+  private static <T> List<? extends T> snapshot(@Nullable List<? extends T> data) {
+    if (data == null) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    final T[] items = (T[]) data.toArray();
+    return Collections.unmodifiableList(Arrays.asList(items));
+  }
+
+  private static void throwIfCancelled(@Nullable ChangeSetCalculationState calculationState) {
+    if (calculationState != null && SectionsConfiguration.enableBackgroundDiffing) {
+      calculationState.throwIfCancelled();
+    }
+  }
+
+  private static List<Object> getUniqueIdentifiers(
+      EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler,
+      @Nullable List<?> data) {
+    if (data == null) {
+      return new ArrayList<>(0);
+    }
+    final int size = data.size();
+    final List<Object> ids = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ids.add(
+          DataDiffSection.dispatchGetUniqueIdentifierEvent(
+              getUniqueIdentifierEventHandler, data.get(i)));
+    }
+    return ids;
+  }
+
+  /**
+   * Same as {@link #detectDuplicates(List, Callback, String)}, but in linear time by looking for
+   * items with the same unique identifier. Items with a null identifier have no identity, and are
+   * compared to every other item through the callback instead.
+   */
+  @Nullable
+  public static <T> String detectDuplicatesByIdentifier(
+      List<? extends T> data,
+      List<?> ids,
+      Callback<T> callback,
+      final @Nullable String section) {
+    final int size = ids.size();
+    final HashMap<Object, Integer> positions = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      final Object id = ids.get(i);
+      if (id == null) {
+        final String duplicates = detectDuplicatesOfItem(data, ids, i, callback, section);
+        if (duplicates != null) {
+          return duplicates;
+        }
+        continue;
+      }
+      final Integer previousPosition = positions.put(id, i);
+      if (previousPosition != null) {
+        return reportDuplicates(
+            data, data.get(previousPosition), data.get(i), previousPosition, i, section);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compares the item without identifier at the given position to the items after it, and to the
+   * items with an identifier before it (the ones without were already compared to it).
+   */
+  @Nullable
+  private static <T> String detectDuplicatesOfItem(
+      List<? extends T> data,
+      List<?> ids,
+      int position,
+      Callback<T> callback,
+      final @Nullable String section) {
+    final T item = data.get(position);
+    for (int i = 0, size = data.size(); i < size; i++) {
+      if (i == position || (i < position && ids.get(i) == null)) {
+        continue;
+      }
+      final T other = data.get(i);
+      if (callback.areItemsTheSame(item, other)) {
+        return i < position
+            ? reportDuplicates(data, other, item, i, position, section)
+            : reportDuplicates(data, item, other, position, i, section);
+      }
+    }
+    return null;
+  }
+
   @Nullable
   public static <T> String detectDuplicates(
       List<? extends T> data, Callback<T> callback, final @Nullable String section) {
@@ -187,47 +344,57 @@ public class DataDiffSectionSpec<T> {
         final int nextIndex = nextIdx;
         T other = jt.next();
         if (callback.areItemsTheSame(item, other)) {
-          final String itemDesc = item != null ? item.toString() : "null";
-          final String otherItemDesc = other != null ? other.toString() : "null";
-          final String itemType =
-              "<cls>" + (item != null ? item.getClass().getName() : "null") + "</cls>";
-          final String otherItemType =
-              "<cls>" + (other != null ? other.getClass().getName() : "null") + "</cls>";
-
-          SectionsDebugEventLogger.log(
-              "DuplicateItemsInSection",
-              attributes -> {
-                attributes.put("section", section);
-                attributes.put("size", data.size());
-                attributes.put("item", itemDesc);
-                attributes.put("item-type", itemType);
-                attributes.put("other-item", otherItemDesc);
-                attributes.put("other-item-type", otherItemType);
-                attributes.put("index", currentIndex);
-                attributes.put("next-index", nextIndex);
-                return null;
-              });
-
-          /* we don't need to know how many, just that there is at least one duplicate */
-          return "Duplicates are [type:"
-              + itemType
-              + " hash:"
-              + System.identityHashCode(item)
-              + " position:"
-              + idx
-              + "] and [type:"
-              + otherItemType
-              + " hash:"
-              + System.identityHashCode(other)
-              + " position:"
-              + nextIdx
-              + "]";
+          return reportDuplicates(data, item, other, currentIndex, nextIndex, section);
         }
       }
     }
     return null;
   }
 
+  private static <T> String reportDuplicates(
+      final List<? extends T> data,
+      final @Nullable T item,
+      final @Nullable T other,
+      final int currentIndex,
+      final int nextIndex,
+      final @Nullable String section) {
+    final String itemDesc = item != null ? item.toString() : "null";
+    final String otherItemDesc = other != null ? other.toString() : "null";
+    final String itemType =
+        "<cls>" + (item != null ? item.getClass().getName() : "null") + "</cls>";
+    final String otherItemType =
+        "<cls>" + (other != null ? other.getClass().getName() : "null") + "</cls>";
+
+    SectionsDebugEventLogger.log(
+        "DuplicateItemsInSection",
+        attributes -> {
+          attributes.put("section", section);
+          attributes.put("size", data.size());
+          attributes.put("item", itemDesc);
+          attributes.put("item-type", itemType);
+          attributes.put("other-item", otherItemDesc);
+          attributes.put("other-item-type", otherItemType);
+          attributes.put("index", currentIndex);
+          attributes.put("next-index", nextIndex);
+          return null;
+        });
+
+    /* we don't need to know how many, just that there is at least one duplicate */
+    return "Duplicates are [type:"
+        + itemType
+        + " hash:"
+        + System.identityHashCode(item)
+        + " position:"
+        + currentIndex
+        + "] and [type:"
+        + otherItemType
+        + " hash:"
+        + System.identityHashCode(other)
+        + " position:"
+        + nextIndex
+        + "]";
+  }
+
   /**
    * @return true if detect moves should be enabled when performing the Diff. Detect moves is
    *     enabled by default
@@ -404,6 +571,7 @@ public class DataDiffSectionSpec<T> {
     private final @Nullable List<? extends T> mPreviousData;
     private final @Nullable List<? extends T> mNextData;
     private final SectionContext mSectionContext;
+    private final @Nullable ChangeSetCalculationState mCalculationState;
     @Nullable private final EventHandler<OnCheckIsSameItemEvent<T>> mIsSameItemEventHandler;
     @Nullable private final EventHandler<OnCheckIsSameContentEvent<T>> mIsSameContentEventHandler;
 
@@ -423,6 +591,10 @@ public class DataDiffSectionSpec<T> {
 
       mPreviousData = previousData;
       mNextData = nextData;
+      mCalculationState =
+          SectionsConfiguration.enableBackgroundDiffing
+              ? sectionContext.getChangeSetCalculationState()
+              : null;
 
       mIsSameItemEventStates =
           new ThreadLocal<OnCheckIsSameItemEvent>() {
@@ -453,6 +625,10 @@ public class DataDiffSectionSpec<T> {
       if (mPreviousData == null || mNextData == null) {
         return false;
       }
+      if (mCalculationState != null) {
+        // Bails out of DiffUtil as soon as a newer root supersedes this diff.
+        mCalculationState.throwIfCancelled();
+      }
       final T previous = mPreviousData.get(oldItemPosition);
       final T next = mNextData.get(newItemPosition);
 
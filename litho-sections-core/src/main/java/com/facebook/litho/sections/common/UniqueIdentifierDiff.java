@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.sections.common;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import com.facebook.infer.annotation.Nullsafe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A diff between two lists whose items can be matched by a unique identifier (see {@link
+ * GetUniqueIdentifierEvent}), used by {@link DataDiffSectionSpec} in place of {@link DiffUtil}.
+ *
+ * <p>Items are matched through a hash map of identifiers (Heckel's algorithm) instead of Myers'
+ * O(N + D^2) search, so diffing large lists with many changes stays cheap. Items that need to move
+ * are the ones outside of the longest run of matched items which kept their relative order, which
+ * keeps the number of moves minimal. The whole diff is O(N log N) in the number of items.
+ *
+ * <p>Updates are dispatched through the same {@link ListUpdateCallback} API as a {@link
+ * DiffUtil.DiffResult}: removals first, then inserts and moves in the order of the new list, then
+ * changes.
+ */
+@Nullsafe(Nullsafe.Mode.LOCAL)
+@VisibleForTesting
+final class UniqueIdentifierDiff {
+
+  private static final int NO_POSITION = -1;
+
+  private final int[] mOldToNew;
+  private final int[] mNewToOld;
+  private final boolean[] mIsStable;
+  private final boolean[] mIsChanged;
+
+  private UniqueIdentifierDiff(
+      int[] oldToNew, int[] newToOld, boolean[] isStable, boolean[] isChanged) {
+    mOldToNew = oldToNew;
+    mNewToOld = newToOld;
+    mIsStable = isStable;
+    mIsChanged = isChanged;
+  }
+
+  /**
+   * Calculates the diff between the lists described by the given identifiers. Contents of matched
+   * items are compared through {@link DiffUtil.Callback#areContentsTheSame(int, int)}.
+   *
+   * <p>Items with a null identifier have no identity: each of them is matched to the first
+   * unmatched old item without identifier for which {@link DiffUtil.Callback#areItemsTheSame(int,
+   * int)} returns true.
+   *
+   * @return the diff, or null if either list has a duplicated identifier, in which case the caller
+   *     should fall back to {@link DiffUtil}.
+   */
+  @Nullable
+  static UniqueIdentifierDiff calculateDiff(
+      List<?> oldIds, List<?> newIds, DiffUtil.Callback callback, boolean detectMoves) {
+    final int oldSize = oldIds.size();
+    final int newSize = newIds.size();
+
+    final HashMap<Object, Integer> oldPositions = new HashMap<>(oldSize * 2);
+    final List<Integer> oldPositionsWithoutId = new ArrayList<>();
+    for (int i = 0; i < oldSize; i++) {
+      final Object id = oldIds.get(i);
+      if (id == null) {
+        oldPositionsWithoutId.add(i);
+      } else if (oldPositions.put(id, i) != null) {
+        return null;
+      }
+    }
+
+    final int[] oldToNew = new int[oldSize];
+    final int[] newToOld = new int[newSize];
+    Arrays.fill(oldToNew, NO_POSITION);
+    final HashSet<Object> newIdsSeen = new HashSet<>(newSize * 2);
+    for (int i = 0; i < newSize; i++) {
+      final Object id = newIds.get(i);
+      if (id == null) {
+        final int oldPosition = findSameItemWithoutId(oldPositionsWithoutId, oldToNew, i, callback);
+        newToOld[i] = oldPosition;
+        if (oldPosition != NO_POSITION) {
+          oldToNew[oldPosition] = i;
+        }
+        continue;
+      }
+      if (!newIdsSeen.add(id)) {
+        return null;
+      }
+      final Integer oldPosition = oldPositions.get(id);
+      if (oldPosition == null) {
+        newToOld[i] = NO_POSITION;
+      } else {
+        newToOld[i] = oldPosition;
+        oldToNew[oldPosition] = i;
+      }
+    }
+
+    final boolean[] isStable = findStableItems(newToOld);
+    if (!detectMoves) {
+      // Without moves, an item which changed its relative order is removed and inserted again.
+      for (int i = 0; i < newSize; i++) {
+        if (newToOld[i] != NO_POSITION && !isStable[i]) {
+          oldToNew[newToOld[i]] = NO_POSITION;
+          newToOld[i] = NO_POSITION;
+        }
+      }
+    }
+
+    final boolean[] isChanged = new boolean[newSize];
+    for (int i = 0; i < newSize; i++) {
+      if (newToOld[i] != NO_POSITION) {
+        isChanged[i] = !callback.areContentsTheSame(newToOld[i], i);
+      }
+    }
+
+    return new UniqueIdentifierDiff(oldToNew, newToOld, isStable, isChanged);
+  }
+
+  private static int findSameItemWithoutId(
+      List<Integer> oldPositionsWithoutId,
+      int[] oldToNew,
+      int newPosition,
+      DiffUtil.Callback callback) {
+    for (int i = 0, size = oldPositionsWithoutId.size(); i < size; i++) {
+      final int oldPosition = oldPositionsWithoutId.get(i);
+      if (oldToNew[oldPosition] == NO_POSITION
+          && callback.areItemsTheSame(oldPosition, newPosition)) {
+        return oldPosition;
+      }
+    }
+    return NO_POSITION;
+  }
+
+  /**
+   * Marks the matched items of the new list which form the longest subsequence with increasing old
+   * positions. Those items don't need to move.
+   */
+  private static boolean[] findStableItems(int[] newToOld) {
+    final int newSize = newToOld.length;
+    final int[] tails = new int[newSize];
+    final int[] predecessors = new int[newSize];
+    int length = 0;
+    for (int i = 0; i < newSize; i++) {
+      final int oldPosition = newToOld[i];
+      if (oldPosition == NO_POSITION) {
+        continue;
+      }
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (newToOld[tails[mid]] < oldPosition) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      predecessors[i] = low > 0 ? tails[low - 1] : NO_POSITION;
+      tails[low] = i;
+      if (low == length) {
+        length++;
+      }
+    }
+
+    final boolean[] isStable = new boolean[newSize];
+    for (int i = length > 0 ? tails[length - 1] : NO_POSITION;
+        i != NO_POSITION;
+        i = predecessors[i]) {
+      isStable[i] = true;
+    }
+    return isStable;
+  }
+
+  void dispatchUpdatesTo(ListUpdateCallback updateCallback) {
+    final BatchingListUpdateCallback batchingCallback =
+        updateCallback instanceof BatchingListUpdateCallback
+            ? (BatchingListUpdateCallback) updateCallback
+            : new BatchingListUpdateCallback(updateCallback);
+
+    final int oldSize = mOldToNew.length;
+    final int newSize = mNewToOld.length;
+
+    // Removals go from the end so that the positions of the items before are not affected.
+    for (int i = oldSize - 1; i >= 0; i--) {
+      if (mOldToNew[i] == NO_POSITION) {
+        batchingCallback.onRemoved(i, 1);
+      }
+    }
+
+    // The remaining old items are indexed by their relative order so their current position can be
+    // derived from how many stable and not yet moved items precede them.
+    final int[] survivorIndex = new int[oldSize];
+    int survivorCount = 0;
+    int stableCount = 0;
+    for (int i = 0; i < oldSize; i++) {
+      if (mOldToNew[i] != NO_POSITION) {
+        survivorIndex[i] = survivorCount++;
+        if (mIsStable[mOldToNew[i]]) {
+          stableCount++;
+        }
+      }
+    }
+
+    // Ranks of stable items are 1-based: rank r is the r-th stable item in both lists.
+    final int[] stableSurvivorIndexByRank = new int[stableCount + 1];
+    final int[] stableNewPositionByRank = new int[stableCount + 1];
+    final int[] stableBefore = new int[survivorCount];
+    final PendingItems pending = new PendingItems(survivorCount);
+    int rank = 0;
+    for (int i = 0; i < oldSize; i++) {
+      final int newPosition = mOldToNew[i];
+      if (newPosition == NO_POSITION) {
+        continue;
+      }
+      final int index = survivorIndex[i];
+      stableBefore[index] = rank;
+      if (mIsStable[newPosition]) {
+        rank++;
+        stableSurvivorIndexByRank[rank] = index;
+        stableNewPositionByRank[rank] = newPosition;
+      } else {
+        pending.add(index, 1);
+      }
+    }
+
+    // Invariant: the items of the new list before position i are in place, and every other item
+    // is either stable, or a pending item still sitting after the stable items preceding it in the
+    // old list.
+    int placedStableCount = 0;
+    for (int i = 0; i < newSize; i++) {
+      final int oldPosition = mNewToOld[i];
+      if (oldPosition != NO_POSITION && mIsStable[i]) {
+        placedStableCount++;
+        continue;
+      }
+
+      final int target =
+          i
+              + (placedStableCount == 0
+                  ? 0
+                  : pending.countBefore(stableSurvivorIndexByRank[placedStableCount]));
+      if (oldPosition == NO_POSITION) {
+        batchingCallback.onInserted(target, 1);
+        continue;
+      }
+
+      final int index = survivorIndex[oldPosition];
+      final int stableBeforeItem = stableBefore[index];
+      final int placedBefore =
+          stableBeforeItem >= placedStableCount
+              ? i + stableBeforeItem - placedStableCount
+              : stableNewPositionByRank[stableBeforeItem + 1];
+      final int from = placedBefore + pending.countBefore(index);
+      final int to = from < target ? target - 1 : target;
+      if (from != to) {
+        batchingCallback.onMoved(from, to);
+      }
+      pending.add(index, -1);
+    }
+
+    for (int i = 0; i < newSize; i++) {
+      if (mIsChanged[i]) {
+        batchingCallback.onChanged(i, 1, null);
+      }
+    }
+
+    batchingCallback.dispatchLastEvent();
+  }
+
+  /** A Fenwick tree counting the old items which still have to be moved to their new position. */
+  private static final class PendingItems {
+
+    private final int[] mTree;
+
+    PendingItems(int size) {
+      mTree = new int[size + 1];
+    }
+
+    void add(int index, int delta) {
+      for (int i = index + 1; i < mTree.length; i += i & -i) {
+        mTree[i] += delta;
+      }
+    }
+
+    /** @return the number of pending items with an index lower than the given one. */
+    int countBefore(int index) {
+      int count = 0;
+      for (int i = index; i > 0; i -= i & -i) {
+        count += mTree[i];
+      }
+      return count;
+    }
+  }
+}
@@ -29,4 +29,30 @@ public class SectionsConfiguration {
   public static boolean useBackgroundChangeSets = false;
 
   public static boolean deepCopySectionChildren = false;
+
+  /**
+   * Whether the change sets are calculated off the main thread once the tree has content. When
+   * enabled {@link com.facebook.litho.sections.SectionTree#setRoot} called on the main thread
+   * behaves like {@link com.facebook.litho.sections.SectionTree#setRootAsync}, except for the first
+   * root which is still calculated synchronously so that the first render isn't empty. A newer root
+   * cancels the calculation of the change set in flight instead of waiting for it, and
+   * DataDiffSection diffs immutable snapshots of its data.
+   */
+  public static boolean enableBackgroundDiffing = false;
+
+  /**
+   * Whether the change sets of sibling child sections are generated concurrently on a bounded
+   * pool. The change sets are still merged in the order of the children, so the resulting {@link
+   * com.facebook.litho.sections.ChangeSet} is the same as the one generated sequentially. The
+   * event handlers created while generating the change sets and the calls to the {@link
+   * com.facebook.litho.sections.logger.SectionsDebugLogger} are synchronized by the framework.
+   */
+  public static boolean enableParallelChildChangeSets = false;
+
+  /**
+   * The number of threads used to generate child change sets in parallel. Only read when the pool
+   * is first used.
+   */
+  public static int parallelChildChangeSetsPoolSize =
+      Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
 }
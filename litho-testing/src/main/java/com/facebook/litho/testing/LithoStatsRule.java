@@ -139,6 +139,58 @@ public class LithoStatsRule implements TestRule {
     return LithoStats.getLayoutCount();
   }
 
+  /**
+   * @return the number of component keys currently held by the render unit id generators of all
+   *     live trees in the process.
+   */
+  public long getRenderUnitIdCount() {
+    return LithoStats.getRenderUnitIdCount();
+  }
+
+  /**
+   * @return the global count of all component keys dropped by render unit id generators.
+   */
+  public long getEvictedRenderUnitIdCount() {
+    return LithoStats.getEvictedRenderUnitIdCount();
+  }
+
+  /** @return the global count of all measurements reused from the shared measure cache. */
+  public long getSharedMeasureCacheHitCount() {
+    return LithoStats.getSharedMeasureCacheHitCount();
+  }
+
+  /** @return the global count of all lookups in the shared measure cache which missed. */
+  public long getSharedMeasureCacheMissCount() {
+    return LithoStats.getSharedMeasureCacheMissCount();
+  }
+
+  /** @return the global count of all measurements dropped from the shared measure cache. */
+  public long getSharedMeasureCacheEvictionCount() {
+    return LithoStats.getSharedMeasureCacheEvictionCount();
+  }
+
+  /** @return the global count of all Yoga style props applied through batched style writes. */
+  public long getBatchedYogaStyleInputCount() {
+    return LithoStats.getBatchedYogaStyleInputCount();
+  }
+
+  /** @return the global count of all native calls made to apply batched Yoga style writes. */
+  public long getBatchedYogaStyleApplyCount() {
+    return LithoStats.getBatchedYogaStyleApplyCount();
+  }
+
+  /**
+   * @return the global count of all async state updates merged into an already scheduled batch.
+   */
+  public long getCoalescedStateUpdateCount() {
+    return LithoStats.getCoalescedStateUpdateCount();
+  }
+
+  /** @return the global count of all resolves executed for a batch of async state updates. */
+  public long getBatchedStateUpdateResolveCount() {
+    return LithoStats.getBatchedStateUpdateResolveCount();
+  }
+
   /** Resets all the counter. */
   public synchronized void resetAllCounters() {
     LithoStats.resetAllCounters();
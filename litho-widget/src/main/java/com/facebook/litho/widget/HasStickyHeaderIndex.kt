@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget
+
+/**
+ * A [HasStickyHeader] which keeps the positions of its sticky items sorted, so that the sticky
+ * header controller can find the closest sticky item to a position without calling [isSticky] on
+ * every position in between.
+ */
+interface HasStickyHeaderIndex : HasStickyHeader {
+  /**
+   * @param position
+   * @return the position of the last sticky item at or before the given position, or
+   *   [androidx.recyclerview.widget.RecyclerView.NO_POSITION] if there is none.
+   */
+  fun findStickyPositionAtOrBefore(position: Int): Int
+
+  /**
+   * @param position
+   * @return the position of the first sticky item at or after the given position, or
+   *   [androidx.recyclerview.widget.RecyclerView.NO_POSITION] if there is none.
+   */
+  fun findStickyPositionAtOrAfter(position: Int): Int
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget
+
+import java.util.BitSet
+import javax.annotation.concurrent.NotThreadSafe
+
+/**
+ * Remembers the last range of items computed by a [RecyclerBinder], so that a new range can be
+ * computed by only processing the items that entered or left the range rather than every item of
+ * the adapter.
+ *
+ * Items outside of the range that may still hold a tree (sticky items, items whose release was
+ * deferred or prevented, and items laid out outside of a traversal when they are bound or
+ * prefetched by the RecyclerView) are tracked separately as retained positions, and are revisited
+ * on every incremental computation until they have been released.
+ *
+ * Any change to the list of items, their [RenderInfo]s or the size specs of the [RecyclerBinder]
+ * must [invalidate] the tracker, so that the next range is computed by visiting every item.
+ *
+ * Every range computation gets a new generation. A traversal must stop as soon as its generation
+ * is no longer the current one, and the tracker only allows incremental computations once the
+ * traversal of the current generation is complete, so that a full traversal on a background thread
+ * and an incremental one on the main thread never interleave their retained positions.
+ */
+@NotThreadSafe
+internal class IncrementalRangeTracker {
+
+  private var isValid = false
+  private var isInvalidatedDuringTraversal = false
+  private var generation = 0
+  private var treeHoldersSize = 0
+  private val retainedPositions = BitSet()
+
+  /** Start of the last computed range, inclusive and clamped to the items of the adapter. */
+  var rangeStart: Int = 0
+    private set
+
+  /** End of the last computed range, inclusive and clamped to the items of the adapter. */
+  var rangeEnd: Int = -1
+    private set
+
+  /** Forces the next range computation to visit every item. */
+  fun invalidate() {
+    isValid = false
+    isInvalidatedDuringTraversal = true
+  }
+
+  /**
+   * @return whether the range can be computed from the previous one for the given number of items.
+   */
+  fun canComputeIncrementally(treeHoldersSize: Int): Boolean =
+      isValid && this.treeHoldersSize == treeHoldersSize
+
+  /**
+   * Records a range that will be computed by visiting every item.
+   *
+   * @return the generation of the traversal.
+   */
+  fun onFullRangeComputed(treeHoldersSize: Int, rangeStart: Int, rangeEnd: Int): Int {
+    retainedPositions.clear()
+    updateRange(treeHoldersSize, rangeStart, rangeEnd)
+    return startTraversal()
+  }
+
+  /**
+   * Records a range that will be computed from the previous one.
+   *
+   * @return the generation of the traversal.
+   */
+  fun onIncrementalRangeComputed(rangeStart: Int, rangeEnd: Int): Int {
+    updateRange(treeHoldersSize, rangeStart, rangeEnd)
+    return startTraversal()
+  }
+
+  /** @return whether no range computation was started after the one of the given generation. */
+  fun isCurrent(generation: Int): Boolean = this.generation == generation
+
+  /**
+   * Records that the traversal of the given generation visited every item it had to, which allows
+   * the next range to be computed incrementally unless the tracker was invalidated meanwhile.
+   */
+  fun onTraversalCompleted(generation: Int) {
+    if (isCurrent(generation) && !isInvalidatedDuringTraversal) {
+      isValid = true
+    }
+  }
+
+  /**
+   * Marks a position outside of the range as still holding (or about to hold) a tree, so it is
+   * processed again by the next incremental computation.
+   */
+  fun retain(position: Int) {
+    retainedPositions.set(position)
+  }
+
+  private fun startTraversal(): Int {
+    isValid = false
+    isInvalidatedDuringTraversal = false
+    return ++generation
+  }
+
+  /**
+   * Returns and clears the retained positions. Processing them will retain them again if they
+   * still hold a tree.
+   */
+  fun takeRetainedPositions(): IntArray {
+    if (retainedPositions.isEmpty) {
+      return EMPTY_POSITIONS
+    }
+    val positions = IntArray(retainedPositions.cardinality())
+    var position = retainedPositions.nextSetBit(0)
+    for (i in positions.indices) {
+      positions[i] = position
+      position = retainedPositions.nextSetBit(position + 1)
+    }
+    retainedPositions.clear()
+    return positions
+  }
+
+  private fun updateRange(treeHoldersSize: Int, rangeStart: Int, rangeEnd: Int) {
+    this.treeHoldersSize = treeHoldersSize
+    this.rangeStart = clampStart(rangeStart)
+    this.rangeEnd = clampEnd(rangeEnd)
+  }
+
+  fun clampStart(rangeStart: Int): Int = rangeStart.coerceIn(0, treeHoldersSize)
+
+  fun clampEnd(rangeEnd: Int): Int = rangeEnd.coerceIn(-1, treeHoldersSize - 1)
+
+  companion object {
+    private val EMPTY_POSITIONS = IntArray(0)
+
+    /**
+     * Runs [action] on every position of [[start], [end]] which is not in [[otherStart],
+     * [otherEnd]], until it returns false.
+     *
+     * @return false if [action] returned false.
+     */
+    inline fun forEachInDifference(
+        start: Int,
+        end: Int,
+        otherStart: Int,
+        otherEnd: Int,
+        action: (Int) -> Boolean
+    ): Boolean {
+      if (start > end) {
+        return true
+      }
+      if (otherStart > otherEnd || otherEnd < start || otherStart > end) {
+        for (position in start..end) {
+          if (!action(position)) {
+            return false
+          }
+        }
+        return true
+      }
+      for (position in start until otherStart) {
+        if (!action(position)) {
+          return false
+        }
+      }
+      for (position in otherEnd + 1..end) {
+        if (!action(position)) {
+          return false
+        }
+      }
+      return true
+    }
+  }
+}
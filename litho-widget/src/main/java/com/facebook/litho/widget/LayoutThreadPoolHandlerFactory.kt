@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget
+
+import com.facebook.litho.LayoutThreadPool
+import com.facebook.rendercore.RunnableHandler
+
+/**
+ * A [LayoutHandlerFactory] that gives every item of the [RecyclerBinder] its own serial handler on
+ * a shared [LayoutThreadPool], so that range layouts of different items can run in parallel.
+ */
+class LayoutThreadPoolHandlerFactory
+@JvmOverloads
+constructor(private val pool: LayoutThreadPool = LayoutThreadPool.sharedInstance) :
+    LayoutHandlerFactory {
+
+  override fun createLayoutCalculationHandler(renderInfo: RenderInfo): RunnableHandler =
+      pool.createHandler()
+
+  override fun shouldUpdateLayoutHandler(
+      previousRenderInfo: RenderInfo,
+      newRenderInfo: RenderInfo
+  ): Boolean = false
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget
+
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * A bounded LRU of the [ComponentTreeHolder]s of a [RecyclerBinder] which left the range, but whose
+ * tree is kept, with its last committed layout, instead of being released. When such an item comes
+ * back in range its tree can be mounted right away, and is only laid out again (asynchronously) if
+ * its [RenderInfo] or size specs changed in the meantime.
+ *
+ * Each holder is weighted by the number of mountable outputs of its committed layout, and the least
+ * recently cached holders are evicted once the total weight exceeds the [budget]. The cache never
+ * releases trees itself: evicted holders are returned to the caller, which must release them on the
+ * main thread.
+ */
+@ThreadSafe
+internal class OutOfRangeTreeCache(val budget: Int) {
+
+  private val weights = LinkedHashMap<ComponentTreeHolder, Int>()
+  private var size = 0
+
+  @get:Synchronized
+  val weight: Int
+    get() = size
+
+  @Synchronized fun contains(holder: ComponentTreeHolder): Boolean = weights.containsKey(holder)
+
+  /**
+   * Caches the tree of the given holder, if it fits in the budget.
+   *
+   * @return the holders whose trees should now be released: the evicted holders, or the given
+   *   holder itself if its tree is larger than the whole budget.
+   */
+  @Synchronized
+  fun put(holder: ComponentTreeHolder, weight: Int): List<ComponentTreeHolder> {
+    if (weights.containsKey(holder)) {
+      return emptyList()
+    }
+    val holderWeight = maxOf(weight, 1)
+    if (holderWeight > budget) {
+      return listOf(holder)
+    }
+    weights[holder] = holderWeight
+    size += holderWeight
+    return trimToSizeLocked(budget)
+  }
+
+  /** @return whether the holder was cached. */
+  @Synchronized
+  fun remove(holder: ComponentTreeHolder): Boolean {
+    val weight = weights.remove(holder) ?: return false
+    size -= weight
+    return true
+  }
+
+  /** @return the holders evicted to bring the total weight down to [maxSize]. */
+  @Synchronized
+  fun trimToSize(maxSize: Int): List<ComponentTreeHolder> = trimToSizeLocked(maxSize)
+
+  @Synchronized
+  fun clear() {
+    weights.clear()
+    size = 0
+  }
+
+  private fun trimToSizeLocked(maxSize: Int): List<ComponentTreeHolder> {
+    if (size <= maxSize) {
+      return emptyList()
+    }
+    val evicted = ArrayList<ComponentTreeHolder>()
+    val iterator = weights.entries.iterator()
+    while (size > maxSize && iterator.hasNext()) {
+      val entry = iterator.next()
+      size -= entry.value
+      evicted.add(entry.key)
+      iterator.remove()
+    }
+    return evicted
+  }
+}
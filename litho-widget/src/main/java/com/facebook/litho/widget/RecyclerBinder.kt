@@ -17,6 +17,7 @@
 package com.facebook.litho.widget
 
 import android.annotation.SuppressLint
+import android.content.ComponentCallbacks2
 import android.graphics.Rect
 import android.os.Handler
 import android.os.Looper
@@ -53,7 +54,9 @@ import com.facebook.litho.ComponentsReporter
 import com.facebook.litho.ComponentsSystrace
 import com.facebook.litho.ComponentsSystrace.isTracing
 import com.facebook.litho.EventHandler
+import com.facebook.litho.ExecutorLithoHandler
 import com.facebook.litho.FrameworkLogEvents
+import com.facebook.litho.LayoutThreadPool
 import com.facebook.litho.LithoStartupLogger
 import com.facebook.litho.LithoView
 import com.facebook.litho.LithoVisibilityEventsController
@@ -106,11 +109,14 @@ import kotlin.math.min
 @SuppressLint("NotifyDataSetChanged")
 @ThreadSafe
 class RecyclerBinder private constructor(builder: Builder) :
-    Binder<RecyclerView>, RenderInfoCollection, HasStickyHeader {
+    Binder<RecyclerView>, RenderInfoCollection, HasStickyHeaderIndex {
 
   @GuardedBy("this")
   private val _componentTreeHolders: MutableList<ComponentTreeHolder> = ArrayList()
 
+  /** The positions of the sticky items in [_componentTreeHolders]. */
+  @GuardedBy("this") private val stickyPositions = StickyPositionIndex()
+
   @GuardedBy("this")
   private val asyncComponentTreeHolders: MutableList<ComponentTreeHolder?> = ArrayList()
 
@@ -192,7 +198,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     }
     while (iterator.hasNext()) {
       val holder = iterator.next()
-      maybeAcquireStateAndReleaseTree(holder)
+      cacheOrReleaseOutOfRangeTree(holder)
     }
   }
 
@@ -288,6 +294,10 @@ class RecyclerBinder private constructor(builder: Builder) :
 
   @GuardedBy("this") private var highestRangeStartSinceDeletes = Int.MIN_VALUE
 
+  @GuardedBy("this") private val incrementalRangeTracker: IncrementalRangeTracker?
+
+  private val outOfRangeTreeCache: OutOfRangeTreeCache?
+
   private var stickyHeaderController: StickyHeaderController? = null
   private val stickyHeaderControllerFactory: StickyHeaderControllerFactory?
   private var reMeasureEventEventHandler: EventHandler<ReMeasureEvent>? = null
@@ -490,6 +500,16 @@ class RecyclerBinder private constructor(builder: Builder) :
       return this
     }
 
+    /**
+     * Runs the layouts of async inserts on the given [LayoutThreadPool]. Since every insert
+     * computes the layout of a different item, these layouts don't need to be ordered and can run
+     * in parallel on all the threads of the pool.
+     */
+    fun asyncInsertLayoutThreadPool(pool: LayoutThreadPool): Builder {
+      asyncInsertLayoutHandler = ExecutorLithoHandler(pool)
+      return this
+    }
+
     fun lithoVisibilityEventsController(
         lithoVisibilityEventsController: LithoVisibilityEventsController
     ): Builder {
@@ -556,6 +576,8 @@ class RecyclerBinder private constructor(builder: Builder) :
       return
     }
 
+    outOfRangeTreeCache?.clear()
+
     // Since ComponentTree#release() can only be called on main thread, release the trees
     // immediately if we're on main thread, or post a runnable on main thread.
     if (ThreadUtils.isMainThread) {
@@ -891,6 +913,8 @@ class RecyclerBinder private constructor(builder: Builder) :
       return
     }
     _componentTreeHolders.add(operation.position, operation.holder)
+    stickyPositions.insert(operation.position, renderInfo.isSticky)
+    invalidateIncrementalRange()
     operation.holder.isInserted = true
     internalAdapter.notifyItemInserted(operation.position)
     val shouldUpdate =
@@ -1042,7 +1066,11 @@ class RecyclerBinder private constructor(builder: Builder) :
       }
       toRelease = ArrayList(_componentTreeHolders)
       _componentTreeHolders.clear()
+      stickyPositions.clear()
+      outOfRangeTreeCache?.clear()
+      invalidateIncrementalRange()
       for (renderInfo in renderInfos) {
+        stickyPositions.insert(_componentTreeHolders.size, renderInfo.isSticky)
         _componentTreeHolders.add(createComponentTreeHolder(renderInfo))
       }
     }
@@ -1110,6 +1138,8 @@ class RecyclerBinder private constructor(builder: Builder) :
         throw RuntimeException("Trying to do a sync insert when using asynchronous mutations!")
       }
       _componentTreeHolders.add(position, holder)
+      stickyPositions.insert(position, renderInfo.isSticky)
+      invalidateIncrementalRange()
       renderInfoViewCreatorController.maybeTrackViewCreator(renderInfo)
     }
 
@@ -1234,6 +1264,8 @@ class RecyclerBinder private constructor(builder: Builder) :
           throw RuntimeException("Trying to do a sync insert when using asynchronous mutations!")
         }
         _componentTreeHolders.add(position + i, holder)
+        stickyPositions.insert(position + i, renderInfo.isSticky)
+        invalidateIncrementalRange()
         renderInfoViewCreatorController.maybeTrackViewCreator(renderInfo)
       }
     }
@@ -1298,6 +1330,7 @@ class RecyclerBinder private constructor(builder: Builder) :
       requireNotNull(renderInfo)
       renderInfoViewCreatorController.maybeTrackViewCreator(renderInfo)
       updateHolder(holder, renderInfo)
+      stickyPositions.update(position, renderInfo.isSticky)
     }
 
     // If this item is rendered with a view (or was rendered with a view before now) we need to
@@ -1350,6 +1383,7 @@ class RecyclerBinder private constructor(builder: Builder) :
 
         renderInfoViewCreatorController.maybeTrackViewCreator(newRenderInfo)
         updateHolder(holder, newRenderInfo)
+        stickyPositions.update(targetPosition, newRenderInfo.isSticky)
       }
     }
 
@@ -1377,11 +1411,14 @@ class RecyclerBinder private constructor(builder: Builder) :
         return
       }
       holder = _componentTreeHolders.removeAt(fromPosition)
+      stickyPositions.remove(fromPosition)
       if (handleIndexOutOfBoundsException(
           "moveItemTo", _componentTreeHolders.size, toPosition, true, null, errorHandler)) {
         return
       }
       _componentTreeHolders.add(toPosition, holder)
+      stickyPositions.insert(toPosition, holder.renderInfo.isSticky)
+      invalidateIncrementalRange()
       isNewPositionInRange =
           estimatedViewportCount != UNSET &&
               (toPosition >= currentFirstVisiblePosition - (estimatedViewportCount * rangeRatio)) &&
@@ -1390,6 +1427,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     val isTreeValid = holder.isTreeValid
 
     if (isTreeValid && !isNewPositionInRange) {
+      outOfRangeTreeCache?.remove(holder)
       holder.acquireStateAndReleaseTree()
     }
     internalAdapter.notifyItemMoved(fromPosition, toPosition)
@@ -1419,7 +1457,10 @@ class RecyclerBinder private constructor(builder: Builder) :
         return
       }
       holder = _componentTreeHolders.removeAt(position)
+      stickyPositions.remove(position)
+      invalidateIncrementalRange()
     }
+    holder?.let { outOfRangeTreeCache?.remove(it) }
     internalAdapter.notifyItemRemoved(position)
 
     viewportManager.setShouldUpdate(viewportManager.removeAffectsVisibleRange(position, 1))
@@ -1470,6 +1511,9 @@ class RecyclerBinder private constructor(builder: Builder) :
           return
         }
         val holder = _componentTreeHolders.removeAt(position)
+        stickyPositions.remove(position)
+        invalidateIncrementalRange()
+        outOfRangeTreeCache?.remove(holder)
         toRelease.add(holder)
       }
     }
@@ -1781,6 +1825,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     // calculated range and its layout has not been calculated yet.
     holder.computeLayoutSync(
         checkNotNull(componentContext), childrenWidthSpec, childrenHeightSpec, null)
+    retainOutOfTraversalTree(position)
 
     return holder.componentTree
   }
@@ -1885,6 +1930,7 @@ class RecyclerBinder private constructor(builder: Builder) :
         }
         // We have never measured before or the measures are not valid so we need to measure now.
         lastWidthSpec = widthSpec
+        invalidateIncrementalRange()
         lastHeightSpec = heightSpec
 
         if (!hasComputedRange()) {
@@ -1931,6 +1977,7 @@ class RecyclerBinder private constructor(builder: Builder) :
         }
 
         measuredSize = Size(outSize.width, outSize.height)
+        invalidateIncrementalRange()
         _isMeasured.set(true)
 
         componentWarmer?.setComponentTreeHolderFactory(componentTreeHolderPreparer)
@@ -2717,6 +2764,16 @@ class RecyclerBinder private constructor(builder: Builder) :
   @GuardedBy("this")
   override fun isValidPosition(position: Int): Boolean = position in _componentTreeHolders.indices
 
+  @UiThread
+  @GuardedBy("this")
+  override fun findStickyPositionAtOrBefore(position: Int): Int =
+      stickyPositions.findAtOrBefore(position)
+
+  @UiThread
+  @GuardedBy("this")
+  override fun findStickyPositionAtOrAfter(position: Int): Int =
+      stickyPositions.findAtOrAfter(position)
+
   class RangeCalculationResult {
     // The estimated number of items needed to fill the viewport.
     var estimatedViewportCount: Int = 0
@@ -2735,7 +2792,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     currentFirstVisiblePosition = firstVisiblePosition
     currentLastVisiblePosition = lastVisiblePosition
     viewportManager.resetShouldUpdate()
-    maybePostUpdateViewportAndComputeRange()
+    maybePostUpdateViewportAndComputeRange(canComputeRangeIncrementally = true)
   }
 
   /**
@@ -2801,19 +2858,29 @@ class RecyclerBinder private constructor(builder: Builder) :
   }
 
   @Suppress("DEPRECATION")
-  private fun maybePostUpdateViewportAndComputeRange() {
+  private fun maybePostUpdateViewportAndComputeRange(
+      canComputeRangeIncrementally: Boolean = false
+  ) {
     val mountedView = this.mountedView
     if (mountedView != null && viewportManager.shouldUpdate()) {
       mountedView.removeCallbacks(updateViewportRunnable)
       ViewCompat.postOnAnimation(mountedView, updateViewportRunnable)
     }
-    computeRange(currentFirstVisiblePosition, currentLastVisiblePosition)
+    computeRange(
+        currentFirstVisiblePosition,
+        currentLastVisiblePosition,
+        canComputeIncrementally = canComputeRangeIncrementally)
+  }
+
+  private fun invalidateIncrementalRange() {
+    synchronized(this) { incrementalRangeTracker?.invalidate() }
   }
 
   private fun computeRange(
       firstVisible: Int,
       lastVisible: Int,
-      traverser: RecyclerRangeTraverser = rangeTraverser
+      traverser: RecyclerRangeTraverser = rangeTraverser,
+      canComputeIncrementally: Boolean = false
   ) {
     var firstVisibleToUse = firstVisible
     var lastVisibleToUse = lastVisible
@@ -2822,6 +2889,12 @@ class RecyclerBinder private constructor(builder: Builder) :
     val rangeEnd: Int
     val treeHoldersSize: Int
     val didRangeExtremitiesChange: Boolean
+    var previousRangeStart = 0
+    var previousRangeEnd = -1
+    var newRangeStart = 0
+    var newRangeEnd = -1
+    var retainedPositions: IntArray? = null
+    var generation = NO_TRAVERSAL_GENERATION
 
     synchronized(this) {
       if (!isMeasured || estimatedViewportCount == UNSET) {
@@ -2848,7 +2921,40 @@ class RecyclerBinder private constructor(builder: Builder) :
       } else {
         didRangeExtremitiesChange = false
       }
+
+      val tracker = incrementalRangeTracker
+      if (tracker != null) {
+        if (canComputeIncrementally &&
+            traverser === rangeTraverser &&
+            tracker.canComputeIncrementally(treeHoldersSize)) {
+          previousRangeStart = tracker.rangeStart
+          previousRangeEnd = tracker.rangeEnd
+          retainedPositions = tracker.takeRetainedPositions()
+          generation = tracker.onIncrementalRangeComputed(rangeStart, rangeEnd)
+          newRangeStart = tracker.rangeStart
+          newRangeEnd = tracker.rangeEnd
+        } else {
+          generation = tracker.onFullRangeComputed(treeHoldersSize, rangeStart, rangeEnd)
+        }
+      }
+    }
+
+    if (retainedPositions != null) {
+      computeRangeIncrementally(
+          rangeStart,
+          rangeEnd,
+          treeHoldersSize,
+          generation,
+          previousRangeStart,
+          previousRangeEnd,
+          newRangeStart,
+          newRangeEnd,
+          retainedPositions)
+      return
     }
+
+    var isTraversalComplete = true
+
     val processor =
         when (recyclingStrategy) {
           RecyclingStrategy.RETAIN_MAXIMUM_RANGE ->
@@ -2858,11 +2964,66 @@ class RecyclerBinder private constructor(builder: Builder) :
               }
           else -> // RecyclingStrategy.DEFAULT
           RecyclerRangeTraverser.Processor { index ->
-                computeRangeLayoutAt(index, rangeStart, rangeEnd, treeHoldersSize)
+                computeRangeLayoutAt(index, rangeStart, rangeEnd, treeHoldersSize, generation)
+                    .also { isTraversalComplete = it }
               }
         }
 
     traverser.traverse(0, treeHoldersSize, firstVisibleToUse, lastVisibleToUse, processor)
+
+    if (isTraversalComplete && generation != NO_TRAVERSAL_GENERATION) {
+      synchronized(this) { incrementalRangeTracker?.onTraversalCompleted(generation) }
+    }
+  }
+
+  /**
+   * Only processes the items that entered or left the range since the last computation, plus the
+   * items outside of the range that were still holding a tree, instead of every item.
+   */
+  private fun computeRangeIncrementally(
+      rangeStart: Int,
+      rangeEnd: Int,
+      treeHoldersSize: Int,
+      generation: Int,
+      previousRangeStart: Int,
+      previousRangeEnd: Int,
+      newRangeStart: Int,
+      newRangeEnd: Int,
+      retainedPositions: IntArray
+  ) {
+    val process = { index: Int ->
+      computeRangeLayoutAt(index, rangeStart, rangeEnd, treeHoldersSize, generation)
+    }
+
+    val completed =
+        // Items entering the range first, as they are the closest ones to the viewport.
+        IncrementalRangeTracker.forEachInDifference(
+            newRangeStart, newRangeEnd, previousRangeStart, previousRangeEnd, process) &&
+            IncrementalRangeTracker.forEachInDifference(
+                previousRangeStart, previousRangeEnd, newRangeStart, newRangeEnd, process) &&
+            retainedPositions.all { position ->
+              (position in newRangeStart..newRangeEnd) || process(position)
+            }
+
+    if (completed) {
+      synchronized(this) { incrementalRangeTracker?.onTraversalCompleted(generation) }
+    }
+    // Otherwise the items changed or another range was computed meanwhile, and the tracker stays
+    // invalid until a full traversal completes.
+  }
+
+  /**
+   * Retains a position whose tree was created outside of a range traversal (e.g. when it is bound
+   * or prefetched by the RecyclerView before the range catches up), so that the next incremental
+   * computation releases it if it is out of the range.
+   */
+  private fun retainOutOfTraversalTree(position: Int) {
+    synchronized(this) {
+      val tracker = incrementalRangeTracker ?: return
+      if (position < tracker.rangeStart || position > tracker.rangeEnd) {
+        tracker.retain(position)
+      }
+    }
   }
 
   /** @return Whether or not to continue layout computation for current range */
@@ -2870,7 +3031,8 @@ class RecyclerBinder private constructor(builder: Builder) :
       index: Int,
       rangeStart: Int,
       rangeEnd: Int,
-      treeHoldersSize: Int
+      treeHoldersSize: Int,
+      generation: Int = NO_TRAVERSAL_GENERATION
   ): Boolean {
     val holder: ComponentTreeHolder
     val childrenWidthSpec: Int
@@ -2883,17 +3045,35 @@ class RecyclerBinder private constructor(builder: Builder) :
         return false
       }
 
+      // Another range computation started since this one, and it visits every item this one
+      // would have (it is full unless this one completed). Bail so that this traversal doesn't
+      // retain positions or lay out items based on an outdated range.
+      if (generation != NO_TRAVERSAL_GENERATION &&
+          incrementalRangeTracker?.isCurrent(generation) == false) {
+        return false
+      }
+
       holder = _componentTreeHolders[index]
 
       if (holder.renderInfo.rendersView()) {
         return true
       }
 
+      if ((index < rangeStart || index > rangeEnd) &&
+          (holder.renderInfo.isSticky ||
+              (holder.componentTree != null && outOfRangeTreeCache?.contains(holder) != true))) {
+        // Sticky items and items that still have a tree need to be processed again, even if they
+        // don't enter or leave the range.
+        incrementalRangeTracker?.retain(index)
+      }
+
       childrenWidthSpec = getActualChildrenWidthSpec(holder, measuredSize, lastWidthSpec)
       childrenHeightSpec = getActualChildrenHeightSpec(holder, measuredSize, lastHeightSpec)
     }
 
     if ((index >= rangeStart || holder.renderInfo.isSticky) && index <= rangeEnd) {
+      // A cached tree is used as is, and is only laid out again if it is no longer valid.
+      outOfRangeTreeCache?.remove(holder)
       if (!holder.isTreeValidForSizeSpecs(childrenWidthSpec, childrenHeightSpec)) {
         holder.computeLayoutAsync(
             checkNotNull(componentContext), childrenWidthSpec, childrenHeightSpec)
@@ -2940,6 +3120,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     }
 
     if (shouldTryComputeLayout) {
+      outOfRangeTreeCache?.remove(holder)
       if (!holder.isTreeValidForSizeSpecs(childrenWidthSpec, childrenHeightSpec)) {
         holder.computeLayoutAsync(
             checkNotNull(componentContext), childrenWidthSpec, childrenHeightSpec)
@@ -2953,7 +3134,7 @@ class RecyclerBinder private constructor(builder: Builder) :
 
   private fun maybeReleaseOutOfRangeTree(holder: ComponentTreeHolder) {
     if (ThreadUtils.isMainThread) {
-      maybeAcquireStateAndReleaseTree(holder)
+      cacheOrReleaseOutOfRangeTree(holder)
     } else {
       synchronized(releaseTreeRunnableLock) {
         componentTreeHoldersToRelease.addLast(holder)
@@ -2965,6 +3146,49 @@ class RecyclerBinder private constructor(builder: Builder) :
     }
   }
 
+  @UiThread
+  private fun cacheOrReleaseOutOfRangeTree(holder: ComponentTreeHolder) {
+    val cache = outOfRangeTreeCache
+    val componentTree = holder.componentTree
+    if (cache == null ||
+        componentTree == null ||
+        componentTree.lithoView != null ||
+        !canReleaseTree(holder)) {
+      maybeAcquireStateAndReleaseTree(holder)
+      return
+    }
+
+    releaseEvictedTrees(cache.put(holder, componentTree.committedMountableOutputCount))
+  }
+
+  @UiThread
+  private fun releaseEvictedTrees(evicted: List<ComponentTreeHolder>) {
+    for (i in evicted.indices) {
+      // The holder might have been bound to a view again since it was cached.
+      maybeAcquireStateAndReleaseTree(evicted[i])
+    }
+  }
+
+  /**
+   * Releases the trees kept for items out of the range (see
+   * [RecyclerBinderConfig.outOfRangeTreeCacheBudget]) in response to
+   * [ComponentCallbacks2.onTrimMemory]. Half of the budget is released on
+   * [ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW], and all of it on more severe levels.
+   */
+  @Suppress("DEPRECATION")
+  @UiThread
+  fun onTrimMemory(level: Int) {
+    ThreadUtils.assertMainThread()
+    val cache = outOfRangeTreeCache ?: return
+    val maxSize =
+        when {
+          level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL -> 0
+          level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW -> cache.budget / 2
+          else -> return
+        }
+    releaseEvictedTrees(cache.trimToSize(maxSize))
+  }
+
   private fun getReverseLayout(): Boolean {
     val layoutManager = layoutInfo.getLayoutManager()
     return if (layoutManager is LinearLayoutManager) {
@@ -3294,6 +3518,7 @@ class RecyclerBinder private constructor(builder: Builder) :
           val size = Size()
           componentTreeHolder.computeLayoutSync(
               checkNotNull(componentContext), childrenWidthSpec, childrenHeightSpec, size)
+          this@RecyclerBinder.retainOutOfTraversalTree(normalizedPosition)
         }
         val isOrientationVertical = layoutInfo.getScrollDirection() == VERTICAL
         val width =
@@ -3531,6 +3756,7 @@ class RecyclerBinder private constructor(builder: Builder) :
   private fun updateHolder(holder: ComponentTreeHolder, renderInfo: RenderInfo) {
     val previousRenderInfo = holder.renderInfo
     holder.renderInfo = renderInfo
+    invalidateIncrementalRange()
     if (layoutHandlerFactory?.shouldUpdateLayoutHandler(previousRenderInfo, renderInfo) == true) {
       holder.updateLayoutHandler(layoutHandlerFactory.createLayoutCalculationHandler(renderInfo))
     }
@@ -3696,6 +3922,20 @@ class RecyclerBinder private constructor(builder: Builder) :
     this.componentWarmer = recyclerBinderConfig.componentWarmer
     this.startupLogger = builder.startupLogger
     this.recyclingStrategy = recyclerBinderConfig.recyclingStrategy
+    this.incrementalRangeTracker =
+        if (recyclerBinderConfig.incrementalRangeComputation &&
+            !isCircular &&
+            recyclingStrategy == RecyclingStrategy.DEFAULT) {
+          IncrementalRangeTracker()
+        } else {
+          null
+        }
+    this.outOfRangeTreeCache =
+        if (recyclerBinderConfig.outOfRangeTreeCacheBudget > 0) {
+          OutOfRangeTreeCache(recyclerBinderConfig.outOfRangeTreeCacheBudget)
+        } else {
+          null
+        }
     this.errorHandler = builder.errorHandler
     this.poolScope = builder.poolScope
   }
@@ -3761,6 +4001,7 @@ class RecyclerBinder private constructor(builder: Builder) :
     private val dummyRect = Rect()
     private val emptyRect = Rect()
     private val TAG: String = RecyclerBinder::class.java.simpleName
+    private const val NO_TRAVERSAL_GENERATION = 0
     private const val POST_UPDATE_VIEWPORT_AND_COMPUTE_RANGE_MAX_ATTEMPTS = 3
     private const val DATA_RENDERED_CALLBACKS_QUEUE_MAX_SIZE = 20
     private const val DATA_RENDERED_NOT_TRIGGERED = "RecyclerBinder:DataRenderedNotTriggered"
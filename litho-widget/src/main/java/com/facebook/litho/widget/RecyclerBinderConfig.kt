@@ -145,6 +145,20 @@ data class RecyclerBinderConfig(
     @JvmField
     @RecyclerBinder.RecyclingStrategy
     val recyclingStrategy: Int = RecyclerBinder.RecyclingStrategy.DEFAULT,
+    /**
+     * Experimental. If true, scrolling will only compute or release the layouts of the items that
+     * entered or left the range since the last computation, instead of visiting every item of the
+     * adapter. Only applies to non circular lists using [RecyclerBinder.RecyclingStrategy.DEFAULT].
+     */
+    @JvmField val incrementalRangeComputation: Boolean = false,
+    /**
+     * Experimental. If greater than 0, the trees of items leaving the range are retained, with
+     * their last committed layout, instead of being released, so that scrolling back to them
+     * doesn't need to resolve and lay them out again. The budget is the total number of mountable
+     * outputs of the retained layouts, and the least recently retained trees are released first.
+     * Retained trees are also released on [RecyclerBinder.onTrimMemory].
+     */
+    @JvmField val outOfRangeTreeCacheBudget: Int = 0,
 ) {
 
   init {
@@ -155,6 +169,9 @@ data class RecyclerBinderConfig(
     }
 
     require(rangeRatio >= 0) { "range ratio has to be bigger or equal to 0: $rangeRatio" }
+    require(outOfRangeTreeCacheBudget >= 0) {
+      "out of range tree cache budget has to be bigger or equal to 0: $outOfRangeTreeCacheBudget"
+    }
   }
 
   companion object {
@@ -203,6 +220,8 @@ class RecyclerBinderConfigBuilder internal constructor(configuration: RecyclerBi
   private var crossAxisWrapMode = configuration.crossAxisWrapMode
   private var paginationStrategy = configuration.paginationStrategy
   private var recyclingStrategy = configuration.recyclingStrategy
+  private var incrementalRangeComputation = configuration.incrementalRangeComputation
+  private var outOfRangeTreeCacheBudget = configuration.outOfRangeTreeCacheBudget
 
   fun isCircular(isCircular: Boolean): RecyclerBinderConfigBuilder = also {
     this.isCircular = isCircular
@@ -268,6 +287,14 @@ class RecyclerBinderConfigBuilder internal constructor(configuration: RecyclerBi
       @RecyclerBinder.RecyclingStrategy strategy: Int
   ): RecyclerBinderConfigBuilder = also { this.recyclingStrategy = strategy }
 
+  fun incrementalRangeComputation(enabled: Boolean): RecyclerBinderConfigBuilder = also {
+    this.incrementalRangeComputation = enabled
+  }
+
+  fun outOfRangeTreeCacheBudget(budget: Int): RecyclerBinderConfigBuilder = also {
+    this.outOfRangeTreeCacheBudget = budget
+  }
+
   fun build(): RecyclerBinderConfig {
     return RecyclerBinderConfig(
         componentsConfiguration = componentsConfiguration,
@@ -286,6 +313,8 @@ class RecyclerBinderConfigBuilder internal constructor(configuration: RecyclerBi
         crossAxisWrapMode = crossAxisWrapMode,
         paginationStrategy = paginationStrategy,
         recyclingStrategy = recyclingStrategy,
+        incrementalRangeComputation = incrementalRangeComputation,
+        outOfRangeTreeCacheBudget = outOfRangeTreeCacheBudget,
     )
   }
 }
@@ -35,6 +35,7 @@ internal class StickyHeaderControllerImpl(private val hasStickyHeader: HasSticky
   private var layoutManager: RecyclerView.LayoutManager? = null
   private var lastTranslatedView: View? = null
   private var previousStickyHeaderPosition = RecyclerView.NO_POSITION
+  private val stickyHeaderIndex = hasStickyHeader as? HasStickyHeaderIndex
 
   override fun init(sectionsRecyclerView: SectionsRecyclerView) {
     if (this.sectionsRecyclerView != null) {
@@ -141,15 +142,15 @@ internal class StickyHeaderControllerImpl(private val hasStickyHeader: HasSticky
       // Translate sticky header
       val lastVisiblePosition = hasStickyHeader.findLastVisibleItemPosition()
       var translationY = 0
-      for (i in firstVisiblePosition..lastVisiblePosition) {
-        if (hasStickyHeader.isSticky(i)) {
-          val nextStickyHeader = checkNotNull(layoutManager.findViewByPosition(i))
-          val offsetBetweenStickyHeaders =
-              nextStickyHeader.top - sectionsRecyclerView.stickyHeader.bottom +
-                  sectionsRecyclerView.paddingTop
-          translationY = min(offsetBetweenStickyHeaders, 0)
-          break
-        }
+      val nextStickyHeaderPosition =
+          findNextStickyHeaderPosition(firstVisiblePosition, lastVisiblePosition)
+      if (nextStickyHeaderPosition != RecyclerView.NO_POSITION) {
+        val nextStickyHeader =
+            checkNotNull(layoutManager.findViewByPosition(nextStickyHeaderPosition))
+        val offsetBetweenStickyHeaders =
+            nextStickyHeader.top - sectionsRecyclerView.stickyHeader.bottom +
+                sectionsRecyclerView.paddingTop
+        translationY = min(offsetBetweenStickyHeaders, 0)
       }
       sectionsRecyclerView.setStickyHeaderVerticalOffset(translationY)
       previousStickyHeaderPosition = stickyHeaderPosition
@@ -165,10 +166,22 @@ internal class StickyHeaderControllerImpl(private val hasStickyHeader: HasSticky
 
   @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
   fun findStickyHeaderPosition(currentFirstVisiblePosition: Int): Int {
+    if (stickyHeaderIndex != null) {
+      return stickyHeaderIndex.findStickyPositionAtOrBefore(currentFirstVisiblePosition)
+    }
     for (i in currentFirstVisiblePosition downTo 0) if (hasStickyHeader.isSticky(i)) return i
     return RecyclerView.NO_POSITION
   }
 
+  private fun findNextStickyHeaderPosition(firstPosition: Int, lastPosition: Int): Int {
+    if (stickyHeaderIndex != null) {
+      val position = stickyHeaderIndex.findStickyPositionAtOrAfter(firstPosition)
+      return if (position <= lastPosition) position else RecyclerView.NO_POSITION
+    }
+    for (i in firstPosition..lastPosition) if (hasStickyHeader.isSticky(i)) return i
+    return RecyclerView.NO_POSITION
+  }
+
   companion object {
     private const val FIRST_VISIBLE_STICKY_HEADER_NULL =
         "StickyHeaderControllerImpl:FirstVisibleStickyHeaderNull"
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.litho.widget
+
+import androidx.recyclerview.widget.RecyclerView
+import java.util.Arrays
+
+/**
+ * The sorted positions of the sticky items of a list, kept up to date as items are inserted,
+ * removed, moved and updated. Finding the closest sticky item to a position is then a binary
+ * search, instead of a walk over every position in between.
+ *
+ * Mutations cost O(sticky items), which are expected to be a small fraction of all the items.
+ */
+internal class StickyPositionIndex {
+
+  private var positions = IntArray(INITIAL_CAPACITY)
+  private var size = 0
+
+  val count: Int
+    get() = size
+
+  /** Inserts an item at [position], shifting the items at or after it. */
+  fun insert(position: Int, isSticky: Boolean) {
+    val index = lowerBound(position)
+    for (i in index until size) {
+      positions[i]++
+    }
+    if (isSticky) {
+      add(index, position)
+    }
+  }
+
+  /** Removes the item at [position], shifting the items after it. */
+  fun remove(position: Int) {
+    var index = lowerBound(position)
+    if (index < size && positions[index] == position) {
+      removeAt(index)
+    }
+    while (index < size) {
+      positions[index]--
+      index++
+    }
+  }
+
+  /** Moves the item at [fromPosition] to [toPosition]. */
+  fun move(fromPosition: Int, toPosition: Int) {
+    val isSticky = contains(fromPosition)
+    remove(fromPosition)
+    insert(toPosition, isSticky)
+  }
+
+  /** Updates whether the item at [position] is sticky, without shifting any item. */
+  fun update(position: Int, isSticky: Boolean) {
+    val index = lowerBound(position)
+    val isIndexed = index < size && positions[index] == position
+    if (isSticky && !isIndexed) {
+      add(index, position)
+    } else if (!isSticky && isIndexed) {
+      removeAt(index)
+    }
+  }
+
+  fun clear() {
+    size = 0
+  }
+
+  fun contains(position: Int): Boolean {
+    val index = lowerBound(position)
+    return index < size && positions[index] == position
+  }
+
+  /**
+   * @return the position of the last sticky item at or before [position], or
+   *   [RecyclerView.NO_POSITION] if there is none.
+   */
+  fun findAtOrBefore(position: Int): Int {
+    val index = lowerBound(position + 1) - 1
+    return if (index >= 0) positions[index] else RecyclerView.NO_POSITION
+  }
+
+  /**
+   * @return the position of the first sticky item at or after [position], or
+   *   [RecyclerView.NO_POSITION] if there is none.
+   */
+  fun findAtOrAfter(position: Int): Int {
+    val index = lowerBound(position)
+    return if (index < size) positions[index] else RecyclerView.NO_POSITION
+  }
+
+  /** @return the index of the first indexed position which is at or after [position]. */
+  private fun lowerBound(position: Int): Int {
+    val index = Arrays.binarySearch(positions, 0, size, position)
+    return if (index >= 0) index else -index - 1
+  }
+
+  private fun add(index: Int, position: Int) {
+    if (size == positions.size) {
+      positions = positions.copyOf(size * 2)
+    }
+    System.arraycopy(positions, index, positions, index + 1, size - index)
+    positions[index] = position
+    size++
+  }
+
+  private fun removeAt(index: Int) {
+    System.arraycopy(positions, index + 1, positions, index, size - index - 1)
+    size--
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 8
+  }
+}